@@ -0,0 +1,78 @@
+package com.project.ayd.mechanic_workshop.features.reports.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Ejecuta ReportGeneratorBenchmark con los profilers de GC y de pico de heap, guarda el
+ * resultado en target/jmh-report-generators.json y muestra el costo por fila.
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="-p rows=100,10000 -p dataset=PARTS_USAGE"
+ * </pre>
+ *
+ * Los argumentos son los de la línea de comandos de JMH.
+ */
+public final class ReportBenchmarkRunner {
+
+    private static final String RESULT_FILE = "target/jmh-report-generators.json";
+
+    private ReportBenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Maven pasa todos los argumentos como uno solo
+        String[] jmhArgs = Arrays.stream(args)
+                .flatMap(arg -> Arrays.stream(arg.trim().split("\\s+")))
+                .filter(arg -> !arg.isBlank())
+                .toArray(String[]::new);
+        CommandLineOptions commandLine = new CommandLineOptions(jmhArgs);
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .addProfiler(PeakHeapProfiler.class);
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include(ReportGeneratorBenchmark.class.getSimpleName());
+        }
+        if (!commandLine.getResult().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON).result(RESULT_FILE);
+        }
+
+        Collection<RunResult> results = new Runner(options.build()).run();
+        printPerRow(results);
+    }
+
+    private static void printPerRow(Collection<RunResult> results) {
+        System.out.println();
+        System.out.printf("%-10s %-22s %10s %14s %14s %12s%n",
+                "Format", "Dataset", "Rows", "us/row", "bytes/row", "peak MB");
+
+        for (RunResult result : results) {
+            String format = result.getParams().getBenchmark()
+                    .substring(result.getParams().getBenchmark().lastIndexOf('.') + 1);
+            String dataset = result.getParams().getParam("dataset");
+            int rows = Integer.parseInt(result.getParams().getParam("rows"));
+
+            // Puntaje en ms por operación; una operación es el reporte completo
+            double microsPerRow = result.getPrimaryResult().getScore() * 1000 / rows;
+            Result<?> allocation = result.getSecondaryResults().get("gc.alloc.rate.norm");
+            Result<?> peakHeap = result.getSecondaryResults().get("peak.heap");
+
+            System.out.printf("%-10s %-22s %10d %14.3f %14s %12s%n",
+                    format, dataset, rows, microsPerRow,
+                    allocation != null ? String.format("%.1f", allocation.getScore() / rows) : "-",
+                    peakHeap != null ? String.format("%.1f", peakHeap.getScore()) : "-");
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.project.ayd.mechanic_workshop.features.reports.benchmark;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Datos sintéticos con las mismas columnas y tipos que devuelven las consultas de
+ * ReportRepository (Long para COUNT/SUM de enteros, BigDecimal para montos, Timestamp).
+ * Se usa una semilla fija para que todas las corridas generen exactamente los mismos datos.
+ */
+public enum ReportDataset {
+
+    CLIENT_HISTORY("REPORTE DE HISTORIAL DE CLIENTES",
+            new String[] { "Cliente", "CUI", "Email", "Trabajos Totales", "Total Gastado", "Última Visita",
+                    "Vehículos", "Tipos de Servicio" }) {
+        @Override
+        Object[] row(int index, SplittableRandom random) {
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            return new Object[] {
+                    name,
+                    String.format("%013d", 1_000_000_000_000L + index),
+                    "cliente" + index + "@correo.com",
+                    (long) random.nextInt(1, 40),
+                    money(random, 150, 45_000),
+                    Timestamp.valueOf(BASE_DATE.plusMinutes(random.nextInt(0, 525_600))),
+                    (long) random.nextInt(1, 4),
+                    String.join(", ", SERVICE_TYPES[random.nextInt(SERVICE_TYPES.length)],
+                            SERVICE_TYPES[random.nextInt(SERVICE_TYPES.length)])
+            };
+        }
+    },
+
+    PARTS_USAGE("REPORTE DE USO DE REPUESTOS",
+            new String[] { "Repuesto", "Categoría", "Cantidad Total", "Costo Total", "Trabajos",
+                    "Precio Promedio" }) {
+        @Override
+        Object[] row(int index, SplittableRandom random) {
+            return new Object[] {
+                    PARTS[random.nextInt(PARTS.length)] + " " + index,
+                    CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    (long) random.nextInt(1, 500),
+                    money(random, 50, 80_000),
+                    (long) random.nextInt(1, 200),
+                    money(random, 10, 2_500)
+            };
+        }
+    },
+
+    EMPLOYEE_PERFORMANCE("REPORTE DE TRABAJOS POR EMPLEADO",
+            new String[] { "Empleado", "ID", "Trabajos Totales", "Trabajos Completados", "Tiempo Promedio",
+                    "Ingresos Totales", "Tasa Completado" }) {
+        @Override
+        Object[] row(int index, SplittableRandom random) {
+            long total = random.nextInt(1, 300);
+            long completed = random.nextLong(0, total + 1);
+            return new Object[] {
+                    FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                            + LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                    index + 1,
+                    total,
+                    completed,
+                    BigDecimal.valueOf(random.nextDouble(0.5, 40)).setScale(2, RoundingMode.HALF_UP),
+                    money(random, 500, 250_000),
+                    BigDecimal.valueOf(completed * 100.0 / total).setScale(2, RoundingMode.HALF_UP)
+            };
+        }
+    };
+
+    private static final long SEED = 20240801L;
+    private static final LocalDateTime BASE_DATE = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+    private static final String[] FIRST_NAMES = { "Juan", "María", "Carlos", "Ana", "Luis", "Sofía", "Pedro",
+            "Lucía", "Jorge", "Elena" };
+    private static final String[] LAST_NAMES = { "López", "García", "Pérez", "Hernández", "Morales", "Castillo",
+            "Ramírez", "Méndez" };
+    private static final String[] SERVICE_TYPES = { "Mantenimiento Preventivo", "Mantenimiento Correctivo",
+            "Diagnóstico", "Cambio de Aceite", "Alineación y Balanceo" };
+    private static final String[] PARTS = { "Filtro de aceite", "Pastillas de freno", "Bujía", "Amortiguador",
+            "Batería", "Correa de distribución" };
+    private static final String[] CATEGORIES = { "Motor", "Frenos", "Suspensión", "Eléctrico", "Filtros" };
+
+    private final String title;
+    private final String[] headers;
+
+    ReportDataset(String title, String[] headers) {
+        this.title = title;
+        this.headers = headers;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String[] getHeaders() {
+        return headers;
+    }
+
+    public List<Object[]> generate(int rows) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Object[]> data = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            data.add(row(i, random));
+        }
+        return data;
+    }
+
+    abstract Object[] row(int index, SplittableRandom random);
+
+    private static BigDecimal money(SplittableRandom random, double min, double max) {
+        return BigDecimal.valueOf(random.nextDouble(min, max)).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,117 @@
+package com.project.ayd.mechanic_workshop.features.reports.benchmark;
+
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
+import com.project.ayd.mechanic_workshop.features.reports.storage.ReportCompression;
+import com.project.ayd.mechanic_workshop.features.reports.utils.CSVUtil;
+import com.project.ayd.mechanic_workshop.features.reports.utils.ExcelGenerator;
+import com.project.ayd.mechanic_workshop.features.reports.utils.PDFGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiempo de generación de un reporte tabular completo por formato, con el mismo camino
+ * que usa ReportServiceImpl: generateTableReport para PDF y Excel, CSVUtil.writeCSV para la
+ * exportación CSV en streaming y, para el CSV almacenado, CSVUtil.writeCSV sobre gzip como
+ * en generateCSVReport con compressCsv activo. La salida se descarta para medir solo a los
+ * generadores y no al disco.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx4g" })
+public class ReportGeneratorBenchmark {
+
+    private static final LocalDateTime START_DATE = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime END_DATE = LocalDateTime.of(2024, 12, 31, 23, 59, 59);
+
+    @Param({ "100", "10000", "100000", "1000000" })
+    public int rows;
+
+    @Param
+    public ReportDataset dataset;
+
+    private List<Object[]> data;
+    private PDFGenerator pdfGenerator;
+    private ExcelGenerator excelGenerator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = dataset.generate(rows);
+        pdfGenerator = new PDFGenerator();
+        excelGenerator = new ExcelGenerator(new ReportProperties());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data = null;
+    }
+
+    @Benchmark
+    public long pdf() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        pdfGenerator.generateTableReport(out, dataset.getTitle(), dataset.getHeaders(), data, START_DATE, END_DATE);
+        return out.getCount();
+    }
+
+    @Benchmark
+    public long excel() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        excelGenerator.generateTableReport(out, dataset.getTitle(), dataset.getHeaders(), data, START_DATE,
+                END_DATE);
+        return out.getCount();
+    }
+
+    @Benchmark
+    public long csv() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        CSVUtil.writeCSV(out, dataset.getHeaders(), data.stream());
+        return out.getCount();
+    }
+
+    @Benchmark
+    public long csvStored() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        try (OutputStream gzip = ReportCompression.gzip(out)) {
+            CSVUtil.writeCSV(gzip, dataset.getHeaders(), data.stream());
+        }
+        return out.getCount();
+    }
+
+    // Descarta los bytes pero los cuenta, para que la JVM no elimine la escritura
+    static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
@@ -81,11 +81,12 @@ public class SecurityConfig {
                         // Public endpoints
                         .requestMatchers("/auth/**").permitAll()
                         .requestMatchers("/health/**").permitAll()
-                        .requestMatchers("/actuator/**").permitAll()
+                        .requestMatchers("/actuator/health/**").permitAll()
                         .requestMatchers("/error").permitAll()
 
                         // Admin endpoints
                         .requestMatchers("/admin/**").hasRole("ADMINISTRADOR")
+                        .requestMatchers("/actuator/**").hasRole("ADMINISTRADOR")
 
                         // Employee endpoints
                         .requestMatchers("/employees/**").hasAnyRole("ADMINISTRADOR", "EMPLEADO")
@@ -15,6 +15,8 @@ import com.project.ayd.mechanic_workshop.features.billing.repository.QuotationRe
 import com.project.ayd.mechanic_workshop.features.workorders.entity.Work;
 import com.project.ayd.mechanic_workshop.features.workorders.repository.WorkRepository;
 import com.project.ayd.mechanic_workshop.features.billing.events.InvoiceCreatedEvent;
+import com.project.ayd.mechanic_workshop.features.reports.enums.DataChangeSource;
+import com.project.ayd.mechanic_workshop.features.reports.events.ReportDataChangedEvent;
 import com.project.ayd.mechanic_workshop.shared.exception.ResourceNotFoundException;
 import com.project.ayd.mechanic_workshop.shared.exception.BusinessException;
 import lombok.RequiredArgsConstructor;
@@ -91,6 +93,7 @@ public class InvoiceServiceImpl implements InvoiceService {
 
                 // Publicar evento de factura creada
                 publishInvoiceCreatedEvent(invoice);
+                eventPublisher.publishEvent(ReportDataChangedEvent.of(DataChangeSource.INVOICE, invoice.getId()));
 
                 return mapToInvoiceResponse(invoice);
         }
@@ -180,6 +183,7 @@ public class InvoiceServiceImpl implements InvoiceService {
                 invoice.setUpdatedAt(LocalDateTime.now());
 
                 invoice = invoiceRepository.save(invoice);
+                eventPublisher.publishEvent(ReportDataChangedEvent.of(DataChangeSource.INVOICE, invoice.getId()));
                 return mapToInvoiceResponse(invoice);
         }
 
@@ -234,6 +238,7 @@ public class InvoiceServiceImpl implements InvoiceService {
                 }
 
                 invoiceRepository.delete(invoice);
+                eventPublisher.publishEvent(ReportDataChangedEvent.of(DataChangeSource.INVOICE, id));
         }
 
         private InvoiceResponse mapToInvoiceResponse(Invoice invoice) {
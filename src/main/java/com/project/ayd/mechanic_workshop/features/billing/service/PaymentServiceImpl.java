@@ -12,6 +12,8 @@ import com.project.ayd.mechanic_workshop.features.billing.repository.InvoiceRepo
 import com.project.ayd.mechanic_workshop.features.billing.repository.PaymentRepository;
 import com.project.ayd.mechanic_workshop.features.billing.repository.PaymentMethodRepository;
 import com.project.ayd.mechanic_workshop.features.billing.events.PaymentCreatedEvent;
+import com.project.ayd.mechanic_workshop.features.reports.enums.DataChangeSource;
+import com.project.ayd.mechanic_workshop.features.reports.events.ReportDataChangedEvent;
 import com.project.ayd.mechanic_workshop.shared.exception.ResourceNotFoundException;
 import com.project.ayd.mechanic_workshop.shared.exception.BusinessException;
 import lombok.RequiredArgsConstructor;
@@ -74,6 +76,7 @@ public class PaymentServiceImpl implements PaymentService {
 
                 // Publicar evento de pago creado
                 publishPaymentCreatedEvent(payment, invoice, totalPaid.add(request.getAmount()));
+                eventPublisher.publishEvent(ReportDataChangedEvent.of(DataChangeSource.PAYMENT, payment.getId()));
 
                 return mapToPaymentResponse(payment);
         }
@@ -154,6 +157,7 @@ public class PaymentServiceImpl implements PaymentService {
                 }
 
                 paymentRepository.delete(payment);
+                eventPublisher.publishEvent(ReportDataChangedEvent.of(DataChangeSource.PAYMENT, id));
         }
 
         private PaymentResponse mapToPaymentResponse(Payment payment) {
@@ -15,8 +15,11 @@ import com.project.ayd.mechanic_workshop.features.workorders.entity.Part;
 import com.project.ayd.mechanic_workshop.features.workorders.repository.PartRepository;
 import com.project.ayd.mechanic_workshop.features.workorders.dto.PartResponse;
 import com.project.ayd.mechanic_workshop.features.workorders.dto.PartCategoryResponse;
+import com.project.ayd.mechanic_workshop.features.reports.enums.DataChangeSource;
+import com.project.ayd.mechanic_workshop.features.reports.events.ReportDataChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -38,6 +41,7 @@ public class InventoryServiceImpl implements InventoryService {
         private final UserRepository userRepository;
         private final MovementTypeRepository movementTypeRepository;
         private final ReferenceTypeRepository referenceTypeRepository;
+        private final ApplicationEventPublisher eventPublisher;
 
         @Override
         @Transactional(readOnly = true)
@@ -107,6 +111,7 @@ public class InventoryServiceImpl implements InventoryService {
                 log.info("Stock adjusted for part ID {}: {} -> {}", request.getPartId(),
                                 previousQuantity, request.getNewQuantity());
 
+                eventPublisher.publishEvent(ReportDataChangedEvent.of(DataChangeSource.STOCK, request.getPartId()));
                 return mapToInventoryStockResponse(stock);
         }
 
@@ -126,6 +131,7 @@ public class InventoryServiceImpl implements InventoryService {
 
                 log.info("Stock added for part ID {}: +{}", request.getPartId(), request.getQuantity());
 
+                eventPublisher.publishEvent(ReportDataChangedEvent.of(DataChangeSource.STOCK, request.getPartId()));
                 return mapToInventoryStockResponse(stock);
         }
 
@@ -148,6 +154,7 @@ public class InventoryServiceImpl implements InventoryService {
 
                 log.info("Stock removed for part ID {}: -{}", request.getPartId(), request.getQuantity());
 
+                eventPublisher.publishEvent(ReportDataChangedEvent.of(DataChangeSource.STOCK, request.getPartId()));
                 return mapToInventoryStockResponse(stock);
         }
 
@@ -186,6 +193,7 @@ public class InventoryServiceImpl implements InventoryService {
                 inventoryStockRepository.save(stock);
 
                 log.info("Stock reserved for part ID {}: {}", partId, quantity);
+                eventPublisher.publishEvent(ReportDataChangedEvent.of(DataChangeSource.STOCK, partId));
                 return true;
         }
 
@@ -205,6 +213,7 @@ public class InventoryServiceImpl implements InventoryService {
                 inventoryStockRepository.save(stock);
 
                 log.info("Reserved stock released for part ID {}: {}", partId, quantity);
+                eventPublisher.publishEvent(ReportDataChangedEvent.of(DataChangeSource.STOCK, partId));
                 return true;
         }
 
@@ -226,6 +235,7 @@ public class InventoryServiceImpl implements InventoryService {
                                 "Confirmación de uso de stock");
 
                 log.info("Stock usage confirmed for part ID {}: {}", partId, quantity);
+                eventPublisher.publishEvent(ReportDataChangedEvent.of(DataChangeSource.STOCK, partId));
                 return true;
         }
 
@@ -14,8 +14,11 @@ import com.project.ayd.mechanic_workshop.features.workorders.entity.Part;
 import com.project.ayd.mechanic_workshop.features.workorders.repository.PartRepository;
 import com.project.ayd.mechanic_workshop.features.workorders.dto.PartResponse;
 import com.project.ayd.mechanic_workshop.features.workorders.dto.PartCategoryResponse;
+import com.project.ayd.mechanic_workshop.features.reports.enums.DataChangeSource;
+import com.project.ayd.mechanic_workshop.features.reports.events.ReportDataChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -35,6 +38,7 @@ public class StockMovementServiceImpl implements StockMovementService {
         private final MovementTypeRepository movementTypeRepository;
         private final ReferenceTypeRepository referenceTypeRepository;
         private final UserRepository userRepository;
+        private final ApplicationEventPublisher eventPublisher;
 
         @Override
         @Transactional
@@ -72,6 +76,7 @@ public class StockMovementServiceImpl implements StockMovementService {
                 log.info("Stock movement recorded for part ID {}: {} units", request.getPartId(),
                                 request.getQuantity());
 
+                eventPublisher.publishEvent(ReportDataChangedEvent.of(DataChangeSource.STOCK, request.getPartId()));
                 return mapToStockMovementResponse(movement);
         }
 
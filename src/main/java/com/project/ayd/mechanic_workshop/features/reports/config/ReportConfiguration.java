@@ -5,23 +5,60 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
-import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
 @EnableScheduling
 public class ReportConfiguration {
 
+    // Pool acotado para la generación de archivos; con la cola llena las nuevas
+    // solicitudes se rechazan en lugar de acumularse sin límite
     @Bean(name = "reportTaskExecutor")
-    public Executor reportTaskExecutor() {
+    public ThreadPoolTaskExecutor reportTaskExecutor(ReportProperties reportProperties) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(5);
-        executor.setQueueCapacity(100);
+        executor.setCorePoolSize(reportProperties.getMaxConcurrentReports());
+        executor.setMaxPoolSize(reportProperties.getMaxConcurrentReports());
+        executor.setQueueCapacity(reportProperties.getMaxQueuedReports());
         executor.setThreadNamePrefix("ReportTask-");
         executor.initialize();
         return executor;
     }
 
+    // Un solo hilo para la pregeneración de suscripciones, que espera lugar en la cola sin
+    // ocupar el hilo del scheduler; sin cola, una ejecución nueva se descarta si la anterior sigue
+    @Bean(name = "reportSubscriptionExecutor")
+    public ThreadPoolTaskExecutor reportSubscriptionExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("ReportSubscription-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Relecturas de los contadores del dashboard después de cada commit, fuera del hilo que
+    // escribió; con la cola llena el cambio se descarta y lo corrige la próxima conciliación
+    @Bean(name = "kpiRefreshExecutor")
+    public ThreadPoolTaskExecutor kpiRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(10000);
+        executor.setThreadNamePrefix("KpiRefresh-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Hilos virtuales para las consultas paralelas del dashboard; la concurrencia
+    // real contra la base de datos la limita DashboardQueryExecutor. El nombre no puede
+    // coincidir con el del componente DashboardQueryExecutor
+    @Bean(name = "dashboardVirtualThreadExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService dashboardVirtualThreadExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("DashboardQuery-", 0).factory());
+    }
+
     // Configuraciones adicionales para reportes si son necesarias
     @Bean
     public ReportProperties reportProperties() {
@@ -13,12 +13,45 @@ public class ReportProperties {
     private long reportExpirationHours = 24;
     private boolean enableScheduledCleanup = true;
     private boolean enableDashboardCache = true;
+    private long dashboardCacheTtlSeconds = 300;
+    private int dashboardCacheMaxEntries = 20;
+    private int dashboardMaxParallelQueries = 3;
+    private long dashboardQueryTimeoutSeconds = 10;
+    private long dashboardPushIntervalMillis = 2000; // Ventana en que se agrupan los cambios antes de recalcular
+    private long dashboardPushTimeoutMillis = 1800000; // 30 minutos; EventSource reconecta solo
+    private long dashboardPushHeartbeatMillis = 30000;
+    private int dashboardPushMaxSubscribers = 200;
+    private boolean enableKpiCounters = true; // Conteos del dashboard en memoria en lugar de COUNT(*) por consulta
+    private long kpiReconcileIntervalMillis = 300000; // 5 minutos entre conciliaciones contra la base de datos
     private int maxReportsPerUser = 10;
+    private int maxConcurrentReports = 5;
+    private int maxQueuedReports = 20;
+    private long generationTimeout = 300000; // 5 minutos
+    private long queryTimeoutMillis = 120000; // Consultas fuera de un trabajo de generación; 0 lo desactiva
     private long maxFileSizeBytes = 50 * 1024 * 1024; // 50MB
+    private long maxStorageBytes = 2L * 1024 * 1024 * 1024; // 2GB entre todos los reportes
+    private boolean useRollups = true; // Leer agregados de las tablas rollup_daily_*
+    private int rollupRebuildDays = 35; // Días que recalcula la reconstrucción nocturna
+    private boolean enablePeriodCache = true; // Guardar los meses y semanas cerrados de las series históricas
+    private int periodCacheGraceDays = 7; // Días tras el cierre en que un periodo todavía puede cambiar
+    private boolean compressCsv = true; // Guardar los CSV con gzip
+    private long slowQueryThresholdMillis = 1000; // Consultas de reportes que se registran como lentas; 0 lo desactiva
+    private int defaultPageSize = 100; // Filas por página de los endpoints JSON paginados
+    private int maxPageSize = 1000;
+    private int leaderboardDefaultSize = 5; // Posiciones de los rankings, también las del dashboard
+    private int leaderboardMaxSize = 100;
+    private int leaderboardWindowDays = 30; // Ventana de los rankings cuando no se indican fechas
+    private String subscriptionCron = "0 0 4 * * *"; // Ventana fuera de horario para pregenerar suscripciones
+    private int subscriptionMaxConcurrentReports = 2; // Deja lugar en la cola para las solicitudes normales
+    private long subscriptionWindowMinutes = 180;
+    private int maxSubscriptionsPerUser = 10;
+    private int bundleMaxConcurrentReports = 4; // Reportes de un mismo ZIP que se generan a la vez
+    private int bundleMaxReports = 20;
 
     // Configuraciones de generación de reportes
     private PdfConfig pdf = new PdfConfig();
     private ExcelConfig excel = new ExcelConfig();
+    private ChartConfig chart = new ChartConfig();
 
     @Data
     public static class PdfConfig {
@@ -28,6 +61,7 @@ public class ReportProperties {
         private boolean includeFooter = true;
         private String fontFamily = "Arial";
         private int fontSize = 10;
+        private boolean includeCharts = true;
     }
 
     @Data
@@ -36,5 +70,15 @@ public class ReportProperties {
         private boolean autoSizeColumns = true;
         private String defaultSheetName = "Reporte";
         private boolean freezeHeaders = true;
+        private int rowAccessWindowSize = 100; // Filas que SXSSF mantiene en memoria
+    }
+
+    @Data
+    public static class ChartConfig {
+        private int width = 800; // Tamaño en píxeles de las imágenes de gráficos
+        private int height = 400;
+        private int maxCategories = 12; // Barras o porciones por gráfico; el resto se agrupa
+        private int cacheMaxEntries = 200; // Imágenes PNG reutilizadas entre reportes y dashboards
+        private long cacheMaxBytes = 32L * 1024 * 1024;
     }
-}
\ No newline at end of file
+}
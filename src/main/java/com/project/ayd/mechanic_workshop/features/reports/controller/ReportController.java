@@ -1,26 +1,46 @@
 package com.project.ayd.mechanic_workshop.features.reports.controller;
 
 import com.project.ayd.mechanic_workshop.features.reports.dto.*;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ChartType;
+import com.project.ayd.mechanic_workshop.features.reports.enums.LeaderboardType;
 import com.project.ayd.mechanic_workshop.features.reports.enums.ReportFormat;
 import com.project.ayd.mechanic_workshop.features.reports.enums.ReportPeriod;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportStatus;
 import com.project.ayd.mechanic_workshop.features.reports.enums.ReportType;
+import com.project.ayd.mechanic_workshop.features.reports.exception.ReportFormatException;
+import com.project.ayd.mechanic_workshop.features.reports.service.DashboardPushService;
 import com.project.ayd.mechanic_workshop.features.reports.service.DashboardService;
+import com.project.ayd.mechanic_workshop.features.reports.service.ReportBundleService;
+import com.project.ayd.mechanic_workshop.features.reports.service.ReportLeaderboardService;
+import com.project.ayd.mechanic_workshop.features.reports.service.ReportPageService;
+import com.project.ayd.mechanic_workshop.features.reports.service.ReportPeriodCache;
+import com.project.ayd.mechanic_workshop.features.reports.service.ReportRollupService;
 import com.project.ayd.mechanic_workshop.features.reports.service.ReportService;
+import com.project.ayd.mechanic_workshop.features.reports.service.ReportSubscriptionService;
+import com.project.ayd.mechanic_workshop.features.reports.utils.ChartRenderer;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -35,6 +55,13 @@ public class ReportController {
 
     private final ReportService reportService;
     private final DashboardService dashboardService;
+    private final DashboardPushService dashboardPushService;
+    private final ReportRollupService reportRollupService;
+    private final ReportPageService reportPageService;
+    private final ReportSubscriptionService reportSubscriptionService;
+    private final ReportBundleService reportBundleService;
+    private final ReportPeriodCache reportPeriodCache;
+    private final ReportLeaderboardService reportLeaderboardService;
 
     // Dashboard endpoints
     @GetMapping("/dashboard")
@@ -44,6 +71,13 @@ public class ReportController {
         return ResponseEntity.ok(dashboard);
     }
 
+    // Dashboard en vivo: evento "dashboard" con el dashboard completo y luego "dashboard-delta" con los cambios
+    @GetMapping(value = "/dashboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'EMPLEADO', 'ESPECIALISTA')")
+    public SseEmitter streamDashboard() {
+        return dashboardPushService.subscribe();
+    }
+
     @GetMapping("/dashboard/period")
     @PreAuthorize("hasRole('ADMINISTRADOR')")
     public ResponseEntity<DashboardResponse> getDashboardForPeriod(
@@ -53,6 +87,28 @@ public class ReportController {
         return ResponseEntity.ok(dashboard);
     }
 
+    // Gráfico del dashboard como PNG; el ETag es el hash del gráfico y no cambia mientras no cambien los datos
+    @GetMapping(value = "/dashboard/charts/{section}", produces = MediaType.IMAGE_PNG_VALUE)
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'EMPLEADO', 'ESPECIALISTA')")
+    public ResponseEntity<byte[]> getDashboardChart(
+            @PathVariable String section,
+            @RequestParam(required = false) ChartType type,
+            @RequestParam(required = false) Integer width,
+            @RequestParam(required = false) Integer height,
+            @RequestHeader HttpHeaders requestHeaders) {
+        ChartRenderer.ChartImage chart = dashboardService.getDashboardChart(section, type, width, height);
+        String eTag = "\"" + chart.key() + "\"";
+
+        if (requestHeaders.getIfNoneMatch().contains(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(MediaType.IMAGE_PNG)
+                .body(chart.png());
+    }
+
     @PostMapping("/dashboard/refresh")
     @PreAuthorize("hasRole('ADMINISTRADOR')")
     public ResponseEntity<Map<String, String>> refreshDashboard() {
@@ -65,40 +121,114 @@ public class ReportController {
     @PreAuthorize("hasRole('ADMINISTRADOR')")
     public ResponseEntity<ReportResponse> generateReport(@Valid @RequestBody ReportRequest request) {
         ReportResponse report = reportService.generateReport(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(report);
+        // La generación corre en segundo plano; el cliente consulta el estado en Location
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/reports/status/" + report.getReportId()))
+                .body(report);
+    }
+
+    @GetMapping("/status/{reportId}")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'EMPLEADO')")
+    public ResponseEntity<ReportResponse> getReportStatus(@PathVariable String reportId) {
+        ReportResponse report = reportService.getReportStatus(reportId);
+        return ResponseEntity.ok(report);
+    }
+
+    @PostMapping("/cancel/{reportId}")
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'EMPLEADO')")
+    public ResponseEntity<ReportResponse> cancelReport(@PathVariable String reportId) {
+        // Un reporte que ya terminó se devuelve sin cambios
+        ReportResponse report = reportService.cancelReport(reportId);
+        return ResponseEntity.ok(report);
     }
 
     @GetMapping("/download/{reportId}")
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'EMPLEADO')")
-    public ResponseEntity<Resource> downloadReport(@PathVariable String reportId) {
-        try {
-            Resource resource = reportService.downloadReport(reportId);
-
-            // Determinar el content type basado en la extensión del archivo
-            String contentType = "application/octet-stream";
-            String filename = resource.getFilename();
-
-            if (filename != null) {
-                if (filename.endsWith(".pdf")) {
-                    contentType = "application/pdf";
-                } else if (filename.endsWith(".xlsx")) {
-                    contentType = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
-                } else if (filename.endsWith(".csv")) {
-                    contentType = "text/csv";
-                } else if (filename.endsWith(".png")) {
-                    contentType = "image/png";
-                }
+    public ResponseEntity<StreamingResponseBody> downloadReport(@PathVariable String reportId,
+            @RequestHeader HttpHeaders requestHeaders) {
+        // ReportNotFoundException llega como 404 desde ReportExceptionHandler; cualquier otro error es 5xx
+        ReportResponse report = reportService.getReportStatus(reportId);
+
+        // Mientras el reporte se genera se responde 202 para que el cliente reintente
+        if (ReportStatus.PENDING.name().equals(report.getStatus())
+                || ReportStatus.GENERATING.name().equals(report.getStatus())) {
+            return ResponseEntity.accepted()
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .location(URI.create("/api/v1/reports/status/" + reportId))
+                    .build();
+        }
+
+        ReportDownload download = reportService.getReportDownload(reportId);
+
+        // Un archivo comprimido se envía tal cual si el cliente acepta su codificación;
+        // si no, se descomprime al vuelo y se describe la versión sin comprimir
+        boolean compressed = download.getContentEncoding() != null;
+        boolean decode = compressed && !acceptsEncoding(requestHeaders, download.getContentEncoding());
+        String eTag = decode ? download.getDecodedETag() : download.getETag();
+
+        // El navegador ya tiene esta versión del archivo
+        if (isNotModified(requestHeaders, eTag, download.getLastModified())) {
+            ResponseEntity.HeadersBuilder<?> notModified = ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .lastModified(download.getLastModified());
+            if (compressed) {
+                notModified.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
             }
+            return notModified.build();
+        }
 
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION,
-                            "attachment; filename=\"" + resource.getFilename() + "\"")
-                    .body(resource);
+        long fileSize = decode ? download.getRawSize() : download.getSize();
+        long start = 0;
+        long length = fileSize;
+        boolean partial = false;
+
+        HttpRange range = resolveRange(requestHeaders, eTag, download.getLastModified());
+        if (range != null) {
+            long end;
+            try {
+                start = range.getRangeStart(fileSize);
+                end = range.getRangeEnd(fileSize);
+            } catch (IllegalArgumentException e) {
+                start = fileSize;
+                end = -1;
+            }
+            if (start >= fileSize || end < start) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + fileSize)
+                        .build();
+            }
+            length = end - start + 1;
+            partial = true;
+        }
 
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
+        long bodyStart = start;
+        long bodyLength = length;
+        StreamingResponseBody body = decode
+                ? outputStream -> reportService.transferDecodedReport(download, bodyStart, bodyLength, outputStream)
+                : outputStream -> reportService.transferReport(download, bodyStart, bodyLength, outputStream);
+
+        ResponseEntity.BodyBuilder response = partial
+                ? ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                        .header(HttpHeaders.CONTENT_RANGE,
+                                "bytes " + start + "-" + (start + length - 1) + "/" + fileSize)
+                : ResponseEntity.ok();
+
+        if (compressed) {
+            response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (!decode) {
+                response.header(HttpHeaders.CONTENT_ENCODING, download.getContentEncoding());
+            }
         }
+
+        return response
+                .contentType(MediaType.parseMediaType(download.getContentType()))
+                .contentLength(length)
+                .eTag(eTag)
+                .lastModified(download.getLastModified())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + download.getFileName() + "\"")
+                .body(body);
     }
 
     @GetMapping("/history")
@@ -109,6 +239,29 @@ public class ReportController {
         return ResponseEntity.ok(history);
     }
 
+    // Suscripciones: reportes recurrentes que se pregeneran fuera de horario
+    @PostMapping("/subscriptions")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<ReportSubscriptionResponse> createSubscription(
+            @Valid @RequestBody ReportSubscriptionRequest request, Authentication authentication) {
+        ReportSubscriptionResponse subscription = reportSubscriptionService.createSubscription(request,
+                authentication.getName());
+        return ResponseEntity.status(HttpStatus.CREATED).body(subscription);
+    }
+
+    @GetMapping("/subscriptions")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<List<ReportSubscriptionResponse>> getSubscriptions(Authentication authentication) {
+        return ResponseEntity.ok(reportSubscriptionService.getSubscriptions(authentication.getName()));
+    }
+
+    @DeleteMapping("/subscriptions/{id}")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<Void> deleteSubscription(@PathVariable Long id, Authentication authentication) {
+        reportSubscriptionService.deleteSubscription(id, authentication.getName());
+        return ResponseEntity.noContent().build();
+    }
+
     // Financial reports
     @GetMapping("/financial")
     @PreAuthorize("hasRole('ADMINISTRADOR')")
@@ -170,30 +323,85 @@ public class ReportController {
 
     @GetMapping("/clients/history")
     @PreAuthorize("hasRole('ADMINISTRADOR')")
-    public ResponseEntity<List<Object[]>> getClientHistoryReport(
+    public ResponseEntity<ReportPage<ClientServiceReportDTO.ClientDetail>> getClientHistoryReport(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        List<Object[]> data = reportService.getClientHistoryReport(startDate, endDate);
-        return ResponseEntity.ok(data);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(
+                reportPageService.getClientHistory(startDate, endDate, cursor, size, includeTotal));
     }
 
     // Export endpoints
     @PostMapping("/export")
     @PreAuthorize("hasRole('ADMINISTRADOR')")
-    public ResponseEntity<byte[]> exportReport(
+    public ResponseEntity<StreamingResponseBody> exportReport(
             @RequestParam ReportType reportType,
             @RequestParam ReportFormat format,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
 
-        byte[] reportData = reportService.exportReportData(reportType, startDate, endDate, format.name());
+        // Se valida antes de empezar a escribir, cuando todavía se puede responder con un error
+        if (!reportService.supportsDirectExport(format)) {
+            throw new ReportFormatException(format.name());
+        }
+
+        StreamingResponseBody body = outputStream -> reportService.writeReportExport(reportType, startDate, endDate,
+                format, outputStream);
 
         String filename = generateExportFilename(reportType, format);
 
         return ResponseEntity.ok()
                 .contentType(MediaType.parseMediaType(format.getMimeType()))
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                .body(reportData);
+                .body(body);
+    }
+
+    // Exportación CSV por streaming: las filas se leen con cursor y se escriben directo a la respuesta
+    @GetMapping("/export/stream")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<StreamingResponseBody> streamCsvExport(
+            @RequestParam ReportType reportType,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+
+        // Se valida antes de empezar a escribir, cuando todavía se puede responder con un error
+        if (!reportService.supportsStreamingExport(reportType)) {
+            throw new ReportFormatException("CSV streaming for " + reportType);
+        }
+
+        StreamingResponseBody body = outputStream -> reportService.writeCsvExport(reportType, startDate, endDate,
+                outputStream);
+
+        String filename = generateExportFilename(reportType, ReportFormat.CSV);
+
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    // Varios reportes generados en paralelo y enviados en un solo ZIP a medida que terminan
+    @PostMapping("/export/bundle")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<StreamingResponseBody> exportBundle(@Valid @RequestBody ReportBundleRequest request,
+            Authentication authentication) {
+
+        // Se valida antes de empezar a escribir, cuando todavía se puede responder con un error
+        reportBundleService.validate(request);
+        // El contexto de seguridad no llega al hilo que escribe la respuesta
+        String username = authentication.getName();
+
+        StreamingResponseBody body = outputStream -> reportBundleService.writeBundle(request, username,
+                outputStream);
+
+        String filename = String.format("reportes_%s.zip", System.currentTimeMillis());
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
     }
 
     // Configuration endpoints
@@ -302,11 +510,14 @@ public class ReportController {
 
     @GetMapping("/financial/providers")
     @PreAuthorize("hasRole('ADMINISTRADOR')")
-    public ResponseEntity<List<Object[]>> getProviderExpenses(
+    public ResponseEntity<ReportPage<FinancialReportResponse.ProviderExpenseDetail>> getProviderExpenses(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        List<Object[]> data = reportService.getProviderExpenses(startDate, endDate);
-        return ResponseEntity.ok(data);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(
+                reportPageService.getProviderExpenses(startDate, endDate, cursor, size, includeTotal));
     }
 
     // ================================
@@ -324,11 +535,14 @@ public class ReportController {
 
     @GetMapping("/operational/works/by-employee")
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'EMPLEADO')")
-    public ResponseEntity<List<Object[]>> getWorksByEmployee(
+    public ResponseEntity<ReportPage<OperationalReportResponse.EmployeeWorkDetail>> getWorksByEmployee(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        List<Object[]> data = reportService.getWorksByEmployee(startDate, endDate);
-        return ResponseEntity.ok(data);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(
+                reportPageService.getWorksByEmployee(startDate, endDate, cursor, size, includeTotal));
     }
 
     @GetMapping("/operational/vehicle/history")
@@ -362,11 +576,14 @@ public class ReportController {
 
     @GetMapping("/inventory/parts/usage")
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'EMPLEADO')")
-    public ResponseEntity<List<Object[]>> getPartUsageStatistics(
+    public ResponseEntity<ReportPage<PartUsageReportDTO.PartUsageDetail>> getPartUsageStatistics(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        List<Object[]> data = reportService.getPartUsageStatistics(startDate, endDate);
-        return ResponseEntity.ok(data);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(
+                reportPageService.getPartUsage(startDate, endDate, cursor, size, includeTotal));
     }
 
     @GetMapping("/inventory/parts/by-category")
@@ -447,6 +664,17 @@ public class ReportController {
         return ResponseEntity.ok(data);
     }
 
+    // Top N ordenado; sin fechas se usa la ventana de app.reports.leaderboard-window-days
+    @GetMapping("/analytics/leaderboards/{type}")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<List<LeaderboardEntry>> getLeaderboard(
+            @PathVariable LeaderboardType type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(reportLeaderboardService.getLeaderboard(type, startDate, endDate, size));
+    }
+
     // ================================
     // COMPREHENSIVE EXPORT ENDPOINTS
     // ================================
@@ -468,7 +696,7 @@ public class ReportController {
                     .build()).getReportId();
 
             return ResponseEntity.ok(Map.of(
-                    "message", "Comprehensive report generated successfully",
+                    "message", "Comprehensive report queued for generation",
                     "reportId", reportId));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -502,7 +730,7 @@ public class ReportController {
             }
 
             return ResponseEntity.ok(Map.of(
-                    "message", "Bulk reports generated successfully",
+                    "message", "Bulk reports queued for generation",
                     "reportIds", reportIds,
                     "count", reportIds.size()));
         } catch (Exception e) {
@@ -554,4 +782,139 @@ public class ReportController {
                     .body(Map.of("error", "Error durante la limpieza"));
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<Map<String, Object>> rebuildRollups(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        if (startDate != null && endDate != null && endDate.isBefore(startDate)) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "La fecha final no puede ser anterior a la inicial"));
+        }
+        try {
+            // Sin fechas se reconstruye todo el histórico
+            long days = startDate == null
+                    ? reportRollupService.rebuildAll()
+                    : reportRollupService.rebuild(startDate, endDate != null ? endDate : LocalDate.now());
+            return ResponseEntity.ok(Map.of(
+                    "message", "Rollups reconstruidos",
+                    "days", days));
+        } catch (Exception e) {
+            log.error("Error rebuilding report rollups", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Error al reconstruir los rollups"));
+        }
+    }
+
+    // Para correcciones con fecha pasada: los buckets cerrados se recalculan en la siguiente consulta
+    @DeleteMapping("/period-cache")
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ResponseEntity<Map<String, Object>> invalidatePeriodCache(
+            @RequestParam(required = false) ReportPeriodCache.Series series,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        // Sin fechas se invalida todo lo guardado
+        LocalDate from = startDate != null ? startDate : LocalDate.EPOCH;
+        LocalDate to = endDate != null ? endDate : LocalDate.now();
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "La fecha final no puede ser anterior a la inicial"));
+        }
+        int buckets = reportPeriodCache.invalidate(series, from, to);
+        return ResponseEntity.ok(Map.of(
+                "message", "Cache de periodos invalidado",
+                "buckets", buckets));
+    }
+
+    // ================================
+    // DESCARGAS CONDICIONALES Y POR RANGOS
+    // ================================
+
+    // If-None-Match tiene prioridad sobre If-Modified-Since; para 304 basta la comparación débil
+    private boolean isNotModified(HttpHeaders requestHeaders, String eTag, Instant lastModified) {
+        List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            return ifNoneMatch.stream()
+                    .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                    .anyMatch(tag -> tag.equals("*") || tag.equals(eTag));
+        }
+
+        long ifModifiedSince = requestHeaders.getIfModifiedSince();
+        // Las fechas HTTP tienen resolución de segundos
+        return ifModifiedSince >= 0 && lastModified.getEpochSecond() * 1000 <= ifModifiedSince;
+    }
+
+    /**
+     * Rango solicitado, o null si se debe enviar el archivo completo: sin Range, con varios
+     * rangos, con un Range mal formado o con un If-Range que ya no coincide con el archivo.
+     */
+    private HttpRange resolveRange(HttpHeaders requestHeaders, String eTag, Instant lastModified) {
+        String rangeHeader = requestHeaders.getFirst(HttpHeaders.RANGE);
+        if (rangeHeader == null || !matchesIfRange(requestHeaders, eTag, lastModified)) {
+            return null;
+        }
+
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private boolean matchesIfRange(HttpHeaders requestHeaders, String eTag, Instant lastModified) {
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(eTag); // If-Range exige comparación fuerte
+        }
+
+        try {
+            ZonedDateTime date = requestHeaders.getFirstZonedDateTime(HttpHeaders.IF_RANGE);
+            return date != null && lastModified.getEpochSecond() == date.toEpochSecond();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Indica si Accept-Encoding admite la codificación. Una mención explícita tiene prioridad
+     * sobre "*", y q=0 la rechaza.
+     */
+    private boolean acceptsEncoding(HttpHeaders requestHeaders, String encoding) {
+        Double explicitQuality = null;
+        Double wildcardQuality = null;
+
+        for (String header : requestHeaders.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String element : header.split(",")) {
+                String[] parts = element.trim().split(";");
+                String coding = parts[0].trim();
+                double quality = 1.0;
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].trim();
+                    if (parameter.startsWith("q=")) {
+                        try {
+                            quality = Double.parseDouble(parameter.substring(2));
+                        } catch (NumberFormatException e) {
+                            quality = 0;
+                        }
+                    }
+                }
+
+                if (coding.equalsIgnoreCase(encoding)) {
+                    explicitQuality = quality;
+                } else if (coding.equals("*")) {
+                    wildcardQuality = quality;
+                }
+            }
+        }
+
+        if (explicitQuality != null) {
+            return explicitQuality > 0;
+        }
+        return wildcardQuality != null && wildcardQuality > 0;
+    }
+}
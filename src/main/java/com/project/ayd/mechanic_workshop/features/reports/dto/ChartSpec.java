@@ -0,0 +1,55 @@
+package com.project.ayd.mechanic_workshop.features.reports.dto;
+
+import com.project.ayd.mechanic_workshop.features.reports.enums.ChartType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Definición de un gráfico de una serie: tipo, textos, categorías con su valor y tamaño.
+ * width y height en null usan el tamaño de app.reports.chart.
+ */
+@Data
+@Builder
+public class ChartSpec {
+    private ChartType type;
+    private String title;
+    private String categoryLabel;
+    private String valueLabel;
+    private List<String> labels;
+    private List<BigDecimal> values;
+    private Integer width;
+    private Integer height;
+
+    /**
+     * Arma el gráfico a partir de las filas de un reporte; se omiten las filas sin
+     * etiqueta o sin valor numérico
+     *
+     * @param labelColumn Columna con la categoría
+     * @param valueColumn Columna con el valor
+     */
+    public static ChartSpec fromRows(ChartType type, String title, String categoryLabel, String valueLabel,
+            List<Object[]> rows, int labelColumn, int valueColumn) {
+        List<String> labels = new ArrayList<>();
+        List<BigDecimal> values = new ArrayList<>();
+        for (Object[] row : rows) {
+            if (row.length > Math.max(labelColumn, valueColumn) && row[labelColumn] != null
+                    && row[valueColumn] instanceof Number number) {
+                labels.add(row[labelColumn].toString());
+                values.add(number instanceof BigDecimal decimal ? decimal : new BigDecimal(number.toString()));
+            }
+        }
+
+        return ChartSpec.builder()
+                .type(type)
+                .title(title)
+                .categoryLabel(categoryLabel)
+                .valueLabel(valueLabel)
+                .labels(labels)
+                .values(values)
+                .build();
+    }
+}
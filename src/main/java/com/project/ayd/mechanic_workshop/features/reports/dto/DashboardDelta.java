@@ -0,0 +1,64 @@
+package com.project.ayd.mechanic_workshop.features.reports.dto;
+
+import com.project.ayd.mechanic_workshop.features.reports.enums.DataChangeSource;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Cambios del dashboard enviados por SSE: solo los campos de DashboardResponse cuyo valor
+ * cambió desde la versión anterior, con los orígenes de los cambios que se agruparon.
+ */
+@Data
+@Builder
+public class DashboardDelta {
+    private long version;
+    private Set<DataChangeSource> sources;
+    private Map<String, Object> changes;
+    private LocalDateTime generatedAt;
+
+    /**
+     * Campos de current distintos a los de previous, con el nombre de la propiedad de
+     * DashboardResponse; vacío si no cambió nada
+     */
+    public static Map<String, Object> changedFields(DashboardResponse previous, DashboardResponse current) {
+        Map<String, Object> before = fields(previous);
+        Map<String, Object> changes = new LinkedHashMap<>();
+        fields(current).forEach((name, value) -> {
+            if (!Objects.equals(before.get(name), value)) {
+                changes.put(name, value);
+            }
+        });
+        return changes;
+    }
+
+    private static Map<String, Object> fields(DashboardResponse dashboard) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("totalActiveWorks", dashboard.getTotalActiveWorks());
+        fields.put("totalCompletedWorks", dashboard.getTotalCompletedWorks());
+        fields.put("totalPendingWorks", dashboard.getTotalPendingWorks());
+        fields.put("totalVehiclesInService", dashboard.getTotalVehiclesInService());
+        fields.put("totalIncomeToday", dashboard.getTotalIncomeToday());
+        fields.put("totalIncomeThisMonth", dashboard.getTotalIncomeThisMonth());
+        fields.put("totalIncomeThisYear", dashboard.getTotalIncomeThisYear());
+        fields.put("totalPendingPayments", dashboard.getTotalPendingPayments());
+        fields.put("totalPartsInStock", dashboard.getTotalPartsInStock());
+        fields.put("lowStockParts", dashboard.getLowStockParts());
+        fields.put("outOfStockParts", dashboard.getOutOfStockParts());
+        fields.put("totalEmployees", dashboard.getTotalEmployees());
+        fields.put("busyEmployees", dashboard.getBusyEmployees());
+        fields.put("availableEmployees", dashboard.getAvailableEmployees());
+        fields.put("incomeByMonth", dashboard.getIncomeByMonth());
+        fields.put("worksByStatus", dashboard.getWorksByStatus());
+        fields.put("worksByType", dashboard.getWorksByType());
+        fields.put("topMechanicsByRevenue", dashboard.getTopMechanicsByRevenue());
+        fields.put("topUsedParts", dashboard.getTopUsedParts());
+        fields.put("unavailableSections", dashboard.getUnavailableSections());
+        return fields;
+    }
+}
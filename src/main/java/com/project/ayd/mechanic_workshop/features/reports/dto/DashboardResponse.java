@@ -40,6 +40,9 @@ public class DashboardResponse {
     private Map<String, BigDecimal> topMechanicsByRevenue;
     private Map<String, Long> topUsedParts;
 
+    // Secciones que no se pudieron calcular a tiempo (respuesta parcial)
+    private List<String> unavailableSections;
+
     @Data
     @Builder
     public static class ChartData {
@@ -0,0 +1,116 @@
+package com.project.ayd.mechanic_workshop.features.reports.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Métricas escalares del dashboard obtenidas en una sola consulta.
+ * Las columnas siguen el orden del SELECT de ReportRepository.getDashboardSnapshot().
+ */
+@Data
+@Builder
+public class DashboardSnapshot {
+    // Métricas generales
+    private Long activeWorks;
+    private Long completedWorks;
+    private Long pendingWorks;
+
+    // Métricas financieras
+    private BigDecimal incomeToday;
+    private BigDecimal incomeThisMonth;
+    private BigDecimal incomeThisYear;
+    private BigDecimal pendingPayments;
+
+    // Métricas de inventario
+    private Long partsInStock;
+    private Long lowStockParts;
+    private Long outOfStockParts;
+
+    // Métricas de empleados
+    private Long totalEmployees;
+    private Long busyEmployees;
+    private Long availableEmployees;
+
+    /**
+     * Convierte la fila nativa del snapshot en un objeto tipado
+     *
+     * @param row Fila devuelta por la consulta del snapshot
+     * @return Snapshot con valores nulos convertidos a cero
+     */
+    public static DashboardSnapshot fromRow(Object[] row) {
+        return DashboardSnapshot.builder()
+                .activeWorks(toLong(row[0]))
+                .completedWorks(toLong(row[1]))
+                .pendingWorks(toLong(row[2]))
+                .incomeToday(toBigDecimal(row[3]))
+                .incomeThisMonth(toBigDecimal(row[4]))
+                .incomeThisYear(toBigDecimal(row[5]))
+                .pendingPayments(toBigDecimal(row[6]))
+                .partsInStock(toLong(row[7]))
+                .lowStockParts(toLong(row[8]))
+                .outOfStockParts(toLong(row[9]))
+                .totalEmployees(toLong(row[10]))
+                .busyEmployees(toLong(row[11]))
+                .availableEmployees(toLong(row[12]))
+                .build();
+    }
+
+    /**
+     * Combina los conteos en memoria con las métricas financieras consultadas
+     *
+     * @param counts       Conteos de KpiCounterService
+     * @param financialRow Fila devuelta por ReportRepository.getFinancialSnapshot()
+     * @return Snapshot equivalente al de la consulta completa
+     */
+    public static DashboardSnapshot of(KpiCounts counts, Object[] financialRow) {
+        return DashboardSnapshot.builder()
+                .activeWorks(counts.getActiveWorks())
+                .completedWorks(counts.getCompletedWorks())
+                .pendingWorks(counts.getPendingWorks())
+                .incomeToday(toBigDecimal(financialRow[0]))
+                .incomeThisMonth(toBigDecimal(financialRow[1]))
+                .incomeThisYear(toBigDecimal(financialRow[2]))
+                .pendingPayments(toBigDecimal(financialRow[3]))
+                .partsInStock(counts.getPartsInStock())
+                .lowStockParts(counts.getLowStockParts())
+                .outOfStockParts(counts.getOutOfStockParts())
+                .totalEmployees(counts.getTotalEmployees())
+                .busyEmployees(counts.getBusyEmployees())
+                .availableEmployees(counts.getAvailableEmployees())
+                .build();
+    }
+
+    /**
+     * Copia las métricas escalares al builder de la respuesta del dashboard
+     *
+     * @param builder Builder de la respuesta
+     * @return El mismo builder para seguir encadenando
+     */
+    public DashboardResponse.DashboardResponseBuilder applyTo(DashboardResponse.DashboardResponseBuilder builder) {
+        return builder
+                .totalActiveWorks(activeWorks)
+                .totalCompletedWorks(completedWorks)
+                .totalPendingWorks(pendingWorks)
+                .totalVehiclesInService(activeWorks) // Simplificación
+                .totalIncomeToday(incomeToday)
+                .totalIncomeThisMonth(incomeThisMonth)
+                .totalIncomeThisYear(incomeThisYear)
+                .totalPendingPayments(pendingPayments)
+                .totalPartsInStock(partsInStock)
+                .lowStockParts(lowStockParts)
+                .outOfStockParts(outOfStockParts)
+                .totalEmployees(totalEmployees)
+                .busyEmployees(busyEmployees)
+                .availableEmployees(availableEmployees);
+    }
+
+    private static Long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        return value != null ? new BigDecimal(value.toString()) : BigDecimal.ZERO;
+    }
+}
@@ -49,4 +49,13 @@ public class FinancialReportResponse {
         private BigDecimal expenses;
         private BigDecimal profit;
     }
-}
\ No newline at end of file
+
+    @Data
+    @Builder
+    public static class ProviderExpenseDetail {
+        private String providerName;
+        private Long totalOrders;
+        private BigDecimal totalAmount;
+        private LocalDate lastOrderDate;
+    }
+}
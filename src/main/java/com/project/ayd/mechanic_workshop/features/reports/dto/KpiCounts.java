@@ -0,0 +1,31 @@
+package com.project.ayd.mechanic_workshop.features.reports.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Conteos actuales del dashboard tomados de KpiCounterService, con el momento de la
+ * última conciliación contra la base de datos.
+ */
+@Data
+@Builder
+public class KpiCounts {
+    // Trabajos
+    private Long activeWorks;
+    private Long completedWorks;
+    private Long pendingWorks;
+
+    // Inventario
+    private Long partsInStock;
+    private Long lowStockParts;
+    private Long outOfStockParts;
+
+    // Empleados
+    private Long totalEmployees;
+    private Long busyEmployees;
+    private Long availableEmployees;
+
+    private LocalDateTime reconciledAt;
+}
@@ -0,0 +1,20 @@
+package com.project.ayd.mechanic_workshop.features.reports.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Posición de un ranking. value es la métrica por la que se ordena (ingresos, gasto o
+ * cantidad usada) y works la cantidad de trabajos que la respaldan.
+ */
+@Data
+@Builder
+public class LeaderboardEntry {
+    private int rank;
+    private String key;
+    private String label;
+    private BigDecimal value;
+    private Long works;
+}
@@ -68,4 +68,15 @@ public class OperationalReportResponse {
         private BigDecimal totalCost;
         private Long worksUsedIn;
     }
-}
\ No newline at end of file
+
+    @Data
+    @Builder
+    public static class EmployeeWorkDetail {
+        private String employeeName;
+        private LocalDate workDate;
+        private String serviceType;
+        private BigDecimal actualHours;
+        private BigDecimal actualCost;
+        private String status;
+    }
+}
@@ -0,0 +1,33 @@
+package com.project.ayd.mechanic_workshop.features.reports.dto;
+
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportFormat;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportPeriod;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class ReportBundleRequest {
+
+    @NotEmpty(message = "At least one report is required")
+    private List<@Valid BundleItem> reports;
+
+    // Mismo rango para todos los reportes del paquete
+    private ReportPeriod period;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+
+    @Data
+    public static class BundleItem {
+        @NotNull(message = "Report type is required")
+        private ReportType reportType;
+
+        @NotNull(message = "Report format is required")
+        private ReportFormat format;
+    }
+}
@@ -0,0 +1,29 @@
+package com.project.ayd.mechanic_workshop.features.reports.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Datos del archivo de un reporte listo para descargar. El ETag es fuerte: un archivo
+ * generado no se reescribe, así que identifica exactamente sus bytes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportDownload {
+    private String reportId;
+    private String fileName;
+    private String contentType;
+    private String storageKey;
+    private long size;
+    private long rawSize;
+    private Instant lastModified;
+    private String eTag;
+    private String contentEncoding; // "gzip" si el archivo está comprimido, null si no
+    private String decodedETag; // ETag de la versión descomprimida
+}
@@ -19,6 +19,7 @@ public class ReportFileInfo {
     private ReportType reportType;
     private ReportFormat format;
     private Long fileSize;
+    private Long rawFileSize;
     private LocalDateTime generatedAt;
     private LocalDateTime expiresAt;
     private String generatedBy;
@@ -0,0 +1,21 @@
+package com.project.ayd.mechanic_workshop.features.reports.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Página de un reporte JSON con paginación por cursor (keyset).
+ * totalCount solo se calcula cuando se pide con includeTotal, porque requiere
+ * recorrer el resultado completo.
+ */
+@Data
+@Builder
+public class ReportPage<T> {
+    private List<T> items;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+    private Long totalCount;
+}
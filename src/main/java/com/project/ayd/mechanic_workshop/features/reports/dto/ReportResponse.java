@@ -8,7 +8,7 @@ import lombok.Data;
 import java.time.LocalDateTime;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class ReportResponse {
     private String reportId;
     private ReportType reportType;
@@ -18,6 +18,8 @@ public class ReportResponse {
     private LocalDateTime generatedAt;
     private String generatedBy;
     private Long fileSize;
+    private Long rawFileSize; // Tamaño sin comprimir
     private LocalDateTime expiresAt;
     private String status;
+    private String errorMessage; // Solo presente cuando status es FAILED
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.project.ayd.mechanic_workshop.features.reports.dto;
+
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportFormat;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportPeriod;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class ReportSubscriptionRequest {
+
+    @NotNull(message = "Report type is required")
+    private ReportType reportType;
+
+    @NotNull(message = "Report format is required")
+    private ReportFormat format;
+
+    @NotNull(message = "Report period is required")
+    private ReportPeriod period;
+
+    // Cuándo se necesita el reporte, como expresión cron de Spring (p. ej. "0 0 8 * * MON")
+    @NotBlank(message = "Cron expression is required")
+    private String cronExpression;
+}
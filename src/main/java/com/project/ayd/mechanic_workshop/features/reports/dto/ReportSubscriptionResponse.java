@@ -0,0 +1,25 @@
+package com.project.ayd.mechanic_workshop.features.reports.dto;
+
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportFormat;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportPeriod;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class ReportSubscriptionResponse {
+    private Long id;
+    private String username;
+    private ReportType reportType;
+    private ReportFormat format;
+    private ReportPeriod period;
+    private String cronExpression;
+    private Boolean isActive;
+    private LocalDateTime nextRunAt;
+    private LocalDateTime lastRunAt;
+    private String lastReportId;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,37 @@
+package com.project.ayd.mechanic_workshop.features.reports.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Cambios registrados por el trigger log_report_data_change para un día de una tabla.
+ * Un día nulo indica un cambio en una tabla sin fecha propia, que afecta a cualquier rango.
+ */
+@Entity
+@Table(name = "report_data_change")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportDataChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "table_name", nullable = false, length = 63)
+    private String tableName;
+
+    @Column(name = "day")
+    private LocalDate day;
+
+    @Column(name = "changes", nullable = false)
+    private Long changes;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,93 @@
+package com.project.ayd.mechanic_workshop.features.reports.entity;
+
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportFormat;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportStatus;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro persistente de un reporte generado.
+ * El archivo vive en el ReportFileStore bajo storageKey, de modo que cualquier
+ * nodo puede consultar el estado y servir la descarga. Varios registros pueden
+ * apuntar al mismo archivo cuando comparten contentKey.
+ */
+@Entity
+@Table(name = "report_registry")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class ReportRecord {
+
+    @Id
+    @Column(name = "report_id", length = 100)
+    @EqualsAndHashCode.Include
+    private String reportId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "report_type", nullable = false)
+    private ReportType reportType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "format", nullable = false)
+    private ReportFormat format;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    // Hash del tipo, formato, rango y versión de los datos; reportes con la misma clave
+    // comparten la misma generación y el mismo archivo
+    @Column(name = "content_key", nullable = false, length = 64)
+    private String contentKey;
+
+    @Column(name = "storage_key", nullable = false)
+    private String storageKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    @Builder.Default
+    private ReportStatus status = ReportStatus.PENDING;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(name = "generated_by", nullable = false)
+    private String generatedBy;
+
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    // Tamaño sin comprimir; igual a fileSize cuando el archivo se guarda sin comprimir
+    @Column(name = "raw_size")
+    private Long rawSize;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "generated_at", nullable = false)
+    private LocalDateTime generatedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Última descarga; ordena la expulsión LRU cuando se excede la cuota de disco
+    @Column(name = "last_accessed_at")
+    private LocalDateTime lastAccessedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public boolean isExpired() {
+        return LocalDateTime.now().isAfter(expiresAt);
+    }
+}
@@ -0,0 +1,74 @@
+package com.project.ayd.mechanic_workshop.features.reports.entity;
+
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportFormat;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportPeriod;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reporte recurrente de un usuario. cronExpression indica cuándo lo necesita; el
+ * archivo se genera antes, en la ventana fuera de horario, para que la solicitud
+ * de ese momento reutilice la generación por su clave de contenido.
+ */
+@Entity
+@Table(name = "report_subscription")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class ReportSubscription {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(name = "username", nullable = false, length = 50)
+    private String username;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "report_type", nullable = false)
+    private ReportType reportType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "format", nullable = false)
+    private ReportFormat format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "period", nullable = false)
+    private ReportPeriod period;
+
+    // Expresión cron de Spring, p. ej. "0 0 8 * * MON" para los lunes a las 8:00
+    @Column(name = "cron_expression", nullable = false, length = 100)
+    private String cronExpression;
+
+    @Column(name = "is_active")
+    @Builder.Default
+    private Boolean isActive = true;
+
+    // Próxima vez que el usuario necesita el reporte; se pregenera la madrugada de ese día
+    @Column(name = "next_run_at", nullable = false)
+    private LocalDateTime nextRunAt;
+
+    @Column(name = "last_run_at")
+    private LocalDateTime lastRunAt;
+
+    @Column(name = "last_report_id", length = 100)
+    private String lastReportId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
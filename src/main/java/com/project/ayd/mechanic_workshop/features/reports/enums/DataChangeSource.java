@@ -0,0 +1,24 @@
+package com.project.ayd.mechanic_workshop.features.reports.enums;
+
+public enum DataChangeSource {
+    WORK("Trabajos", "Creación, asignación o cambio de estado de un trabajo"),
+    INVOICE("Facturas", "Emisión, modificación o eliminación de una factura"),
+    PAYMENT("Pagos", "Registro o eliminación de un pago"),
+    STOCK("Inventario", "Entrada, salida, reserva o ajuste de existencias");
+
+    private final String displayName;
+    private final String description;
+
+    DataChangeSource(String displayName, String description) {
+        this.displayName = displayName;
+        this.description = description;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,18 @@
+package com.project.ayd.mechanic_workshop.features.reports.enums;
+
+public enum LeaderboardType {
+    MECHANICS_BY_REVENUE("Mecánicos por Ingresos"),
+    PARTS_BY_USAGE("Repuestos Más Utilizados"),
+    CLIENTS_BY_SPEND("Clientes por Gasto"),
+    BRANDS_BY_REVENUE("Marcas por Ingresos");
+
+    private final String displayName;
+
+    LeaderboardType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
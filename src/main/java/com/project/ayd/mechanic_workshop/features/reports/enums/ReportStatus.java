@@ -5,6 +5,7 @@ public enum ReportStatus {
     GENERATING("Generando", "El reporte se está generando actualmente"),
     COMPLETED("Completado", "El reporte se generó exitosamente"),
     FAILED("Fallido", "Error durante la generación del reporte"),
+    CANCELLED("Cancelado", "La generación del reporte se canceló antes de terminar"),
     EXPIRED("Expirado", "El reporte ha expirado y ya no está disponible");
 
     private final String displayName;
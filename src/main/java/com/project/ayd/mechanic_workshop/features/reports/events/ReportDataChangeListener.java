@@ -0,0 +1,35 @@
+package com.project.ayd.mechanic_workshop.features.reports.events;
+
+import com.project.ayd.mechanic_workshop.features.reports.service.DashboardCache;
+import com.project.ayd.mechanic_workshop.features.reports.service.DashboardPushService;
+import com.project.ayd.mechanic_workshop.features.reports.service.KpiCounterService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReportDataChangeListener {
+
+    private final KpiCounterService kpiCounterService;
+    private final DashboardCache dashboardCache;
+    private final DashboardPushService dashboardPushService;
+
+    // Se ejecuta después del commit para no invalidar con datos que podrían revertirse
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleDataChanged(ReportDataChangedEvent event) {
+        log.debug("Datos de reportes modificados - Origen: {}, ID: {}", event.getSource(), event.getEntityId());
+        // Se invalida enseguida para que ninguna lectura posterior reciba el dashboard anterior
+        dashboardCache.invalidateAll();
+        // Los conteos se releen en segundo plano; al terminar se invalida de nuevo para que el
+        // dashboard que se recargue los incluya. Sin conteos afectados ocurre en este hilo
+        kpiCounterService.onDataChanged(event).whenComplete((ignored, error) -> {
+            dashboardCache.invalidateAll();
+            // Después de invalidar, para que el recálculo lea los datos nuevos
+            dashboardPushService.onDataChanged(event.getSource());
+        });
+    }
+}
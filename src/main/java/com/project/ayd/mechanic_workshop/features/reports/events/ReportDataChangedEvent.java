@@ -0,0 +1,32 @@
+package com.project.ayd.mechanic_workshop.features.reports.events;
+
+import com.project.ayd.mechanic_workshop.features.reports.enums.DataChangeSource;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Se publica cuando cambian datos que alimentan el dashboard y los reportes
+ * (trabajos, facturas, pagos o existencias).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportDataChangedEvent {
+
+    private DataChangeSource source;
+    private Long entityId;
+    private LocalDateTime occurredAt;
+
+    public static ReportDataChangedEvent of(DataChangeSource source, Long entityId) {
+        return ReportDataChangedEvent.builder()
+                .source(source)
+                .entityId(entityId)
+                .occurredAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,16 @@
+package com.project.ayd.mechanic_workshop.features.reports.exception;
+
+public class ReportCancelledException extends ReportException {
+
+    private final boolean timedOut;
+
+    public ReportCancelledException(boolean timedOut) {
+        super(timedOut ? "Report generation timed out" : "Report generation was cancelled",
+                timedOut ? "REPORT_TIMED_OUT" : "REPORT_CANCELLED");
+        this.timedOut = timedOut;
+    }
+
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+}
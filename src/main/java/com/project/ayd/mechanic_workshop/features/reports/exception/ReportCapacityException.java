@@ -0,0 +1,12 @@
+package com.project.ayd.mechanic_workshop.features.reports.exception;
+
+public class ReportCapacityException extends ReportException {
+
+    public ReportCapacityException(String message) {
+        super(message, "REPORT_CAPACITY_EXCEEDED");
+    }
+
+    public ReportCapacityException(String message, Throwable cause) {
+        super(message, "REPORT_CAPACITY_EXCEEDED", cause);
+    }
+}
@@ -42,6 +42,20 @@ public class ReportExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    @ExceptionHandler(ReportCapacityException.class)
+    public ResponseEntity<Map<String, Object>> handleReportCapacity(ReportCapacityException ex) {
+        log.warn("Report queue full: {}", ex.getMessage());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", "Too Many Reports");
+        response.put("message", ex.getMessage());
+        response.put("errorCode", ex.getErrorCode());
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+
+        return new ResponseEntity<>(response, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
     @ExceptionHandler(ReportFormatException.class)
     public ResponseEntity<Map<String, Object>> handleReportFormat(ReportFormatException ex) {
         log.warn("Invalid report format: {}", ex.getMessage());
@@ -0,0 +1,67 @@
+package com.project.ayd.mechanic_workshop.features.reports.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Endpoint /actuator/reportqueries: resumen por consulta de los reportes, ordenado por nombre,
+ * y las últimas consultas lentas.
+ */
+@Component
+@Endpoint(id = "reportqueries")
+@RequiredArgsConstructor
+public class ReportQueryEndpoint {
+
+    private final MeterRegistry meterRegistry;
+    private final ReportQueryMetrics reportQueryMetrics;
+
+    @ReadOperation
+    public Map<String, Object> reportQueries() {
+        Map<String, Map<String, Object>> queries = new TreeMap<>();
+
+        for (Timer timer : meterRegistry.find(ReportQueryMetrics.TIMER_NAME).timers()) {
+            String queryName = timer.getId().getTag(ReportQueryMetrics.QUERY_TAG);
+            String outcome = timer.getId().getTag(ReportQueryMetrics.OUTCOME_TAG);
+            Map<String, Object> stats = queries.computeIfAbsent(queryName, name -> new LinkedHashMap<>());
+
+            if (!"success".equals(outcome)) {
+                stats.put("errors", timer.count());
+                continue;
+            }
+
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            stats.put("count", snapshot.count());
+            stats.put("meanMs", snapshot.mean(TimeUnit.MILLISECONDS));
+            stats.put("maxMs", snapshot.max(TimeUnit.MILLISECONDS));
+            for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                stats.put("p" + Math.round(percentile.percentile() * 100) + "Ms",
+                        percentile.value(TimeUnit.MILLISECONDS));
+            }
+        }
+
+        for (DistributionSummary rows : meterRegistry.find(ReportQueryMetrics.ROWS_NAME).summaries()) {
+            String queryName = rows.getId().getTag(ReportQueryMetrics.QUERY_TAG);
+            Map<String, Object> stats = queries.computeIfAbsent(queryName, name -> new LinkedHashMap<>());
+            stats.put("meanRows", rows.mean());
+            stats.put("maxRows", rows.max());
+            stats.put("totalRows", rows.totalAmount());
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("queries", queries);
+        result.put("slowQueries", reportQueryMetrics.getSlowQueries());
+        return result;
+    }
+}
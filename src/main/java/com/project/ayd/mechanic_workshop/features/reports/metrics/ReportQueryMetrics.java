@@ -0,0 +1,216 @@
+package com.project.ayd.mechanic_workshop.features.reports.metrics;
+
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
+import com.project.ayd.mechanic_workshop.features.reports.utils.ReportCancellation;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.Parameter;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Mide las consultas nativas de los reportes: un timer y una distribución de filas
+ * por consulta, y un registro de las que superan app.reports.slow-query-threshold-millis.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReportQueryMetrics {
+
+    public static final String TIMER_NAME = "report.query";
+    public static final String ROWS_NAME = "report.query.rows";
+    public static final String QUERY_TAG = "query";
+    public static final String OUTCOME_TAG = "outcome";
+
+    private static final int MAX_SLOW_QUERIES = 50;
+
+    private final MeterRegistry meterRegistry;
+    private final ReportProperties reportProperties;
+
+    // Últimas consultas lentas, la más reciente primero
+    private final Deque<SlowQuery> slowQueries = new ConcurrentLinkedDeque<>();
+
+    @SuppressWarnings("unchecked")
+    public List<Object[]> list(String queryName, Query query) {
+        applyTimeout(query);
+        long start = System.nanoTime();
+        try {
+            List<Object[]> rows = query.getResultList();
+            record(queryName, query, System.nanoTime() - start, rows.size(), "success");
+            return rows;
+        } catch (RuntimeException e) {
+            record(queryName, query, System.nanoTime() - start, 0, "error");
+            throw e;
+        }
+    }
+
+    public Object single(String queryName, Query query) {
+        applyTimeout(query);
+        long start = System.nanoTime();
+        try {
+            Object result = query.getSingleResult();
+            record(queryName, query, System.nanoTime() - start, 1, "success");
+            return result;
+        } catch (RuntimeException e) {
+            record(queryName, query, System.nanoTime() - start, 0, "error");
+            throw e;
+        }
+    }
+
+    /**
+     * Mide una consulta recorrida con cursor. El tiempo va desde que se abre el cursor
+     * hasta que se cierra el Stream, así que incluye el tiempo del consumidor. Si la lectura
+     * falla (por ejemplo, una sentencia cancelada) o el Stream se cierra antes de recorrerlo
+     * entero, la consulta se registra como error.
+     */
+    @SuppressWarnings("unchecked")
+    public Stream<Object[]> stream(String queryName, Query query) {
+        applyTimeout(query);
+        long start = System.nanoTime();
+        Stream<Object[]> rows;
+        try {
+            rows = query.getResultStream();
+        } catch (RuntimeException e) {
+            record(queryName, query, System.nanoTime() - start, 0, "error");
+            throw e;
+        }
+
+        TrackedIterator tracked = new TrackedIterator(rows.iterator());
+        AtomicBoolean recorded = new AtomicBoolean();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(tracked, Spliterator.ORDERED), false)
+                .onClose(rows::close)
+                .onClose(() -> {
+                    if (recorded.compareAndSet(false, true)) {
+                        String outcome = tracked.failed || !tracked.exhausted ? "error" : "success";
+                        record(queryName, query, System.nanoTime() - start, tracked.count, outcome);
+                    }
+                });
+    }
+
+    public List<SlowQuery> getSlowQueries() {
+        return new ArrayList<>(slowQueries);
+    }
+
+    /**
+     * Punto de cancelación antes de ejecutar y tiempo máximo de la sentencia: lo que le
+     * queda al trabajo de reporte actual o app.reports.query-timeout-millis fuera de un trabajo.
+     * El driver lo aplica con setQueryTimeout, que PostgreSQL cancela al vencer.
+     */
+    private void applyTimeout(Query query) {
+        ReportCancellation.checkpoint();
+
+        ReportCancellation cancellation = ReportCancellation.current();
+        long timeoutMillis = cancellation != null
+                ? cancellation.remainingMillis()
+                : reportProperties.getQueryTimeoutMillis();
+        if (timeoutMillis > 0 && timeoutMillis < Integer.MAX_VALUE) {
+            // JDBC trabaja en segundos: menos de uno quedaría en cero, que es sin límite
+            query.setHint(SpecHints.HINT_SPEC_QUERY_TIMEOUT, (int) Math.max(1000, timeoutMillis));
+        }
+    }
+
+    private void record(String queryName, Query query, long elapsedNanos, long rowCount, String outcome) {
+        Timer.builder(TIMER_NAME)
+                .description("Execution time of report queries")
+                .tag(QUERY_TAG, queryName)
+                .tag(OUTCOME_TAG, outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        DistributionSummary.builder(ROWS_NAME)
+                .description("Rows returned by report queries")
+                .baseUnit("rows")
+                .tag(QUERY_TAG, queryName)
+                .register(meterRegistry)
+                .record(rowCount);
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        long threshold = reportProperties.getSlowQueryThresholdMillis();
+        if (threshold > 0 && elapsedMillis >= threshold) {
+            log.warn("Slow report query {} took {} ms and returned {} rows ({}), parameters: {}",
+                    queryName, elapsedMillis, rowCount, outcome, describeParameters(query));
+
+            slowQueries.addFirst(new SlowQuery(queryName, elapsedMillis, rowCount, Instant.now()));
+            while (slowQueries.size() > MAX_SLOW_QUERIES) {
+                slowQueries.pollLast();
+            }
+        }
+    }
+
+    private static String describeParameters(Query query) {
+        StringJoiner parameters = new StringJoiner(", ", "[", "]");
+        try {
+            for (Parameter<?> parameter : query.getParameters()) {
+                String name = parameter.getName() != null ? parameter.getName()
+                        : String.valueOf(parameter.getPosition());
+                Object value = query.isBound(parameter) ? query.getParameterValue(parameter) : "<unbound>";
+                parameters.add(name + "=" + value);
+            }
+        } catch (RuntimeException e) {
+            // Algunos proveedores no permiten leer los parámetros de una consulta cerrada
+            return "<unavailable>";
+        }
+        return parameters.toString();
+    }
+
+    // Cuenta las filas leídas y recuerda si el cursor falló o llegó al final
+    private static final class TrackedIterator implements Iterator<Object[]> {
+        private final Iterator<Object[]> delegate;
+        private long count;
+        private boolean failed;
+        private boolean exhausted;
+
+        TrackedIterator(Iterator<Object[]> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                boolean hasNext = delegate.hasNext();
+                exhausted = !hasNext;
+                return hasNext;
+            } catch (RuntimeException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public Object[] next() {
+            try {
+                Object[] row = delegate.next();
+                count++;
+                return row;
+            } catch (RuntimeException e) {
+                failed = true;
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Consulta que superó el umbral; los parámetros solo se escriben en el log
+     */
+    public record SlowQuery(String queryName, long durationMillis, long rows, Instant executedAt) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.project.ayd.mechanic_workshop.features.reports.repository;
+
+import com.project.ayd.mechanic_workshop.features.reports.entity.ReportDataChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReportDataChangeRepository extends JpaRepository<ReportDataChange, Long> {
+
+    // Cambios por tabla dentro del rango más los cambios sin fecha; cada fila es (table_name, total)
+    @Query(value = """
+            SELECT table_name, COALESCE(SUM(changes), 0)
+            FROM report_data_change
+            WHERE table_name IN (:tableNames)
+            AND (day IS NULL OR day BETWEEN :startDay AND :endDay)
+            GROUP BY table_name
+            """, nativeQuery = true)
+    List<Object[]> sumChanges(@Param("tableNames") Collection<String> tableNames,
+            @Param("startDay") LocalDate startDay,
+            @Param("endDay") LocalDate endDay);
+
+    // Fusiona las filas de cada (table_name, day) en una sola conservando la suma; las filas
+    // que los escritores agregan mientras tanto no se tocan
+    @Modifying
+    @Transactional
+    @Query(value = """
+            WITH merged AS (
+                DELETE FROM report_data_change c
+                USING (
+                    SELECT table_name, day
+                    FROM report_data_change
+                    GROUP BY table_name, day
+                    HAVING COUNT(*) > 1
+                ) g
+                WHERE c.table_name = g.table_name
+                AND c.day IS NOT DISTINCT FROM g.day
+                RETURNING c.table_name, c.day, c.changes
+            )
+            INSERT INTO report_data_change (table_name, day, changes)
+            SELECT table_name, day, SUM(changes)
+            FROM merged
+            GROUP BY table_name, day
+            """, nativeQuery = true)
+    int compact();
+}
@@ -0,0 +1,94 @@
+package com.project.ayd.mechanic_workshop.features.reports.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Buckets cerrados de las series históricas (report_period_bucket).
+ * Un bucket sin filas también se guarda, para distinguir un periodo sin datos de
+ * uno que todavía no se calculó.
+ */
+@Repository
+public class ReportPeriodBucketRepository {
+
+        @PersistenceContext
+        private EntityManager entityManager;
+
+        /**
+         * Buckets calculados que empiezan en el rango, con sus filas:
+         * [bucket_start, row_key, label, amount, item_count, last_date].
+         * Un bucket vacío aparece una vez con row_key en null.
+         */
+        @SuppressWarnings("unchecked")
+        public List<Object[]> findBuckets(String series, LocalDate from, LocalDate to) {
+                String sql = """
+                                SELECT b.bucket_start, r.row_key, r.label, r.amount, r.item_count, r.last_date
+                                FROM report_period_bucket b
+                                LEFT JOIN report_period_bucket_row r
+                                    ON r.series = b.series AND r.bucket_start = b.bucket_start
+                                WHERE b.series = :series
+                                AND b.bucket_start BETWEEN :from AND :to
+                                """;
+                Query query = entityManager.createNativeQuery(sql);
+                query.setParameter("series", series);
+                query.setParameter("from", from);
+                query.setParameter("to", to);
+                return query.getResultList();
+        }
+
+        // Devuelve false si otro nodo ya guardó el bucket
+        public boolean insertBucket(String series, LocalDate bucketStart, LocalDate bucketEnd) {
+                String sql = """
+                                INSERT INTO report_period_bucket (series, bucket_start, bucket_end)
+                                VALUES (:series, :bucketStart, :bucketEnd)
+                                ON CONFLICT (series, bucket_start) DO NOTHING
+                                """;
+                Query query = entityManager.createNativeQuery(sql);
+                query.setParameter("series", series);
+                query.setParameter("bucketStart", bucketStart);
+                query.setParameter("bucketEnd", bucketEnd);
+                return query.executeUpdate() > 0;
+        }
+
+        public void insertRow(String series, LocalDate bucketStart, String rowKey, String label, BigDecimal amount,
+                        long itemCount, LocalDate lastDate) {
+                String sql = """
+                                INSERT INTO report_period_bucket_row
+                                    (series, bucket_start, row_key, label, amount, item_count, last_date)
+                                VALUES (:series, :bucketStart, :rowKey, :label, :amount, :itemCount,
+                                        CAST(:lastDate AS DATE))
+                                """;
+                Query query = entityManager.createNativeQuery(sql);
+                query.setParameter("series", series);
+                query.setParameter("bucketStart", bucketStart);
+                query.setParameter("rowKey", rowKey);
+                query.setParameter("label", label);
+                query.setParameter("amount", amount);
+                query.setParameter("itemCount", itemCount);
+                query.setParameter("lastDate", lastDate);
+                query.executeUpdate();
+        }
+
+        /**
+         * Elimina los buckets (y sus filas) que se solapan con el rango
+         *
+         * @param series Serie a invalidar, o null para todas
+         */
+        public int deleteBuckets(String series, LocalDate from, LocalDate to) {
+                String sql = "DELETE FROM report_period_bucket WHERE bucket_end >= :from AND bucket_start <= :to"
+                                + (series != null ? " AND series = :series" : "");
+                Query query = entityManager.createNativeQuery(sql);
+                query.setParameter("from", from);
+                query.setParameter("to", to);
+                if (series != null) {
+                        query.setParameter("series", series);
+                }
+                return query.executeUpdate();
+        }
+}
@@ -0,0 +1,169 @@
+package com.project.ayd.mechanic_workshop.features.reports.repository;
+
+import com.project.ayd.mechanic_workshop.features.reports.entity.ReportRecord;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Repository
+public interface ReportRecordRepository extends JpaRepository<ReportRecord, String> {
+
+    // Usa idx_report_registry_generated_by
+    List<ReportRecord> findByGeneratedByAndExpiresAtAfterOrderByGeneratedAtDesc(String generatedBy,
+            LocalDateTime now);
+
+    // Usa idx_report_registry_expires
+    List<ReportRecord> findByExpiresAtBefore(LocalDateTime now);
+
+    List<ReportRecord> findByStatusOrderByGeneratedAtDesc(ReportStatus status);
+
+    // Usa idx_report_registry_content_key
+    Optional<ReportRecord> findFirstByContentKeyAndStatusInAndExpiresAtAfterOrderByCreatedAtDesc(
+            String contentKey, Collection<ReportStatus> statuses, LocalDateTime now);
+
+    // Un archivo compartido solo se elimina cuando ningún registro lo referencia
+    boolean existsByStorageKey(String storageKey);
+
+    List<ReportRecord> findByStorageKey(String storageKey);
+
+    // Solicitudes que todavía esperan una generación
+    boolean existsByStorageKeyAndStatusIn(String storageKey, Collection<ReportStatus> statuses);
+
+    @Query("SELECT DISTINCT r.storageKey FROM ReportRecord r")
+    Set<String> findAllStorageKeys();
+
+    // ================================
+    // CUOTA DE ALMACENAMIENTO
+    // Un archivo compartido por varias solicitudes se cuenta una sola vez
+    // ================================
+
+    @Query(value = """
+            SELECT COALESCE(SUM(file_size), 0), COALESCE(SUM(raw_size), 0), COUNT(*)
+            FROM (
+                SELECT DISTINCT ON (storage_key) file_size, raw_size
+                FROM report_registry
+                WHERE status = 'COMPLETED'
+            ) stored
+            """, nativeQuery = true)
+    List<Object[]> summarizeCompletedStorage();
+
+    // Archivos completados del menos al más recientemente usado; usa idx_report_registry_lru
+    @Query(value = """
+            SELECT storage_key, MAX(file_size) AS file_size
+            FROM report_registry
+            WHERE status = 'COMPLETED'
+            GROUP BY storage_key
+            ORDER BY MAX(COALESCE(last_accessed_at, generated_at))
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Object[]> findLeastRecentlyUsedFiles(@Param("limit") int limit);
+
+    // Reportes vigentes de un usuario, del más al menos recientemente usado
+    @Query("SELECT r FROM ReportRecord r WHERE r.generatedBy = :generatedBy AND r.expiresAt > :now " +
+            "ORDER BY COALESCE(r.lastAccessedAt, r.generatedAt) DESC")
+    List<ReportRecord> findActiveByUserMostRecentFirst(@Param("generatedBy") String generatedBy,
+            @Param("now") LocalDateTime now);
+
+    // Registra la descarga; se omite si la última es reciente para no escribir en cada petición de rango
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ReportRecord r SET r.lastAccessedAt = :now WHERE r.reportId = :reportId " +
+            "AND (r.lastAccessedAt IS NULL OR r.lastAccessedAt < :threshold)")
+    int touch(@Param("reportId") String reportId,
+            @Param("now") LocalDateTime now,
+            @Param("threshold") LocalDateTime threshold);
+
+    /**
+     * Serializa, en todos los nodos, las solicitudes con la misma clave de contenido
+     * hasta el fin de la transacción actual.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "SELECT CAST(pg_advisory_xact_lock(hashtextextended(:contentKey, 0)) AS TEXT)",
+            nativeQuery = true)
+    String lockContentKey(@Param("contentKey") String contentKey);
+
+    /**
+     * Serializa, en todos los nodos, las solicitudes de un mismo usuario hasta el fin de la
+     * transacción actual, para contar y liberar su límite de reportes sin carreras.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "SELECT CAST(pg_advisory_xact_lock(hashtextextended('report-user:' || :username, 0)) AS TEXT)",
+            nativeQuery = true)
+    String lockUser(@Param("username") String username);
+
+    // ================================
+    // TRANSICIONES DE ESTADO
+    // Cada UPDATE solo aplica si el reporte sigue en el estado esperado, así dos nodos
+    // no pueden completar o fallar el mismo reporte
+    // ================================
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ReportRecord r SET r.status = :status " +
+            "WHERE r.reportId = :reportId AND r.status = :expected")
+    int updateStatus(@Param("reportId") String reportId,
+            @Param("expected") ReportStatus expected,
+            @Param("status") ReportStatus status);
+
+    // Inicia la generación para todas las solicitudes en cola que la comparten
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ReportRecord r SET r.status = :status " +
+            "WHERE r.storageKey = :storageKey AND r.status = :expected")
+    int markGenerating(@Param("storageKey") String storageKey,
+            @Param("expected") ReportStatus expected,
+            @Param("status") ReportStatus status);
+
+    // Completa la generación y todas las solicitudes que la comparten
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ReportRecord r SET r.status = :status, r.fileSize = :fileSize, r.rawSize = :rawSize, " +
+            "r.generatedAt = :generatedAt, r.expiresAt = :expiresAt " +
+            "WHERE r.storageKey = :storageKey AND r.status IN :unfinished")
+    int markCompleted(@Param("storageKey") String storageKey,
+            @Param("unfinished") Collection<ReportStatus> unfinished,
+            @Param("status") ReportStatus status,
+            @Param("fileSize") Long fileSize,
+            @Param("rawSize") Long rawSize,
+            @Param("generatedAt") LocalDateTime generatedAt,
+            @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ReportRecord r SET r.status = :status, r.errorMessage = :errorMessage " +
+            "WHERE r.storageKey = :storageKey AND r.status IN :unfinished")
+    int markFailed(@Param("storageKey") String storageKey,
+            @Param("unfinished") Collection<ReportStatus> unfinished,
+            @Param("status") ReportStatus status,
+            @Param("errorMessage") String errorMessage);
+
+    // Cancela una sola solicitud; la generación sigue mientras otra solicitud la espere
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ReportRecord r SET r.status = :status, r.errorMessage = :errorMessage " +
+            "WHERE r.reportId = :reportId AND r.status IN :unfinished")
+    int markCancelled(@Param("reportId") String reportId,
+            @Param("unfinished") Collection<ReportStatus> unfinished,
+            @Param("status") ReportStatus status,
+            @Param("errorMessage") String errorMessage);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ReportRecord r SET r.status = :status, r.errorMessage = :errorMessage " +
+            "WHERE r.status IN :unfinished AND r.createdAt < :cutoff")
+    int markAbandoned(@Param("unfinished") Collection<ReportStatus> unfinished,
+            @Param("status") ReportStatus status,
+            @Param("errorMessage") String errorMessage,
+            @Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,58 +1,379 @@
 package com.project.ayd.mechanic_workshop.features.reports.repository;
 
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
+import com.project.ayd.mechanic_workshop.features.reports.dto.DashboardSnapshot;
+import com.project.ayd.mechanic_workshop.features.reports.enums.LeaderboardType;
+import com.project.ayd.mechanic_workshop.features.reports.metrics.ReportQueryMetrics;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+import org.postgresql.PGConnection;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
+@RequiredArgsConstructor
 @Slf4j
 public class ReportRepository {
 
         @PersistenceContext
         private EntityManager entityManager;
 
+        private final ReportProperties reportProperties;
+        private final ReportQueryMetrics queryMetrics;
+
+        // Filas leídas por lote cuando una consulta se recorre con cursor
+        private static final int STREAM_FETCH_SIZE = 500;
+
+        private static final String PART_USAGE_SQL = """
+                                SELECT
+                                    p.name as part_name,
+                                    pc.name as category_name,
+                                    COALESCE(SUM(wp.quantity_used), 0) as total_quantity,
+                                    COALESCE(SUM(wp.quantity_used * wp.unit_price), 0) as total_cost,
+                                    COUNT(DISTINCT wp.work_id) as works_count,
+                                    COALESCE(AVG(wp.unit_price), 0) as avg_unit_price
+                                FROM work_part wp
+                                INNER JOIN part p ON wp.part_id = p.id
+                                INNER JOIN part_category pc ON p.category_id = pc.id
+                                INNER JOIN work w ON wp.work_id = w.id
+                                WHERE w.created_at BETWEEN :startDate AND :endDate
+                                GROUP BY p.id, p.name, pc.name
+                                HAVING SUM(wp.quantity_used) > 0
+                                ORDER BY total_quantity DESC
+                                """;
+
+        private static final String PARTS_BY_BRAND_SQL = """
+                                SELECT
+                                    vb.name as brand_name,
+                                    p.name as part_name,
+                                    pc.name as category_name,
+                                    COALESCE(SUM(wp.quantity_used), 0) as total_quantity,
+                                    COALESCE(SUM(wp.quantity_used * wp.unit_price), 0) as total_cost
+                                FROM work_part wp
+                                INNER JOIN part p ON wp.part_id = p.id
+                                INNER JOIN part_category pc ON p.category_id = pc.id
+                                INNER JOIN work w ON wp.work_id = w.id
+                                INNER JOIN vehicle v ON w.vehicle_id = v.id
+                                INNER JOIN vehicle_model vm ON v.model_id = vm.id
+                                INNER JOIN vehicle_brand vb ON vm.brand_id = vb.id
+                                WHERE w.created_at BETWEEN :startDate AND :endDate
+                                GROUP BY vb.name, p.name, pc.name
+                                HAVING SUM(wp.quantity_used) > 0
+                                ORDER BY vb.name, total_quantity DESC
+                                """;
+
+        // Variantes sobre rollup_daily_part_usage; reciben fechas en lugar de timestamps
+        private static final String PART_USAGE_ROLLUP_SQL = """
+                                SELECT
+                                    p.name as part_name,
+                                    pc.name as category_name,
+                                    COALESCE(SUM(r.quantity_used), 0) as total_quantity,
+                                    COALESCE(SUM(r.total_cost), 0) as total_cost,
+                                    SUM(r.line_count) as works_count,
+                                    COALESCE(SUM(r.unit_price_sum) / NULLIF(SUM(r.line_count), 0), 0) as avg_unit_price
+                                FROM rollup_daily_part_usage r
+                                INNER JOIN part p ON r.part_id = p.id
+                                INNER JOIN part_category pc ON p.category_id = pc.id
+                                WHERE r.day BETWEEN :startDate AND :endDate
+                                AND r.line_count > 0
+                                GROUP BY p.id, p.name, pc.name
+                                HAVING SUM(r.quantity_used) > 0
+                                ORDER BY total_quantity DESC
+                                """;
+
+        private static final String PARTS_BY_BRAND_ROLLUP_SQL = """
+                                SELECT
+                                    vb.name as brand_name,
+                                    p.name as part_name,
+                                    pc.name as category_name,
+                                    COALESCE(SUM(r.quantity_used), 0) as total_quantity,
+                                    COALESCE(SUM(r.total_cost), 0) as total_cost
+                                FROM rollup_daily_part_usage r
+                                INNER JOIN part p ON r.part_id = p.id
+                                INNER JOIN part_category pc ON p.category_id = pc.id
+                                INNER JOIN vehicle_brand vb ON r.vehicle_brand_id = vb.id
+                                WHERE r.day BETWEEN :startDate AND :endDate
+                                AND r.line_count > 0
+                                GROUP BY vb.name, p.name, pc.name
+                                HAVING SUM(r.quantity_used) > 0
+                                ORDER BY vb.name, total_quantity DESC
+                                """;
+
+        private static final String CLIENT_HISTORY_SELECT = """
+                                SELECT
+                                    CONCAT(p.first_name, ' ', p.last_name) as client_name,
+                                    p.cui as client_cui,
+                                    p.email as client_email,
+                                    COUNT(w.id) as total_works,
+                                    COALESCE(SUM(i.total_amount), 0) as total_spent,
+                                    MAX(w.created_at) as last_visit,
+                                    COUNT(DISTINCT v.id) as vehicles_count,
+                                    STRING_AGG(DISTINCT st.name, ', ') as service_types
+                                FROM person p
+                                INNER JOIN vehicle v ON p.cui = v.owner_cui
+                                INNER JOIN work w ON v.id = w.vehicle_id
+                                LEFT JOIN invoice i ON w.id = i.work_id
+                                INNER JOIN service_type st ON w.service_type_id = st.id
+                                WHERE w.created_at BETWEEN :startDate AND :endDate
+                                GROUP BY p.cui, p.first_name, p.last_name, p.email
+                                """;
+
+        private static final String CLIENT_HISTORY_SQL = CLIENT_HISTORY_SELECT + "ORDER BY total_spent DESC\n";
+
+        // ================================
+        // CONSULTAS PAGINADAS
+        // Incluyen el identificador que desempata la clave de orden del keyset
+        // ================================
+
+        private static final String PART_USAGE_PAGE_SQL = """
+                                SELECT
+                                    p.name as part_name,
+                                    pc.name as category_name,
+                                    COALESCE(SUM(wp.quantity_used), 0) as total_quantity,
+                                    COALESCE(SUM(wp.quantity_used * wp.unit_price), 0) as total_cost,
+                                    COUNT(DISTINCT wp.work_id) as works_count,
+                                    COALESCE(AVG(wp.unit_price), 0) as avg_unit_price,
+                                    p.id as part_id
+                                FROM work_part wp
+                                INNER JOIN part p ON wp.part_id = p.id
+                                INNER JOIN part_category pc ON p.category_id = pc.id
+                                INNER JOIN work w ON wp.work_id = w.id
+                                WHERE w.created_at BETWEEN :startDate AND :endDate
+                                GROUP BY p.id, p.name, pc.name
+                                HAVING SUM(wp.quantity_used) > 0
+                                """;
+
+        private static final String PART_USAGE_PAGE_ROLLUP_SQL = """
+                                SELECT
+                                    p.name as part_name,
+                                    pc.name as category_name,
+                                    COALESCE(SUM(r.quantity_used), 0) as total_quantity,
+                                    COALESCE(SUM(r.total_cost), 0) as total_cost,
+                                    SUM(r.line_count) as works_count,
+                                    COALESCE(SUM(r.unit_price_sum) / NULLIF(SUM(r.line_count), 0), 0) as avg_unit_price,
+                                    p.id as part_id
+                                FROM rollup_daily_part_usage r
+                                INNER JOIN part p ON r.part_id = p.id
+                                INNER JOIN part_category pc ON p.category_id = pc.id
+                                WHERE r.day BETWEEN :startDate AND :endDate
+                                AND r.line_count > 0
+                                GROUP BY p.id, p.name, pc.name
+                                HAVING SUM(r.quantity_used) > 0
+                                """;
+
+        private static final String PROVIDER_EXPENSES_PAGE_SQL = """
+                                SELECT
+                                    COALESCE(s.company_name, CONCAT(p.first_name, ' ', p.last_name)) as provider_name,
+                                    COUNT(po.id) as total_orders,
+                                    COALESCE(SUM(po.total_amount), 0) as total_amount,
+                                    MAX(po.order_date) as last_order_date,
+                                    s.id as supplier_id
+                                FROM purchase_order po
+                                INNER JOIN supplier s ON po.supplier_id = s.id
+                                LEFT JOIN person p ON s.person_cui = p.cui
+                                INNER JOIN purchase_order_status pos ON po.purchase_order_status_id = pos.id
+                                WHERE po.order_date BETWEEN :startDate AND :endDate
+                                AND pos.name IN ('Entregada', 'Confirmada')
+                                GROUP BY s.id, s.company_name, p.first_name, p.last_name
+                                """;
+
+        private static final String WORKS_BY_EMPLOYEE_PAGE_SQL = """
+                                SELECT
+                                    CONCAT(p.first_name, ' ', p.last_name) as employee_name,
+                                    DATE(w.created_at) as work_date,
+                                    st.name as service_type,
+                                    w.actual_hours,
+                                    w.actual_cost,
+                                    ws.name as status,
+                                    w.created_at,
+                                    w.id as work_id
+                                FROM work w
+                                INNER JOIN "user" u ON w.assigned_employee_id = u.id
+                                INNER JOIN person p ON u.person_cui = p.cui
+                                INNER JOIN service_type st ON w.service_type_id = st.id
+                                INNER JOIN work_status ws ON w.work_status_id = ws.id
+                                WHERE w.created_at BETWEEN :startDate AND :endDate
+                                """;
+
+        // ================================
+        // RANKINGS
+        // Columnas comunes: item_key, label, score, works; el ORDER BY ... LIMIT
+        // se agrega en getLeaderboard para que PostgreSQL haga un top-N
+        // ================================
+
+        private static final String MECHANICS_BY_REVENUE_SQL = """
+                                SELECT
+                                    CAST(u.id AS VARCHAR) as item_key,
+                                    CONCAT(p.first_name, ' ', p.last_name) as label,
+                                    COALESCE(SUM(w.actual_cost), 0) as score,
+                                    COUNT(w.id) as works
+                                FROM work w
+                                INNER JOIN "user" u ON w.assigned_employee_id = u.id
+                                INNER JOIN person p ON u.person_cui = p.cui
+                                INNER JOIN user_type ut ON u.user_type_id = ut.id
+                                WHERE ut.name IN ('Empleado', 'Especialista')
+                                AND w.created_at BETWEEN :startDate AND :endDate
+                                GROUP BY u.id, p.first_name, p.last_name
+                                """;
+
+        private static final String MECHANICS_BY_REVENUE_ROLLUP_SQL = """
+                                SELECT
+                                    CAST(u.id AS VARCHAR) as item_key,
+                                    CONCAT(p.first_name, ' ', p.last_name) as label,
+                                    COALESCE(SUM(r.total_cost), 0) as score,
+                                    SUM(r.work_count) as works
+                                FROM rollup_daily_work r
+                                INNER JOIN "user" u ON r.employee_id = u.id
+                                INNER JOIN person p ON u.person_cui = p.cui
+                                INNER JOIN user_type ut ON u.user_type_id = ut.id
+                                WHERE ut.name IN ('Empleado', 'Especialista')
+                                AND r.day BETWEEN :startDate AND :endDate
+                                AND r.work_count > 0
+                                GROUP BY u.id, p.first_name, p.last_name
+                                """;
+
+        private static final String PARTS_BY_USAGE_SQL = """
+                                SELECT
+                                    CAST(p.id AS VARCHAR) as item_key,
+                                    p.name as label,
+                                    SUM(wp.quantity_used) as score,
+                                    COUNT(DISTINCT wp.work_id) as works
+                                FROM work_part wp
+                                INNER JOIN part p ON wp.part_id = p.id
+                                INNER JOIN work w ON wp.work_id = w.id
+                                WHERE w.created_at BETWEEN :startDate AND :endDate
+                                GROUP BY p.id, p.name
+                                HAVING SUM(wp.quantity_used) > 0
+                                """;
+
+        private static final String PARTS_BY_USAGE_ROLLUP_SQL = """
+                                SELECT
+                                    CAST(p.id AS VARCHAR) as item_key,
+                                    p.name as label,
+                                    SUM(r.quantity_used) as score,
+                                    SUM(r.line_count) as works
+                                FROM rollup_daily_part_usage r
+                                INNER JOIN part p ON r.part_id = p.id
+                                WHERE r.day BETWEEN :startDate AND :endDate
+                                AND r.line_count > 0
+                                GROUP BY p.id, p.name
+                                HAVING SUM(r.quantity_used) > 0
+                                """;
+
+        // Los rollups no guardan el cliente: este ranking siempre se calcula sobre work
+        private static final String CLIENTS_BY_SPEND_SQL = """
+                                SELECT
+                                    p.cui as item_key,
+                                    CONCAT(p.first_name, ' ', p.last_name) as label,
+                                    COALESCE(SUM(i.total_amount), 0) as score,
+                                    COUNT(DISTINCT w.id) as works
+                                FROM person p
+                                INNER JOIN vehicle v ON p.cui = v.owner_cui
+                                INNER JOIN work w ON v.id = w.vehicle_id
+                                LEFT JOIN invoice i ON w.id = i.work_id
+                                WHERE w.created_at BETWEEN :startDate AND :endDate
+                                GROUP BY p.cui, p.first_name, p.last_name
+                                """;
+
+        private static final String BRANDS_BY_REVENUE_SQL = """
+                                SELECT
+                                    CAST(vb.id AS VARCHAR) as item_key,
+                                    vb.name as label,
+                                    COALESCE(SUM(w.actual_cost), 0) as score,
+                                    COUNT(w.id) as works
+                                FROM work w
+                                INNER JOIN vehicle v ON w.vehicle_id = v.id
+                                INNER JOIN vehicle_model vm ON v.model_id = vm.id
+                                INNER JOIN vehicle_brand vb ON vm.brand_id = vb.id
+                                WHERE w.created_at BETWEEN :startDate AND :endDate
+                                GROUP BY vb.id, vb.name
+                                """;
+
+        private static final String BRANDS_BY_REVENUE_ROLLUP_SQL = """
+                                SELECT
+                                    CAST(vb.id AS VARCHAR) as item_key,
+                                    vb.name as label,
+                                    COALESCE(SUM(r.total_cost), 0) as score,
+                                    SUM(r.work_count) as works
+                                FROM rollup_daily_work r
+                                INNER JOIN vehicle_brand vb ON r.vehicle_brand_id = vb.id
+                                WHERE r.day BETWEEN :startDate AND :endDate
+                                AND r.work_count > 0
+                                GROUP BY vb.id, vb.name
+                                """;
+
         // ================================
         // DASHBOARD QUERIES
         // ================================
 
+        // Ingresos y saldo pendiente; los usan el snapshot completo y el financiero
+        private static final String FINANCIAL_SNAPSHOT_CTES = """
+                                income AS (
+                                    SELECT
+                                        COALESCE(SUM(i.total_amount) FILTER (WHERE i.issued_date = CURRENT_DATE), 0) as income_today,
+                                        COALESCE(SUM(i.total_amount) FILTER (
+                                            WHERE i.issued_date >= DATE_TRUNC('month', CURRENT_DATE)
+                                            AND i.issued_date < DATE_TRUNC('month', CURRENT_DATE) + INTERVAL '1 month'), 0) as income_month,
+                                        COALESCE(SUM(i.total_amount), 0) as income_year
+                                    FROM invoice i
+                                    WHERE i.issued_date >= DATE_TRUNC('year', CURRENT_DATE)
+                                    AND i.issued_date < DATE_TRUNC('year', CURRENT_DATE) + INTERVAL '1 year'
+                                ),
+                                pending AS (
+                                    SELECT COALESCE(SUM(i.total_amount - COALESCE(p.paid_amount, 0)), 0) as pending_payments
+                                    FROM invoice i
+                                    LEFT JOIN (
+                                        SELECT invoice_id, SUM(amount) as paid_amount
+                                        FROM payment
+                                        GROUP BY invoice_id
+                                    ) p ON i.id = p.invoice_id
+                                    INNER JOIN payment_status ps ON i.payment_status_id = ps.id
+                                    WHERE ps.name IN ('Pendiente', 'Parcial')
+                                )
+                                """;
+
+        // Los estados se filtran por id (WorkOrderStatus), igual que getDashboardSnapshot y los
+        // contadores de KpiCounterService; los nombres del catálogo no coinciden con el enum
         public Long countActiveWorks() {
                 String sql = """
                                 SELECT COUNT(*)
                                 FROM work w
-                                INNER JOIN work_status ws ON w.work_status_id = ws.id
-                                WHERE ws.name = 'En progreso'
+                                WHERE w.work_status_id = 3
                                 """;
                 Query query = entityManager.createNativeQuery(sql);
-                return ((Number) query.getSingleResult()).longValue();
+                return ((Number) queryMetrics.single("countActiveWorks", query)).longValue();
         }
 
         public Long countCompletedWorks() {
                 String sql = """
                                 SELECT COUNT(*)
                                 FROM work w
-                                INNER JOIN work_status ws ON w.work_status_id = ws.id
-                                WHERE ws.name = 'Completado'
+                                WHERE w.work_status_id = 4
                                 """;
                 Query query = entityManager.createNativeQuery(sql);
-                return ((Number) query.getSingleResult()).longValue();
+                return ((Number) queryMetrics.single("countCompletedWorks", query)).longValue();
         }
 
         public Long countPendingWorks() {
                 String sql = """
                                 SELECT COUNT(*)
                                 FROM work w
-                                INNER JOIN work_status ws ON w.work_status_id = ws.id
-                                WHERE ws.name IN ('Pendiente', 'Asignado')
+                                WHERE w.work_status_id IN (1, 2)
                                 """;
                 Query query = entityManager.createNativeQuery(sql);
-                return ((Number) query.getSingleResult()).longValue();
+                return ((Number) queryMetrics.single("countPendingWorks", query)).longValue();
         }
 
         public BigDecimal getTotalIncomeToday() {
@@ -62,7 +383,7 @@ public class ReportRepository {
                                 WHERE DATE(i.issued_date) = CURRENT_DATE
                                 """;
                 Query query = entityManager.createNativeQuery(sql);
-                Number result = (Number) query.getSingleResult();
+                Number result = (Number) queryMetrics.single("getTotalIncomeToday", query);
                 return new BigDecimal(result.toString());
         }
 
@@ -74,7 +395,7 @@ public class ReportRepository {
                                 AND EXTRACT(MONTH FROM i.issued_date) = EXTRACT(MONTH FROM CURRENT_DATE)
                                 """;
                 Query query = entityManager.createNativeQuery(sql);
-                Number result = (Number) query.getSingleResult();
+                Number result = (Number) queryMetrics.single("getTotalIncomeThisMonth", query);
                 return new BigDecimal(result.toString());
         }
 
@@ -85,7 +406,7 @@ public class ReportRepository {
                                 WHERE EXTRACT(YEAR FROM i.issued_date) = EXTRACT(YEAR FROM CURRENT_DATE)
                                 """;
                 Query query = entityManager.createNativeQuery(sql);
-                Number result = (Number) query.getSingleResult();
+                Number result = (Number) queryMetrics.single("getTotalIncomeThisYear", query);
                 return new BigDecimal(result.toString());
         }
 
@@ -102,14 +423,14 @@ public class ReportRepository {
                                 WHERE ps.name IN ('Pendiente', 'Parcial')
                                 """;
                 Query query = entityManager.createNativeQuery(sql);
-                Number result = (Number) query.getSingleResult();
+                Number result = (Number) queryMetrics.single("getTotalPendingPayments", query);
                 return new BigDecimal(result.toString());
         }
 
         public Long countPartsInStock() {
                 String sql = "SELECT COUNT(*) FROM inventory_stock WHERE quantity_available > 0";
                 Query query = entityManager.createNativeQuery(sql);
-                return ((Number) query.getSingleResult()).longValue();
+                return ((Number) queryMetrics.single("countPartsInStock", query)).longValue();
         }
 
         public Long countLowStockParts() {
@@ -120,20 +441,83 @@ public class ReportRepository {
                                 WHERE ist.quantity_available <= p.minimum_stock AND ist.quantity_available > 0
                                 """;
                 Query query = entityManager.createNativeQuery(sql);
-                return ((Number) query.getSingleResult()).longValue();
+                return ((Number) queryMetrics.single("countLowStockParts", query)).longValue();
         }
 
         public Long countOutOfStockParts() {
                 String sql = "SELECT COUNT(*) FROM inventory_stock WHERE quantity_available = 0";
                 Query query = entityManager.createNativeQuery(sql);
-                return ((Number) query.getSingleResult()).longValue();
+                return ((Number) queryMetrics.single("countOutOfStockParts", query)).longValue();
+        }
+
+        /**
+         * Obtiene todas las métricas escalares del dashboard en un solo viaje a la
+         * base de datos. Equivale a llamar a cada método count/getTotal por separado.
+         */
+        public DashboardSnapshot getDashboardSnapshot() {
+                String sql = """
+                                WITH work_counts AS (
+                                    SELECT
+                                        COUNT(*) FILTER (WHERE w.work_status_id = 3) as active_works,
+                                        COUNT(*) FILTER (WHERE w.work_status_id = 4) as completed_works,
+                                        COUNT(*) FILTER (WHERE w.work_status_id IN (1, 2)) as pending_works
+                                    FROM work w
+                                ),
+                                stock AS (
+                                    SELECT
+                                        COUNT(*) FILTER (WHERE ist.quantity_available > 0) as in_stock,
+                                        COUNT(*) FILTER (WHERE ist.quantity_available <= p.minimum_stock
+                                            AND ist.quantity_available > 0) as low_stock,
+                                        COUNT(*) FILTER (WHERE ist.quantity_available = 0) as out_of_stock
+                                    FROM inventory_stock ist
+                                    INNER JOIN part p ON ist.part_id = p.id
+                                ),
+                                employee_load AS (
+                                    SELECT u.id, COUNT(w.id) as open_works
+                                    FROM "user" u
+                                    INNER JOIN user_type ut ON u.user_type_id = ut.id
+                                    LEFT JOIN work w ON w.assigned_employee_id = u.id AND w.work_status_id IN (2, 3)
+                                    WHERE ut.name IN ('Empleado', 'Especialista')
+                                    AND u.is_active = true
+                                    GROUP BY u.id
+                                ),
+                                employees AS (
+                                    SELECT
+                                        COUNT(*) as total_employees,
+                                        COUNT(*) FILTER (WHERE open_works >= 5) as busy_employees,
+                                        COUNT(*) FILTER (WHERE open_works < 5) as available_employees
+                                    FROM employee_load
+                                ),
+                                """ + FINANCIAL_SNAPSHOT_CTES + """
+                                SELECT
+                                    wc.active_works, wc.completed_works, wc.pending_works,
+                                    inc.income_today, inc.income_month, inc.income_year,
+                                    pe.pending_payments,
+                                    st.in_stock, st.low_stock, st.out_of_stock,
+                                    e.total_employees, e.busy_employees, e.available_employees
+                                FROM work_counts wc, income inc, pending pe, stock st, employees e
+                                """;
+                Query query = entityManager.createNativeQuery(sql);
+                return DashboardSnapshot.fromRow((Object[]) queryMetrics.single("getDashboardSnapshot", query));
+        }
+
+        /**
+         * Solo las métricas financieras del snapshot, para cuando los conteos salen de
+         * KpiCounterService: ingresos de hoy, del mes y del año y saldo pendiente.
+         */
+        public Object[] getFinancialSnapshot() {
+                String sql = "WITH " + FINANCIAL_SNAPSHOT_CTES + """
+                                SELECT inc.income_today, inc.income_month, inc.income_year, pe.pending_payments
+                                FROM income inc, pending pe
+                                """;
+                Query query = entityManager.createNativeQuery(sql);
+                return (Object[]) queryMetrics.single("getFinancialSnapshot", query);
         }
 
         // ================================
         // FINANCIAL REPORTS
         // ================================
 
-        @SuppressWarnings("unchecked")
         public List<Object[]> getIncomeByMonth(LocalDate startDate, LocalDate endDate) {
                 String sql = """
                                 SELECT
@@ -144,13 +528,22 @@ public class ReportRepository {
                                 GROUP BY TO_CHAR(i.issued_date, 'YYYY-MM')
                                 ORDER BY month
                                 """;
-                Query query = entityManager.createNativeQuery(sql);
+                String rollupSql = """
+                                SELECT
+                                    TO_CHAR(r.day, 'YYYY-MM') as month,
+                                    COALESCE(SUM(r.total_amount), 0) as income
+                                FROM rollup_daily_income r
+                                WHERE r.day BETWEEN :startDate AND :endDate
+                                AND r.invoice_count > 0
+                                GROUP BY TO_CHAR(r.day, 'YYYY-MM')
+                                ORDER BY month
+                                """;
+                Query query = entityManager.createNativeQuery(reportProperties.isUseRollups() ? rollupSql : sql);
                 query.setParameter("startDate", startDate);
                 query.setParameter("endDate", endDate);
-                return query.getResultList();
+                return queryMetrics.list("getIncomeByMonth", query);
         }
 
-        @SuppressWarnings("unchecked")
         public List<Object[]> getIncomeByWeek(LocalDate startDate, LocalDate endDate) {
                 String sql = """
                                 SELECT
@@ -161,13 +554,22 @@ public class ReportRepository {
                                 GROUP BY TO_CHAR(i.issued_date, 'YYYY-IW')
                                 ORDER BY week
                                 """;
-                Query query = entityManager.createNativeQuery(sql);
+                String rollupSql = """
+                                SELECT
+                                    TO_CHAR(r.day, 'YYYY-IW') as week,
+                                    COALESCE(SUM(r.total_amount), 0) as income
+                                FROM rollup_daily_income r
+                                WHERE r.day BETWEEN :startDate AND :endDate
+                                AND r.invoice_count > 0
+                                GROUP BY TO_CHAR(r.day, 'YYYY-IW')
+                                ORDER BY week
+                                """;
+                Query query = entityManager.createNativeQuery(reportProperties.isUseRollups() ? rollupSql : sql);
                 query.setParameter("startDate", startDate);
                 query.setParameter("endDate", endDate);
-                return query.getResultList();
+                return queryMetrics.list("getIncomeByWeek", query);
         }
 
-        @SuppressWarnings("unchecked")
         public List<Object[]> getExpensesByMonth(LocalDate startDate, LocalDate endDate) {
                 String sql = """
                                 SELECT
@@ -183,10 +585,9 @@ public class ReportRepository {
                 Query query = entityManager.createNativeQuery(sql);
                 query.setParameter("startDate", startDate);
                 query.setParameter("endDate", endDate);
-                return query.getResultList();
+                return queryMetrics.list("getExpensesByMonth", query);
         }
 
-        @SuppressWarnings("unchecked")
         public List<Object[]> getProviderExpenses(LocalDate startDate, LocalDate endDate) {
                 String sql = """
                                 SELECT
@@ -206,14 +607,21 @@ public class ReportRepository {
                 Query query = entityManager.createNativeQuery(sql);
                 query.setParameter("startDate", startDate);
                 query.setParameter("endDate", endDate);
-                return query.getResultList();
+                return queryMetrics.list("getProviderExpenses", query);
+        }
+
+        // Igual que getProviderExpenses más el id del proveedor, para combinar periodos sin depender del nombre
+        public List<Object[]> getProviderExpensesBySupplier(LocalDate startDate, LocalDate endDate) {
+                Query query = entityManager.createNativeQuery(PROVIDER_EXPENSES_PAGE_SQL);
+                query.setParameter("startDate", startDate);
+                query.setParameter("endDate", endDate);
+                return queryMetrics.list("getProviderExpensesBySupplier", query);
         }
 
         // ================================
         // OPERATIONAL REPORTS
         // ================================
 
-        @SuppressWarnings("unchecked")
         public List<Object[]> getWorksByStatus(LocalDateTime startDate, LocalDateTime endDate) {
                 String sql = """
                                 SELECT
@@ -225,13 +633,21 @@ public class ReportRepository {
                                 GROUP BY ws.name
                                 ORDER BY count DESC
                                 """;
-                Query query = entityManager.createNativeQuery(sql);
-                query.setParameter("startDate", startDate);
-                query.setParameter("endDate", endDate);
-                return query.getResultList();
+                String rollupSql = """
+                                SELECT
+                                    ws.name as status,
+                                    SUM(r.work_count) as count
+                                FROM rollup_daily_work r
+                                INNER JOIN work_status ws ON r.work_status_id = ws.id
+                                WHERE r.day BETWEEN :startDate AND :endDate
+                                AND r.work_count > 0
+                                GROUP BY ws.name
+                                ORDER BY count DESC
+                                """;
+                Query query = createRangeQuery(sql, rollupSql, startDate, endDate);
+                return queryMetrics.list("getWorksByStatus", query);
         }
 
-        @SuppressWarnings("unchecked")
         public List<Object[]> getWorksByType(LocalDateTime startDate, LocalDateTime endDate) {
                 String sql = """
                                 SELECT
@@ -243,13 +659,21 @@ public class ReportRepository {
                                 GROUP BY st.name
                                 ORDER BY count DESC
                                 """;
-                Query query = entityManager.createNativeQuery(sql);
-                query.setParameter("startDate", startDate);
-                query.setParameter("endDate", endDate);
-                return query.getResultList();
+                String rollupSql = """
+                                SELECT
+                                    st.name as service_type,
+                                    SUM(r.work_count) as count
+                                FROM rollup_daily_work r
+                                INNER JOIN service_type st ON r.service_type_id = st.id
+                                WHERE r.day BETWEEN :startDate AND :endDate
+                                AND r.work_count > 0
+                                GROUP BY st.name
+                                ORDER BY count DESC
+                                """;
+                Query query = createRangeQuery(sql, rollupSql, startDate, endDate);
+                return queryMetrics.list("getWorksByType", query);
         }
 
-        @SuppressWarnings("unchecked")
         public List<Object[]> getWorksByDateAndType(LocalDateTime startDate, LocalDateTime endDate) {
                 String sql = """
                                 SELECT
@@ -264,13 +688,24 @@ public class ReportRepository {
                                 GROUP BY DATE(w.created_at), st.name
                                 ORDER BY work_date DESC, count DESC
                                 """;
-                Query query = entityManager.createNativeQuery(sql);
-                query.setParameter("startDate", startDate);
-                query.setParameter("endDate", endDate);
-                return query.getResultList();
+                String rollupSql = """
+                                SELECT
+                                    r.day as work_date,
+                                    st.name as service_type,
+                                    SUM(r.work_count) as count,
+                                    COALESCE(SUM(r.total_hours) / NULLIF(SUM(r.hours_count), 0), 0) as avg_hours,
+                                    COALESCE(SUM(r.total_cost), 0) as total_cost
+                                FROM rollup_daily_work r
+                                INNER JOIN service_type st ON r.service_type_id = st.id
+                                WHERE r.day BETWEEN :startDate AND :endDate
+                                AND r.work_count > 0
+                                GROUP BY r.day, st.name
+                                ORDER BY work_date DESC, count DESC
+                                """;
+                Query query = createRangeQuery(sql, rollupSql, startDate, endDate);
+                return queryMetrics.list("getWorksByDateAndType", query);
         }
 
-        @SuppressWarnings("unchecked")
         public List<Object[]> getVehicleMaintenanceHistory(String licensePlate, LocalDateTime startDate,
                         LocalDateTime endDate) {
                 String sql = """
@@ -298,14 +733,13 @@ public class ReportRepository {
                 query.setParameter("licensePlate", licensePlate);
                 query.setParameter("startDate", startDate);
                 query.setParameter("endDate", endDate);
-                return query.getResultList();
+                return queryMetrics.list("getVehicleMaintenanceHistory", query);
         }
 
         // ================================
         // EMPLOYEE PERFORMANCE
         // ================================
 
-        @SuppressWarnings("unchecked")
         public List<Object[]> getEmployeePerformance(LocalDateTime startDate, LocalDateTime endDate) {
                 String sql = """
                                 SELECT
@@ -329,13 +763,33 @@ public class ReportRepository {
                                 HAVING COUNT(w.id) > 0
                                 ORDER BY total_revenue DESC
                                 """;
-                Query query = entityManager.createNativeQuery(sql);
-                query.setParameter("startDate", startDate);
-                query.setParameter("endDate", endDate);
-                return query.getResultList();
+                String rollupSql = """
+                                SELECT
+                                    CONCAT(p.first_name, ' ', p.last_name) as employee_name,
+                                    u.id as employee_id,
+                                    SUM(r.work_count) as total_works,
+                                    COALESCE(SUM(r.work_count) FILTER (WHERE ws.name = 'Completado'), 0) as completed_works,
+                                    COALESCE(SUM(r.total_hours) / NULLIF(SUM(r.hours_count), 0), 0) as avg_work_time,
+                                    COALESCE(SUM(r.total_cost), 0) as total_revenue,
+                                    ROUND(
+                                        COALESCE(SUM(r.work_count) FILTER (WHERE ws.name = 'Completado'), 0) * 100.0 /
+                                        NULLIF(SUM(r.work_count), 0), 2
+                                    ) as completion_rate
+                                FROM rollup_daily_work r
+                                INNER JOIN "user" u ON r.employee_id = u.id
+                                INNER JOIN person p ON u.person_cui = p.cui
+                                INNER JOIN user_type ut ON u.user_type_id = ut.id
+                                INNER JOIN work_status ws ON r.work_status_id = ws.id
+                                WHERE ut.name IN ('Empleado', 'Especialista')
+                                AND r.day BETWEEN :startDate AND :endDate
+                                AND r.work_count > 0
+                                GROUP BY u.id, p.first_name, p.last_name
+                                ORDER BY total_revenue DESC
+                                """;
+                Query query = createRangeQuery(sql, rollupSql, startDate, endDate);
+                return queryMetrics.list("getEmployeePerformance", query);
         }
 
-        @SuppressWarnings("unchecked")
         public List<Object[]> getWorksByEmployee(LocalDateTime startDate, LocalDateTime endDate) {
                 String sql = """
                                 SELECT
@@ -356,93 +810,64 @@ public class ReportRepository {
                 Query query = entityManager.createNativeQuery(sql);
                 query.setParameter("startDate", startDate);
                 query.setParameter("endDate", endDate);
-                return query.getResultList();
+                return queryMetrics.list("getWorksByEmployee", query);
         }
 
         // ================================
         // PARTS AND INVENTORY REPORTS
         // ================================
 
-        @SuppressWarnings("unchecked")
         public List<Object[]> getPartUsageStatistics(LocalDateTime startDate, LocalDateTime endDate) {
-                String sql = """
-                                SELECT
-                                    p.name as part_name,
-                                    pc.name as category_name,
-                                    COALESCE(SUM(wp.quantity_used), 0) as total_quantity,
-                                    COALESCE(SUM(wp.quantity_used * wp.unit_price), 0) as total_cost,
-                                    COUNT(DISTINCT wp.work_id) as works_count,
-                                    COALESCE(AVG(wp.unit_price), 0) as avg_unit_price
-                                FROM work_part wp
-                                INNER JOIN part p ON wp.part_id = p.id
-                                INNER JOIN part_category pc ON p.category_id = pc.id
-                                INNER JOIN work w ON wp.work_id = w.id
-                                WHERE w.created_at BETWEEN :startDate AND :endDate
-                                GROUP BY p.id, p.name, pc.name
-                                HAVING SUM(wp.quantity_used) > 0
-                                ORDER BY total_quantity DESC
-                                """;
-                Query query = entityManager.createNativeQuery(sql);
-                query.setParameter("startDate", startDate);
-                query.setParameter("endDate", endDate);
-                return query.getResultList();
+                Query query = createRangeQuery(PART_USAGE_SQL, PART_USAGE_ROLLUP_SQL, startDate, endDate);
+                return queryMetrics.list("getPartUsageStatistics", query);
         }
 
-        @SuppressWarnings("unchecked")
         public List<Object[]> getPartsByVehicleBrand(LocalDateTime startDate, LocalDateTime endDate) {
+                Query query = createRangeQuery(PARTS_BY_BRAND_SQL, PARTS_BY_BRAND_ROLLUP_SQL, startDate, endDate);
+                return queryMetrics.list("getPartsByVehicleBrand", query);
+        }
+
+        public List<Object[]> getMostUsedPartsByCategory(LocalDateTime startDate, LocalDateTime endDate) {
                 String sql = """
                                 SELECT
-                                    vb.name as brand_name,
-                                    p.name as part_name,
                                     pc.name as category_name,
+                                    COUNT(DISTINCT p.id) as different_parts,
                                     COALESCE(SUM(wp.quantity_used), 0) as total_quantity,
                                     COALESCE(SUM(wp.quantity_used * wp.unit_price), 0) as total_cost
                                 FROM work_part wp
                                 INNER JOIN part p ON wp.part_id = p.id
                                 INNER JOIN part_category pc ON p.category_id = pc.id
                                 INNER JOIN work w ON wp.work_id = w.id
-                                INNER JOIN vehicle v ON w.vehicle_id = v.id
-                                INNER JOIN vehicle_model vm ON v.model_id = vm.id
-                                INNER JOIN vehicle_brand vb ON vm.brand_id = vb.id
                                 WHERE w.created_at BETWEEN :startDate AND :endDate
-                                GROUP BY vb.name, p.name, pc.name
+                                GROUP BY pc.id, pc.name
                                 HAVING SUM(wp.quantity_used) > 0
-                                ORDER BY vb.name, total_quantity DESC
+                                ORDER BY total_quantity DESC
                                 """;
-                Query query = entityManager.createNativeQuery(sql);
-                query.setParameter("startDate", startDate);
-                query.setParameter("endDate", endDate);
-                return query.getResultList();
-        }
-
-        @SuppressWarnings("unchecked")
-        public List<Object[]> getMostUsedPartsByCategory(LocalDateTime startDate, LocalDateTime endDate) {
-                String sql = """
+                String rollupSql = """
                                 SELECT
                                     pc.name as category_name,
                                     COUNT(DISTINCT p.id) as different_parts,
-                                    COALESCE(SUM(wp.quantity_used), 0) as total_quantity,
-                                    COALESCE(SUM(wp.quantity_used * wp.unit_price), 0) as total_cost
-                                FROM work_part wp
-                                INNER JOIN part p ON wp.part_id = p.id
+                                    COALESCE(SUM(r.quantity_used), 0) as total_quantity,
+                                    COALESCE(SUM(r.total_cost), 0) as total_cost
+                                FROM rollup_daily_part_usage r
+                                INNER JOIN part p ON r.part_id = p.id
                                 INNER JOIN part_category pc ON p.category_id = pc.id
-                                INNER JOIN work w ON wp.work_id = w.id
-                                WHERE w.created_at BETWEEN :startDate AND :endDate
+                                WHERE r.day BETWEEN :startDate AND :endDate
+                                AND r.line_count > 0
                                 GROUP BY pc.id, pc.name
-                                HAVING SUM(wp.quantity_used) > 0
+                                HAVING SUM(r.quantity_used) > 0
                                 ORDER BY total_quantity DESC
                                 """;
-                Query query = entityManager.createNativeQuery(sql);
-                query.setParameter("startDate", startDate);
-                query.setParameter("endDate", endDate);
-                return query.getResultList();
+                Query query = createRangeQuery(sql, rollupSql, startDate, endDate);
+                return queryMetrics.list("getMostUsedPartsByCategory", query);
         }
 
         // ================================
         // VEHICLE AND BRAND STATISTICS
         // ================================
 
-        @SuppressWarnings("unchecked")
+        // Los vehículos distintos no se pueden sumar por día; en la versión con rollups se
+        // cuentan aparte sobre idx_work_created_at_vehicle sin leer las filas de work
         public List<Object[]> getVehicleBrandStatistics(LocalDateTime startDate, LocalDateTime endDate) {
                 String sql = """
                                 SELECT
@@ -460,13 +885,44 @@ public class ReportRepository {
                                 GROUP BY vb.id, vb.name
                                 ORDER BY total_works DESC
                                 """;
-                Query query = entityManager.createNativeQuery(sql);
-                query.setParameter("startDate", startDate);
-                query.setParameter("endDate", endDate);
-                return query.getResultList();
+                String rollupSql = """
+                                WITH brand_works AS (
+                                    SELECT
+                                        r.vehicle_brand_id,
+                                        SUM(r.work_count) as total_works,
+                                        SUM(r.cost_count) as cost_count,
+                                        SUM(r.total_cost) as total_cost,
+                                        SUM(r.hours_count) as hours_count,
+                                        SUM(r.total_hours) as total_hours
+                                    FROM rollup_daily_work r
+                                    WHERE r.day BETWEEN :startDate AND :endDate
+                                    AND r.work_count > 0
+                                    GROUP BY r.vehicle_brand_id
+                                ),
+                                brand_vehicles AS (
+                                    SELECT vm.brand_id, COUNT(DISTINCT w.vehicle_id) as unique_vehicles
+                                    FROM work w
+                                    INNER JOIN vehicle v ON w.vehicle_id = v.id
+                                    INNER JOIN vehicle_model vm ON v.model_id = vm.id
+                                    WHERE w.created_at >= :startDate AND w.created_at < CAST(:endDate AS DATE) + 1
+                                    GROUP BY vm.brand_id
+                                )
+                                SELECT
+                                    vb.name as brand_name,
+                                    bw.total_works,
+                                    COALESCE(bw.total_cost / NULLIF(bw.cost_count, 0), 0) as avg_cost,
+                                    COALESCE(bv.unique_vehicles, 0) as unique_vehicles,
+                                    COALESCE(bw.total_cost, 0) as total_revenue,
+                                    COALESCE(bw.total_hours / NULLIF(bw.hours_count, 0), 0) as avg_hours
+                                FROM brand_works bw
+                                INNER JOIN vehicle_brand vb ON bw.vehicle_brand_id = vb.id
+                                LEFT JOIN brand_vehicles bv ON bv.brand_id = bw.vehicle_brand_id
+                                ORDER BY bw.total_works DESC
+                                """;
+                Query query = createRangeQuery(sql, rollupSql, startDate, endDate);
+                return queryMetrics.list("getVehicleBrandStatistics", query);
         }
 
-        @SuppressWarnings("unchecked")
         public List<Object[]> getServiceTypeStatistics(LocalDateTime startDate, LocalDateTime endDate) {
                 String sql = """
                                 SELECT
@@ -483,44 +939,37 @@ public class ReportRepository {
                                 GROUP BY st.id, st.name
                                 ORDER BY total_works DESC
                                 """;
-                Query query = entityManager.createNativeQuery(sql);
-                query.setParameter("startDate", startDate);
-                query.setParameter("endDate", endDate);
-                return query.getResultList();
+                String rollupSql = """
+                                SELECT
+                                    st.name as service_name,
+                                    SUM(r.work_count) as total_works,
+                                    COALESCE(SUM(r.total_cost) / NULLIF(SUM(r.cost_count), 0), 0) as avg_cost,
+                                    COALESCE(SUM(r.total_hours) / NULLIF(SUM(r.hours_count), 0), 0) as avg_duration,
+                                    COALESCE(SUM(r.total_cost), 0) as total_revenue,
+                                    COALESCE(SUM(r.work_count) FILTER (WHERE ws.name = 'Completado'), 0) as completed_count
+                                FROM rollup_daily_work r
+                                INNER JOIN service_type st ON r.service_type_id = st.id
+                                INNER JOIN work_status ws ON r.work_status_id = ws.id
+                                WHERE r.day BETWEEN :startDate AND :endDate
+                                AND r.work_count > 0
+                                GROUP BY st.id, st.name
+                                ORDER BY total_works DESC
+                                """;
+                Query query = createRangeQuery(sql, rollupSql, startDate, endDate);
+                return queryMetrics.list("getServiceTypeStatistics", query);
         }
 
         // ================================
         // CLIENT REPORTS
         // ================================
 
-        @SuppressWarnings("unchecked")
         public List<Object[]> getClientHistory(LocalDateTime startDate, LocalDateTime endDate) {
-                String sql = """
-                                SELECT
-                                    CONCAT(p.first_name, ' ', p.last_name) as client_name,
-                                    p.cui as client_cui,
-                                    p.email as client_email,
-                                    COUNT(w.id) as total_works,
-                                    COALESCE(SUM(i.total_amount), 0) as total_spent,
-                                    MAX(w.created_at) as last_visit,
-                                    COUNT(DISTINCT v.id) as vehicles_count,
-                                    STRING_AGG(DISTINCT st.name, ', ') as service_types
-                                FROM person p
-                                INNER JOIN vehicle v ON p.cui = v.owner_cui
-                                INNER JOIN work w ON v.id = w.vehicle_id
-                                LEFT JOIN invoice i ON w.id = i.work_id
-                                INNER JOIN service_type st ON w.service_type_id = st.id
-                                WHERE w.created_at BETWEEN :startDate AND :endDate
-                                GROUP BY p.cui, p.first_name, p.last_name, p.email
-                                ORDER BY total_spent DESC
-                                """;
-                Query query = entityManager.createNativeQuery(sql);
+                Query query = entityManager.createNativeQuery(CLIENT_HISTORY_SQL);
                 query.setParameter("startDate", startDate);
                 query.setParameter("endDate", endDate);
-                return query.getResultList();
+                return queryMetrics.list("getClientHistory", query);
         }
 
-        @SuppressWarnings("unchecked")
         public List<Object[]> getClientServiceRatings(LocalDateTime startDate, LocalDateTime endDate) {
                 String sql = """
                                 SELECT
@@ -540,14 +989,13 @@ public class ReportRepository {
                 Query query = entityManager.createNativeQuery(sql);
                 query.setParameter("startDate", startDate);
                 query.setParameter("endDate", endDate);
-                return query.getResultList();
+                return queryMetrics.list("getClientServiceRatings", query);
         }
 
         // ================================
         // MAINTENANCE SPECIFIC REPORTS
         // ================================
 
-        @SuppressWarnings("unchecked")
         public List<Object[]> getPreventiveMaintenanceReport(LocalDateTime startDate, LocalDateTime endDate) {
                 String sql = """
                                 SELECT
@@ -565,13 +1013,27 @@ public class ReportRepository {
                                 GROUP BY DATE(w.created_at)
                                 ORDER BY maintenance_date DESC
                                 """;
-                Query query = entityManager.createNativeQuery(sql);
-                query.setParameter("startDate", startDate);
-                query.setParameter("endDate", endDate);
-                return query.getResultList();
+                String rollupSql = """
+                                SELECT
+                                    r.day as maintenance_date,
+                                    SUM(r.work_count) as total_works,
+                                    COALESCE(SUM(r.total_cost) / NULLIF(SUM(r.cost_count), 0), 0) as avg_cost,
+                                    COALESCE(SUM(r.total_hours) / NULLIF(SUM(r.hours_count), 0), 0) as avg_duration,
+                                    COALESCE(SUM(r.total_cost), 0) as total_revenue,
+                                    COALESCE(SUM(r.work_count) FILTER (WHERE ws.name = 'Completado'), 0) as completed_count
+                                FROM rollup_daily_work r
+                                INNER JOIN service_type st ON r.service_type_id = st.id
+                                INNER JOIN work_status ws ON r.work_status_id = ws.id
+                                WHERE r.day BETWEEN :startDate AND :endDate
+                                AND r.work_count > 0
+                                AND st.name = 'Preventivo'
+                                GROUP BY r.day
+                                ORDER BY maintenance_date DESC
+                                """;
+                Query query = createRangeQuery(sql, rollupSql, startDate, endDate);
+                return queryMetrics.list("getPreventiveMaintenanceReport", query);
         }
 
-        @SuppressWarnings("unchecked")
         public List<Object[]> getCorrectiveMaintenanceReport(LocalDateTime startDate, LocalDateTime endDate) {
                 String sql = """
                                 SELECT
@@ -589,17 +1051,62 @@ public class ReportRepository {
                                 GROUP BY DATE(w.created_at)
                                 ORDER BY maintenance_date DESC
                                 """;
-                Query query = entityManager.createNativeQuery(sql);
-                query.setParameter("startDate", startDate);
-                query.setParameter("endDate", endDate);
-                return query.getResultList();
+                String rollupSql = """
+                                SELECT
+                                    r.day as maintenance_date,
+                                    SUM(r.work_count) as total_works,
+                                    COALESCE(SUM(r.total_cost) / NULLIF(SUM(r.cost_count), 0), 0) as avg_cost,
+                                    COALESCE(SUM(r.total_hours) / NULLIF(SUM(r.hours_count), 0), 0) as avg_duration,
+                                    COALESCE(SUM(r.total_cost), 0) as total_revenue,
+                                    COALESCE(SUM(r.work_count) FILTER (WHERE ws.name = 'Completado'), 0) as completed_count
+                                FROM rollup_daily_work r
+                                INNER JOIN service_type st ON r.service_type_id = st.id
+                                INNER JOIN work_status ws ON r.work_status_id = ws.id
+                                WHERE r.day BETWEEN :startDate AND :endDate
+                                AND r.work_count > 0
+                                AND st.name = 'Correctivo'
+                                GROUP BY r.day
+                                ORDER BY maintenance_date DESC
+                                """;
+                Query query = createRangeQuery(sql, rollupSql, startDate, endDate);
+                return queryMetrics.list("getCorrectiveMaintenanceReport", query);
+        }
+
+        // ================================
+        // RANKINGS
+        // ================================
+
+        /**
+         * Primeras posiciones de un ranking, ordenadas por score descendente:
+         * [item_key, label, score, works]
+         */
+        public List<Object[]> getLeaderboard(LeaderboardType type, LocalDateTime startDate, LocalDateTime endDate,
+                        int limit) {
+                String sql = switch (type) {
+                        case MECHANICS_BY_REVENUE -> MECHANICS_BY_REVENUE_SQL;
+                        case PARTS_BY_USAGE -> PARTS_BY_USAGE_SQL;
+                        case CLIENTS_BY_SPEND -> CLIENTS_BY_SPEND_SQL;
+                        case BRANDS_BY_REVENUE -> BRANDS_BY_REVENUE_SQL;
+                };
+                String rollupSql = switch (type) {
+                        case MECHANICS_BY_REVENUE -> MECHANICS_BY_REVENUE_ROLLUP_SQL;
+                        case PARTS_BY_USAGE -> PARTS_BY_USAGE_ROLLUP_SQL;
+                        case CLIENTS_BY_SPEND -> null;
+                        case BRANDS_BY_REVENUE -> BRANDS_BY_REVENUE_ROLLUP_SQL;
+                };
+                // El desempate por item_key mantiene estable el orden entre consultas
+                String orderBy = "ORDER BY score DESC, item_key\nLIMIT :limit\n";
+                boolean rollup = rollupSql != null && canUseRollups(startDate, endDate);
+                Query query = entityManager.createNativeQuery((rollup ? rollupSql : sql) + orderBy);
+                bindRange(query, rollup, startDate, endDate);
+                query.setParameter("limit", limit);
+                return queryMetrics.list("getLeaderboard." + type.name(), query);
         }
 
         // ================================
         // ADDITIONAL UTILITY QUERIES
         // ================================
 
-        @SuppressWarnings("unchecked")
         public List<Object[]> getTopPerformingMechanics(LocalDateTime startDate, LocalDateTime endDate, int limit) {
                 String sql = """
                                 SELECT
@@ -619,14 +1126,30 @@ public class ReportRepository {
                                 ORDER BY total_revenue DESC
                                 LIMIT :limit
                                 """;
-                Query query = entityManager.createNativeQuery(sql);
-                query.setParameter("startDate", startDate);
-                query.setParameter("endDate", endDate);
+                String rollupSql = """
+                                SELECT
+                                    CONCAT(p.first_name, ' ', p.last_name) as mechanic_name,
+                                    SUM(r.work_count) as total_works,
+                                    COALESCE(SUM(r.total_cost), 0) as total_revenue,
+                                    COALESCE(SUM(r.total_hours) / NULLIF(SUM(r.hours_count), 0), 0) as avg_hours_per_work
+                                FROM rollup_daily_work r
+                                INNER JOIN "user" u ON r.employee_id = u.id
+                                INNER JOIN person p ON u.person_cui = p.cui
+                                INNER JOIN user_type ut ON u.user_type_id = ut.id
+                                INNER JOIN work_status ws ON r.work_status_id = ws.id
+                                WHERE ut.name IN ('Empleado', 'Especialista')
+                                AND r.day BETWEEN :startDate AND :endDate
+                                AND r.work_count > 0
+                                AND ws.name = 'Completado'
+                                GROUP BY u.id, p.first_name, p.last_name
+                                ORDER BY total_revenue DESC
+                                LIMIT :limit
+                                """;
+                Query query = createRangeQuery(sql, rollupSql, startDate, endDate);
                 query.setParameter("limit", limit);
-                return query.getResultList();
+                return queryMetrics.list("getTopPerformingMechanics", query);
         }
 
-        @SuppressWarnings("unchecked")
         public List<Object[]> getLowStockAlerts() {
                 String sql = """
                                 SELECT
@@ -643,7 +1166,7 @@ public class ReportRepository {
                                 ORDER BY (ist.quantity_available - p.minimum_stock) ASC
                                 """;
                 Query query = entityManager.createNativeQuery(sql);
-                return query.getResultList();
+                return queryMetrics.list("getLowStockAlerts", query);
         }
 
         public Long countTotalEmployees() {
@@ -655,7 +1178,7 @@ public class ReportRepository {
                                 AND u.is_active = true
                                 """;
                 Query query = entityManager.createNativeQuery(sql);
-                return ((Number) query.getSingleResult()).longValue();
+                return ((Number) queryMetrics.single("countTotalEmployees", query)).longValue();
         }
 
         public Long countBusyEmployees() {
@@ -676,7 +1199,7 @@ public class ReportRepository {
                                 )
                                 """;
                 Query query = entityManager.createNativeQuery(sql);
-                return ((Number) query.getSingleResult()).longValue();
+                return ((Number) queryMetrics.single("countBusyEmployees", query)).longValue();
         }
 
         public Long countAvailableEmployees() {
@@ -703,6 +1226,276 @@ public class ReportRepository {
                                 ))
                                 """;
                 Query query = entityManager.createNativeQuery(sql);
-                return ((Number) query.getSingleResult()).longValue();
+                return ((Number) queryMetrics.single("countAvailableEmployees", query)).longValue();
+        }
+
+        // ================================
+        // KPI COUNTERS
+        // Estado por entidad con el que KpiCounterService mantiene los conteos del dashboard
+        // ================================
+
+        // Trabajos sin terminar (Pendiente, Asignado, En progreso): id, estado y empleado asignado
+        public List<Object[]> getOpenWorkStates() {
+                String sql = """
+                                SELECT w.id, w.work_status_id, w.assigned_employee_id
+                                FROM work w
+                                WHERE w.work_status_id IN (1, 2, 3)
+                                """;
+                Query query = entityManager.createNativeQuery(sql);
+                return queryMetrics.list("getOpenWorkStates", query);
+        }
+
+        // Estado y empleado asignado de un trabajo; sin filas si ya no existe
+        public List<Object[]> getWorkState(Long workId) {
+                String sql = """
+                                SELECT w.work_status_id, w.assigned_employee_id
+                                FROM work w
+                                WHERE w.id = :workId
+                                """;
+                Query query = entityManager.createNativeQuery(sql);
+                query.setParameter("workId", workId);
+                return queryMetrics.list("getWorkState", query);
+        }
+
+        // Empleados activos con la cantidad de trabajos asignados o en progreso de cada uno
+        public List<Object[]> getEmployeeLoads() {
+                String sql = """
+                                SELECT u.id, COUNT(w.id) as open_works
+                                FROM "user" u
+                                INNER JOIN user_type ut ON u.user_type_id = ut.id
+                                LEFT JOIN work w ON w.assigned_employee_id = u.id AND w.work_status_id IN (2, 3)
+                                WHERE ut.name IN ('Empleado', 'Especialista')
+                                AND u.is_active = true
+                                GROUP BY u.id
+                                """;
+                Query query = entityManager.createNativeQuery(sql);
+                return queryMetrics.list("getEmployeeLoads", query);
+        }
+
+        // Existencias de todos los repuestos: id del repuesto, cantidad disponible y stock mínimo
+        public List<Object[]> getStockStates() {
+                String sql = """
+                                SELECT ist.part_id, ist.quantity_available, p.minimum_stock
+                                FROM inventory_stock ist
+                                INNER JOIN part p ON ist.part_id = p.id
+                                """;
+                Query query = entityManager.createNativeQuery(sql);
+                return queryMetrics.list("getStockStates", query);
+        }
+
+        // Cantidad disponible y stock mínimo de un repuesto; sin filas si no tiene existencias
+        public List<Object[]> getStockState(Long partId) {
+                String sql = """
+                                SELECT ist.quantity_available, p.minimum_stock
+                                FROM inventory_stock ist
+                                INNER JOIN part p ON ist.part_id = p.id
+                                WHERE ist.part_id = :partId
+                                """;
+                Query query = entityManager.createNativeQuery(sql);
+                query.setParameter("partId", partId);
+                return queryMetrics.list("getStockState", query);
+        }
+
+        // ================================
+        // STREAMING QUERIES
+        // ================================
+
+        /*
+         * Estas variantes recorren el resultado con un cursor de solo avance en lugar de
+         * cargar la lista completa en memoria. Deben ejecutarse dentro de una transacción
+         * y el Stream devuelto debe cerrarse para liberar el cursor y la conexión.
+         */
+
+        public Stream<Object[]> streamPartUsageStatistics(LocalDateTime startDate, LocalDateTime endDate) {
+                return streamRows("streamPartUsageStatistics",
+                                createRangeQuery(PART_USAGE_SQL, PART_USAGE_ROLLUP_SQL, startDate, endDate));
+        }
+
+        public Stream<Object[]> streamPartsByVehicleBrand(LocalDateTime startDate, LocalDateTime endDate) {
+                return streamRows("streamPartsByVehicleBrand",
+                                createRangeQuery(PARTS_BY_BRAND_SQL, PARTS_BY_BRAND_ROLLUP_SQL, startDate, endDate));
+        }
+
+        public Stream<Object[]> streamClientHistory(LocalDateTime startDate, LocalDateTime endDate) {
+                Query query = entityManager.createNativeQuery(CLIENT_HISTORY_SQL);
+                query.setParameter("startDate", startDate);
+                query.setParameter("endDate", endDate);
+                return streamRows("streamClientHistory", query);
+        }
+
+        private Stream<Object[]> streamRows(String queryName, Query query) {
+                // PostgreSQL solo usa cursor si hay fetch size y la conexión no está en auto-commit
+                query.setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE);
+                query.setHint(HibernateHints.HINT_READ_ONLY, true);
+                return queryMetrics.stream(queryName, query);
+        }
+
+        // ================================
+        // PAGINACIÓN POR KEYSET
+        // ================================
+
+        /*
+         * Cada página pide limit filas a partir de la clave de orden de la última fila
+         * entregada (cursor) en lugar de usar OFFSET, así el costo de una página no crece
+         * con su posición. Los parámetros after* en null piden la primera página. Los
+         * reportes agregados se paginan sobre el resultado del GROUP BY.
+         */
+
+        public List<Object[]> getClientHistoryPage(LocalDateTime startDate, LocalDateTime endDate,
+                        BigDecimal afterTotalSpent, String afterCui, int limit) {
+                Query query = createPageQuery(CLIENT_HISTORY_SELECT,
+                                "(page.total_spent, page.client_cui) < (:afterValue, :afterKey)",
+                                "page.total_spent DESC, page.client_cui DESC",
+                                afterCui != null, limit);
+                bindRange(query, false, startDate, endDate);
+                if (afterCui != null) {
+                        query.setParameter("afterValue", afterTotalSpent);
+                        query.setParameter("afterKey", afterCui);
+                }
+                return queryMetrics.list("getClientHistoryPage", query);
+        }
+
+        public long countClientHistory(LocalDateTime startDate, LocalDateTime endDate) {
+                Query query = entityManager.createNativeQuery(countSql(CLIENT_HISTORY_SELECT));
+                bindRange(query, false, startDate, endDate);
+                return ((Number) queryMetrics.single("countClientHistory", query)).longValue();
+        }
+
+        public List<Object[]> getPartUsagePage(LocalDateTime startDate, LocalDateTime endDate,
+                        BigDecimal afterTotalQuantity, Long afterPartId, int limit) {
+                boolean rollup = canUseRollups(startDate, endDate);
+                Query query = createPageQuery(rollup ? PART_USAGE_PAGE_ROLLUP_SQL : PART_USAGE_PAGE_SQL,
+                                "(page.total_quantity, page.part_id) < (:afterValue, :afterKey)",
+                                "page.total_quantity DESC, page.part_id DESC",
+                                afterPartId != null, limit);
+                bindRange(query, rollup, startDate, endDate);
+                if (afterPartId != null) {
+                        query.setParameter("afterValue", afterTotalQuantity);
+                        query.setParameter("afterKey", afterPartId);
+                }
+                return queryMetrics.list("getPartUsagePage", query);
+        }
+
+        public long countPartUsage(LocalDateTime startDate, LocalDateTime endDate) {
+                boolean rollup = canUseRollups(startDate, endDate);
+                Query query = entityManager.createNativeQuery(
+                                countSql(rollup ? PART_USAGE_PAGE_ROLLUP_SQL : PART_USAGE_PAGE_SQL));
+                bindRange(query, rollup, startDate, endDate);
+                return ((Number) queryMetrics.single("countPartUsage", query)).longValue();
+        }
+
+        public List<Object[]> getProviderExpensesPage(LocalDate startDate, LocalDate endDate,
+                        BigDecimal afterTotalAmount, Long afterSupplierId, int limit) {
+                Query query = createPageQuery(PROVIDER_EXPENSES_PAGE_SQL,
+                                "(page.total_amount, page.supplier_id) < (:afterValue, :afterKey)",
+                                "page.total_amount DESC, page.supplier_id DESC",
+                                afterSupplierId != null, limit);
+                query.setParameter("startDate", startDate);
+                query.setParameter("endDate", endDate);
+                if (afterSupplierId != null) {
+                        query.setParameter("afterValue", afterTotalAmount);
+                        query.setParameter("afterKey", afterSupplierId);
+                }
+                return queryMetrics.list("getProviderExpensesPage", query);
+        }
+
+        public long countProviderExpenses(LocalDate startDate, LocalDate endDate) {
+                Query query = entityManager.createNativeQuery(countSql(PROVIDER_EXPENSES_PAGE_SQL));
+                query.setParameter("startDate", startDate);
+                query.setParameter("endDate", endDate);
+                return ((Number) queryMetrics.single("countProviderExpenses", query)).longValue();
+        }
+
+        public List<Object[]> getWorksByEmployeePage(LocalDateTime startDate, LocalDateTime endDate,
+                        String afterEmployeeName, LocalDateTime afterCreatedAt, Long afterWorkId, int limit) {
+                // Sin agregación el filtro del cursor se aplica dentro de la consulta y usa el índice de fechas
+                Query query = createPageQuery(WORKS_BY_EMPLOYEE_PAGE_SQL,
+                                "(page.employee_name > :afterName OR (page.employee_name = :afterName "
+                                                + "AND (page.created_at, page.work_id) < (:afterCreatedAt, :afterKey)))",
+                                "page.employee_name, page.created_at DESC, page.work_id DESC",
+                                afterWorkId != null, limit);
+                bindRange(query, false, startDate, endDate);
+                if (afterWorkId != null) {
+                        query.setParameter("afterName", afterEmployeeName);
+                        query.setParameter("afterCreatedAt", afterCreatedAt);
+                        query.setParameter("afterKey", afterWorkId);
+                }
+                return queryMetrics.list("getWorksByEmployeePage", query);
+        }
+
+        public long countWorksByEmployee(LocalDateTime startDate, LocalDateTime endDate) {
+                Query query = entityManager.createNativeQuery(countSql(WORKS_BY_EMPLOYEE_PAGE_SQL));
+                bindRange(query, false, startDate, endDate);
+                return ((Number) queryMetrics.single("countWorksByEmployee", query)).longValue();
+        }
+
+        private Query createPageQuery(String selectSql, String seekCondition, String orderBy, boolean seek,
+                        int limit) {
+                String sql = "SELECT * FROM (\n" + selectSql + ") page\n"
+                                + (seek ? "WHERE " + seekCondition + "\n" : "")
+                                + "ORDER BY " + orderBy + "\n"
+                                + "LIMIT :limit";
+                Query query = entityManager.createNativeQuery(sql);
+                query.setParameter("limit", limit);
+                return query;
+        }
+
+        private static String countSql(String selectSql) {
+                return "SELECT COUNT(*) FROM (\n" + selectSql + ") counted";
+        }
+
+        // ================================
+        // CANCELACIÓN DE CONSULTAS
+        // ================================
+
+        /**
+         * Acción que cancela, desde otro hilo, la consulta en curso de la conexión de la
+         * transacción actual. El driver envía la cancelación al servidor de esa conexión,
+         * sea el primario o una réplica de lectura.
+         */
+        public Runnable statementCanceller() {
+                PGConnection connection = entityManager.unwrap(Session.class)
+                                .doReturningWork(jdbc -> jdbc.unwrap(PGConnection.class));
+                return () -> {
+                        try {
+                                connection.cancelQuery();
+                        } catch (SQLException e) {
+                                // El trabajo igual se detiene en el siguiente punto de cancelación
+                                log.warn("Could not cancel the running report query: {}", e.getMessage());
+                        }
+                };
+        }
+
+        // ================================
+        // ROLLUPS DIARIOS
+        // ================================
+
+        /*
+         * Las tablas rollup_daily_* tienen una fila por día, así que solo reemplazan a la
+         * consulta original cuando el rango cubre días completos (como los periodos del
+         * sistema). Un rango con horas intermedias sigue leyendo las tablas originales.
+         */
+
+        private Query createRangeQuery(String sql, String rollupSql, LocalDateTime startDate,
+                        LocalDateTime endDate) {
+                boolean rollup = canUseRollups(startDate, endDate);
+                Query query = entityManager.createNativeQuery(rollup ? rollupSql : sql);
+                bindRange(query, rollup, startDate, endDate);
+                return query;
+        }
+
+        private boolean canUseRollups(LocalDateTime startDate, LocalDateTime endDate) {
+                return reportProperties.isUseRollups() && coversWholeDays(startDate, endDate);
+        }
+
+        private static void bindRange(Query query, boolean rollup, LocalDateTime startDate, LocalDateTime endDate) {
+                query.setParameter("startDate", rollup ? startDate.toLocalDate() : startDate);
+                query.setParameter("endDate", rollup ? endDate.toLocalDate() : endDate);
+        }
+
+        private static boolean coversWholeDays(LocalDateTime startDate, LocalDateTime endDate) {
+                return startDate.toLocalTime().equals(LocalTime.MIDNIGHT)
+                                && !endDate.toLocalTime().isBefore(LocalTime.of(23, 59, 59))
+                                && !endDate.isBefore(startDate);
         }
-}
\ No newline at end of file
+}
@@ -0,0 +1,125 @@
+package com.project.ayd.mechanic_workshop.features.reports.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+/**
+ * Recalcula las tablas rollup_daily_* a partir de las tablas originales.
+ * Los triggers las mantienen al día fila por fila, incluidos los cambios de fecha o
+ * vehículo de un trabajo y de modelo de un vehículo; la reconstrucción llena el histórico
+ * y corrige cualquier desvío (p. ej. catálogos modificados a mano).
+ */
+@Repository
+@Slf4j
+public class ReportRollupRepository {
+
+        @PersistenceContext
+        private EntityManager entityManager;
+
+        /**
+         * Bloquea los rollups contra escrituras concurrentes hasta el fin de la transacción.
+         * Las transacciones que modifiquen datos mientras tanto esperan y aplican su
+         * cambio sobre el resultado reconstruido, así no se pierde ni se duplica nada.
+         */
+        public void lockRollups() {
+                entityManager.createNativeQuery("""
+                                LOCK TABLE rollup_daily_income, rollup_daily_work, rollup_daily_part_usage
+                                IN SHARE ROW EXCLUSIVE MODE
+                                """).executeUpdate();
+        }
+
+        public int rebuildDailyIncome(LocalDate startDay, LocalDate endDay) {
+                executeForRange("DELETE FROM rollup_daily_income WHERE day BETWEEN :startDay AND :endDay",
+                                startDay, endDay);
+                String sql = """
+                                INSERT INTO rollup_daily_income (day, invoice_count, total_amount)
+                                SELECT
+                                    i.issued_date,
+                                    COUNT(*),
+                                    COALESCE(SUM(i.total_amount), 0)
+                                FROM invoice i
+                                WHERE i.issued_date BETWEEN :startDay AND :endDay
+                                GROUP BY i.issued_date
+                                """;
+                return executeForRange(sql, startDay, endDay);
+        }
+
+        public int rebuildDailyWork(LocalDate startDay, LocalDate endDay) {
+                executeForRange("DELETE FROM rollup_daily_work WHERE day BETWEEN :startDay AND :endDay",
+                                startDay, endDay);
+                String sql = """
+                                INSERT INTO rollup_daily_work (day, service_type_id, work_status_id, employee_id,
+                                                               vehicle_brand_id, work_count, hours_count, total_hours,
+                                                               cost_count, total_cost)
+                                SELECT
+                                    DATE(w.created_at),
+                                    w.service_type_id,
+                                    w.work_status_id,
+                                    COALESCE(w.assigned_employee_id, 0),
+                                    vm.brand_id,
+                                    COUNT(*),
+                                    COUNT(w.actual_hours),
+                                    COALESCE(SUM(w.actual_hours), 0),
+                                    COUNT(w.actual_cost),
+                                    COALESCE(SUM(w.actual_cost), 0)
+                                FROM work w
+                                INNER JOIN vehicle v ON w.vehicle_id = v.id
+                                INNER JOIN vehicle_model vm ON v.model_id = vm.id
+                                WHERE w.created_at >= :startDay AND w.created_at < CAST(:endDay AS DATE) + 1
+                                GROUP BY DATE(w.created_at), w.service_type_id, w.work_status_id,
+                                         COALESCE(w.assigned_employee_id, 0), vm.brand_id
+                                """;
+                return executeForRange(sql, startDay, endDay);
+        }
+
+        public int rebuildDailyPartUsage(LocalDate startDay, LocalDate endDay) {
+                executeForRange("DELETE FROM rollup_daily_part_usage WHERE day BETWEEN :startDay AND :endDay",
+                                startDay, endDay);
+                String sql = """
+                                INSERT INTO rollup_daily_part_usage (day, part_id, vehicle_brand_id, line_count,
+                                                                     quantity_used, total_cost, unit_price_sum)
+                                SELECT
+                                    DATE(w.created_at),
+                                    wp.part_id,
+                                    vm.brand_id,
+                                    COUNT(*),
+                                    COALESCE(SUM(wp.quantity_used), 0),
+                                    COALESCE(SUM(COALESCE(wp.quantity_used, 0) * wp.unit_price), 0),
+                                    COALESCE(SUM(wp.unit_price), 0)
+                                FROM work_part wp
+                                INNER JOIN work w ON wp.work_id = w.id
+                                INNER JOIN vehicle v ON w.vehicle_id = v.id
+                                INNER JOIN vehicle_model vm ON v.model_id = vm.id
+                                WHERE w.created_at >= :startDay AND w.created_at < CAST(:endDay AS DATE) + 1
+                                GROUP BY DATE(w.created_at), wp.part_id, vm.brand_id
+                                """;
+                return executeForRange(sql, startDay, endDay);
+        }
+
+        // Primer día con datos en las tablas originales, o null si están vacías
+        public LocalDate findFirstDataDay() {
+                String sql = """
+                                SELECT LEAST(
+                                    (SELECT MIN(i.issued_date) FROM invoice i),
+                                    (SELECT CAST(MIN(w.created_at) AS DATE) FROM work w)
+                                )
+                                """;
+                Object result = entityManager.createNativeQuery(sql).getSingleResult();
+                if (result instanceof java.sql.Date date) {
+                        return date.toLocalDate();
+                }
+                return result instanceof LocalDate localDate ? localDate : null;
+        }
+
+        private int executeForRange(String sql, LocalDate startDay, LocalDate endDay) {
+                Query query = entityManager.createNativeQuery(sql);
+                query.setParameter("startDay", startDay);
+                query.setParameter("endDay", endDay);
+                return query.executeUpdate();
+        }
+}
@@ -0,0 +1,42 @@
+package com.project.ayd.mechanic_workshop.features.reports.repository;
+
+import com.project.ayd.mechanic_workshop.features.reports.entity.ReportSubscription;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ReportSubscriptionRepository extends JpaRepository<ReportSubscription, Long> {
+
+    // Usa idx_report_subscription_username
+    List<ReportSubscription> findByUsernameOrderByCreatedAtDesc(String username);
+
+    long countByUsernameAndIsActiveTrue(String username);
+
+    // Usa idx_report_subscription_due
+    List<ReportSubscription> findByIsActiveTrueAndNextRunAtBeforeOrderByNextRunAt(LocalDateTime before);
+
+    /**
+     * Toma la ejecución pendiente adelantando nextRunAt; solo aplica si nadie la tomó
+     * antes, así dos nodos no pregeneran la misma suscripción
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ReportSubscription s SET s.nextRunAt = :nextRunAt, s.lastRunAt = :now " +
+            "WHERE s.id = :id AND s.nextRunAt = :expected AND s.isActive = true")
+    int claimRun(@Param("id") Long id,
+            @Param("expected") LocalDateTime expected,
+            @Param("nextRunAt") LocalDateTime nextRunAt,
+            @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ReportSubscription s SET s.lastReportId = :reportId WHERE s.id = :id")
+    int updateLastReport(@Param("id") Long id, @Param("reportId") String reportId);
+}
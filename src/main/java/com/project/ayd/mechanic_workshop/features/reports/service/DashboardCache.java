@@ -0,0 +1,196 @@
+package com.project.ayd.mechanic_workshop.features.reports.service;
+
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
+import com.project.ayd.mechanic_workshop.features.reports.dto.DashboardResponse;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache acotado del dashboard con expiración por tiempo.
+ * Las entradas vencidas por tiempo se siguen sirviendo mientras se recargan en segundo plano;
+ * un cambio de datos las descarta para que la siguiente lectura cargue de forma síncrona.
+ * Cada clave se carga una sola vez aunque haya varios usuarios esperando.
+ * La recarga de una variante descartada lee del primario para ver el cambio que la descartó;
+ * las demás cargas pueden leer de las réplicas.
+ */
+@Component
+@Slf4j
+public class DashboardCache {
+
+    public static final String CURRENT_KEY = "current";
+
+    private final ReportProperties reportProperties;
+    private final Executor refreshExecutor;
+
+    private final Map<String, CacheEntry> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<DashboardResponse>> inFlight = new ConcurrentHashMap<>();
+
+    // Variantes descartadas por un cambio de datos que todavía no se volvieron a cargar
+    private final Set<String> evictedKeys = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Carga de una variante del dashboard
+     */
+    @FunctionalInterface
+    public interface Loader {
+        /**
+         * @param fromPrimary true si la carga debe leer del primario y no de una réplica
+         */
+        DashboardResponse load(boolean fromPrimary);
+    }
+
+    // Se incrementa en cada invalidación; una carga que empezó en una generación anterior no se guarda
+    private final AtomicLong generation = new AtomicLong();
+
+    public DashboardCache(ReportProperties reportProperties,
+            @Qualifier("dashboardVirtualThreadExecutor") Executor refreshExecutor) {
+        this.reportProperties = reportProperties;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    public DashboardResponse get(String key, Loader loader) {
+        if (!reportProperties.isEnableDashboardCache()) {
+            return loader.load(false);
+        }
+
+        CacheEntry entry = entries.get(key);
+        if (entry != null) {
+            if (entry.isExpired(getTimeToLive())) {
+                refreshAsync(key, loader);
+            }
+            return entry.getValue();
+        }
+
+        return loadSingleFlight(key, loader);
+    }
+
+    public void refreshAsync(String key, Loader loader) {
+        CompletableFuture<DashboardResponse> future = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, future) != null) {
+            return; // Ya hay una recarga en curso para esta clave
+        }
+
+        try {
+            refreshExecutor.execute(() -> completeLoad(key, loader, future));
+        } catch (RejectedExecutionException e) {
+            log.warn("Dashboard cache refresh rejected for key {}", key);
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+        }
+    }
+
+    // Recarga en segundo plano todas las variantes que siguen en cache
+    public void refreshAll() {
+        entries.forEach((key, entry) -> refreshAsync(key, entry.getLoader()));
+    }
+
+    /**
+     * Descarta todas las variantes tras un cambio de datos, para que la siguiente lectura
+     * espere datos frescos del primario en lugar de servir los anteriores. Las cargas en
+     * curso empezaron antes del cambio: se sueltan para que nadie más se sume a ellas y su
+     * resultado no se guarda.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        evictedKeys.addAll(entries.keySet());
+        evictedKeys.addAll(inFlight.keySet());
+        entries.clear();
+        inFlight.clear();
+        log.debug("Dashboard cache invalidated");
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private DashboardResponse loadSingleFlight(String key, Loader loader) {
+        CompletableFuture<DashboardResponse> future = new CompletableFuture<>();
+        CompletableFuture<DashboardResponse> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                // La carga compartida falló; se intenta directamente
+                return loader.load(evictedKeys.contains(key));
+            }
+        }
+
+        completeLoad(key, loader, future);
+        return future.join();
+    }
+
+    private void completeLoad(String key, Loader loader,
+            CompletableFuture<DashboardResponse> future) {
+        long startGeneration = generation.get();
+        boolean fromPrimary = evictedKeys.contains(key);
+        try {
+            DashboardResponse value = loader.load(fromPrimary);
+            store(key, value, loader, startGeneration);
+            future.complete(value);
+        } catch (RuntimeException e) {
+            log.error("Error loading dashboard cache entry {}", key, e);
+            future.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private void store(String key, DashboardResponse value, Loader loader,
+            long loadGeneration) {
+        // Una carga que empezó antes de una invalidación leyó datos ya reemplazados
+        if (generation.get() != loadGeneration) {
+            return;
+        }
+
+        // Una respuesta parcial se sirve, pero queda vencida para reintentarla en segundo plano
+        boolean partial = value.getUnavailableSections() != null && !value.getUnavailableSections().isEmpty();
+        CacheEntry loaded = new CacheEntry(value, partial ? Instant.EPOCH : Instant.now(), loader);
+        entries.put(key, loaded);
+        evictedKeys.remove(key);
+        // Si la invalidación llegó entre la comprobación y el put, se descarta lo recién guardado
+        if (generation.get() != loadGeneration) {
+            entries.remove(key, loaded);
+            evictedKeys.add(key);
+            return;
+        }
+
+        int maxEntries = Math.max(1, reportProperties.getDashboardCacheMaxEntries());
+        while (entries.size() > maxEntries) {
+            entries.entrySet().stream()
+                    .filter(e -> !CURRENT_KEY.equals(e.getKey()))
+                    .min(Comparator.comparing(e -> e.getValue().getLoadedAt()))
+                    .ifPresentOrElse(e -> entries.remove(e.getKey(), e.getValue()), entries::clear);
+        }
+    }
+
+    private Duration getTimeToLive() {
+        return Duration.ofSeconds(reportProperties.getDashboardCacheTtlSeconds());
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class CacheEntry {
+        private final DashboardResponse value;
+        private final Instant loadedAt;
+        private final Loader loader;
+
+        boolean isExpired(Duration timeToLive) {
+            return loadedAt.plus(timeToLive).isBefore(Instant.now());
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.project.ayd.mechanic_workshop.features.reports.service;
+
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
+import com.project.ayd.mechanic_workshop.features.reports.dto.DashboardDelta;
+import com.project.ayd.mechanic_workshop.features.reports.dto.DashboardResponse;
+import com.project.ayd.mechanic_workshop.features.reports.enums.DataChangeSource;
+import com.project.ayd.mechanic_workshop.features.reports.exception.ReportCapacityException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Envío del dashboard por Server-Sent Events. Cada suscriptor recibe el dashboard completo
+ * al conectarse y después solo los campos que cambian. Los cambios de datos se agrupan por
+ * grupo de suscriptores (los que ven el mismo dashboard): el primer cambio programa un
+ * recálculo al cabo de app.reports.dashboard-push-interval-millis y los que llegan mientras
+ * tanto se suman a ese mismo recálculo, así una ráfaga de escrituras cuesta una sola carga.
+ * El recálculo no pasa por el cache, que puede seguir sirviendo la versión anterior mientras
+ * se recarga, y lee del primario para incluir el cambio que lo disparó.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardPushService {
+
+    public static final String SNAPSHOT_EVENT = "dashboard";
+    public static final String DELTA_EVENT = "dashboard-delta";
+
+    private final DashboardService dashboardService;
+    private final ReportProperties reportProperties;
+    private final TaskScheduler taskScheduler;
+
+    private final Map<String, SubscriberGroup> groups = new ConcurrentHashMap<>();
+
+    // Suscribe al dashboard actual, el mismo de GET /reports/dashboard
+    public SseEmitter subscribe() {
+        int subscribers = groups.values().stream().mapToInt(group -> group.emitters.size()).sum();
+        if (subscribers >= reportProperties.getDashboardPushMaxSubscribers()) {
+            throw new ReportCapacityException("Too many live dashboard connections, please poll instead");
+        }
+
+        SubscriberGroup group = groups.computeIfAbsent(DashboardCache.CURRENT_KEY,
+                key -> new SubscriberGroup(key, dashboardService::getDashboardData,
+                        dashboardService::getFreshDashboardData));
+        return group.subscribe(new SseEmitter(reportProperties.getDashboardPushTimeoutMillis()));
+    }
+
+    // Registra un cambio de datos ya confirmado; sin suscriptores no se recalcula nada
+    public void onDataChanged(DataChangeSource source) {
+        groups.values().forEach(group -> group.markChanged(source));
+    }
+
+    // Mantiene abiertas las conexiones a través de proxies y detecta los clientes que se fueron
+    @Scheduled(fixedDelayString = "${app.reports.dashboard-push-heartbeat-millis:30000}")
+    public void sendHeartbeats() {
+        groups.values().forEach(group -> group.sendToAll(() -> SseEmitter.event().comment("keepalive")));
+    }
+
+    private final class SubscriberGroup {
+        private final String key;
+        // La versión inicial puede venir del cache; los recálculos, no
+        private final Supplier<DashboardResponse> snapshotLoader;
+        private final Supplier<DashboardResponse> freshLoader;
+        private final Set<SseEmitter> emitters = ConcurrentHashMap.newKeySet();
+
+        // Cambios pendientes; protegidos por this
+        private final Set<DataChangeSource> pendingSources = EnumSet.noneOf(DataChangeSource.class);
+        private boolean pushScheduled;
+
+        // Última versión enviada, base de los deltas; protegidos por pushLock
+        private final Object pushLock = new Object();
+        private DashboardResponse lastSent;
+        private long version;
+
+        private SubscriberGroup(String key, Supplier<DashboardResponse> snapshotLoader,
+                Supplier<DashboardResponse> freshLoader) {
+            this.key = key;
+            this.snapshotLoader = snapshotLoader;
+            this.freshLoader = freshLoader;
+        }
+
+        private SseEmitter subscribe(SseEmitter emitter) {
+            emitter.onCompletion(() -> unsubscribe(emitter));
+            emitter.onTimeout(() -> unsubscribe(emitter));
+            emitter.onError(e -> unsubscribe(emitter));
+
+            // El suscriptor parte de la misma versión sobre la que se calculan los deltas
+            synchronized (pushLock) {
+                if (lastSent == null) {
+                    lastSent = snapshotLoader.get();
+                    version++;
+                }
+                emitters.add(emitter);
+                send(emitter, SseEmitter.event()
+                        .name(SNAPSHOT_EVENT)
+                        .id(String.valueOf(version))
+                        .data(lastSent, MediaType.APPLICATION_JSON));
+            }
+            log.debug("Dashboard subscriber added to {} ({} connected)", key, emitters.size());
+            return emitter;
+        }
+
+        private void unsubscribe(SseEmitter emitter) {
+            if (emitters.remove(emitter) && emitters.isEmpty()) {
+                // Sin suscriptores los cambios no se siguen; el próximo parte de una carga nueva
+                synchronized (pushLock) {
+                    if (emitters.isEmpty()) {
+                        lastSent = null;
+                    }
+                }
+            }
+        }
+
+        private synchronized void markChanged(DataChangeSource source) {
+            if (emitters.isEmpty()) {
+                return;
+            }
+            pendingSources.add(source);
+            if (!pushScheduled) {
+                pushScheduled = true;
+                taskScheduler.schedule(this::push,
+                        Instant.now().plusMillis(reportProperties.getDashboardPushIntervalMillis()));
+            }
+        }
+
+        private void push() {
+            Set<DataChangeSource> sources;
+            synchronized (this) {
+                sources = EnumSet.copyOf(pendingSources);
+                pendingSources.clear();
+                // Un cambio durante el recálculo programa otro, no antes de un intervalo
+                pushScheduled = false;
+            }
+
+            synchronized (pushLock) {
+                if (lastSent == null || emitters.isEmpty()) {
+                    return;
+                }
+                try {
+                    DashboardResponse current = freshLoader.get();
+                    Map<String, Object> changes = DashboardDelta.changedFields(lastSent, current);
+                    if (changes.isEmpty()) {
+                        log.debug("Dashboard {} unchanged after {} changes", key, sources);
+                        return;
+                    }
+
+                    lastSent = current;
+                    version++;
+                    DashboardDelta delta = DashboardDelta.builder()
+                            .version(version)
+                            .sources(sources)
+                            .changes(changes)
+                            .generatedAt(LocalDateTime.now())
+                            .build();
+                    sendToAll(() -> SseEmitter.event()
+                            .name(DELTA_EVENT)
+                            .id(String.valueOf(version))
+                            .data(delta, MediaType.APPLICATION_JSON));
+                    log.debug("Pushed {} dashboard fields to {} subscribers of {}", changes.size(), emitters.size(),
+                            key);
+                } catch (RuntimeException e) {
+                    log.error("Error pushing dashboard {} changes", key, e);
+                }
+            }
+        }
+
+        // Un SseEventBuilder se consume al enviarlo: se arma uno por suscriptor
+        private void sendToAll(Supplier<SseEmitter.SseEventBuilder> event) {
+            emitters.forEach(emitter -> send(emitter, event.get()));
+        }
+
+        private void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                // El cliente se desconectó; Spring MVC cierra la respuesta
+                unsubscribe(emitter);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.project.ayd.mechanic_workshop.features.reports.service;
+
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta en paralelo, sobre hilos virtuales, las consultas independientes del dashboard.
+ * Un semáforo limita cuántas conexiones del pool se usan a la vez y cada carga tiene
+ * un tiempo máximo; las secciones que fallan o vencen se reemplazan por un valor por defecto.
+ */
+@Component
+@Slf4j
+public class DashboardQueryExecutor {
+
+    private final ExecutorService executor;
+    private final PlatformTransactionManager transactionManager;
+    private final Semaphore connectionBudget;
+    private final long timeoutNanos;
+
+    public DashboardQueryExecutor(@Qualifier("dashboardVirtualThreadExecutor") ExecutorService executor,
+            PlatformTransactionManager transactionManager,
+            ReportProperties reportProperties) {
+        this.executor = executor;
+        this.transactionManager = transactionManager;
+        this.connectionBudget = new Semaphore(Math.max(1, reportProperties.getDashboardMaxParallelQueries()), true);
+        this.timeoutNanos = TimeUnit.SECONDS.toNanos(reportProperties.getDashboardQueryTimeoutSeconds());
+    }
+
+    public FanOut start() {
+        return new FanOut(System.nanoTime() + timeoutNanos, true);
+    }
+
+    // Para cargas que deben ver un cambio recién confirmado: no pasan por las réplicas
+    public FanOut startOnPrimary() {
+        return new FanOut(System.nanoTime() + timeoutNanos, false);
+    }
+
+    /**
+     * Grupo de consultas que comparten el mismo plazo máximo.
+     */
+    public final class FanOut {
+
+        private final long deadline;
+        private final boolean readOnly;
+        private final List<String> failedSections = new ArrayList<>();
+
+        private FanOut(long deadline, boolean readOnly) {
+            this.deadline = deadline;
+            this.readOnly = readOnly;
+        }
+
+        public <T> Future<T> submit(String section, Supplier<T> query) {
+            return executor.submit(() -> {
+                if (!connectionBudget.tryAcquire(remainingNanos(), TimeUnit.NANOSECONDS)) {
+                    throw new TimeoutException("No connection budget available for " + section);
+                }
+                try {
+                    // Cada consulta corre en su propia transacción en este hilo; las de solo lectura
+                    // van a las réplicas y el resto al primario
+                    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+                    transaction.setReadOnly(readOnly);
+                    transaction.setTimeout(remainingSeconds());
+                    return transaction.execute(status -> query.get());
+                } finally {
+                    connectionBudget.release();
+                }
+            });
+        }
+
+        public <T> T await(String section, Future<T> future, T fallback) {
+            try {
+                T result = future.get(remainingNanos(), TimeUnit.NANOSECONDS);
+                return result != null ? result : fallback;
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                log.warn("Dashboard section {} timed out, using default value", section);
+            } catch (ExecutionException e) {
+                log.error("Error loading dashboard section {}", section, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                log.warn("Interrupted while loading dashboard section {}", section);
+            }
+            failedSections.add(section);
+            return fallback;
+        }
+
+        public List<String> getFailedSections() {
+            return Collections.unmodifiableList(failedSections);
+        }
+
+        private long remainingNanos() {
+            return Math.max(0, deadline - System.nanoTime());
+        }
+
+        private int remainingSeconds() {
+            return (int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remainingNanos()));
+        }
+    }
+}
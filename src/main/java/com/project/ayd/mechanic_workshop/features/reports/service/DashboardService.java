@@ -1,6 +1,8 @@
 package com.project.ayd.mechanic_workshop.features.reports.service;
 
 import com.project.ayd.mechanic_workshop.features.reports.dto.DashboardResponse;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ChartType;
+import com.project.ayd.mechanic_workshop.features.reports.utils.ChartRenderer;
 
 import java.time.LocalDateTime;
 
@@ -8,6 +10,9 @@ public interface DashboardService {
 
     DashboardResponse getDashboardData();
 
+    // Dashboard actual calculado sin pasar por el cache y leyendo del primario
+    DashboardResponse getFreshDashboardData();
+
     DashboardResponse getDashboardDataForPeriod(LocalDateTime startDate, LocalDateTime endDate);
 
     void refreshDashboardCache();
@@ -17,4 +22,7 @@ public interface DashboardService {
     DashboardResponse.ChartData[] getWorkStatusChartData();
 
     DashboardResponse.ChartData[] getWorkTypeChartData(LocalDateTime startDate, LocalDateTime endDate);
-}
\ No newline at end of file
+
+    // Imagen PNG de un gráfico del dashboard actual: income, work-status o work-type
+    ChartRenderer.ChartImage getDashboardChart(String section, ChartType type, Integer width, Integer height);
+}
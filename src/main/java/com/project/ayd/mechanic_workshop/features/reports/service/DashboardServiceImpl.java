@@ -1,7 +1,14 @@
 package com.project.ayd.mechanic_workshop.features.reports.service;
 
+import com.project.ayd.mechanic_workshop.features.reports.dto.ChartSpec;
 import com.project.ayd.mechanic_workshop.features.reports.dto.DashboardResponse;
+import com.project.ayd.mechanic_workshop.features.reports.dto.DashboardSnapshot;
+import com.project.ayd.mechanic_workshop.features.reports.dto.KpiCounts;
+import com.project.ayd.mechanic_workshop.features.reports.dto.LeaderboardEntry;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ChartType;
+import com.project.ayd.mechanic_workshop.features.reports.enums.LeaderboardType;
 import com.project.ayd.mechanic_workshop.features.reports.repository.ReportRepository;
+import com.project.ayd.mechanic_workshop.features.reports.utils.ChartRenderer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -9,77 +16,35 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Future;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class DashboardServiceImpl implements DashboardService {
 
+    private static final int MIN_CHART_PIXELS = 100;
+    private static final int MAX_CHART_PIXELS = 2000;
+
     private final ReportRepository reportRepository;
+    private final ReportPeriodCache reportPeriodCache;
+    private final ReportLeaderboardService reportLeaderboardService;
+    private final ChartRenderer chartRenderer;
+    private final DashboardCache dashboardCache;
+    private final DashboardQueryExecutor dashboardQueryExecutor;
+    private final KpiCounterService kpiCounterService;
 
     @Override
-    @Transactional(readOnly = true)
     public DashboardResponse getDashboardData() {
-        log.info("Generating dashboard data");
-
         try {
-            // Métricas generales de trabajos
-            Long totalActiveWorks = reportRepository.countActiveWorks();
-            Long totalCompletedWorks = reportRepository.countCompletedWorks();
-            Long totalPendingWorks = reportRepository.countPendingWorks();
-
-            // Métricas financieras
-            BigDecimal totalIncomeToday = reportRepository.getTotalIncomeToday();
-            BigDecimal totalIncomeThisMonth = reportRepository.getTotalIncomeThisMonth();
-            BigDecimal totalIncomeThisYear = reportRepository.getTotalIncomeThisYear();
-            BigDecimal totalPendingPayments = reportRepository.getTotalPendingPayments();
-
-            // Métricas de inventario
-            Long totalPartsInStock = reportRepository.countPartsInStock();
-            Long lowStockParts = reportRepository.countLowStockParts();
-            Long outOfStockParts = reportRepository.countOutOfStockParts();
-
-            // Métricas de empleados
-            Long totalEmployees = reportRepository.countTotalEmployees();
-            Long busyEmployees = reportRepository.countBusyEmployees();
-            Long availableEmployees = reportRepository.countAvailableEmployees();
-
-            // Datos para gráficos
-            LocalDateTime sixMonthsAgo = LocalDateTime.now().minusMonths(6);
-            List<DashboardResponse.ChartData> incomeByMonth = getIncomeChartDataList(sixMonthsAgo, LocalDateTime.now());
-            List<DashboardResponse.ChartData> worksByStatus = getWorkStatusChartDataList();
-            List<DashboardResponse.ChartData> worksByType = getWorkTypeChartDataList(sixMonthsAgo, LocalDateTime.now());
-
-            // Top performers
-            Map<String, BigDecimal> topMechanicsByRevenue = getTopMechanicsByRevenue();
-            Map<String, Long> topUsedParts = getTopUsedParts();
-
-            return DashboardResponse.builder()
-                    .totalActiveWorks(totalActiveWorks != null ? totalActiveWorks : 0L)
-                    .totalCompletedWorks(totalCompletedWorks != null ? totalCompletedWorks : 0L)
-                    .totalPendingWorks(totalPendingWorks != null ? totalPendingWorks : 0L)
-                    .totalVehiclesInService(totalActiveWorks != null ? totalActiveWorks : 0L) // Simplificación
-                    .totalIncomeToday(totalIncomeToday != null ? totalIncomeToday : BigDecimal.ZERO)
-                    .totalIncomeThisMonth(totalIncomeThisMonth != null ? totalIncomeThisMonth : BigDecimal.ZERO)
-                    .totalIncomeThisYear(totalIncomeThisYear != null ? totalIncomeThisYear : BigDecimal.ZERO)
-                    .totalPendingPayments(totalPendingPayments != null ? totalPendingPayments : BigDecimal.ZERO)
-                    .totalPartsInStock(totalPartsInStock != null ? totalPartsInStock : 0L)
-                    .lowStockParts(lowStockParts != null ? lowStockParts : 0L)
-                    .outOfStockParts(outOfStockParts != null ? outOfStockParts : 0L)
-                    .totalEmployees(totalEmployees != null ? totalEmployees : 0L)
-                    .busyEmployees(busyEmployees != null ? busyEmployees : 0L)
-                    .availableEmployees(availableEmployees)
-                    .incomeByMonth(incomeByMonth)
-                    .worksByStatus(worksByStatus)
-                    .worksByType(worksByType)
-                    .topMechanicsByRevenue(topMechanicsByRevenue)
-                    .topUsedParts(topUsedParts)
-                    .build();
-
+            return dashboardCache.get(DashboardCache.CURRENT_KEY, this::loadDashboardData);
         } catch (Exception e) {
             log.error("Error generating dashboard data", e);
             // Devolver dashboard con valores por defecto en caso de error
@@ -88,14 +53,20 @@ public class DashboardServiceImpl implements DashboardService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    public DashboardResponse getFreshDashboardData() {
+        return loadDashboardData(true);
+    }
+
+    @Override
     public DashboardResponse getDashboardDataForPeriod(LocalDateTime startDate, LocalDateTime endDate) {
-        log.info("Generating dashboard data for period: {} to {}", startDate, endDate);
+        // Normalizar al minuto para que solicitudes equivalentes compartan la misma entrada
+        LocalDateTime start = startDate.truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime end = endDate.truncatedTo(ChronoUnit.MINUTES);
+        String cacheKey = "period:" + start + "_" + end;
 
         try {
-            // Para este método podríamos implementar filtros específicos por fecha
-            // Por simplicidad, devolvemos el dashboard general
-            return getDashboardData();
+            return dashboardCache.get(cacheKey,
+                    fromPrimary -> loadDashboardData(start, start, end, fromPrimary));
         } catch (Exception e) {
             log.error("Error generating dashboard data for period", e);
             return getDefaultDashboardResponse();
@@ -104,29 +75,77 @@ public class DashboardServiceImpl implements DashboardService {
 
     @Override
     public void refreshDashboardCache() {
-        log.info("Refreshing dashboard cache");
-        // Implementar cache refresh si se usa cache en el futuro
-        // Por ahora solo logueamos la acción
+        log.info("Refreshing dashboard cache ({} cached variants)", dashboardCache.size());
+        dashboardCache.refreshAsync(DashboardCache.CURRENT_KEY, this::loadDashboardData);
+        dashboardCache.refreshAll();
+    }
+
+    private DashboardResponse loadDashboardData(boolean fromPrimary) {
+        LocalDateTime now = LocalDateTime.now();
+        // Gráficos de tendencia a 6 meses; estados y top performers del último mes
+        return loadDashboardData(now.minusMonths(6), now.minusMonths(1), now, fromPrimary);
+    }
+
+    private DashboardResponse loadDashboardData(LocalDateTime trendStart, LocalDateTime recentStart,
+            LocalDateTime end, boolean fromPrimary) {
+        log.info("Generating dashboard data for period: {} to {}", trendStart, end);
+
+        // Las consultas son independientes: se lanzan todas y luego se esperan con un plazo común
+        DashboardQueryExecutor.FanOut fanOut = fromPrimary
+                ? dashboardQueryExecutor.startOnPrimary()
+                : dashboardQueryExecutor.start();
+
+        // Métricas escalares (trabajos, finanzas, inventario y empleados)
+        Future<DashboardSnapshot> snapshot = fanOut.submit("snapshot", this::loadSnapshot);
+
+        // Datos para gráficos
+        Future<List<DashboardResponse.ChartData>> incomeByMonth = fanOut.submit("incomeByMonth",
+                () -> toChartData(reportPeriodCache.getIncomeByMonth(trendStart.toLocalDate(), end.toLocalDate()),
+                        "Ingresos"));
+        Future<List<DashboardResponse.ChartData>> worksByStatus = fanOut.submit("worksByStatus",
+                () -> toChartData(reportRepository.getWorksByStatus(recentStart, end), "Estado de Trabajos"));
+        Future<List<DashboardResponse.ChartData>> worksByType = fanOut.submit("worksByType",
+                () -> toChartData(reportRepository.getWorksByType(trendStart, end), "Tipo de Servicio"));
+
+        // Top performers
+        Future<Map<String, BigDecimal>> topMechanicsByRevenue = fanOut.submit("topMechanicsByRevenue",
+                () -> toTopMechanicsByRevenue(reportLeaderboardService.getLeaderboard(
+                        LeaderboardType.MECHANICS_BY_REVENUE, recentStart, end, null)));
+        Future<Map<String, Long>> topUsedParts = fanOut.submit("topUsedParts",
+                () -> toTopUsedParts(reportLeaderboardService.getLeaderboard(
+                        LeaderboardType.PARTS_BY_USAGE, recentStart, end, null)));
+
+        DashboardResponse response = fanOut.await("snapshot", snapshot, DashboardSnapshot.fromRow(new Object[13]))
+                .applyTo(DashboardResponse.builder())
+                .incomeByMonth(fanOut.await("incomeByMonth", incomeByMonth, new ArrayList<>()))
+                .worksByStatus(fanOut.await("worksByStatus", worksByStatus, new ArrayList<>()))
+                .worksByType(fanOut.await("worksByType", worksByType, new ArrayList<>()))
+                .topMechanicsByRevenue(fanOut.await("topMechanicsByRevenue", topMechanicsByRevenue, new HashMap<>()))
+                .topUsedParts(fanOut.await("topUsedParts", topUsedParts, new HashMap<>()))
+                .unavailableSections(fanOut.getFailedSections())
+                .build();
+
+        if (!fanOut.getFailedSections().isEmpty()) {
+            log.warn("Dashboard generated with partial data, unavailable sections: {}", fanOut.getFailedSections());
+        }
+        return response;
+    }
+
+    // Con los contadores sembrados solo se consultan los importes; antes, todo en una sola consulta
+    private DashboardSnapshot loadSnapshot() {
+        Optional<KpiCounts> counts = kpiCounterService.getCounts();
+        if (counts.isEmpty()) {
+            return reportRepository.getDashboardSnapshot();
+        }
+        return DashboardSnapshot.of(counts.get(), reportRepository.getFinancialSnapshot());
     }
 
     @Override
     @Transactional(readOnly = true)
     public DashboardResponse.ChartData[] getIncomeChartData(LocalDateTime startDate, LocalDateTime endDate) {
         try {
-            List<Object[]> rawData = reportRepository.getIncomeByMonth(startDate.toLocalDate(), endDate.toLocalDate());
-            List<DashboardResponse.ChartData> chartData = new ArrayList<>();
-
-            for (Object[] row : rawData) {
-                if (row.length >= 2 && row[0] != null && row[1] != null) {
-                    chartData.add(DashboardResponse.ChartData.builder()
-                            .label((String) row[0])
-                            .value(new BigDecimal(row[1].toString()))
-                            .category("Ingresos")
-                            .build());
-                }
-            }
-
-            return chartData.toArray(new DashboardResponse.ChartData[0]);
+            List<Object[]> rawData = reportPeriodCache.getIncomeByMonth(startDate.toLocalDate(), endDate.toLocalDate());
+            return toChartData(rawData, "Ingresos").toArray(new DashboardResponse.ChartData[0]);
         } catch (Exception e) {
             log.error("Error getting income chart data", e);
             return new DashboardResponse.ChartData[0];
@@ -139,19 +158,7 @@ public class DashboardServiceImpl implements DashboardService {
         try {
             LocalDateTime monthAgo = LocalDateTime.now().minusMonths(1);
             List<Object[]> rawData = reportRepository.getWorksByStatus(monthAgo, LocalDateTime.now());
-            List<DashboardResponse.ChartData> chartData = new ArrayList<>();
-
-            for (Object[] row : rawData) {
-                if (row.length >= 2 && row[0] != null && row[1] != null) {
-                    chartData.add(DashboardResponse.ChartData.builder()
-                            .label((String) row[0])
-                            .value(BigDecimal.valueOf(((Number) row[1]).longValue()))
-                            .category("Estado de Trabajos")
-                            .build());
-                }
-            }
-
-            return chartData.toArray(new DashboardResponse.ChartData[0]);
+            return toChartData(rawData, "Estado de Trabajos").toArray(new DashboardResponse.ChartData[0]);
         } catch (Exception e) {
             log.error("Error getting work status chart data", e);
             return new DashboardResponse.ChartData[0];
@@ -163,89 +170,84 @@ public class DashboardServiceImpl implements DashboardService {
     public DashboardResponse.ChartData[] getWorkTypeChartData(LocalDateTime startDate, LocalDateTime endDate) {
         try {
             List<Object[]> rawData = reportRepository.getWorksByType(startDate, endDate);
-            List<DashboardResponse.ChartData> chartData = new ArrayList<>();
-
-            for (Object[] row : rawData) {
-                if (row.length >= 2 && row[0] != null && row[1] != null) {
-                    chartData.add(DashboardResponse.ChartData.builder()
-                            .label((String) row[0])
-                            .value(BigDecimal.valueOf(((Number) row[1]).longValue()))
-                            .category("Tipo de Servicio")
-                            .build());
-                }
-            }
-
-            return chartData.toArray(new DashboardResponse.ChartData[0]);
+            return toChartData(rawData, "Tipo de Servicio").toArray(new DashboardResponse.ChartData[0]);
         } catch (Exception e) {
             log.error("Error getting work type chart data", e);
             return new DashboardResponse.ChartData[0];
         }
     }
 
-    // Helper methods
-    private List<DashboardResponse.ChartData> getIncomeChartDataList(LocalDateTime startDate, LocalDateTime endDate) {
-        DashboardResponse.ChartData[] data = getIncomeChartData(startDate, endDate);
-        return List.of(data);
+    @Override
+    public ChartRenderer.ChartImage getDashboardChart(String section, ChartType type, Integer width,
+            Integer height) {
+        validateChartSize(width);
+        validateChartSize(height);
+
+        // Los datos salen del dashboard en cache: mientras no cambien se reutiliza la misma imagen
+        DashboardResponse dashboard = getDashboardData();
+        ChartSpec.ChartSpecBuilder chart = switch (section) {
+            case "income" -> toChartSpec(dashboard.getIncomeByMonth(), type != null ? type : ChartType.LINE,
+                    "Ingresos por Mes", "Mes", "Ingresos");
+            case "work-status" -> toChartSpec(dashboard.getWorksByStatus(), type != null ? type : ChartType.PIE,
+                    "Trabajos por Estado", "Estado", "Cantidad");
+            case "work-type" -> toChartSpec(dashboard.getWorksByType(), type != null ? type : ChartType.BAR,
+                    "Trabajos por Tipo de Servicio", "Tipo de Servicio", "Cantidad");
+            default -> throw new IllegalArgumentException("Unknown dashboard chart: " + section);
+        };
+        return chartRenderer.render(chart.width(width).height(height).build());
     }
 
-    private List<DashboardResponse.ChartData> getWorkStatusChartDataList() {
-        DashboardResponse.ChartData[] data = getWorkStatusChartData();
-        return List.of(data);
+    // Helper methods
+    private ChartSpec.ChartSpecBuilder toChartSpec(List<DashboardResponse.ChartData> data, ChartType type,
+            String title, String categoryLabel, String valueLabel) {
+        List<DashboardResponse.ChartData> rows = data != null ? data : List.of();
+        return ChartSpec.builder()
+                .type(type)
+                .title(title)
+                .categoryLabel(categoryLabel)
+                .valueLabel(valueLabel)
+                .labels(rows.stream().map(DashboardResponse.ChartData::getLabel).toList())
+                .values(rows.stream().map(DashboardResponse.ChartData::getValue).toList());
     }
 
-    private List<DashboardResponse.ChartData> getWorkTypeChartDataList(LocalDateTime startDate, LocalDateTime endDate) {
-        DashboardResponse.ChartData[] data = getWorkTypeChartData(startDate, endDate);
-        return List.of(data);
+    private static void validateChartSize(Integer pixels) {
+        if (pixels != null && (pixels < MIN_CHART_PIXELS || pixels > MAX_CHART_PIXELS)) {
+            throw new IllegalArgumentException(
+                    "Chart size must be between " + MIN_CHART_PIXELS + " and " + MAX_CHART_PIXELS + " pixels");
+        }
     }
 
-    private Map<String, BigDecimal> getTopMechanicsByRevenue() {
-        try {
-            LocalDateTime monthAgo = LocalDateTime.now().minusMonths(1);
-            List<Object[]> rawData = reportRepository.getEmployeePerformance(monthAgo, LocalDateTime.now());
-            Map<String, BigDecimal> topMechanics = new HashMap<>();
-
-            int count = 0;
-            for (Object[] row : rawData) {
-                if (count >= 5)
-                    break; // Top 5
-                if (row.length >= 6 && row[0] != null && row[5] != null) {
-                    String employeeName = (String) row[0];
-                    BigDecimal totalRevenue = new BigDecimal(row[5].toString());
-                    topMechanics.put(employeeName, totalRevenue);
-                    count++;
-                }
-            }
+    private List<DashboardResponse.ChartData> toChartData(List<Object[]> rawData, String category) {
+        List<DashboardResponse.ChartData> chartData = new ArrayList<>();
 
-            return topMechanics;
-        } catch (Exception e) {
-            log.error("Error getting top mechanics by revenue", e);
-            return new HashMap<>();
+        for (Object[] row : rawData) {
+            if (row.length >= 2 && row[0] != null && row[1] != null) {
+                chartData.add(DashboardResponse.ChartData.builder()
+                        .label((String) row[0])
+                        .value(new BigDecimal(row[1].toString()))
+                        .category(category)
+                        .build());
+            }
         }
+
+        return chartData;
     }
 
-    private Map<String, Long> getTopUsedParts() {
-        try {
-            LocalDateTime monthAgo = LocalDateTime.now().minusMonths(1);
-            List<Object[]> rawData = reportRepository.getPartUsageStatistics(monthAgo, LocalDateTime.now());
-            Map<String, Long> topParts = new HashMap<>();
-
-            int count = 0;
-            for (Object[] row : rawData) {
-                if (count >= 5)
-                    break; // Top 5
-                if (row.length >= 3 && row[0] != null && row[2] != null) {
-                    String partName = (String) row[0];
-                    Long totalQuantity = ((Number) row[2]).longValue();
-                    topParts.put(partName, totalQuantity);
-                    count++;
-                }
-            }
+    // LinkedHashMap conserva el orden del ranking al serializar
+    private Map<String, BigDecimal> toTopMechanicsByRevenue(List<LeaderboardEntry> leaderboard) {
+        Map<String, BigDecimal> topMechanics = new LinkedHashMap<>();
+        for (LeaderboardEntry entry : leaderboard) {
+            topMechanics.putIfAbsent(entry.getLabel(), entry.getValue());
+        }
+        return topMechanics;
+    }
 
-            return topParts;
-        } catch (Exception e) {
-            log.error("Error getting top used parts", e);
-            return new HashMap<>();
+    private Map<String, Long> toTopUsedParts(List<LeaderboardEntry> leaderboard) {
+        Map<String, Long> topParts = new LinkedHashMap<>();
+        for (LeaderboardEntry entry : leaderboard) {
+            topParts.putIfAbsent(entry.getLabel(), entry.getValue().longValue());
         }
+        return topParts;
     }
 
     private DashboardResponse getDefaultDashboardResponse() {
@@ -0,0 +1,403 @@
+package com.project.ayd.mechanic_workshop.features.reports.service;
+
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
+import com.project.ayd.mechanic_workshop.features.reports.dto.KpiCounts;
+import com.project.ayd.mechanic_workshop.features.reports.enums.DataChangeSource;
+import com.project.ayd.mechanic_workshop.features.reports.events.ReportDataChangedEvent;
+import com.project.ayd.mechanic_workshop.features.reports.repository.ReportRepository;
+import com.project.ayd.mechanic_workshop.features.workorders.enums.WorkOrderStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Conteos del dashboard mantenidos en memoria: trabajos por estado, empleados ocupados y
+ * disponibles y repuestos con existencias, bajo el mínimo o agotados. Se siembran al iniciar;
+ * cada cambio confirmado de un trabajo o de existencias vuelve a leer solo esa entidad en
+ * kpiRefreshExecutor, sin demorar a quien escribió, y ajusta los contadores por diferencia.
+ * La conciliación periódica los recalcula desde la base de datos, corrige lo que los eventos
+ * no ven (triggers, compras recibidas, altas de empleados) y publica la diferencia encontrada
+ * en report.kpi.drift.
+ */
+@Service
+@Slf4j
+public class KpiCounterService {
+
+    // Trabajos asignados o en progreso desde los que un empleado cuenta como ocupado
+    private static final int BUSY_EMPLOYEE_WORKS = 5;
+
+    private enum Kpi {
+        ACTIVE_WORKS, COMPLETED_WORKS, PENDING_WORKS,
+        PARTS_IN_STOCK, LOW_STOCK_PARTS, OUT_OF_STOCK_PARTS,
+        TOTAL_EMPLOYEES, BUSY_EMPLOYEES, AVAILABLE_EMPLOYEES
+    }
+
+    private final ReportRepository reportRepository;
+    private final ReportProperties reportProperties;
+    private final TransactionTemplate refreshTransaction;
+    private final TransactionTemplate reconcileTransaction;
+    private final ThreadPoolTaskExecutor kpiRefreshExecutor;
+
+    private final AtomicReference<KpiState> state = new AtomicReference<>();
+    // Cambios recibidos mientras corre una conciliación; null fuera de ella
+    private volatile Queue<ReportDataChangedEvent> changedDuringReconcile;
+
+    private final Map<Kpi, AtomicLong> lastDrift = new EnumMap<>(Kpi.class);
+    private final Counter reconciledInSync;
+    private final Counter reconciledWithDrift;
+
+    public KpiCounterService(ReportRepository reportRepository, ReportProperties reportProperties,
+            PlatformTransactionManager transactionManager, ThreadPoolTaskExecutor kpiRefreshExecutor,
+            MeterRegistry meterRegistry) {
+        this.reportRepository = reportRepository;
+        this.reportProperties = reportProperties;
+        this.kpiRefreshExecutor = kpiRefreshExecutor;
+
+        // Sin readOnly en ambas: las lecturas van al primario y no a una réplica que todavía
+        // no tiene el cambio. La relectura corre fuera de la transacción que hizo el cambio
+        this.refreshTransaction = new TransactionTemplate(transactionManager);
+        refreshTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Todas las consultas de la conciliación ven la misma foto de la base de datos
+        this.reconcileTransaction = new TransactionTemplate(transactionManager);
+        reconcileTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        for (Kpi kpi : Kpi.values()) {
+            String tag = kpi.name().toLowerCase(Locale.ROOT);
+            lastDrift.put(kpi, new AtomicLong());
+            Gauge.builder("report.kpi.value", state, reference -> {
+                KpiState current = reference.get();
+                return current != null ? current.get(kpi) : Double.NaN;
+            })
+                    .description("Current value of the in-memory dashboard counter")
+                    .tag("kpi", tag)
+                    .register(meterRegistry);
+            Gauge.builder("report.kpi.drift", lastDrift.get(kpi), AtomicLong::get)
+                    .description("Counter minus database value found by the last reconciliation")
+                    .tag("kpi", tag)
+                    .register(meterRegistry);
+        }
+        this.reconciledInSync = Counter.builder("report.kpi.reconciliations")
+                .description("Reconciliations of the dashboard counters against the database")
+                .tag("outcome", "in_sync")
+                .register(meterRegistry);
+        this.reconciledWithDrift = Counter.builder("report.kpi.reconciliations")
+                .description("Reconciliations of the dashboard counters against the database")
+                .tag("outcome", "drift")
+                .register(meterRegistry);
+    }
+
+    // Conteos actuales; vacío antes de la primera siembra o con los contadores desactivados
+    public Optional<KpiCounts> getCounts() {
+        KpiState current = state.get();
+        if (current == null || !reportProperties.isEnableKpiCounters()) {
+            return Optional.empty();
+        }
+        return Optional.of(current.toCounts());
+    }
+
+    /**
+     * Aplica en segundo plano un cambio ya confirmado; facturas y pagos no afectan estos conteos
+     *
+     * @return Se completa cuando los contadores ya reflejan el cambio (de inmediato si no aplica)
+     */
+    public CompletableFuture<Void> onDataChanged(ReportDataChangedEvent event) {
+        if (!reportProperties.isEnableKpiCounters() || event.getEntityId() == null
+                || (event.getSource() != DataChangeSource.WORK && event.getSource() != DataChangeSource.STOCK)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        try {
+            return CompletableFuture.runAsync(() -> refresh(event), kpiRefreshExecutor);
+        } catch (TaskRejectedException e) {
+            log.warn("KPI refresh queue is full, {} {} left for the next reconciliation", event.getSource(),
+                    event.getEntityId());
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private void refresh(ReportDataChangedEvent event) {
+        // Se anota antes de leer el estado: si la conciliación lo reemplaza, el cambio se repite sobre el nuevo
+        Queue<ReportDataChangedEvent> pending = changedDuringReconcile;
+        if (pending != null) {
+            pending.add(event);
+        }
+        KpiState current = state.get();
+        if (current != null) {
+            apply(current, event);
+        }
+    }
+
+    /**
+     * Recalcula los contadores desde la base de datos y reemplaza el estado en memoria.
+     * La primera llamada los siembra; las siguientes registran la diferencia corregida.
+     */
+    public void reconcile() {
+        if (!reportProperties.isEnableKpiCounters()) {
+            state.set(null);
+            return;
+        }
+
+        Queue<ReportDataChangedEvent> pending = new ConcurrentLinkedQueue<>();
+        changedDuringReconcile = pending;
+        KpiState loaded;
+        KpiState previous;
+        try {
+            loaded = reconcileTransaction.execute(status -> loadState());
+            previous = state.getAndSet(loaded);
+        } finally {
+            changedDuringReconcile = null;
+        }
+        // Lo confirmado durante la carga puede no estar en la foto; releer una entidad es idempotente
+        pending.forEach(event -> apply(loaded, event));
+
+        if (previous == null) {
+            log.info("KPI counters seeded from the database: {}", loaded.toCounts());
+            return;
+        }
+        recordDrift(previous, loaded);
+    }
+
+    private void apply(KpiState target, ReportDataChangedEvent event) {
+        Long entityId = event.getEntityId();
+        try {
+            refreshTransaction.executeWithoutResult(status -> {
+                if (event.getSource() == DataChangeSource.WORK) {
+                    target.refreshWork(entityId, reportRepository.getWorkState(entityId));
+                } else {
+                    target.refreshStock(entityId, reportRepository.getStockState(entityId));
+                }
+            });
+        } catch (RuntimeException e) {
+            // El contador queda desfasado hasta la próxima conciliación
+            log.warn("Could not update KPI counters for {} {}: {}", event.getSource(), entityId, e.getMessage());
+        }
+    }
+
+    private KpiState loadState() {
+        KpiState loaded = new KpiState();
+        for (Object[] row : reportRepository.getEmployeeLoads()) {
+            loaded.addEmployee(toLong(row[0]), toLong(row[1]).intValue());
+        }
+        // La carga de cada empleado ya incluye sus trabajos abiertos
+        for (Object[] row : reportRepository.getOpenWorkStates()) {
+            loaded.addOpenWork(toLong(row[0]), new WorkState(WorkOrderStatus.fromId(toLong(row[1])), toLong(row[2])));
+        }
+        loaded.add(Kpi.COMPLETED_WORKS, reportRepository.countCompletedWorks());
+        for (Object[] row : reportRepository.getStockStates()) {
+            loaded.updateStock(toLong(row[0]), StockLevel.of(toLong(row[1]), toLong(row[2])));
+        }
+        return loaded;
+    }
+
+    private void recordDrift(KpiState previous, KpiState loaded) {
+        Map<Kpi, Long> differences = new EnumMap<>(Kpi.class);
+        for (Kpi kpi : Kpi.values()) {
+            long difference = previous.get(kpi) - loaded.get(kpi);
+            lastDrift.get(kpi).set(difference);
+            if (difference != 0) {
+                differences.put(kpi, difference);
+            }
+        }
+
+        if (differences.isEmpty()) {
+            reconciledInSync.increment();
+            log.debug("KPI counters in sync with the database");
+        } else {
+            reconciledWithDrift.increment();
+            log.warn("KPI counters drifted from the database and were corrected: {}", differences);
+        }
+    }
+
+    private static Long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : null;
+    }
+
+    private record WorkState(WorkOrderStatus status, Long employeeId) {
+
+        private boolean isOpen() {
+            return status == WorkOrderStatus.PENDING || status == WorkOrderStatus.ASSIGNED
+                    || status == WorkOrderStatus.IN_PROGRESS;
+        }
+
+        // Cuenta en la carga del empleado, igual que work_status_id IN (2, 3) en SQL
+        private boolean isEmployeeLoad() {
+            return employeeId != null
+                    && (status == WorkOrderStatus.ASSIGNED || status == WorkOrderStatus.IN_PROGRESS);
+        }
+    }
+
+    private enum StockLevel {
+        OUT_OF_STOCK, LOW_STOCK, IN_STOCK;
+
+        // null si no cuenta en ningún conteo (sin existencias registradas o cantidad negativa)
+        private static StockLevel of(Long quantity, Long minimum) {
+            if (quantity == null || quantity < 0) {
+                return null;
+            }
+            if (quantity == 0) {
+                return OUT_OF_STOCK;
+            }
+            return minimum != null && quantity <= minimum ? LOW_STOCK : IN_STOCK;
+        }
+    }
+
+    /**
+     * Contadores más el estado por entidad del que salen. Los contadores solo se suman;
+     * la conciliación arma un estado nuevo y lo reemplaza entero.
+     */
+    private static final class KpiState {
+        private final Map<Kpi, LongAdder> counters = new EnumMap<>(Kpi.class);
+        // Solo los trabajos sin terminar: uno terminado no vuelve a cambiar de conteo salvo que se reabra
+        private final Map<Long, WorkState> openWorks = new ConcurrentHashMap<>();
+        private final Map<Long, AtomicInteger> employeeLoads = new ConcurrentHashMap<>();
+        private final Map<Long, StockLevel> stockLevels = new ConcurrentHashMap<>();
+        private final LocalDateTime reconciledAt = LocalDateTime.now();
+
+        private KpiState() {
+            for (Kpi kpi : Kpi.values()) {
+                counters.put(kpi, new LongAdder());
+            }
+        }
+
+        private long get(Kpi kpi) {
+            return counters.get(kpi).sum();
+        }
+
+        private void add(Kpi kpi, long delta) {
+            counters.get(kpi).add(delta);
+        }
+
+        private void addEmployee(Long employeeId, int openWorks) {
+            employeeLoads.put(employeeId, new AtomicInteger(openWorks));
+            add(Kpi.TOTAL_EMPLOYEES, 1);
+            add(openWorks >= BUSY_EMPLOYEE_WORKS ? Kpi.BUSY_EMPLOYEES : Kpi.AVAILABLE_EMPLOYEES, 1);
+        }
+
+        private void addOpenWork(Long workId, WorkState work) {
+            openWorks.put(workId, work);
+            countStatus(work.status(), 1);
+        }
+
+        private void refreshWork(Long workId, List<Object[]> rows) {
+            WorkState current = rows.isEmpty()
+                    ? null
+                    : new WorkState(WorkOrderStatus.fromId(toLong(rows.get(0)[0])), toLong(rows.get(0)[1]));
+            openWorks.compute(workId, (id, previous) -> {
+                // No estaba abierto y sigue sin estarlo: ya estaba contado o ya no existe
+                if (previous == null && (current == null || !current.isOpen())) {
+                    return null;
+                }
+                if (!Objects.equals(previous, current)) {
+                    countWork(previous, -1);
+                    countWork(current, 1);
+                }
+                return current != null && current.isOpen() ? current : null;
+            });
+        }
+
+        private void refreshStock(Long partId, List<Object[]> rows) {
+            updateStock(partId, rows.isEmpty() ? null : StockLevel.of(toLong(rows.get(0)[0]), toLong(rows.get(0)[1])));
+        }
+
+        private void updateStock(Long partId, StockLevel current) {
+            stockLevels.compute(partId, (id, previous) -> {
+                if (previous != current) {
+                    countStock(previous, -1);
+                    countStock(current, 1);
+                }
+                return current;
+            });
+        }
+
+        private void countWork(WorkState work, int delta) {
+            if (work == null) {
+                return;
+            }
+            countStatus(work.status(), delta);
+            if (work.isEmployeeLoad()) {
+                changeLoad(work.employeeId(), delta);
+            }
+        }
+
+        private void countStatus(WorkOrderStatus status, int delta) {
+            switch (status) {
+                case PENDING, ASSIGNED -> add(Kpi.PENDING_WORKS, delta);
+                case IN_PROGRESS -> add(Kpi.ACTIVE_WORKS, delta);
+                case COMPLETED -> add(Kpi.COMPLETED_WORKS, delta);
+                default -> {
+                    // Cancelados y finalizados sin ejecución no tienen conteo propio
+                }
+            }
+        }
+
+        // Cada incremento ve su propio antes y después, así que cruzar el umbral cuenta una sola vez
+        private void changeLoad(Long employeeId, int delta) {
+            AtomicInteger load = employeeLoads.get(employeeId);
+            if (load == null) {
+                // No era un empleado activo en la última conciliación
+                return;
+            }
+            int after = load.addAndGet(delta);
+            int before = after - delta;
+            if (before < BUSY_EMPLOYEE_WORKS && after >= BUSY_EMPLOYEE_WORKS) {
+                add(Kpi.BUSY_EMPLOYEES, 1);
+                add(Kpi.AVAILABLE_EMPLOYEES, -1);
+            } else if (before >= BUSY_EMPLOYEE_WORKS && after < BUSY_EMPLOYEE_WORKS) {
+                add(Kpi.BUSY_EMPLOYEES, -1);
+                add(Kpi.AVAILABLE_EMPLOYEES, 1);
+            }
+        }
+
+        private void countStock(StockLevel level, int delta) {
+            if (level == null) {
+                return;
+            }
+            switch (level) {
+                case OUT_OF_STOCK -> add(Kpi.OUT_OF_STOCK_PARTS, delta);
+                case LOW_STOCK -> {
+                    add(Kpi.LOW_STOCK_PARTS, delta);
+                    add(Kpi.PARTS_IN_STOCK, delta);
+                }
+                case IN_STOCK -> add(Kpi.PARTS_IN_STOCK, delta);
+            }
+        }
+
+        private KpiCounts toCounts() {
+            return KpiCounts.builder()
+                    .activeWorks(get(Kpi.ACTIVE_WORKS))
+                    .completedWorks(get(Kpi.COMPLETED_WORKS))
+                    .pendingWorks(get(Kpi.PENDING_WORKS))
+                    .partsInStock(get(Kpi.PARTS_IN_STOCK))
+                    .lowStockParts(get(Kpi.LOW_STOCK_PARTS))
+                    .outOfStockParts(get(Kpi.OUT_OF_STOCK_PARTS))
+                    .totalEmployees(get(Kpi.TOTAL_EMPLOYEES))
+                    .busyEmployees(get(Kpi.BUSY_EMPLOYEES))
+                    .availableEmployees(get(Kpi.AVAILABLE_EMPLOYEES))
+                    .reconciledAt(reconciledAt)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.project.ayd.mechanic_workshop.features.reports.service;
+
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
+import com.project.ayd.mechanic_workshop.features.reports.dto.ReportBundleRequest;
+import com.project.ayd.mechanic_workshop.features.reports.dto.ReportDownload;
+import com.project.ayd.mechanic_workshop.features.reports.dto.ReportRequest;
+import com.project.ayd.mechanic_workshop.features.reports.entity.ReportRecord;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportStatus;
+import com.project.ayd.mechanic_workshop.features.reports.exception.ReportCapacityException;
+import com.project.ayd.mechanic_workshop.features.reports.repository.ReportRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Exportación de varios reportes en un solo ZIP.
+ * Los reportes se encolan juntos en el ReportJobExecutor, hasta
+ * app.reports.bundle-max-concurrent-reports a la vez, y cada archivo se copia al ZIP
+ * de la respuesta en cuanto termina. El tiempo total es el del reporte más lento en
+ * lugar de la suma de todos, y los archivos quedan registrados para reutilizarse.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReportBundleService {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(500);
+    private static final String ERRORS_ENTRY = "ERRORES.txt";
+
+    private final ReportService reportService;
+    private final ReportRecordRepository reportRecordRepository;
+    private final ReportProperties reportProperties;
+
+    // Valida el paquete antes de empezar a escribir la respuesta
+    public void validate(ReportBundleRequest request) {
+        int items = new LinkedHashSet<>(request.getReports()).size();
+        if (items > reportProperties.getBundleMaxReports()) {
+            throw new IllegalArgumentException(String.format(
+                    "A bundle can contain at most %d reports", reportProperties.getBundleMaxReports()));
+        }
+        if (request.getStartDate() != null && request.getEndDate() != null
+                && request.getEndDate().isBefore(request.getStartDate())) {
+            throw new IllegalArgumentException("End date cannot be before start date");
+        }
+    }
+
+    /**
+     * Genera los reportes del paquete y los escribe como entradas del ZIP a medida que terminan.
+     * El OutputStream no se cierra.
+     *
+     * @param username Usuario a cuyo nombre se registran los reportes
+     */
+    public void writeBundle(ReportBundleRequest request, String username, OutputStream outputStream)
+            throws IOException {
+        // Los elementos repetidos se generan una sola vez
+        Deque<ReportBundleRequest.BundleItem> pending = new ArrayDeque<>(new LinkedHashSet<>(request.getReports()));
+        int maxInFlight = Math.max(1, Math.min(reportProperties.getBundleMaxConcurrentReports(),
+                reportProperties.getMaxConcurrentReports()));
+        Map<String, ReportBundleRequest.BundleItem> inFlight = new LinkedHashMap<>();
+        Set<String> entryNames = new HashSet<>();
+        List<String> errors = new ArrayList<>();
+        int written = 0;
+
+        ZipOutputStream zip = new ZipOutputStream(outputStream);
+        // PDF y XLSX ya vienen comprimidos; comprimir de nuevo solo cuesta CPU
+        zip.setLevel(Deflater.BEST_SPEED);
+
+        try {
+            while (!pending.isEmpty() || !inFlight.isEmpty()) {
+                while (!pending.isEmpty() && inFlight.size() < maxInFlight) {
+                    ReportBundleRequest.BundleItem item = pending.peek();
+                    try {
+                        String reportId = reportService.generateReport(toReportRequest(request, item), username)
+                                .getReportId();
+                        inFlight.put(reportId, item);
+                        pending.poll();
+                    } catch (ReportCapacityException e) {
+                        if (inFlight.isEmpty()) {
+                            // Nada propio en curso que libere la cola: el elemento no se puede generar
+                            errors.add(describe(item) + ": " + e.getMessage());
+                            pending.poll();
+                            continue;
+                        }
+                        break; // Se reintenta cuando termine alguno de los que están en curso
+                    }
+                }
+
+                boolean progress = false;
+                Iterator<Map.Entry<String, ReportBundleRequest.BundleItem>> iterator = inFlight.entrySet()
+                        .iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<String, ReportBundleRequest.BundleItem> entry = iterator.next();
+                    Optional<ReportRecord> record = reportRecordRepository.findById(entry.getKey());
+                    ReportStatus status = record.map(ReportRecord::getStatus).orElse(ReportStatus.EXPIRED);
+                    if (status == ReportStatus.PENDING || status == ReportStatus.GENERATING) {
+                        continue;
+                    }
+
+                    iterator.remove();
+                    progress = true;
+                    if (status == ReportStatus.COMPLETED) {
+                        writeEntry(zip, entry.getKey(), entryNames);
+                        written++;
+                    } else {
+                        errors.add(describe(entry.getValue()) + ": " + record.map(ReportRecord::getErrorMessage)
+                                .orElse("Report was deleted before it finished"));
+                    }
+                }
+
+                if (!progress && !inFlight.isEmpty()) {
+                    Thread.sleep(POLL_INTERVAL);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Report bundle interrupted");
+        }
+
+        if (!errors.isEmpty()) {
+            zip.putNextEntry(new ZipEntry(ERRORS_ENTRY));
+            zip.write(String.join(System.lineSeparator(), errors).getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        zip.finish();
+        log.info("Report bundle for {} completed: {} reports, {} failed", username, written, errors.size());
+    }
+
+    private void writeEntry(ZipOutputStream zip, String reportId, Set<String> entryNames) throws IOException {
+        ReportDownload download = reportService.getReportDownload(reportId);
+        zip.putNextEntry(new ZipEntry(uniqueName(download.getFileName(), entryNames)));
+        // El ZIP ya comprime; los CSV guardados con gzip se copian descomprimidos
+        if (download.getContentEncoding() != null) {
+            reportService.transferDecodedReport(download, 0, download.getRawSize(), zip);
+        } else {
+            reportService.transferReport(download, 0, download.getSize(), zip);
+        }
+        zip.closeEntry();
+        zip.flush();
+    }
+
+    private static ReportRequest toReportRequest(ReportBundleRequest request, ReportBundleRequest.BundleItem item) {
+        return ReportRequest.builder()
+                .reportType(item.getReportType())
+                .format(item.getFormat())
+                .period(request.getPeriod())
+                .startDate(request.getStartDate())
+                .endDate(request.getEndDate())
+                .build();
+    }
+
+    // Dos reportes del mismo tipo en formatos distintos no chocan, pero un nombre repetido invalidaría el ZIP
+    private static String uniqueName(String fileName, Set<String> entryNames) {
+        String name = fileName;
+        int dot = fileName.lastIndexOf('.');
+        for (int i = 2; !entryNames.add(name); i++) {
+            name = dot > 0
+                    ? fileName.substring(0, dot) + "_" + i + fileName.substring(dot)
+                    : fileName + "_" + i;
+        }
+        return name;
+    }
+
+    private static String describe(ReportBundleRequest.BundleItem item) {
+        return item.getReportType().name() + " (" + item.getFormat().name() + ")";
+    }
+}
@@ -0,0 +1,109 @@
+package com.project.ayd.mechanic_workshop.features.reports.service;
+
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportFormat;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportType;
+import com.project.ayd.mechanic_workshop.features.reports.repository.ReportDataChangeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Calcula la clave de contenido de un reporte: un SHA-256 del tipo, el formato,
+ * el rango de fechas y la versión de los datos que lee el reporte dentro de ese rango.
+ * La versión de cada tabla es la suma de los cambios registrados en report_data_change
+ * para los días del rango más los cambios sin fecha, así que solo crece y un cambio
+ * fuera del rango no altera la clave de los reportes históricos.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReportContentKeyGenerator {
+
+    // Tablas de datos que consulta cada reporte; los catálogos (estados, tipos de servicio)
+    // no se versionan porque prácticamente no cambian
+    private static final Map<ReportType, List<String>> SOURCE_TABLES = new EnumMap<>(ReportType.class);
+
+    static {
+        SOURCE_TABLES.put(ReportType.FINANCIAL_INCOME, List.of("invoice"));
+        SOURCE_TABLES.put(ReportType.FINANCIAL_EXPENSES, List.of("purchase_order"));
+        SOURCE_TABLES.put(ReportType.WORK_BY_DATE, List.of("work"));
+        SOURCE_TABLES.put(ReportType.WORK_BY_TYPE, List.of("work"));
+        SOURCE_TABLES.put(ReportType.WORK_BY_EMPLOYEE, List.of("work", "person"));
+        SOURCE_TABLES.put(ReportType.PARTS_USAGE, List.of("work", "work_part", "part"));
+        SOURCE_TABLES.put(ReportType.PARTS_BY_BRAND, List.of("work", "work_part", "part", "vehicle"));
+        SOURCE_TABLES.put(ReportType.CLIENT_HISTORY, List.of("person", "vehicle", "work", "invoice"));
+        SOURCE_TABLES.put(ReportType.VEHICLE_BEHAVIOR, List.of("work", "vehicle"));
+        SOURCE_TABLES.put(ReportType.PREVENTIVE_MAINTENANCE, List.of("work"));
+        SOURCE_TABLES.put(ReportType.CORRECTIVE_MAINTENANCE, List.of("work"));
+        SOURCE_TABLES.put(ReportType.PAYMENT_STATUS, List.of("invoice", "payment"));
+        SOURCE_TABLES.put(ReportType.INVENTORY_STOCK, List.of("inventory_stock", "part"));
+        SOURCE_TABLES.put(ReportType.DASHBOARD_SUMMARY, List.of("work", "invoice", "payment", "inventory_stock",
+                "part"));
+    }
+
+    private final ReportDataChangeRepository reportDataChangeRepository;
+
+    /**
+     * @param reportType Tipo de reporte
+     * @param format     Formato del archivo
+     * @param startDate  Inicio del rango ya normalizado
+     * @param endDate    Fin del rango ya normalizado
+     * @return Clave hexadecimal de 64 caracteres
+     */
+    public String contentKey(ReportType reportType, ReportFormat format,
+            LocalDateTime startDate, LocalDateTime endDate) {
+        StringBuilder source = new StringBuilder()
+                .append(reportType.name()).append('|')
+                .append(format.name()).append('|')
+                .append(startDate).append('|')
+                .append(endDate).append('|')
+                .append(dataVersion(reportType, startDate.toLocalDate(), endDate.toLocalDate()));
+
+        // Los totales de "este mes" y "este año" dependen del día aunque no cambien los datos
+        if (reportType == ReportType.PAYMENT_STATUS) {
+            source.append('|').append(LocalDate.now());
+        }
+
+        return sha256(source.toString());
+    }
+
+    // Versiones de las tablas del reporte en el rango y en orden fijo, p. ej. "invoice=12,payment=3"
+    private String dataVersion(ReportType reportType, LocalDate startDay, LocalDate endDay) {
+        List<String> tables = SOURCE_TABLES.getOrDefault(reportType, List.of());
+        if (tables.isEmpty()) {
+            return "";
+        }
+        Map<String, Long> versions = new TreeMap<>();
+        tables.forEach(table -> versions.put(table, 0L)); // Sin cambios en el rango
+        for (Object[] row : reportDataChangeRepository.sumChanges(tables, startDay, endDay)) {
+            versions.put((String) row[0], ((Number) row[1]).longValue());
+        }
+
+        StringBuilder result = new StringBuilder();
+        versions.forEach((table, version) -> {
+            if (!result.isEmpty()) {
+                result.append(',');
+            }
+            result.append(table).append('=').append(version);
+        });
+        return result.toString();
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.project.ayd.mechanic_workshop.features.reports.service;
+
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
+import com.project.ayd.mechanic_workshop.features.reports.utils.ReportCancellation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cola de generación de reportes sobre reportTaskExecutor.
+ * El pool limita los reportes simultáneos y la cola acotada rechaza solicitudes
+ * cuando está llena. Cada trabajo lleva un ReportCancellation: al cancelarlo, por el
+ * usuario o por tiempo máximo, se interrumpe el hilo, se cancela la consulta en curso
+ * y los generadores se detienen en la siguiente fila.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReportJobExecutor {
+
+    public static final String CANCELLED_METRIC = "report.jobs.cancelled";
+
+    private final ThreadPoolTaskExecutor reportTaskExecutor;
+    private final ReportProperties reportProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Encola un trabajo de generación
+     *
+     * @param jobId     Identificador de la generación (su clave de almacenamiento)
+     * @param task      Trabajo que genera el archivo
+     * @param onTimeout Acción a ejecutar si el trabajo excede el tiempo máximo
+     * @throws RejectedExecutionException si la cola de reportes está llena
+     */
+    public void submit(String jobId, Runnable task, Runnable onTimeout) {
+        ReportJob job = new ReportJob(onTimeout, new ReportCancellation(reportProperties.getGenerationTimeout()));
+        jobs.put(jobId, job);
+
+        try {
+            job.future = reportTaskExecutor.submit(() -> {
+                try {
+                    job.cancellation.run(task);
+                } finally {
+                    jobs.remove(jobId, job);
+                    // Cuenta también los trabajos que se detuvieron solos por tiempo máximo
+                    countCancelled(job);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            jobs.remove(jobId, job);
+            throw e;
+        }
+    }
+
+    /**
+     * Cancela un trabajo en cola o en ejecución en este nodo
+     *
+     * @return false si el trabajo no está en este nodo o ya terminó
+     */
+    public boolean cancel(String jobId) {
+        ReportJob job = jobs.remove(jobId);
+        if (job == null || !job.cancellation.cancel(ReportCancellation.Reason.USER, true)) {
+            return false;
+        }
+
+        log.info("Cancelling report job {}", jobId);
+        if (job.future != null) {
+            job.future.cancel(true);
+        }
+        // Un trabajo que no llegó a empezar no pasa por el conteo del propio trabajo
+        countCancelled(job);
+        return true;
+    }
+
+    // Respaldo para los trabajos que no llegan a un punto de cancelación dentro de app.reports.generation-timeout
+    public int cancelTimedOutJobs() {
+        int cancelled = 0;
+
+        for (Map.Entry<String, ReportJob> entry : jobs.entrySet()) {
+            ReportJob job = entry.getValue();
+            if (job.started() && job.cancellation.remainingMillis() <= 0 && job.future != null
+                    && job.cancellation.cancel(ReportCancellation.Reason.TIMEOUT, true)) {
+                log.warn("Report {} exceeded the generation timeout, cancelling", entry.getKey());
+                job.future.cancel(true);
+                jobs.remove(entry.getKey(), job);
+                countCancelled(job);
+                job.onTimeout.run();
+                cancelled++;
+            }
+        }
+
+        return cancelled;
+    }
+
+    public int getActiveJobs() {
+        return reportTaskExecutor.getActiveCount();
+    }
+
+    public int getQueuedJobs() {
+        return reportTaskExecutor.getQueueSize();
+    }
+
+    // Cada trabajo se cuenta una vez, lo detenga el hilo del trabajo o quien lo canceló
+    private void countCancelled(ReportJob job) {
+        ReportCancellation.Reason reason = job.cancellation.getReason();
+        if (reason == null || !job.counted.compareAndSet(false, true)) {
+            return;
+        }
+        Counter.builder(CANCELLED_METRIC)
+                .description("Report jobs stopped before finishing, by user request or generation timeout")
+                .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static final class ReportJob {
+        private final Runnable onTimeout;
+        private final ReportCancellation cancellation;
+        private final AtomicBoolean counted = new AtomicBoolean();
+        private volatile Future<?> future;
+
+        private ReportJob(Runnable onTimeout, ReportCancellation cancellation) {
+            this.onTimeout = onTimeout;
+            this.cancellation = cancellation;
+        }
+
+        private boolean started() {
+            return cancellation.remainingMillis() != Long.MAX_VALUE;
+        }
+    }
+}
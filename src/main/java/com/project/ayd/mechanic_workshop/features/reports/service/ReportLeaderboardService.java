@@ -0,0 +1,78 @@
+package com.project.ayd.mechanic_workshop.features.reports.service;
+
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
+import com.project.ayd.mechanic_workshop.features.reports.dto.LeaderboardEntry;
+import com.project.ayd.mechanic_workshop.features.reports.enums.LeaderboardType;
+import com.project.ayd.mechanic_workshop.features.reports.repository.ReportRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rankings (top N) de los reportes. El orden y el límite se resuelven en la consulta,
+ * así solo se leen las posiciones pedidas y el resultado llega ya ordenado.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReportLeaderboardService {
+
+    private final ReportRepository reportRepository;
+    private final ReportProperties reportProperties;
+
+    /**
+     * @param startDate Inicio de la ventana; sin fecha se usan los últimos
+     *                  app.reports.leaderboard-window-days días hasta endDate
+     * @param endDate   Fin de la ventana; sin fecha, el momento actual
+     * @param size      Posiciones a devolver; sin valor, app.reports.leaderboard-default-size
+     */
+    @Transactional(readOnly = true)
+    public List<LeaderboardEntry> getLeaderboard(LeaderboardType type, LocalDateTime startDate,
+            LocalDateTime endDate, Integer size) {
+        LocalDateTime end = endDate != null ? endDate : LocalDateTime.now();
+        LocalDateTime start = startDate != null
+                ? startDate
+                : end.minusDays(Math.max(1, reportProperties.getLeaderboardWindowDays()));
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+
+        List<Object[]> rows = reportRepository.getLeaderboard(type, start, end, resolveSize(size));
+
+        List<LeaderboardEntry> entries = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            entries.add(LeaderboardEntry.builder()
+                    .rank(entries.size() + 1)
+                    .key((String) row[0])
+                    .label((String) row[1])
+                    .value(toDecimal(row[2]))
+                    .works(row[3] != null ? ((Number) row[3]).longValue() : 0L)
+                    .build());
+        }
+        return entries;
+    }
+
+    private int resolveSize(Integer size) {
+        if (size == null) {
+            return reportProperties.getLeaderboardDefaultSize();
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Leaderboard size must be greater than zero");
+        }
+        return Math.min(size, reportProperties.getLeaderboardMaxSize());
+    }
+
+    private static BigDecimal toDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        return new BigDecimal(value.toString());
+    }
+}
@@ -0,0 +1,196 @@
+package com.project.ayd.mechanic_workshop.features.reports.service;
+
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
+import com.project.ayd.mechanic_workshop.features.reports.dto.ClientServiceReportDTO;
+import com.project.ayd.mechanic_workshop.features.reports.dto.FinancialReportResponse;
+import com.project.ayd.mechanic_workshop.features.reports.dto.OperationalReportResponse;
+import com.project.ayd.mechanic_workshop.features.reports.dto.PartUsageReportDTO;
+import com.project.ayd.mechanic_workshop.features.reports.dto.ReportPage;
+import com.project.ayd.mechanic_workshop.features.reports.repository.ReportRepository;
+import com.project.ayd.mechanic_workshop.features.reports.utils.ReportCursor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Reportes JSON tipados con paginación por cursor.
+ * Cada página lee una fila de más para saber si hay otra sin necesidad de contar.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReportPageService {
+
+    private final ReportRepository reportRepository;
+    private final ReportProperties reportProperties;
+
+    @Transactional(readOnly = true)
+    public ReportPage<ClientServiceReportDTO.ClientDetail> getClientHistory(LocalDateTime startDate,
+            LocalDateTime endDate, String cursor, Integer size, boolean includeTotal) {
+        int pageSize = resolvePageSize(size);
+        ReportCursor after = cursor != null ? ReportCursor.decode(cursor, 2) : null;
+
+        List<Object[]> rows = reportRepository.getClientHistoryPage(startDate, endDate,
+                after != null ? after.getDecimal(0) : null,
+                after != null ? after.getString(1) : null,
+                pageSize + 1);
+
+        return toPage(rows, pageSize,
+                row -> ClientServiceReportDTO.ClientDetail.builder()
+                        .clientName((String) row[0])
+                        .clientCui((String) row[1])
+                        .clientEmail((String) row[2])
+                        .totalWorks(toInteger(row[3]))
+                        .totalSpent(toDecimal(row[4]))
+                        .lastVisit(toDateTime(row[5]))
+                        .vehiclesCount(toInteger(row[6]))
+                        .serviceTypes((String) row[7])
+                        .build(),
+                row -> ReportCursor.encode(toDecimal(row[4]), row[1]),
+                includeTotal ? () -> reportRepository.countClientHistory(startDate, endDate) : null);
+    }
+
+    @Transactional(readOnly = true)
+    public ReportPage<PartUsageReportDTO.PartUsageDetail> getPartUsage(LocalDateTime startDate,
+            LocalDateTime endDate, String cursor, Integer size, boolean includeTotal) {
+        int pageSize = resolvePageSize(size);
+        ReportCursor after = cursor != null ? ReportCursor.decode(cursor, 2) : null;
+
+        List<Object[]> rows = reportRepository.getPartUsagePage(startDate, endDate,
+                after != null ? after.getDecimal(0) : null,
+                after != null ? after.getLong(1) : null,
+                pageSize + 1);
+
+        return toPage(rows, pageSize,
+                row -> PartUsageReportDTO.PartUsageDetail.builder()
+                        .partName((String) row[0])
+                        .categoryName((String) row[1])
+                        .totalQuantity(toInteger(row[2]))
+                        .totalCost(toDecimal(row[3]))
+                        .worksCount(toInteger(row[4]))
+                        .averageUnitPrice(toDecimal(row[5]))
+                        .build(),
+                row -> ReportCursor.encode(toDecimal(row[2]), toLong(row[6])),
+                includeTotal ? () -> reportRepository.countPartUsage(startDate, endDate) : null);
+    }
+
+    @Transactional(readOnly = true)
+    public ReportPage<FinancialReportResponse.ProviderExpenseDetail> getProviderExpenses(LocalDateTime startDate,
+            LocalDateTime endDate, String cursor, Integer size, boolean includeTotal) {
+        int pageSize = resolvePageSize(size);
+        ReportCursor after = cursor != null ? ReportCursor.decode(cursor, 2) : null;
+        LocalDate start = startDate.toLocalDate();
+        LocalDate end = endDate.toLocalDate();
+
+        List<Object[]> rows = reportRepository.getProviderExpensesPage(start, end,
+                after != null ? after.getDecimal(0) : null,
+                after != null ? after.getLong(1) : null,
+                pageSize + 1);
+
+        return toPage(rows, pageSize,
+                row -> FinancialReportResponse.ProviderExpenseDetail.builder()
+                        .providerName((String) row[0])
+                        .totalOrders(toLong(row[1]))
+                        .totalAmount(toDecimal(row[2]))
+                        .lastOrderDate(toDate(row[3]))
+                        .build(),
+                row -> ReportCursor.encode(toDecimal(row[2]), toLong(row[4])),
+                includeTotal ? () -> reportRepository.countProviderExpenses(start, end) : null);
+    }
+
+    @Transactional(readOnly = true)
+    public ReportPage<OperationalReportResponse.EmployeeWorkDetail> getWorksByEmployee(LocalDateTime startDate,
+            LocalDateTime endDate, String cursor, Integer size, boolean includeTotal) {
+        int pageSize = resolvePageSize(size);
+        ReportCursor after = cursor != null ? ReportCursor.decode(cursor, 3) : null;
+
+        List<Object[]> rows = reportRepository.getWorksByEmployeePage(startDate, endDate,
+                after != null ? after.getString(0) : null,
+                after != null ? after.getDateTime(1) : null,
+                after != null ? after.getLong(2) : null,
+                pageSize + 1);
+
+        return toPage(rows, pageSize,
+                row -> OperationalReportResponse.EmployeeWorkDetail.builder()
+                        .employeeName((String) row[0])
+                        .workDate(toDate(row[1]))
+                        .serviceType((String) row[2])
+                        .actualHours(toDecimal(row[3]))
+                        .actualCost(toDecimal(row[4]))
+                        .status((String) row[5])
+                        .build(),
+                row -> ReportCursor.encode(row[0], toDateTime(row[6]), toLong(row[7])),
+                includeTotal ? () -> reportRepository.countWorksByEmployee(startDate, endDate) : null);
+    }
+
+    // ================================
+    // MÉTODOS HELPER
+    // ================================
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return reportProperties.getDefaultPageSize();
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be greater than zero");
+        }
+        return Math.min(size, reportProperties.getMaxPageSize());
+    }
+
+    /**
+     * @param rows        Filas leídas con límite pageSize + 1
+     * @param mapper      Conversión de la fila al DTO
+     * @param cursorOf    Clave de orden de la fila, codificada como cursor
+     * @param totalCount  Conteo total, o null para omitirlo
+     */
+    private static <T> ReportPage<T> toPage(List<Object[]> rows, int pageSize, Function<Object[], T> mapper,
+            Function<Object[], String> cursorOf, LongSupplier totalCount) {
+        boolean hasNext = rows.size() > pageSize;
+        List<Object[]> pageRows = hasNext ? rows.subList(0, pageSize) : rows;
+
+        return ReportPage.<T>builder()
+                .items(pageRows.stream().map(mapper).toList())
+                .size(pageRows.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? cursorOf.apply(pageRows.get(pageRows.size() - 1)) : null)
+                .totalCount(totalCount != null ? totalCount.getAsLong() : null)
+                .build();
+    }
+
+    private static Integer toInteger(Object value) {
+        return value != null ? ((Number) value).intValue() : null;
+    }
+
+    private static Long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : null;
+    }
+
+    private static BigDecimal toDecimal(Object value) {
+        if (value == null || value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        return new BigDecimal(value.toString());
+    }
+
+    private static LocalDateTime toDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+
+    private static LocalDate toDate(Object value) {
+        if (value instanceof Date date) {
+            return date.toLocalDate();
+        }
+        return (LocalDate) value;
+    }
+}
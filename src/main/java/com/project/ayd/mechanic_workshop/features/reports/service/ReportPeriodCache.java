@@ -0,0 +1,274 @@
+package com.project.ayd.mechanic_workshop.features.reports.service;
+
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
+import com.project.ayd.mechanic_workshop.features.reports.repository.ReportPeriodBucketRepository;
+import com.project.ayd.mechanic_workshop.features.reports.repository.ReportRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Cache permanente de los buckets cerrados (meses y semanas) de las series históricas
+ * de ingresos y gastos. Un bucket completo dentro del rango y cerrado hace más de
+ * app.reports.period-cache-grace-days días se calcula una sola vez y se guarda en
+ * report_period_bucket; los extremos parciales y el periodo en curso se consultan siempre.
+ * Las correcciones con fecha pasada requieren invalidar el rango afectado.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReportPeriodCache {
+
+    private final ReportRepository reportRepository;
+    private final ReportPeriodBucketRepository reportPeriodBucketRepository;
+    private final ReportProperties reportProperties;
+    private final PlatformTransactionManager transactionManager;
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Series {
+        INCOME_BY_MONTH(false),
+        INCOME_BY_WEEK(true),
+        EXPENSES_BY_MONTH(false),
+        PROVIDER_EXPENSES(false);
+
+        private final boolean weekly;
+    }
+
+    // Fila acumulada de un bucket: la clave es la etiqueta del periodo o el id del proveedor
+    private record BucketRow(String label, BigDecimal amount, long itemCount, LocalDate lastDate) {
+
+        BucketRow merge(BucketRow other) {
+            LocalDate last = lastDate == null || (other.lastDate != null && other.lastDate.isAfter(lastDate))
+                    ? other.lastDate
+                    : lastDate;
+            return new BucketRow(other.label, amount.add(other.amount), itemCount + other.itemCount, last);
+        }
+    }
+
+    // ================================
+    // SERIES
+    // ================================
+
+    public List<Object[]> getIncomeByMonth(LocalDate startDate, LocalDate endDate) {
+        return toSeries(Series.INCOME_BY_MONTH, startDate, endDate);
+    }
+
+    public List<Object[]> getIncomeByWeek(LocalDate startDate, LocalDate endDate) {
+        return toSeries(Series.INCOME_BY_WEEK, startDate, endDate);
+    }
+
+    public List<Object[]> getExpensesByMonth(LocalDate startDate, LocalDate endDate) {
+        return toSeries(Series.EXPENSES_BY_MONTH, startDate, endDate);
+    }
+
+    /**
+     * Gastos por proveedor con el mismo formato que ReportRepository#getProviderExpenses:
+     * [proveedor, órdenes, monto, última orden], ordenado por monto descendente
+     */
+    public List<Object[]> getProviderExpenses(LocalDate startDate, LocalDate endDate) {
+        if (!reportProperties.isEnablePeriodCache()) {
+            return reportRepository.getProviderExpenses(startDate, endDate);
+        }
+
+        return load(Series.PROVIDER_EXPENSES, startDate, endDate).values().stream()
+                .sorted(Comparator.comparing(BucketRow::amount).reversed())
+                .map(row -> new Object[] { row.label(), row.itemCount(), row.amount(), row.lastDate() })
+                .toList();
+    }
+
+    // ================================
+    // INVALIDACIÓN
+    // ================================
+
+    /**
+     * Elimina los buckets guardados que se solapan con el rango, para que se
+     * recalculen en la siguiente consulta
+     *
+     * @param series Serie a invalidar, o null para todas
+     * @return Buckets eliminados
+     */
+    public int invalidate(Series series, LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+
+        int deleted = new TransactionTemplate(transactionManager).execute(status -> reportPeriodBucketRepository
+                .deleteBuckets(series != null ? series.name() : null, startDate, endDate));
+        log.info("Invalidated {} period cache buckets of {} from {} to {}", deleted,
+                series != null ? series : "all series", startDate, endDate);
+        return deleted;
+    }
+
+    // ================================
+    // CARGA POR BUCKETS
+    // ================================
+
+    private List<Object[]> toSeries(Series series, LocalDate startDate, LocalDate endDate) {
+        if (!reportProperties.isEnablePeriodCache()) {
+            return queryLive(series, startDate, endDate);
+        }
+
+        return load(series, startDate, endDate).values().stream()
+                .map(row -> new Object[] { row.label(), row.amount() })
+                .toList();
+    }
+
+    // Combina los buckets cerrados guardados con los tramos que se consultan en vivo
+    private Map<String, BucketRow> load(Series series, LocalDate startDate, LocalDate endDate) {
+        Map<String, BucketRow> merged = new TreeMap<>();
+        if (endDate.isBefore(startDate)) {
+            return merged;
+        }
+
+        LocalDate closedBefore = LocalDate.now().minusDays(Math.max(0, reportProperties.getPeriodCacheGraceDays()));
+        List<LocalDate> cachedBuckets = new ArrayList<>();
+        LocalDate liveStart = null;
+        LocalDate liveEnd = null;
+
+        for (LocalDate bucketStart = bucketStart(series, startDate); !bucketStart.isAfter(endDate);
+                bucketStart = nextBucket(series, bucketStart)) {
+            LocalDate bucketEnd = nextBucket(series, bucketStart).minusDays(1);
+            boolean complete = !bucketStart.isBefore(startDate) && !bucketEnd.isAfter(endDate);
+
+            if (complete && bucketEnd.isBefore(closedBefore)) {
+                cachedBuckets.add(bucketStart);
+                if (liveStart != null) {
+                    mergeRows(merged, queryRows(series, liveStart, liveEnd));
+                    liveStart = null;
+                }
+            } else {
+                // Los tramos en vivo contiguos se resuelven con una sola consulta
+                if (liveStart == null) {
+                    liveStart = bucketStart.isBefore(startDate) ? startDate : bucketStart;
+                }
+                liveEnd = bucketEnd.isAfter(endDate) ? endDate : bucketEnd;
+            }
+        }
+        if (liveStart != null) {
+            mergeRows(merged, queryRows(series, liveStart, liveEnd));
+        }
+
+        if (!cachedBuckets.isEmpty()) {
+            Map<LocalDate, Map<String, BucketRow>> stored = findStoredBuckets(series,
+                    cachedBuckets.get(0), cachedBuckets.get(cachedBuckets.size() - 1));
+            for (LocalDate bucketStart : cachedBuckets) {
+                Map<String, BucketRow> rows = stored.get(bucketStart);
+                if (rows == null) {
+                    LocalDate bucketEnd = nextBucket(series, bucketStart).minusDays(1);
+                    rows = queryRows(series, bucketStart, bucketEnd);
+                    storeBucket(series, bucketStart, bucketEnd, rows);
+                }
+                mergeRows(merged, rows);
+            }
+        }
+        return merged;
+    }
+
+    private Map<LocalDate, Map<String, BucketRow>> findStoredBuckets(Series series, LocalDate from, LocalDate to) {
+        Map<LocalDate, Map<String, BucketRow>> buckets = new HashMap<>();
+        for (Object[] row : reportPeriodBucketRepository.findBuckets(series.name(), from, to)) {
+            Map<String, BucketRow> rows = buckets.computeIfAbsent(toDate(row[0]), key -> new LinkedHashMap<>());
+            // row_key en null marca un bucket calculado sin datos
+            if (row[1] != null) {
+                rows.put((String) row[1], new BucketRow((String) row[2], toDecimal(row[3]),
+                        ((Number) row[4]).longValue(), toDate(row[5])));
+            }
+        }
+        return buckets;
+    }
+
+    // El guardado es un extra: si falla, el resultado ya calculado se devuelve igual
+    private void storeBucket(Series series, LocalDate bucketStart, LocalDate bucketEnd,
+            Map<String, BucketRow> rows) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            transaction.executeWithoutResult(status -> {
+                if (!reportPeriodBucketRepository.insertBucket(series.name(), bucketStart, bucketEnd)) {
+                    return;
+                }
+                rows.forEach((key, row) -> reportPeriodBucketRepository.insertRow(series.name(), bucketStart, key,
+                        row.label(), row.amount(), row.itemCount(), row.lastDate()));
+            });
+            log.debug("Stored period cache bucket {} {} with {} rows", series, bucketStart, rows.size());
+        } catch (RuntimeException e) {
+            log.warn("Could not store period cache bucket {} {}: {}", series, bucketStart, e.getMessage());
+        }
+    }
+
+    private Map<String, BucketRow> queryRows(Series series, LocalDate from, LocalDate to) {
+        Map<String, BucketRow> rows = new LinkedHashMap<>();
+        if (series == Series.PROVIDER_EXPENSES) {
+            for (Object[] row : reportRepository.getProviderExpensesBySupplier(from, to)) {
+                rows.put(row[4].toString(), new BucketRow((String) row[0], toDecimal(row[2]),
+                        ((Number) row[1]).longValue(), toDate(row[3])));
+            }
+        } else {
+            // La clave es la etiqueta que devuelve la consulta, así el resultado combinado
+            // coincide con el de la consulta sobre todo el rango
+            for (Object[] row : queryLive(series, from, to)) {
+                rows.put((String) row[0], new BucketRow((String) row[0], toDecimal(row[1]), 0, null));
+            }
+        }
+        return rows;
+    }
+
+    private List<Object[]> queryLive(Series series, LocalDate from, LocalDate to) {
+        return switch (series) {
+            case INCOME_BY_MONTH -> reportRepository.getIncomeByMonth(from, to);
+            case INCOME_BY_WEEK -> reportRepository.getIncomeByWeek(from, to);
+            case EXPENSES_BY_MONTH -> reportRepository.getExpensesByMonth(from, to);
+            case PROVIDER_EXPENSES -> reportRepository.getProviderExpenses(from, to);
+        };
+    }
+
+    private static void mergeRows(Map<String, BucketRow> target, Map<String, BucketRow> rows) {
+        rows.forEach((key, row) -> target.merge(key, row, BucketRow::merge));
+    }
+
+    // Los meses empiezan el día 1 y las semanas el lunes, igual que TO_CHAR(..., 'IW')
+    private static LocalDate bucketStart(Series series, LocalDate date) {
+        return series.isWeekly()
+                ? date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                : date.withDayOfMonth(1);
+    }
+
+    private static LocalDate nextBucket(Series series, LocalDate bucketStart) {
+        return series.isWeekly() ? bucketStart.plusWeeks(1) : bucketStart.plusMonths(1);
+    }
+
+    private static BigDecimal toDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        return new BigDecimal(value.toString());
+    }
+
+    private static LocalDate toDate(Object value) {
+        if (value instanceof Date date) {
+            return date.toLocalDate();
+        }
+        return (LocalDate) value;
+    }
+}
@@ -0,0 +1,85 @@
+package com.project.ayd.mechanic_workshop.features.reports.service;
+
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
+import com.project.ayd.mechanic_workshop.features.reports.repository.ReportRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+/**
+ * Reconstrucción de los rollups diarios. Se procesa un mes por transacción para no
+ * bloquear los rollups durante toda la reconstrucción de un histórico largo.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReportRollupService {
+
+    private final ReportRollupRepository reportRollupRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ReportProperties reportProperties;
+    private final ReportPeriodCache reportPeriodCache;
+
+    /**
+     * Recalcula los rollups entre dos fechas, ambas incluidas
+     *
+     * @return Días procesados
+     */
+    public long rebuild(LocalDate startDay, LocalDate endDay) {
+        if (endDay.isBefore(startDay)) {
+            throw new IllegalArgumentException("End day must not be before start day");
+        }
+
+        log.info("Rebuilding report rollups from {} to {}", startDay, endDay);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        LocalDate chunkStart = startDay;
+        while (!chunkStart.isAfter(endDay)) {
+            LocalDate chunkEnd = chunkStart.plusMonths(1).minusDays(1);
+            if (chunkEnd.isAfter(endDay)) {
+                chunkEnd = endDay;
+            }
+
+            LocalDate from = chunkStart;
+            LocalDate to = chunkEnd;
+            transaction.executeWithoutResult(status -> {
+                reportRollupRepository.lockRollups();
+                int incomeRows = reportRollupRepository.rebuildDailyIncome(from, to);
+                int workRows = reportRollupRepository.rebuildDailyWork(from, to);
+                int partRows = reportRollupRepository.rebuildDailyPartUsage(from, to);
+                log.debug("Rollups {} - {}: {} income, {} work, {} part usage rows",
+                        from, to, incomeRows, workRows, partRows);
+            });
+
+            chunkStart = chunkEnd.plusDays(1);
+        }
+
+        // Las series de ingresos se leen de los rollups: los buckets guardados del rango pueden haber cambiado
+        reportPeriodCache.invalidate(ReportPeriodCache.Series.INCOME_BY_MONTH, startDay, endDay);
+        reportPeriodCache.invalidate(ReportPeriodCache.Series.INCOME_BY_WEEK, startDay, endDay);
+
+        long days = endDay.toEpochDay() - startDay.toEpochDay() + 1;
+        log.info("Report rollups rebuilt for {} days", days);
+        return days;
+    }
+
+    // Recalcula los últimos días configurados en app.reports.rollup-rebuild-days
+    public long rebuildRecent() {
+        LocalDate today = LocalDate.now();
+        return rebuild(today.minusDays(Math.max(1, reportProperties.getRollupRebuildDays()) - 1L), today);
+    }
+
+    // Recalcula todo el histórico desde el primer día con datos
+    public long rebuildAll() {
+        LocalDate firstDay = reportRollupRepository.findFirstDataDay();
+        if (firstDay == null) {
+            log.info("No data to build report rollups from");
+            return 0;
+        }
+        return rebuild(firstDay, LocalDate.now());
+    }
+}
@@ -1,5 +1,6 @@
 package com.project.ayd.mechanic_workshop.features.reports.service;
 
+import com.project.ayd.mechanic_workshop.features.reports.repository.ReportDataChangeRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -12,6 +13,12 @@ public class ReportScheduledService {
 
     private final ReportService reportService;
     private final DashboardService dashboardService;
+    private final ReportJobExecutor reportJobExecutor;
+    private final ReportRollupService reportRollupService;
+    private final ReportStorageManager reportStorageManager;
+    private final ReportSubscriptionService reportSubscriptionService;
+    private final KpiCounterService kpiCounterService;
+    private final ReportDataChangeRepository reportDataChangeRepository;
 
     // Limpiar reportes expirados cada hora
     @Scheduled(fixedRate = 3600000) // 1 hora en milisegundos
@@ -37,16 +44,96 @@ public class ReportScheduledService {
         }
     }
 
+    // Cancelar reportes que exceden el tiempo máximo de generación
+    @Scheduled(fixedDelay = 10000)
+    public void cancelTimedOutReports() {
+        try {
+            int cancelled = reportJobExecutor.cancelTimedOutJobs();
+            if (cancelled > 0) {
+                log.warn("Cancelled {} report jobs that exceeded the generation timeout", cancelled);
+            }
+        } catch (Exception e) {
+            log.error("Error while cancelling timed out report jobs", e);
+        }
+    }
+
+    // Marcar como fallidos los reportes que ningún nodo terminará
+    @Scheduled(fixedDelay = 60000)
+    public void failAbandonedReports() {
+        try {
+            reportService.failAbandonedReports();
+        } catch (Exception e) {
+            log.error("Error while failing abandoned reports", e);
+        }
+    }
+
+    // Recalcular los rollups recientes cada madrugada, fuera del horario laboral
+    @Scheduled(cron = "0 30 2 * * *")
+    public void rebuildRecentRollups() {
+        log.info("Starting scheduled rebuild of report rollups");
+        try {
+            long days = reportRollupService.rebuildRecent();
+            log.info("Successfully rebuilt report rollups for the last {} days", days);
+        } catch (Exception e) {
+            log.error("Error during scheduled rebuild of report rollups", e);
+        }
+    }
+
+    // Compactar el registro de cambios de datos después de recalcular los rollups
+    @Scheduled(cron = "0 45 2 * * *")
+    public void compactReportDataChanges() {
+        try {
+            int rows = reportDataChangeRepository.compact();
+            log.info("Compacted report data change log into {} rows", rows);
+        } catch (Exception e) {
+            log.error("Error during scheduled compaction of report data changes", e);
+        }
+    }
+
+    // Pregenerar los reportes de las suscripciones en la ventana fuera de horario
+    @Scheduled(cron = "${app.reports.subscription-cron:0 0 4 * * *}")
+    public void runReportSubscriptions() {
+        log.info("Starting scheduled pre-generation of subscribed reports");
+        try {
+            if (!reportSubscriptionService.startDueSubscriptions()) {
+                log.warn("Previous pre-generation of subscribed reports is still running, skipping");
+            }
+        } catch (Exception e) {
+            log.error("Error during scheduled pre-generation of subscribed reports", e);
+        }
+    }
+
+    // Sembrar los contadores del dashboard al iniciar y conciliarlos después con la base de datos
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.reports.kpi-reconcile-interval-millis:300000}")
+    public void reconcileKpiCounters() {
+        try {
+            kpiCounterService.reconcile();
+        } catch (Exception e) {
+            log.error("Error while reconciling dashboard KPI counters", e);
+        }
+    }
+
+    // Mantener el almacenamiento bajo la cuota y las métricas de uso al día
+    @Scheduled(fixedDelay = 900000) // 15 minutos en milisegundos
+    public void enforceStorageQuota() {
+        try {
+            reportStorageManager.enforceQuota(null);
+        } catch (Exception e) {
+            log.error("Error while enforcing the report storage quota", e);
+        }
+    }
+
     // Limpiar archivos temporales cada día a medianoche
     @Scheduled(cron = "0 0 0 * * *")
     public void cleanupTemporaryFiles() {
         log.info("Starting scheduled cleanup of temporary files");
         try {
-            // Aquí se implementaría la limpieza de archivos temporales
-            // que no estén referenciados en el cache de reportes
-            log.info("Successfully completed scheduled cleanup of temporary files");
+            int orphans = reportStorageManager.sweepOrphans();
+            int evicted = reportStorageManager.enforceQuota(null);
+            log.info("Successfully completed scheduled cleanup of temporary files: {} orphans deleted, {} evicted",
+                    orphans, evicted);
         } catch (Exception e) {
             log.error("Error during scheduled cleanup of temporary files", e);
         }
     }
-}
\ No newline at end of file
+}
@@ -4,10 +4,13 @@ import com.project.ayd.mechanic_workshop.features.reports.dto.ReportRequest;
 import com.project.ayd.mechanic_workshop.features.reports.dto.ReportResponse;
 import com.project.ayd.mechanic_workshop.features.reports.dto.FinancialReportResponse;
 import com.project.ayd.mechanic_workshop.features.reports.dto.OperationalReportResponse;
+import com.project.ayd.mechanic_workshop.features.reports.dto.ReportDownload;
 import com.project.ayd.mechanic_workshop.features.reports.dto.ReportFileInfo;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportFormat;
 import com.project.ayd.mechanic_workshop.features.reports.enums.ReportType;
-import org.springframework.core.io.Resource;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -19,14 +22,46 @@ public interface ReportService {
 
     ReportResponse generateReport(ReportRequest request);
 
-    Resource downloadReport(String reportId);
+    // Encola el reporte a nombre de username; para trabajos internos sin contexto de seguridad
+    ReportResponse generateReport(ReportRequest request, String username);
+
+    // Con enforceUserLimit en false la solicitud no reserva lugar en app.reports.max-reports-per-user
+    // ni expulsa reportes del usuario; la usan las suscripciones, que pregeneran para reutilizar
+    ReportResponse generateReport(ReportRequest request, String username, boolean enforceUserLimit);
+
+    ReportResponse getReportStatus(String reportId);
+
+    // Cancela la solicitud; la generación se detiene cuando ninguna otra solicitud la espera
+    ReportResponse cancelReport(String reportId);
+
+    // ReportNotFoundException si no existe, expiró, no se completó o ya no tiene archivo
+    ReportDownload getReportDownload(String reportId);
+
+    // Copia el rango [start, start + length) del archivo al OutputStream con FileChannel.transferTo
+    long transferReport(ReportDownload download, long start, long length, OutputStream outputStream)
+            throws IOException;
+
+    // Igual que transferReport, pero descomprime un archivo gzip y el rango es sobre el contenido original
+    long transferDecodedReport(ReportDownload download, long start, long length, OutputStream outputStream)
+            throws IOException;
 
     List<ReportResponse> getReportHistory(String username);
 
     void deleteExpiredReports();
 
-    byte[] exportReportData(ReportType reportType, LocalDateTime startDate,
-            LocalDateTime endDate, String format);
+    // Marca como fallidos los reportes que quedaron sin terminar, p. ej. tras reiniciar un nodo
+    int failAbandonedReports();
+
+    boolean supportsDirectExport(ReportFormat format);
+
+    // Genera el reporte directamente sobre el OutputStream, sin pasar por un arreglo en memoria
+    void writeReportExport(ReportType reportType, LocalDateTime startDate, LocalDateTime endDate,
+            ReportFormat format, OutputStream outputStream);
+
+    boolean supportsStreamingExport(ReportType reportType);
+
+    long writeCsvExport(ReportType reportType, LocalDateTime startDate,
+            LocalDateTime endDate, OutputStream outputStream);
 
     // ================================
     // CONSOLIDATED REPORTS
@@ -1,31 +1,54 @@
 package com.project.ayd.mechanic_workshop.features.reports.service;
 
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
 import com.project.ayd.mechanic_workshop.features.reports.dto.*;
+import com.project.ayd.mechanic_workshop.features.reports.entity.ReportRecord;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ChartType;
 import com.project.ayd.mechanic_workshop.features.reports.enums.ReportFormat;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportStatus;
 import com.project.ayd.mechanic_workshop.features.reports.enums.ReportType;
+import com.project.ayd.mechanic_workshop.features.reports.exception.ReportCapacityException;
+import com.project.ayd.mechanic_workshop.features.reports.exception.ReportGenerationException;
+import com.project.ayd.mechanic_workshop.features.reports.exception.ReportNotFoundException;
+import com.project.ayd.mechanic_workshop.features.reports.repository.ReportRecordRepository;
 import com.project.ayd.mechanic_workshop.features.reports.repository.ReportRepository;
+import com.project.ayd.mechanic_workshop.features.reports.storage.ReportCompression;
+import com.project.ayd.mechanic_workshop.features.reports.storage.ReportFileStore;
+import com.project.ayd.mechanic_workshop.features.reports.utils.CSVUtil;
+import com.project.ayd.mechanic_workshop.features.reports.utils.ChartRenderer;
 import com.project.ayd.mechanic_workshop.features.reports.utils.ExcelGenerator;
 import com.project.ayd.mechanic_workshop.features.reports.utils.PDFGenerator;
+import com.project.ayd.mechanic_workshop.features.reports.utils.ReportCancellation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
 
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -33,30 +56,55 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ReportServiceImpl implements ReportService {
 
     private final ReportRepository reportRepository;
+    private final ReportPeriodCache reportPeriodCache;
     private final PDFGenerator pdfGenerator;
     private final ExcelGenerator excelGenerator;
-
-    // Cache temporal para reportes generados - incluye path del archivo
-    private final Map<String, String> reportPathCache = new ConcurrentHashMap<>();
-    private final Map<String, ReportResponse> reportCache = new ConcurrentHashMap<>();
-    private static final String REPORTS_DIR = "temp/reports/";
-
-    static {
-        try {
-            Files.createDirectories(Paths.get(REPORTS_DIR));
-        } catch (IOException e) {
-            log.error("Error creating reports directory", e);
-        }
-    }
+    private final ChartRenderer chartRenderer;
+    private final ReportJobExecutor reportJobExecutor;
+    private final PlatformTransactionManager transactionManager;
+    private final ReportProperties reportProperties;
+    private final ReportRecordRepository reportRecordRepository;
+    private final ReportFileStore reportFileStore;
+    private final ReportContentKeyGenerator reportContentKeyGenerator;
+    private final ReportStorageManager reportStorageManager;
+    private final KpiCounterService kpiCounterService;
+
+    private static final List<ReportStatus> UNFINISHED_STATUSES = List.of(ReportStatus.PENDING,
+            ReportStatus.GENERATING);
+    // SQLSTATE query_canceled: statement_timeout, setQueryTimeout o cancelación de la consulta
+    private static final String QUERY_CANCELED_STATE = "57014";
+    private static final List<ReportStatus> REUSABLE_STATUSES = List.of(ReportStatus.PENDING,
+            ReportStatus.GENERATING, ReportStatus.COMPLETED);
+
+    // Reportes con una fila por entidad que pueden crecer sin límite; se exportan con cursor
+    private static final Set<ReportType> STREAMING_EXPORT_TYPES = EnumSet.of(
+            ReportType.PARTS_USAGE, ReportType.PARTS_BY_BRAND, ReportType.CLIENT_HISTORY);
+
+    private static final String[] PARTS_USAGE_HEADERS = { "Repuesto", "Categoría", "Cantidad Total",
+            "Costo Total", "Trabajos", "Precio Promedio" };
+    private static final String[] PARTS_BY_BRAND_HEADERS = { "Marca", "Repuesto", "Categoría",
+            "Cantidad Total", "Costo Total" };
+    private static final String[] CLIENT_HISTORY_HEADERS = { "Cliente", "CUI", "Email", "Trabajos Totales",
+            "Total Gastado", "Última Visita", "Vehículos", "Tipos de Servicio" };
 
     // ================================
     // MÉTODOS PRINCIPALES DE LA INTERFAZ
     // ================================
 
     @Override
-    @Transactional
     public ReportResponse generateReport(ReportRequest request) {
-        log.info("Generating report of type: {} in format: {}", request.getReportType(), request.getFormat());
+        // El usuario se toma aquí porque el contexto de seguridad no llega al hilo del trabajo
+        return generateReport(request, getCurrentUsername());
+    }
+
+    @Override
+    public ReportResponse generateReport(ReportRequest request, String username) {
+        return generateReport(request, username, true);
+    }
+
+    @Override
+    public ReportResponse generateReport(ReportRequest request, String username, boolean enforceUserLimit) {
+        log.info("Queueing report of type: {} in format: {}", request.getReportType(), request.getFormat());
 
         // Determinar fechas
         LocalDateTime startDate = request.getStartDate();
@@ -67,164 +115,314 @@ public class ReportServiceImpl implements ReportService {
             endDate = request.getPeriod().getEndDate();
         }
 
+        // El rango por defecto se alinea a días completos, igual que los periodos, para que
+        // solicitudes repetidas produzcan la misma clave de contenido
         if (startDate == null)
-            startDate = LocalDateTime.now().minusMonths(1);
+            startDate = LocalDate.now().minusMonths(1).atStartOfDay();
         if (endDate == null)
-            endDate = LocalDateTime.now();
+            endDate = LocalDate.now().atTime(LocalTime.MAX);
+
+        ReportType reportType = request.getReportType();
+        ReportFormat format = request.getFormat();
+        LocalDateTime start = startDate;
+        LocalDateTime end = endDate;
+
+        // Generar ID único para el reporte; el archivo en disco usa el ID para evitar colisiones
+        String reportId = generateReportId(reportType, format);
+        String fileName = generateFileName(reportType, format, startDate, endDate);
+        String ownStorageKey = generateStorageKey(reportId, format);
+        String contentKey = reportContentKeyGenerator.contentKey(reportType, format, startDate, endDate);
+        LocalDateTime now = LocalDateTime.now();
 
-        // Generar ID único para el reporte
-        String reportId = generateReportId(request.getReportType(), request.getFormat());
-        String fileName = generateFileName(request.getReportType(), request.getFormat(), startDate, endDate);
-        String filePath = REPORTS_DIR + fileName;
-        String reportType = request.getReportType().toString();
+        ReportRecord.ReportRecordBuilder builder = ReportRecord.builder()
+                .reportId(reportId)
+                .reportType(reportType)
+                .format(format)
+                .fileName(fileName)
+                .contentKey(contentKey)
+                .generatedBy(username)
+                .expiresAt(now.plusDays(7));
+
+        // La búsqueda y el alta van bajo un lock por clave para que dos solicitudes
+        // idénticas, aun en nodos distintos, no generen el reporte dos veces; el límite
+        // por usuario se reserva en la misma transacción bajo un lock por usuario
+        List<ReportRecord> evicted = new ArrayList<>();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        ReportRecord record = transaction.execute(status -> {
+            if (enforceUserLimit) {
+                evicted.addAll(reportStorageManager.reserveUserSlot(username, contentKey));
+            }
+            reportRecordRepository.lockContentKey(contentKey);
+            return reportRecordRepository.save(findReusableReport(contentKey)
+                    .map(shared -> builder
+                            .storageKey(shared.getStorageKey())
+                            .status(shared.getStatus())
+                            .fileSize(shared.getFileSize())
+                            .rawSize(shared.getRawSize())
+                            .generatedAt(shared.getGeneratedAt())
+                            .build())
+                    .orElseGet(() -> builder
+                            .storageKey(ownStorageKey)
+                            .status(ReportStatus.PENDING)
+                            .generatedAt(now)
+                            .build()));
+        });
+        reportStorageManager.deleteUnusedFiles(evicted);
+
+        if (!ownStorageKey.equals(record.getStorageKey())) {
+            log.info("Report {} shares the generation of an identical request ({})", reportId,
+                    record.getStorageKey());
+            return toReportResponse(record);
+        }
 
         try {
-            // Generar contenido del reporte según el tipo
-            switch (reportType) {
-                case "FINANCIAL_INCOME":
-                    generateFinancialIncomeReport(filePath, request.getFormat(), startDate, endDate);
-                    break;
-                case "FINANCIAL_EXPENSES":
-                    generateFinancialExpensesReport(filePath, request.getFormat(), startDate, endDate);
-                    break;
-                case "WORK_BY_DATE":
-                    generateWorksByDateReport(filePath, request.getFormat(), startDate, endDate);
-                    break;
-                case "WORK_BY_TYPE":
-                    generateWorksByTypeReport(filePath, request.getFormat(), startDate, endDate);
-                    break;
-                case "WORK_BY_EMPLOYEE":
-                    generateWorksByEmployeeReport(filePath, request.getFormat(), startDate, endDate);
-                    break;
-                case "PARTS_USAGE":
-                    generatePartsUsageReport(filePath, request.getFormat(), startDate, endDate);
-                    break;
-                case "PARTS_BY_BRAND":
-                    generatePartsByBrandReport(filePath, request.getFormat(), startDate, endDate);
-                    break;
-                case "CLIENT_HISTORY":
-                    generateClientHistoryReport(filePath, request.getFormat(), startDate, endDate);
-                    break;
-                case "PREVENTIVE_MAINTENANCE":
-                    generatePreventiveMaintenanceReport(filePath, request.getFormat(), startDate, endDate);
-                    break;
-                case "CORRECTIVE_MAINTENANCE":
-                    generateCorrectiveMaintenanceReport(filePath, request.getFormat(), startDate, endDate);
-                    break;
-                case "PAYMENT_STATUS":
-                    generatePaymentStatusReport(filePath, request.getFormat(), startDate, endDate);
-                    break;
-                case "INVENTORY_STOCK":
-                    generateInventoryStockReport(filePath, request.getFormat(), startDate, endDate);
-                    break;
-                case "VEHICLE_BEHAVIOR":
-                    generateVehicleBehaviorReport(filePath, request.getFormat(), startDate, endDate);
-                    break;
-                default:
-                    throw new IllegalArgumentException("Unsupported report type: " + request.getReportType());
-            }
+            // La generación se identifica por su archivo: cualquier solicitud que la comparte puede cancelarla
+            reportJobExecutor.submit(ownStorageKey,
+                    () -> runReportJob(reportId, reportType, format, ownStorageKey, start, end),
+                    () -> failReport(ownStorageKey, "Report generation timed out"));
+        } catch (RejectedExecutionException e) {
+            reportRecordRepository.deleteById(reportId);
+            // Quien se haya sumado a esta generación mientras tanto no la va a recibir
+            reportRecordRepository.markFailed(ownStorageKey, UNFINISHED_STATUSES, ReportStatus.FAILED,
+                    "Report queue was full");
+            log.warn("Report queue is full, rejecting report {}", reportId);
+            throw new ReportCapacityException(
+                    "Report queue is full, please try again in a few moments");
+        }
 
-            // Crear response del reporte
-            String currentUser = getCurrentUsername();
-            Long fileSize = getFileSize(filePath);
-
-            ReportResponse response = ReportResponse.builder()
-                    .reportId(reportId)
-                    .reportType(request.getReportType())
-                    .format(request.getFormat())
-                    .fileName(fileName)
-                    .downloadUrl("/api/reports/download/" + reportId)
-                    .generatedAt(LocalDateTime.now())
-                    .generatedBy(currentUser)
-                    .fileSize(fileSize)
-                    .expiresAt(LocalDateTime.now().plusDays(7))
-                    .status("COMPLETED")
-                    .build();
-
-            // Guardar en cache temporal
-            reportCache.put(reportId, response);
-            reportPathCache.put(reportId, filePath);
-
-            log.info("Report generated successfully: {}", reportId);
-            return response;
+        log.info("Report queued: {}", reportId);
+        return toReportResponse(record);
+    }
 
-        } catch (Exception e) {
-            log.error("Error generating report: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to generate report: " + e.getMessage());
+    // Generación en curso o archivo vigente con el mismo contenido
+    private Optional<ReportRecord> findReusableReport(String contentKey) {
+        return reportRecordRepository
+                .findFirstByContentKeyAndStatusInAndExpiresAtAfterOrderByCreatedAtDesc(contentKey,
+                        REUSABLE_STATUSES, LocalDateTime.now())
+                .filter(report -> report.getStatus() != ReportStatus.COMPLETED
+                        || reportFileStore.exists(report.getStorageKey()));
+    }
+
+    @Override
+    public ReportResponse getReportStatus(String reportId) {
+        return findOnPrimary(reportId)
+                .map(this::toReportResponse)
+                .orElseThrow(() -> new ReportNotFoundException(reportId));
+    }
+
+    @Override
+    public ReportResponse cancelReport(String reportId) {
+        ReportRecord report = findOnPrimary(reportId)
+                .orElseThrow(() -> new ReportNotFoundException(reportId));
+
+        // Bajo el lock de las altas: nadie se suma a la generación mientras se decide detenerla
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Boolean abandoned = transaction.execute(status -> {
+            reportRecordRepository.lockContentKey(report.getContentKey());
+            if (reportRecordRepository.markCancelled(reportId, UNFINISHED_STATUSES, ReportStatus.CANCELLED,
+                    "Report generation was cancelled") == 0) {
+                return null; // Ya había terminado
+            }
+            return !reportRecordRepository.existsByStorageKeyAndStatusIn(report.getStorageKey(),
+                    UNFINISHED_STATUSES);
+        });
+
+        if (abandoned == null) {
+            log.info("Report {} already finished, nothing to cancel", reportId);
+        } else if (abandoned) {
+            // Si el trabajo está en otro nodo, este no completa ninguna solicitud y descarta su archivo
+            boolean local = reportJobExecutor.cancel(report.getStorageKey());
+            log.info("Report {} cancelled{}", reportId, local ? "" : " (generation not running on this node)");
+        } else {
+            log.info("Report {} cancelled, its generation continues for other requests", reportId);
         }
+
+        return getReportStatus(reportId);
     }
 
     @Override
-    public Resource downloadReport(String reportId) {
+    public ReportDownload getReportDownload(String reportId) {
         log.info("Downloading report: {}", reportId);
 
-        ReportResponse report = reportCache.get(reportId);
-        String filePath = reportPathCache.get(reportId);
+        ReportRecord report = findOnPrimary(reportId)
+                .filter(record -> !record.isExpired())
+                .orElseThrow(() -> new ReportNotFoundException(reportId));
 
-        if (report == null || filePath == null) {
-            throw new RuntimeException("Report not found or expired: " + reportId);
+        if (report.getStatus() != ReportStatus.COMPLETED) {
+            throw new ReportNotFoundException("Report is not available for download: " + reportId, null);
         }
 
-        File file = new File(filePath);
-        if (!file.exists()) {
-            throw new RuntimeException("Report file not found: " + reportId);
+        String storageKey = report.getStorageKey();
+        Instant lastModified = reportFileStore.lastModified(storageKey);
+        if (lastModified == null) {
+            throw new ReportNotFoundException("Report file not found: " + reportId, null);
+        }
+        long size = reportFileStore.size(storageKey);
+        boolean compressed = ReportCompression.isGzip(storageKey);
+
+        // Orden de expulsión por cuota; varias peticiones de rango seguidas cuentan como un solo uso
+        LocalDateTime now = LocalDateTime.now();
+        reportRecordRepository.touch(reportId, now, now.minusMinutes(1));
+
+        // La clave de almacenamiento es única por generación; tamaño y fecha cubren un archivo reemplazado
+        String tag = DigestUtils.md5DigestAsHex(
+                (storageKey + ":" + size + ":" + lastModified.toEpochMilli()).getBytes(StandardCharsets.UTF_8));
+
+        return ReportDownload.builder()
+                .reportId(reportId)
+                .fileName(report.getFileName())
+                .contentType(report.getFormat().getMimeType())
+                .storageKey(storageKey)
+                .size(size)
+                .rawSize(report.getRawSize() != null ? report.getRawSize() : size)
+                .lastModified(lastModified)
+                .eTag("\"" + tag + "\"")
+                .contentEncoding(compressed ? ReportCompression.GZIP_ENCODING : null)
+                .decodedETag(compressed ? "\"" + tag + "-identity\"" : null)
+                .build();
+    }
+
+    @Override
+    public long transferReport(ReportDownload download, long start, long length, OutputStream outputStream)
+            throws IOException {
+        try (FileChannel channel = reportFileStore.openReadChannel(download.getStorageKey())) {
+            WritableByteChannel target = Channels.newChannel(outputStream);
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    break; // El archivo terminó antes de lo esperado
+                }
+                position += sent;
+                remaining -= sent;
+            }
+            return length - remaining;
         }
+    }
 
-        return new FileSystemResource(file);
+    @Override
+    public long transferDecodedReport(ReportDownload download, long start, long length, OutputStream outputStream)
+            throws IOException {
+        try (InputStream inputStream = ReportCompression.gunzip(
+                Channels.newInputStream(reportFileStore.openReadChannel(download.getStorageKey())))) {
+            // Para reanudar una descarga hay que descomprimir y descartar lo que ya se envió
+            inputStream.skipNBytes(start);
+
+            byte[] buffer = new byte[64 * 1024];
+            long remaining = length;
+            while (remaining > 0) {
+                int read = inputStream.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    break;
+                }
+                outputStream.write(buffer, 0, read);
+                remaining -= read;
+            }
+            return length - remaining;
+        }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ReportResponse> getReportHistory(String username) {
         log.info("Getting report history for user: {}", username);
-        return reportCache.values().stream()
-                .filter(report -> username.equals(report.getGeneratedBy()))
-                .filter(report -> report.getExpiresAt().isAfter(LocalDateTime.now()))
-                .sorted((r1, r2) -> r2.getGeneratedAt().compareTo(r1.getGeneratedAt()))
+        return reportRecordRepository
+                .findByGeneratedByAndExpiresAtAfterOrderByGeneratedAtDesc(username, LocalDateTime.now())
+                .stream()
+                .map(this::toReportResponse)
                 .toList();
     }
 
     @Override
     public void deleteExpiredReports() {
-        LocalDateTime now = LocalDateTime.now();
-        List<String> expiredReportIds = reportCache.entrySet().stream()
-                .filter(entry -> entry.getValue().getExpiresAt().isBefore(now))
-                .map(Map.Entry::getKey)
-                .toList();
+        List<ReportRecord> expiredReports = reportRecordRepository.findByExpiresAtBefore(LocalDateTime.now());
 
-        for (String reportId : expiredReportIds) {
-            ReportResponse report = reportCache.remove(reportId);
-            String filePath = reportPathCache.remove(reportId);
+        for (ReportRecord report : expiredReports) {
+            reportStorageManager.deleteRecord(report);
+        }
 
-            if (report != null && filePath != null) {
-                try {
-                    Files.deleteIfExists(Paths.get(filePath));
-                } catch (IOException e) {
-                    log.error("Error deleting expired report file: {}", report.getFileName(), e);
-                }
-            }
+        log.info("Deleted {} expired reports", expiredReports.size());
+    }
+
+    @Override
+    public int failAbandonedReports() {
+        // Un reporte sin terminar más allá de la espera máxima en cola más la generación
+        // quedó huérfano, normalmente porque el nodo que lo tenía en cola se reinició
+        long queueRounds = 1 + (long) Math.ceil((double) reportProperties.getMaxQueuedReports()
+                / Math.max(1, reportProperties.getMaxConcurrentReports()));
+        LocalDateTime cutoff = LocalDateTime.now()
+                .minus(Duration.ofMillis(reportProperties.getGenerationTimeout() * queueRounds));
+
+        int failed = reportRecordRepository.markAbandoned(UNFINISHED_STATUSES, ReportStatus.FAILED,
+                "Report generation was interrupted", cutoff);
+        if (failed > 0) {
+            log.warn("Marked {} abandoned reports as failed", failed);
         }
+        return failed;
+    }
 
-        log.info("Deleted {} expired reports", expiredReportIds.size());
+    @Override
+    public boolean supportsDirectExport(ReportFormat format) {
+        return format == ReportFormat.PDF || format == ReportFormat.EXCEL;
     }
 
     @Override
-    public byte[] exportReportData(ReportType reportType, LocalDateTime startDate,
-            LocalDateTime endDate, String format) {
+    public void writeReportExport(ReportType reportType, LocalDateTime startDate, LocalDateTime endDate,
+            ReportFormat format, OutputStream outputStream) {
         try {
-            switch (format.toUpperCase()) {
-                case "PDF":
-                    return pdfGenerator.generateReport(reportType, startDate, endDate);
-                case "EXCEL":
-                    return excelGenerator.generateReport(reportType, startDate, endDate);
-                default:
-                    throw new IllegalArgumentException("Unsupported format: " + format);
+            switch (format) {
+                case PDF -> pdfGenerator.generateReport(reportType, startDate, endDate, outputStream);
+                case EXCEL -> excelGenerator.generateReport(reportType, startDate, endDate, outputStream);
+                default -> throw new IllegalArgumentException("Unsupported format: " + format);
             }
-        } catch (Exception e) {
+        } catch (IOException e) {
             log.error("Error exporting report data", e);
-            throw new RuntimeException("Failed to export report: " + e.getMessage());
+            throw new ReportGenerationException("Failed to export report: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean supportsStreamingExport(ReportType reportType) {
+        return STREAMING_EXPORT_TYPES.contains(reportType);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long writeCsvExport(ReportType reportType, LocalDateTime startDate,
+            LocalDateTime endDate, OutputStream outputStream) {
+        log.info("Streaming CSV export of type: {} ({} - {})", reportType, startDate, endDate);
+
+        // El cursor permanece abierto mientras se escribe; el try cierra el Stream y lo libera
+        try (Stream<Object[]> rows = openReportStream(reportType, startDate, endDate)) {
+            long rowCount = CSVUtil.writeCSV(outputStream, getStreamingHeaders(reportType), rows);
+            log.info("Streamed {} rows for CSV export of type: {}", rowCount, reportType);
+            return rowCount;
+        } catch (IOException e) {
+            log.error("Error streaming CSV export of type: {}", reportType, e);
+            throw new ReportGenerationException("Failed to stream CSV export: " + e.getMessage(), e);
         }
     }
 
+    private Stream<Object[]> openReportStream(ReportType reportType, LocalDateTime startDate,
+            LocalDateTime endDate) {
+        return switch (reportType) {
+            case PARTS_USAGE -> reportRepository.streamPartUsageStatistics(startDate, endDate);
+            case PARTS_BY_BRAND -> reportRepository.streamPartsByVehicleBrand(startDate, endDate);
+            case CLIENT_HISTORY -> reportRepository.streamClientHistory(startDate, endDate);
+            default -> throw new IllegalArgumentException("Streaming export not supported for: " + reportType);
+        };
+    }
+
+    private String[] getStreamingHeaders(ReportType reportType) {
+        return switch (reportType) {
+            case PARTS_USAGE -> PARTS_USAGE_HEADERS;
+            case PARTS_BY_BRAND -> PARTS_BY_BRAND_HEADERS;
+            case CLIENT_HISTORY -> CLIENT_HISTORY_HEADERS;
+            default -> throw new IllegalArgumentException("Streaming export not supported for: " + reportType);
+        };
+    }
+
     // ================================
     // MÉTODOS DE REPORTES CONSOLIDADOS
     // ================================
@@ -232,7 +430,8 @@ public class ReportServiceImpl implements ReportService {
     @Override
     @Transactional(readOnly = true)
     public FinancialReportResponse generateFinancialReport(LocalDateTime startDate, LocalDateTime endDate) {
-        List<Object[]> incomeData = reportRepository.getIncomeByMonth(startDate.toLocalDate(), endDate.toLocalDate());
+        List<Object[]> incomeData = reportPeriodCache.getIncomeByMonth(startDate.toLocalDate(),
+                endDate.toLocalDate());
 
         BigDecimal totalIncome = incomeData.stream()
                 .map(row -> new BigDecimal(row[1].toString()))
@@ -266,12 +465,19 @@ public class ReportServiceImpl implements ReportService {
     @Override
     @Transactional(readOnly = true)
     public OperationalReportResponse generateOperationalReport(LocalDateTime startDate, LocalDateTime endDate) {
+        // Conteos actuales de los contadores en memoria; antes de sembrarlos, de la base de datos
+        KpiCounts counts = kpiCounterService.getCounts()
+                .orElseGet(() -> KpiCounts.builder()
+                        .activeWorks(reportRepository.countActiveWorks())
+                        .completedWorks(reportRepository.countCompletedWorks())
+                        .pendingWorks(reportRepository.countPendingWorks())
+                        .build());
         return OperationalReportResponse.builder()
                 .startDate(startDate.toLocalDate()) // Convertir a LocalDate
                 .endDate(endDate.toLocalDate()) // Convertir a LocalDate
-                .totalWorks(reportRepository.countActiveWorks() + reportRepository.countCompletedWorks())
-                .completedWorks(reportRepository.countCompletedWorks())
-                .pendingWorks(reportRepository.countPendingWorks())
+                .totalWorks(counts.getActiveWorks() + counts.getCompletedWorks())
+                .completedWorks(counts.getCompletedWorks())
+                .pendingWorks(counts.getPendingWorks())
                 .build();
     }
 
@@ -282,25 +488,25 @@ public class ReportServiceImpl implements ReportService {
     @Override
     @Transactional(readOnly = true)
     public List<Object[]> getIncomeByWeek(LocalDateTime startDate, LocalDateTime endDate) {
-        return reportRepository.getIncomeByWeek(startDate.toLocalDate(), endDate.toLocalDate());
+        return reportPeriodCache.getIncomeByWeek(startDate.toLocalDate(), endDate.toLocalDate());
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Object[]> getIncomeByMonth(LocalDateTime startDate, LocalDateTime endDate) {
-        return reportRepository.getIncomeByMonth(startDate.toLocalDate(), endDate.toLocalDate());
+        return reportPeriodCache.getIncomeByMonth(startDate.toLocalDate(), endDate.toLocalDate());
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Object[]> getExpensesByMonth(LocalDateTime startDate, LocalDateTime endDate) {
-        return reportRepository.getExpensesByMonth(startDate.toLocalDate(), endDate.toLocalDate());
+        return reportPeriodCache.getExpensesByMonth(startDate.toLocalDate(), endDate.toLocalDate());
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Object[]> getProviderExpenses(LocalDateTime startDate, LocalDateTime endDate) {
-        return reportRepository.getProviderExpenses(startDate.toLocalDate(), endDate.toLocalDate());
+        return reportPeriodCache.getProviderExpenses(startDate.toLocalDate(), endDate.toLocalDate());
     }
 
     @Override
@@ -394,33 +600,177 @@ public class ReportServiceImpl implements ReportService {
         return reportRepository.getTopPerformingMechanics(startDate, endDate, limit);
     }
 
+    // ================================
+    // EJECUCIÓN DE TRABAJOS DE REPORTE
+    // ================================
+
+    private void runReportJob(String reportId, ReportType reportType, ReportFormat format,
+            String storageKey, LocalDateTime startDate, LocalDateTime endDate) {
+        if (reportRecordRepository.markGenerating(storageKey, ReportStatus.PENDING, ReportStatus.GENERATING) == 0) {
+            return; // Las solicitudes se cancelaron, eliminaron o expiraron mientras esperaban en la cola
+        }
+
+        ReportCancellation cancellation = ReportCancellation.current();
+        try {
+            // Las consultas del reporte comparten una transacción de solo lectura con tiempo máximo
+            TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+            readOnlyTransaction.setReadOnly(true);
+            readOnlyTransaction.setTimeout((int) Math.max(1, reportProperties.getGenerationTimeout() / 1000));
+            readOnlyTransaction.executeWithoutResult(status -> {
+                // Cancelar el trabajo también cancela la consulta en curso en el servidor
+                if (cancellation != null) {
+                    cancellation.attachStatementCanceller(reportRepository.statementCanceller());
+                }
+                try {
+                    renderReport(reportType, format, storageKey, startDate, endDate);
+                } finally {
+                    if (cancellation != null) {
+                        cancellation.detachStatementCanceller();
+                    }
+                }
+            });
+
+            long fileSize = reportFileStore.size(storageKey);
+            if (fileSize > reportProperties.getMaxFileSizeBytes()) {
+                failReport(storageKey, String.format("Report file of %s exceeds the maximum of %s",
+                        formatFileSize(fileSize), formatFileSize(reportProperties.getMaxFileSizeBytes())));
+                return;
+            }
+            long rawSize = ReportCompression.isGzip(storageKey) ? readUncompressedSize(storageKey) : fileSize;
+            if (rawSize > fileSize) {
+                log.info("Report {} compressed from {} to {}", reportId, formatFileSize(rawSize),
+                        formatFileSize(fileSize));
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            boolean completed = reportRecordRepository.markCompleted(storageKey, UNFINISHED_STATUSES,
+                    ReportStatus.COMPLETED, fileSize, rawSize, now, now.plusDays(7)) > 0;
+
+            if (completed) {
+                log.info("Report generated successfully: {}", reportId);
+                reportStorageManager.enforceQuota(storageKey);
+            } else {
+                // El trabajo fue cancelado o todas sus solicitudes se eliminaron; el archivo ya no tiene dueño
+                reportFileStore.delete(storageKey);
+            }
+        } catch (Exception e) {
+            // PostgreSQL informa con el mismo error el timeout de la consulta y su cancelación
+            if (cancellation != null && isQueryTimeout(e)) {
+                cancellation.cancel(ReportCancellation.Reason.TIMEOUT, false);
+            }
+
+            if (cancellation != null && cancellation.getReason() == ReportCancellation.Reason.USER) {
+                // Las solicitudes ya quedaron canceladas; solo queda el archivo parcial
+                log.info("Report generation {} was cancelled", storageKey);
+                reportFileStore.delete(storageKey);
+            } else if (cancellation != null && cancellation.getReason() == ReportCancellation.Reason.TIMEOUT) {
+                log.warn("Report generation {} timed out", storageKey);
+                failReport(storageKey, "Report generation timed out");
+            } else {
+                log.error("Error generating report {}: {}", reportId, e.getMessage(), e);
+                failReport(storageKey, e.getMessage());
+            }
+        }
+    }
+
+    private static boolean isQueryTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof QueryTimeoutException || cause instanceof TransactionTimedOutException
+                    || cause instanceof SQLException sql && QUERY_CANCELED_STATE.equals(sql.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void renderReport(ReportType reportType, ReportFormat format, String storageKey,
+            LocalDateTime startDate, LocalDateTime endDate) {
+        // Generar contenido del reporte según el tipo
+        switch (reportType.toString()) {
+            case "FINANCIAL_INCOME":
+                generateFinancialIncomeReport(storageKey, format, startDate, endDate);
+                break;
+            case "FINANCIAL_EXPENSES":
+                generateFinancialExpensesReport(storageKey, format, startDate, endDate);
+                break;
+            case "WORK_BY_DATE":
+                generateWorksByDateReport(storageKey, format, startDate, endDate);
+                break;
+            case "WORK_BY_TYPE":
+                generateWorksByTypeReport(storageKey, format, startDate, endDate);
+                break;
+            case "WORK_BY_EMPLOYEE":
+                generateWorksByEmployeeReport(storageKey, format, startDate, endDate);
+                break;
+            case "PARTS_USAGE":
+                generatePartsUsageReport(storageKey, format, startDate, endDate);
+                break;
+            case "PARTS_BY_BRAND":
+                generatePartsByBrandReport(storageKey, format, startDate, endDate);
+                break;
+            case "CLIENT_HISTORY":
+                generateClientHistoryReport(storageKey, format, startDate, endDate);
+                break;
+            case "PREVENTIVE_MAINTENANCE":
+                generatePreventiveMaintenanceReport(storageKey, format, startDate, endDate);
+                break;
+            case "CORRECTIVE_MAINTENANCE":
+                generateCorrectiveMaintenanceReport(storageKey, format, startDate, endDate);
+                break;
+            case "PAYMENT_STATUS":
+                generatePaymentStatusReport(storageKey, format, startDate, endDate);
+                break;
+            case "INVENTORY_STOCK":
+                generateInventoryStockReport(storageKey, format, startDate, endDate);
+                break;
+            case "VEHICLE_BEHAVIOR":
+                generateVehicleBehaviorReport(storageKey, format, startDate, endDate);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported report type: " + reportType);
+        }
+    }
+
+    // Falla la generación junto con todas las solicitudes que la esperaban
+    private void failReport(String storageKey, String errorMessage) {
+        int failed = reportRecordRepository.markFailed(storageKey, UNFINISHED_STATUSES,
+                ReportStatus.FAILED, errorMessage);
+
+        if (failed > 0) {
+            log.warn("Report generation {} failed for {} requests: {}", storageKey, failed, errorMessage);
+            reportFileStore.delete(storageKey);
+        }
+    }
+
     // ================================
     // MÉTODOS HELPER PARA GENERACIÓN DE REPORTES
     // ================================
 
-    private void generateFinancialIncomeReport(String filePath, ReportFormat format,
+    private void generateFinancialIncomeReport(String storageKey, ReportFormat format,
             LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Generating financial income report: {} - {}", startDate, endDate);
 
         try {
-            List<Object[]> reportData = reportRepository.getIncomeByMonth(startDate.toLocalDate(),
+            List<Object[]> reportData = reportPeriodCache.getIncomeByMonth(startDate.toLocalDate(),
                     endDate.toLocalDate());
+            ChartSpec chart = ChartSpec.fromRows(ChartType.LINE, "Ingresos por Mes", "Mes", "Ingresos",
+                    reportData, 0, 1);
 
             switch (format) {
                 case PDF:
-                    generateGenericPDFReport(filePath, reportData,
+                    generateGenericPDFReport(storageKey, reportData,
                             "REPORTE FINANCIERO - INGRESOS",
                             new String[] { "Mes", "Ingresos" },
-                            startDate, endDate);
+                            startDate, endDate, chart);
                     break;
                 case EXCEL:
-                    generateGenericExcelReport(filePath, reportData,
+                    generateGenericExcelReport(storageKey, reportData,
                             "REPORTE FINANCIERO - INGRESOS",
                             new String[] { "Mes", "Ingresos" },
-                            startDate, endDate);
+                            startDate, endDate, chart);
                     break;
                 case CSV:
-                    generateCSVReport(filePath, reportData, new String[] { "Mes", "Ingresos" });
+                    generateCSVReport(storageKey, reportData, new String[] { "Mes", "Ingresos" });
                     break;
                 default:
                     throw new IllegalArgumentException("Unsupported format: " + format);
@@ -431,29 +781,30 @@ public class ReportServiceImpl implements ReportService {
         }
     }
 
-    private void generateFinancialExpensesReport(String filePath, ReportFormat format,
+    private void generateFinancialExpensesReport(String storageKey, ReportFormat format,
             LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Generating financial expenses report: {} - {}", startDate, endDate);
 
         try {
-            List<Object[]> reportData = reportRepository.getExpensesByMonth(startDate.toLocalDate(),
+            List<Object[]> reportData = reportPeriodCache.getExpensesByMonth(startDate.toLocalDate(),
                     endDate.toLocalDate());
+            ChartSpec chart = ChartSpec.fromRows(ChartType.BAR, "Gastos por Mes", "Mes", "Gastos", reportData, 0, 1);
 
             switch (format) {
                 case PDF:
-                    generateGenericPDFReport(filePath, reportData,
+                    generateGenericPDFReport(storageKey, reportData,
                             "REPORTE FINANCIERO - GASTOS",
                             new String[] { "Mes", "Gastos" },
-                            startDate, endDate);
+                            startDate, endDate, chart);
                     break;
                 case EXCEL:
-                    generateGenericExcelReport(filePath, reportData,
+                    generateGenericExcelReport(storageKey, reportData,
                             "REPORTE FINANCIERO - GASTOS",
                             new String[] { "Mes", "Gastos" },
-                            startDate, endDate);
+                            startDate, endDate, chart);
                     break;
                 case CSV:
-                    generateCSVReport(filePath, reportData, new String[] { "Mes", "Gastos" });
+                    generateCSVReport(storageKey, reportData, new String[] { "Mes", "Gastos" });
                     break;
                 default:
                     throw new IllegalArgumentException("Unsupported format: " + format);
@@ -464,28 +815,30 @@ public class ReportServiceImpl implements ReportService {
         }
     }
 
-    private void generateWorksByDateReport(String filePath, ReportFormat format,
+    private void generateWorksByDateReport(String storageKey, ReportFormat format,
             LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Generating works by date report: {} - {}", startDate, endDate);
 
         try {
             List<Object[]> reportData = reportRepository.getWorksByStatus(startDate, endDate);
+            ChartSpec chart = ChartSpec.fromRows(ChartType.PIE, "Trabajos por Estado", "Estado", "Cantidad",
+                    reportData, 0, 1);
 
             switch (format) {
                 case PDF:
-                    generateGenericPDFReport(filePath, reportData,
+                    generateGenericPDFReport(storageKey, reportData,
                             "REPORTE DE TRABAJOS POR FECHA",
                             new String[] { "Estado", "Cantidad" },
-                            startDate, endDate);
+                            startDate, endDate, chart);
                     break;
                 case EXCEL:
-                    generateGenericExcelReport(filePath, reportData,
+                    generateGenericExcelReport(storageKey, reportData,
                             "REPORTE DE TRABAJOS POR FECHA",
                             new String[] { "Estado", "Cantidad" },
-                            startDate, endDate);
+                            startDate, endDate, chart);
                     break;
                 case CSV:
-                    generateCSVReport(filePath, reportData, new String[] { "Estado", "Cantidad" });
+                    generateCSVReport(storageKey, reportData, new String[] { "Estado", "Cantidad" });
                     break;
                 default:
                     throw new IllegalArgumentException("Unsupported format: " + format);
@@ -496,28 +849,30 @@ public class ReportServiceImpl implements ReportService {
         }
     }
 
-    private void generateWorksByTypeReport(String filePath, ReportFormat format,
+    private void generateWorksByTypeReport(String storageKey, ReportFormat format,
             LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Generating works by type report: {} - {}", startDate, endDate);
 
         try {
             List<Object[]> reportData = reportRepository.getWorksByType(startDate, endDate);
+            ChartSpec chart = ChartSpec.fromRows(ChartType.BAR, "Trabajos por Tipo de Servicio",
+                    "Tipo de Servicio", "Cantidad", reportData, 0, 1);
 
             switch (format) {
                 case PDF:
-                    generateGenericPDFReport(filePath, reportData,
+                    generateGenericPDFReport(storageKey, reportData,
                             "REPORTE DE TRABAJOS POR TIPO",
                             new String[] { "Tipo de Servicio", "Cantidad" },
-                            startDate, endDate);
+                            startDate, endDate, chart);
                     break;
                 case EXCEL:
-                    generateGenericExcelReport(filePath, reportData,
+                    generateGenericExcelReport(storageKey, reportData,
                             "REPORTE DE TRABAJOS POR TIPO",
                             new String[] { "Tipo de Servicio", "Cantidad" },
-                            startDate, endDate);
+                            startDate, endDate, chart);
                     break;
                 case CSV:
-                    generateCSVReport(filePath, reportData, new String[] { "Tipo de Servicio", "Cantidad" });
+                    generateCSVReport(storageKey, reportData, new String[] { "Tipo de Servicio", "Cantidad" });
                     break;
                 default:
                     throw new IllegalArgumentException("Unsupported format: " + format);
@@ -528,30 +883,32 @@ public class ReportServiceImpl implements ReportService {
         }
     }
 
-    private void generateWorksByEmployeeReport(String filePath, ReportFormat format,
+    private void generateWorksByEmployeeReport(String storageKey, ReportFormat format,
             LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Generating works by employee report: {} - {}", startDate, endDate);
 
         try {
             List<Object[]> reportData = reportRepository.getEmployeePerformance(startDate, endDate);
+            ChartSpec chart = ChartSpec.fromRows(ChartType.HORIZONTAL_BAR, "Ingresos por Empleado",
+                    "Empleado", "Ingresos", reportData, 0, 5);
 
             switch (format) {
                 case PDF:
-                    generateGenericPDFReport(filePath, reportData,
+                    generateGenericPDFReport(storageKey, reportData,
                             "REPORTE DE TRABAJOS POR EMPLEADO",
                             new String[] { "Empleado", "ID", "Trabajos Totales", "Trabajos Completados",
                                     "Tiempo Promedio", "Ingresos Totales", "Tasa Completado" },
-                            startDate, endDate);
+                            startDate, endDate, chart);
                     break;
                 case EXCEL:
-                    generateGenericExcelReport(filePath, reportData,
+                    generateGenericExcelReport(storageKey, reportData,
                             "REPORTE DE TRABAJOS POR EMPLEADO",
                             new String[] { "Empleado", "ID", "Trabajos Totales", "Trabajos Completados",
                                     "Tiempo Promedio", "Ingresos Totales", "Tasa Completado" },
-                            startDate, endDate);
+                            startDate, endDate, chart);
                     break;
                 case CSV:
-                    generateCSVReport(filePath, reportData, new String[] { "Empleado", "ID", "Trabajos Totales",
+                    generateCSVReport(storageKey, reportData, new String[] { "Empleado", "ID", "Trabajos Totales",
                             "Trabajos Completados", "Tiempo Promedio", "Ingresos Totales", "Tasa Completado" });
                     break;
                 default:
@@ -563,31 +920,28 @@ public class ReportServiceImpl implements ReportService {
         }
     }
 
-    private void generatePartsUsageReport(String filePath, ReportFormat format,
+    private void generatePartsUsageReport(String storageKey, ReportFormat format,
             LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Generating parts usage report: {} - {}", startDate, endDate);
 
         try {
             List<Object[]> reportData = reportRepository.getPartUsageStatistics(startDate, endDate);
+            ChartSpec chart = ChartSpec.fromRows(ChartType.HORIZONTAL_BAR, "Repuestos Más Utilizados",
+                    "Repuesto", "Cantidad", reportData, 0, 2);
 
             switch (format) {
                 case PDF:
-                    generateGenericPDFReport(filePath, reportData,
+                    generateGenericPDFReport(storageKey, reportData,
                             "REPORTE DE USO DE REPUESTOS",
-                            new String[] { "Repuesto", "Categoría", "Cantidad Total", "Costo Total", "Trabajos",
-                                    "Precio Promedio" },
-                            startDate, endDate);
+                            PARTS_USAGE_HEADERS, startDate, endDate, chart);
                     break;
                 case EXCEL:
-                    generateGenericExcelReport(filePath, reportData,
+                    generateGenericExcelReport(storageKey, reportData,
                             "REPORTE DE USO DE REPUESTOS",
-                            new String[] { "Repuesto", "Categoría", "Cantidad Total", "Costo Total", "Trabajos",
-                                    "Precio Promedio" },
-                            startDate, endDate);
+                            PARTS_USAGE_HEADERS, startDate, endDate, chart);
                     break;
                 case CSV:
-                    generateCSVReport(filePath, reportData, new String[] { "Repuesto", "Categoría", "Cantidad Total",
-                            "Costo Total", "Trabajos", "Precio Promedio" });
+                    generateCSVReport(storageKey, reportData, PARTS_USAGE_HEADERS);
                     break;
                 default:
                     throw new IllegalArgumentException("Unsupported format: " + format);
@@ -598,7 +952,7 @@ public class ReportServiceImpl implements ReportService {
         }
     }
 
-    private void generatePartsByBrandReport(String filePath, ReportFormat format,
+    private void generatePartsByBrandReport(String storageKey, ReportFormat format,
             LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Generating parts by brand report: {} - {}", startDate, endDate);
 
@@ -607,20 +961,17 @@ public class ReportServiceImpl implements ReportService {
 
             switch (format) {
                 case PDF:
-                    generateGenericPDFReport(filePath, reportData,
+                    generateGenericPDFReport(storageKey, reportData,
                             "REPORTE DE REPUESTOS POR MARCA DE VEHÍCULO",
-                            new String[] { "Marca", "Repuesto", "Categoría", "Cantidad Total", "Costo Total" },
-                            startDate, endDate);
+                            PARTS_BY_BRAND_HEADERS, startDate, endDate);
                     break;
                 case EXCEL:
-                    generateGenericExcelReport(filePath, reportData,
+                    generateGenericExcelReport(storageKey, reportData,
                             "REPORTE DE REPUESTOS POR MARCA DE VEHÍCULO",
-                            new String[] { "Marca", "Repuesto", "Categoría", "Cantidad Total", "Costo Total" },
-                            startDate, endDate);
+                            PARTS_BY_BRAND_HEADERS, startDate, endDate);
                     break;
                 case CSV:
-                    generateCSVReport(filePath, reportData,
-                            new String[] { "Marca", "Repuesto", "Categoría", "Cantidad Total", "Costo Total" });
+                    generateCSVReport(storageKey, reportData, PARTS_BY_BRAND_HEADERS);
                     break;
                 default:
                     throw new IllegalArgumentException("Unsupported format: " + format);
@@ -631,7 +982,7 @@ public class ReportServiceImpl implements ReportService {
         }
     }
 
-    private void generateClientHistoryReport(String filePath, ReportFormat format,
+    private void generateClientHistoryReport(String storageKey, ReportFormat format,
             LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Generating client history report: {} - {}", startDate, endDate);
 
@@ -640,22 +991,17 @@ public class ReportServiceImpl implements ReportService {
 
             switch (format) {
                 case PDF:
-                    generateGenericPDFReport(filePath, reportData,
+                    generateGenericPDFReport(storageKey, reportData,
                             "REPORTE DE HISTORIAL DE CLIENTES",
-                            new String[] { "Cliente", "CUI", "Email", "Trabajos Totales", "Total Gastado",
-                                    "Última Visita", "Vehículos", "Tipos de Servicio" },
-                            startDate, endDate);
+                            CLIENT_HISTORY_HEADERS, startDate, endDate);
                     break;
                 case EXCEL:
-                    generateGenericExcelReport(filePath, reportData,
+                    generateGenericExcelReport(storageKey, reportData,
                             "REPORTE DE HISTORIAL DE CLIENTES",
-                            new String[] { "Cliente", "CUI", "Email", "Trabajos Totales", "Total Gastado",
-                                    "Última Visita", "Vehículos", "Tipos de Servicio" },
-                            startDate, endDate);
+                            CLIENT_HISTORY_HEADERS, startDate, endDate);
                     break;
                 case CSV:
-                    generateCSVReport(filePath, reportData, new String[] { "Cliente", "CUI", "Email",
-                            "Trabajos Totales", "Total Gastado", "Última Visita", "Vehículos", "Tipos de Servicio" });
+                    generateCSVReport(storageKey, reportData, CLIENT_HISTORY_HEADERS);
                     break;
                 default:
                     throw new IllegalArgumentException("Unsupported format: " + format);
@@ -666,30 +1012,33 @@ public class ReportServiceImpl implements ReportService {
         }
     }
 
-    private void generatePreventiveMaintenanceReport(String filePath, ReportFormat format,
+    private void generatePreventiveMaintenanceReport(String storageKey, ReportFormat format,
             LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Generating preventive maintenance report: {} - {}", startDate, endDate);
 
         try {
             List<Object[]> reportData = reportRepository.getPreventiveMaintenanceReport(startDate, endDate);
+            // La consulta viene de la fecha más reciente a la más antigua
+            ChartSpec chart = ChartSpec.fromRows(ChartType.LINE, "Mantenimientos Preventivos", "Fecha", "Trabajos",
+                    reportData.reversed(), 0, 1);
 
             switch (format) {
                 case PDF:
-                    generateGenericPDFReport(filePath, reportData,
+                    generateGenericPDFReport(storageKey, reportData,
                             "REPORTE DE MANTENIMIENTO PREVENTIVO",
                             new String[] { "Fecha", "Trabajos Totales", "Costo Promedio", "Duración Promedio",
                                     "Ingresos Totales", "Trabajos Completados" },
-                            startDate, endDate);
+                            startDate, endDate, chart);
                     break;
                 case EXCEL:
-                    generateGenericExcelReport(filePath, reportData,
+                    generateGenericExcelReport(storageKey, reportData,
                             "REPORTE DE MANTENIMIENTO PREVENTIVO",
                             new String[] { "Fecha", "Trabajos Totales", "Costo Promedio", "Duración Promedio",
                                     "Ingresos Totales", "Trabajos Completados" },
-                            startDate, endDate);
+                            startDate, endDate, chart);
                     break;
                 case CSV:
-                    generateCSVReport(filePath, reportData, new String[] { "Fecha", "Trabajos Totales",
+                    generateCSVReport(storageKey, reportData, new String[] { "Fecha", "Trabajos Totales",
                             "Costo Promedio", "Duración Promedio", "Ingresos Totales", "Trabajos Completados" });
                     break;
                 default:
@@ -701,30 +1050,33 @@ public class ReportServiceImpl implements ReportService {
         }
     }
 
-    private void generateCorrectiveMaintenanceReport(String filePath, ReportFormat format,
+    private void generateCorrectiveMaintenanceReport(String storageKey, ReportFormat format,
             LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Generating corrective maintenance report: {} - {}", startDate, endDate);
 
         try {
             List<Object[]> reportData = reportRepository.getCorrectiveMaintenanceReport(startDate, endDate);
+            // La consulta viene de la fecha más reciente a la más antigua
+            ChartSpec chart = ChartSpec.fromRows(ChartType.LINE, "Mantenimientos Correctivos", "Fecha", "Trabajos",
+                    reportData.reversed(), 0, 1);
 
             switch (format) {
                 case PDF:
-                    generateGenericPDFReport(filePath, reportData,
+                    generateGenericPDFReport(storageKey, reportData,
                             "REPORTE DE MANTENIMIENTO CORRECTIVO",
                             new String[] { "Fecha", "Trabajos Totales", "Costo Promedio", "Duración Promedio",
                                     "Ingresos Totales", "Trabajos Completados" },
-                            startDate, endDate);
+                            startDate, endDate, chart);
                     break;
                 case EXCEL:
-                    generateGenericExcelReport(filePath, reportData,
+                    generateGenericExcelReport(storageKey, reportData,
                             "REPORTE DE MANTENIMIENTO CORRECTIVO",
                             new String[] { "Fecha", "Trabajos Totales", "Costo Promedio", "Duración Promedio",
                                     "Ingresos Totales", "Trabajos Completados" },
-                            startDate, endDate);
+                            startDate, endDate, chart);
                     break;
                 case CSV:
-                    generateCSVReport(filePath, reportData, new String[] { "Fecha", "Trabajos Totales",
+                    generateCSVReport(storageKey, reportData, new String[] { "Fecha", "Trabajos Totales",
                             "Costo Promedio", "Duración Promedio", "Ingresos Totales", "Trabajos Completados" });
                     break;
                 default:
@@ -736,7 +1088,7 @@ public class ReportServiceImpl implements ReportService {
         }
     }
 
-    private void generatePaymentStatusReport(String filePath, ReportFormat format,
+    private void generatePaymentStatusReport(String storageKey, ReportFormat format,
             LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Generating payment status report: {} - {}", startDate, endDate);
 
@@ -752,19 +1104,19 @@ public class ReportServiceImpl implements ReportService {
 
             switch (format) {
                 case PDF:
-                    generateGenericPDFReport(filePath, reportData,
+                    generateGenericPDFReport(storageKey, reportData,
                             "REPORTE DE ESTADO DE PAGOS",
                             new String[] { "Concepto", "Monto" },
                             startDate, endDate);
                     break;
                 case EXCEL:
-                    generateGenericExcelReport(filePath, reportData,
+                    generateGenericExcelReport(storageKey, reportData,
                             "REPORTE DE ESTADO DE PAGOS",
                             new String[] { "Concepto", "Monto" },
                             startDate, endDate);
                     break;
                 case CSV:
-                    generateCSVReport(filePath, reportData, new String[] { "Concepto", "Monto" });
+                    generateCSVReport(storageKey, reportData, new String[] { "Concepto", "Monto" });
                     break;
                 default:
                     throw new IllegalArgumentException("Unsupported format: " + format);
@@ -775,7 +1127,7 @@ public class ReportServiceImpl implements ReportService {
         }
     }
 
-    private void generateInventoryStockReport(String filePath, ReportFormat format,
+    private void generateInventoryStockReport(String storageKey, ReportFormat format,
             LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Generating inventory stock report: {} - {}", startDate, endDate);
 
@@ -784,21 +1136,21 @@ public class ReportServiceImpl implements ReportService {
 
             switch (format) {
                 case PDF:
-                    generateGenericPDFReport(filePath, reportData,
+                    generateGenericPDFReport(storageKey, reportData,
                             "REPORTE DE ESTADO DE INVENTARIO",
                             new String[] { "Repuesto", "Categoría", "Cantidad Disponible", "Stock Mínimo",
                                     "Precio Unitario" },
                             startDate, endDate);
                     break;
                 case EXCEL:
-                    generateGenericExcelReport(filePath, reportData,
+                    generateGenericExcelReport(storageKey, reportData,
                             "REPORTE DE ESTADO DE INVENTARIO",
                             new String[] { "Repuesto", "Categoría", "Cantidad Disponible", "Stock Mínimo",
                                     "Precio Unitario" },
                             startDate, endDate);
                     break;
                 case CSV:
-                    generateCSVReport(filePath, reportData, new String[] { "Repuesto", "Categoría",
+                    generateCSVReport(storageKey, reportData, new String[] { "Repuesto", "Categoría",
                             "Cantidad Disponible", "Stock Mínimo", "Precio Unitario" });
                     break;
                 default:
@@ -810,30 +1162,32 @@ public class ReportServiceImpl implements ReportService {
         }
     }
 
-    private void generateVehicleBehaviorReport(String filePath, ReportFormat format,
+    private void generateVehicleBehaviorReport(String storageKey, ReportFormat format,
             LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Generating vehicle behavior report: {} - {}", startDate, endDate);
 
         try {
             List<Object[]> reportData = reportRepository.getVehicleBrandStatistics(startDate, endDate);
+            ChartSpec chart = ChartSpec.fromRows(ChartType.BAR, "Trabajos por Marca", "Marca", "Trabajos",
+                    reportData, 0, 1);
 
             switch (format) {
                 case PDF:
-                    generateGenericPDFReport(filePath, reportData,
+                    generateGenericPDFReport(storageKey, reportData,
                             "REPORTE DE COMPORTAMIENTO DE VEHÍCULOS",
                             new String[] { "Marca", "Trabajos Totales", "Costo Promedio", "Vehículos Únicos",
                                     "Ingresos Totales", "Horas Promedio" },
-                            startDate, endDate);
+                            startDate, endDate, chart);
                     break;
                 case EXCEL:
-                    generateGenericExcelReport(filePath, reportData,
+                    generateGenericExcelReport(storageKey, reportData,
                             "REPORTE DE COMPORTAMIENTO DE VEHÍCULOS",
                             new String[] { "Marca", "Trabajos Totales", "Costo Promedio", "Vehículos Únicos",
                                     "Ingresos Totales", "Horas Promedio" },
-                            startDate, endDate);
+                            startDate, endDate, chart);
                     break;
                 case CSV:
-                    generateCSVReport(filePath, reportData, new String[] { "Marca", "Trabajos Totales",
+                    generateCSVReport(storageKey, reportData, new String[] { "Marca", "Trabajos Totales",
                             "Costo Promedio", "Vehículos Únicos", "Ingresos Totales", "Horas Promedio" });
                     break;
                 default:
@@ -849,190 +1203,57 @@ public class ReportServiceImpl implements ReportService {
     // MÉTODOS GENÉRICOS DE GENERACIÓN
     // ================================
 
-    private void generateGenericPDFReport(String filePath, List<Object[]> data, String title,
+    private void generateGenericPDFReport(String storageKey, List<Object[]> data, String title,
             String[] headers, LocalDateTime startDate, LocalDateTime endDate) throws IOException {
+        generateGenericPDFReport(storageKey, data, title, headers, startDate, endDate, null);
+    }
 
-        try (FileOutputStream fos = new FileOutputStream(filePath)) {
-            com.itextpdf.kernel.pdf.PdfWriter writer = new com.itextpdf.kernel.pdf.PdfWriter(fos);
-            com.itextpdf.kernel.pdf.PdfDocument pdfDoc = new com.itextpdf.kernel.pdf.PdfDocument(writer);
-            com.itextpdf.layout.Document document = new com.itextpdf.layout.Document(pdfDoc,
-                    com.itextpdf.kernel.geom.PageSize.A4);
-
-            com.itextpdf.kernel.font.PdfFont titleFont = com.itextpdf.kernel.font.PdfFontFactory.createFont();
-            com.itextpdf.kernel.font.PdfFont headerFont = com.itextpdf.kernel.font.PdfFontFactory.createFont();
-            com.itextpdf.kernel.font.PdfFont normalFont = com.itextpdf.kernel.font.PdfFontFactory.createFont();
-
-            // Título
-            document.add(new com.itextpdf.layout.element.Paragraph(title)
-                    .setFont(titleFont)
-                    .setFontSize(18)
-                    .setBold()
-                    .setTextAlignment(com.itextpdf.layout.properties.TextAlignment.CENTER)
-                    .setMarginBottom(20));
-
-            // Rango de fechas
-            document.add(new com.itextpdf.layout.element.Paragraph(
-                    String.format("Período: %s - %s",
-                            startDate.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")),
-                            endDate.format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))))
-                    .setFont(normalFont)
-                    .setFontSize(12)
-                    .setTextAlignment(com.itextpdf.layout.properties.TextAlignment.CENTER)
-                    .setMarginBottom(20));
-
-            // Tabla
-            if (!data.isEmpty()) {
-                float[] columnWidths = new float[headers.length];
-                java.util.Arrays.fill(columnWidths, 1);
-
-                com.itextpdf.layout.element.Table table = new com.itextpdf.layout.element.Table(
-                        com.itextpdf.layout.properties.UnitValue.createPercentArray(columnWidths));
-                table.setWidth(com.itextpdf.layout.properties.UnitValue.createPercentValue(100));
-
-                // Headers
-                for (String header : headers) {
-                    com.itextpdf.layout.element.Cell cell = new com.itextpdf.layout.element.Cell()
-                            .add(new com.itextpdf.layout.element.Paragraph(header)
-                                    .setFont(headerFont)
-                                    .setFontColor(com.itextpdf.kernel.colors.ColorConstants.WHITE))
-                            .setBackgroundColor(new com.itextpdf.kernel.colors.DeviceRgb(41, 128, 185));
-                    table.addHeaderCell(cell);
-                }
-
-                // Data rows
-                boolean alternateRow = false;
-                for (Object[] row : data) {
-                    for (int i = 0; i < row.length && i < headers.length; i++) {
-                        Object cellData = row[i];
-                        com.itextpdf.layout.element.Cell cell = new com.itextpdf.layout.element.Cell()
-                                .add(new com.itextpdf.layout.element.Paragraph(
-                                        cellData != null ? cellData.toString() : "")
-                                        .setFont(normalFont));
-
-                        if (alternateRow) {
-                            cell.setBackgroundColor(new com.itextpdf.kernel.colors.DeviceRgb(245, 245, 245));
-                        }
-                        table.addCell(cell);
-                    }
-                    alternateRow = !alternateRow;
-                }
-
-                document.add(table);
-            } else {
-                document.add(new com.itextpdf.layout.element.Paragraph(
-                        "No hay datos disponibles para el período seleccionado.")
-                        .setFont(normalFont)
-                        .setTextAlignment(com.itextpdf.layout.properties.TextAlignment.CENTER));
-            }
-
-            // Footer
-            document.add(new com.itextpdf.layout.element.Paragraph(
-                    String.format("Generado el: %s",
-                            LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"))))
-                    .setFont(normalFont)
-                    .setFontSize(10)
-                    .setTextAlignment(com.itextpdf.layout.properties.TextAlignment.RIGHT)
-                    .setMarginTop(20));
-
-            document.close();
+    private void generateGenericPDFReport(String storageKey, List<Object[]> data, String title,
+            String[] headers, LocalDateTime startDate, LocalDateTime endDate, ChartSpec chart) throws IOException {
+        byte[] chartPng = reportProperties.getPdf().isIncludeCharts() ? renderChart(chart) : null;
+        // La tabla se escribe por bloques directamente al archivo
+        try (OutputStream fos = reportFileStore.openOutputStream(storageKey)) {
+            pdfGenerator.generateTableReport(fos, title, headers, data, startDate, endDate, chartPng);
         }
     }
 
-    private void generateGenericExcelReport(String filePath, List<Object[]> data, String title,
+    private void generateGenericExcelReport(String storageKey, List<Object[]> data, String title,
             String[] headers, LocalDateTime startDate, LocalDateTime endDate) throws IOException {
+        generateGenericExcelReport(storageKey, data, title, headers, startDate, endDate, null);
+    }
 
-        try (org.apache.poi.xssf.usermodel.XSSFWorkbook workbook = new org.apache.poi.xssf.usermodel.XSSFWorkbook()) {
-            org.apache.poi.xssf.usermodel.XSSFSheet sheet = workbook.createSheet("Reporte");
-
-            int rowNum = 0;
-
-            // Título
-            org.apache.poi.ss.usermodel.Row titleRow = sheet.createRow(rowNum++);
-            org.apache.poi.ss.usermodel.Cell titleCell = titleRow.createCell(0);
-            titleCell.setCellValue(title);
-
-            org.apache.poi.ss.usermodel.CellStyle titleStyle = workbook.createCellStyle();
-            org.apache.poi.ss.usermodel.Font titleFont = workbook.createFont();
-            titleFont.setBold(true);
-            titleFont.setFontHeightInPoints((short) 16);
-            titleStyle.setFont(titleFont);
-            titleStyle.setAlignment(org.apache.poi.ss.usermodel.HorizontalAlignment.CENTER);
-            titleCell.setCellStyle(titleStyle);
-
-            sheet.addMergedRegion(new org.apache.poi.ss.util.CellRangeAddress(0, 0, 0, headers.length - 1));
-
-            // Rango de fechas
-            rowNum++;
-            org.apache.poi.ss.usermodel.Row dateRow = sheet.createRow(rowNum++);
-            org.apache.poi.ss.usermodel.Cell dateCell = dateRow.createCell(0);
-            dateCell.setCellValue(String.format("Período: %s - %s",
-                    startDate.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")),
-                    endDate.format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))));
-            sheet.addMergedRegion(new org.apache.poi.ss.util.CellRangeAddress(2, 2, 0, headers.length - 1));
-
-            rowNum++;
-
-            // Headers
-            org.apache.poi.ss.usermodel.Row headerRow = sheet.createRow(rowNum++);
-            org.apache.poi.ss.usermodel.CellStyle headerStyle = workbook.createCellStyle();
-            org.apache.poi.ss.usermodel.Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerFont.setColor(org.apache.poi.ss.usermodel.IndexedColors.WHITE.getIndex());
-            headerStyle.setFont(headerFont);
-            headerStyle.setFillForegroundColor(org.apache.poi.ss.usermodel.IndexedColors.DARK_BLUE.getIndex());
-            headerStyle.setFillPattern(org.apache.poi.ss.usermodel.FillPatternType.SOLID_FOREGROUND);
-
-            for (int i = 0; i < headers.length; i++) {
-                org.apache.poi.ss.usermodel.Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-
-            // Data rows
-            for (Object[] row : data) {
-                org.apache.poi.ss.usermodel.Row dataRow = sheet.createRow(rowNum++);
-                for (int i = 0; i < row.length && i < headers.length; i++) {
-                    org.apache.poi.ss.usermodel.Cell cell = dataRow.createCell(i);
-                    if (row[i] != null) {
-                        if (row[i] instanceof Number) {
-                            cell.setCellValue(((Number) row[i]).doubleValue());
-                        } else {
-                            cell.setCellValue(row[i].toString());
-                        }
-                    }
-                }
-            }
-
-            // Autosize columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
+    private void generateGenericExcelReport(String storageKey, List<Object[]> data, String title,
+            String[] headers, LocalDateTime startDate, LocalDateTime endDate, ChartSpec chart) throws IOException {
+        byte[] chartPng = reportProperties.getExcel().isIncludeCharts() ? renderChart(chart) : null;
+        // El libro se escribe en modo streaming directamente al archivo
+        try (OutputStream fos = reportFileStore.openOutputStream(storageKey)) {
+            excelGenerator.generateTableReport(fos, title, headers, data, startDate, endDate, chartPng);
+        }
+    }
 
-            try (FileOutputStream fos = new FileOutputStream(filePath)) {
-                workbook.write(fos);
-            }
+    // Un gráfico que no se puede generar no hace fallar el reporte: se entrega solo la tabla
+    private byte[] renderChart(ChartSpec chart) {
+        if (chart == null || chart.getLabels().isEmpty()) {
+            return null;
+        }
+        try {
+            return chartRenderer.render(chart).png();
+        } catch (RuntimeException e) {
+            log.warn("Could not render chart '{}', generating report without it: {}", chart.getTitle(),
+                    e.getMessage());
+            return null;
         }
     }
 
-    private void generateCSVReport(String filePath, List<Object[]> data, String[] headers) throws IOException {
-        try (FileWriter writer = new FileWriter(filePath)) {
-            // Write headers
-            writer.append(String.join(",", headers));
-            writer.append("\n");
-
-            // Write data
-            for (Object[] row : data) {
-                List<String> stringRow = new ArrayList<>();
-                for (int i = 0; i < headers.length; i++) {
-                    if (i < row.length && row[i] != null) {
-                        stringRow.add(row[i].toString());
-                    } else {
-                        stringRow.add("");
-                    }
-                }
-                writer.append(String.join(",", stringRow));
-                writer.append("\n");
-            }
+    private void generateCSVReport(String storageKey, List<Object[]> data, String[] headers) throws IOException {
+        OutputStream outputStream = reportFileStore.openOutputStream(storageKey);
+        if (ReportCompression.isGzip(storageKey)) {
+            outputStream = ReportCompression.gzip(outputStream);
+        }
+
+        // Mismo escritor que la exportación en streaming: OpenCSV escapa comas, comillas y saltos de línea
+        try (OutputStream out = outputStream) {
+            CSVUtil.writeCSV(out, headers, data.stream().map(row -> Arrays.copyOf(row, headers.length)));
         }
     }
 
@@ -1040,6 +1261,16 @@ public class ReportServiceImpl implements ReportService {
     // MÉTODOS UTILITARIOS
     // ================================
 
+    /**
+     * Lee el registro en una transacción de escritura, que toma la conexión del primario:
+     * el estado lo escriben el trabajo de generación y la cancelación, y una réplica con
+     * atraso podría devolver un estado anterior justo después de la escritura.
+     */
+    private Optional<ReportRecord> findOnPrimary(String reportId) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        return transaction.execute(status -> reportRecordRepository.findById(reportId));
+    }
+
     private String getCurrentUsername() {
         try {
             return SecurityContextHolder.getContext().getAuthentication().getName();
@@ -1048,20 +1279,45 @@ public class ReportServiceImpl implements ReportService {
         }
     }
 
-    private Long getFileSize(String filePath) {
-        try {
-            File file = new File(filePath);
-            return file.exists() ? file.length() : 0L;
-        } catch (Exception e) {
-            return 0L;
-        }
+    private ReportResponse toReportResponse(ReportRecord record) {
+        return ReportResponse.builder()
+                .reportId(record.getReportId())
+                .reportType(record.getReportType())
+                .format(record.getFormat())
+                .fileName(record.getFileName())
+                .downloadUrl("/api/v1/reports/download/" + record.getReportId())
+                .generatedAt(record.getGeneratedAt())
+                .generatedBy(record.getGeneratedBy())
+                .fileSize(record.getFileSize())
+                .rawFileSize(record.getRawSize())
+                .expiresAt(record.getExpiresAt())
+                .status(record.getStatus().name())
+                .errorMessage(record.getErrorMessage())
+                .build();
     }
 
+    // El sufijo aleatorio evita colisiones entre nodos que generan en el mismo milisegundo
     private String generateReportId(ReportType reportType, ReportFormat format) {
-        return String.format("%s_%s_%s",
+        return String.format("%s_%s_%s_%s",
                 reportType.name(),
                 format.name(),
-                System.currentTimeMillis());
+                System.currentTimeMillis(),
+                UUID.randomUUID().toString().substring(0, 8));
+    }
+
+    // Los CSV se guardan comprimidos; PDF y XLSX ya son formatos comprimidos
+    private String generateStorageKey(String reportId, ReportFormat format) {
+        String storageKey = reportId + format.getFileExtension();
+        if (format == ReportFormat.CSV && reportProperties.isCompressCsv()) {
+            storageKey += ReportCompression.GZIP_EXTENSION;
+        }
+        return storageKey;
+    }
+
+    private long readUncompressedSize(String storageKey) throws IOException {
+        try (FileChannel channel = reportFileStore.openReadChannel(storageKey)) {
+            return ReportCompression.uncompressedSize(channel);
+        }
     }
 
     private String generateFileName(ReportType reportType, ReportFormat format,
@@ -1077,52 +1333,37 @@ public class ReportServiceImpl implements ReportService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ReportFileInfo> getAvailableReports() {
-        List<ReportFileInfo> reports = new ArrayList<>();
         LocalDateTime now = LocalDateTime.now();
 
-        for (Map.Entry<String, ReportResponse> entry : reportCache.entrySet()) {
-            ReportResponse report = entry.getValue();
-            String filePath = reportPathCache.get(entry.getKey());
-
-            if (filePath != null) {
-                File file = new File(filePath);
-                if (file.exists()) {
-                    reports.add(ReportFileInfo.builder()
-                            .reportId(report.getReportId())
-                            .fileName(report.getFileName())
-                            .reportType(report.getReportType())
-                            .format(report.getFormat())
-                            .fileSize(report.getFileSize())
-                            .generatedAt(report.getGeneratedAt())
-                            .expiresAt(report.getExpiresAt())
-                            .generatedBy(report.getGeneratedBy())
-                            .status(report.getStatus())
-                            .downloadUrl("/api/v1/reports/download/" + report.getReportId())
-                            .isExpired(report.getExpiresAt().isBefore(now))
-                            .fileSizeFormatted(formatFileSize(report.getFileSize()))
-                            .reportTypeDisplayName(report.getReportType().getDisplayName())
-                            .formatDisplayName(report.getFormat().getDisplayName())
-                            .build());
-                }
-            }
-        }
-
-        // Ordenar por fecha de generación (más recientes primero)
-        reports.sort((r1, r2) -> r2.getGeneratedAt().compareTo(r1.getGeneratedAt()));
-
-        return reports;
+        // La consulta ya devuelve los más recientes primero
+        return reportRecordRepository.findByStatusOrderByGeneratedAtDesc(ReportStatus.COMPLETED).stream()
+                .filter(report -> reportFileStore.exists(report.getStorageKey()))
+                .map(report -> ReportFileInfo.builder()
+                        .reportId(report.getReportId())
+                        .fileName(report.getFileName())
+                        .reportType(report.getReportType())
+                        .format(report.getFormat())
+                        .fileSize(report.getFileSize())
+                        .rawFileSize(report.getRawSize())
+                        .generatedAt(report.getGeneratedAt())
+                        .expiresAt(report.getExpiresAt())
+                        .generatedBy(report.getGeneratedBy())
+                        .status(report.getStatus().name())
+                        .downloadUrl("/api/v1/reports/download/" + report.getReportId())
+                        .isExpired(report.getExpiresAt().isBefore(now))
+                        .fileSizeFormatted(formatFileSize(report.getFileSize()))
+                        .reportTypeDisplayName(report.getReportType().getDisplayName())
+                        .formatDisplayName(report.getFormat().getDisplayName())
+                        .build())
+                .toList();
     }
 
     @Override
     public boolean deleteReport(String reportId) {
         try {
-            String filePath = reportPathCache.remove(reportId);
-            ReportResponse report = reportCache.remove(reportId);
-
-            if (filePath != null) {
-                Files.deleteIfExists(Paths.get(filePath));
-            }
+            reportRecordRepository.findById(reportId).ifPresent(reportStorageManager::deleteRecord);
 
             log.info("Deleted report: {}", reportId);
             return true;
@@ -1134,19 +1375,11 @@ public class ReportServiceImpl implements ReportService {
 
     @Override
     public int cleanupExpiredReports() {
-        LocalDateTime now = LocalDateTime.now();
-        List<String> expiredReportIds = new ArrayList<>();
-
-        for (Map.Entry<String, ReportResponse> entry : reportCache.entrySet()) {
-            ReportResponse report = entry.getValue();
-            if (report.getExpiresAt().isBefore(now)) {
-                expiredReportIds.add(entry.getKey());
-            }
-        }
+        List<ReportRecord> expiredReports = reportRecordRepository.findByExpiresAtBefore(LocalDateTime.now());
 
         int deletedCount = 0;
-        for (String reportId : expiredReportIds) {
-            if (deleteReport(reportId)) {
+        for (ReportRecord report : expiredReports) {
+            if (deleteReport(report.getReportId())) {
                 deletedCount++;
             }
         }
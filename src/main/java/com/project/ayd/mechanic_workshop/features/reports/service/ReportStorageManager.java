@@ -0,0 +1,292 @@
+package com.project.ayd.mechanic_workshop.features.reports.service;
+
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
+import com.project.ayd.mechanic_workshop.features.reports.entity.ReportRecord;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportStatus;
+import com.project.ayd.mechanic_workshop.features.reports.exception.ReportCapacityException;
+import com.project.ayd.mechanic_workshop.features.reports.repository.ReportRecordRepository;
+import com.project.ayd.mechanic_workshop.features.reports.storage.ReportFileStore;
+import com.project.ayd.mechanic_workshop.features.reports.storage.StoredReportFile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ciclo de vida de los archivos de reporte: cuota global de bytes con expulsión LRU,
+ * límite de reportes por usuario, eliminación de archivos huérfanos y métricas de uso.
+ * La eliminación de registros y archivos pasa siempre por aquí para respetar los
+ * archivos compartidos entre solicitudes idénticas.
+ */
+@Component
+@Slf4j
+public class ReportStorageManager {
+
+    private static final int EVICTION_BATCH_SIZE = 50;
+
+    private final ReportRecordRepository reportRecordRepository;
+    private final ReportFileStore reportFileStore;
+    private final ReportProperties reportProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final AtomicLong rawBytes = new AtomicLong();
+    private final AtomicLong storedFiles = new AtomicLong();
+    private final Counter evictedFiles;
+    private final Counter evictedUserReports;
+    private final Counter orphanFilesDeleted;
+    private final Counter missingFileRecords;
+
+    public ReportStorageManager(ReportRecordRepository reportRecordRepository, ReportFileStore reportFileStore,
+            ReportProperties reportProperties, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.reportRecordRepository = reportRecordRepository;
+        this.reportFileStore = reportFileStore;
+        this.reportProperties = reportProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("report.storage.used", usedBytes, AtomicLong::get)
+                .description("Bytes stored by completed reports")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("report.storage.raw", rawBytes, AtomicLong::get)
+                .description("Uncompressed size of the stored reports")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("report.storage.quota", reportProperties, ReportProperties::getMaxStorageBytes)
+                .description("Maximum bytes for stored reports")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("report.storage.files", storedFiles, AtomicLong::get)
+                .description("Report files on storage")
+                .register(meterRegistry);
+        this.evictedFiles = Counter.builder("report.storage.evictions")
+                .description("Report files evicted to stay under the storage quota")
+                .tag("reason", "quota")
+                .register(meterRegistry);
+        this.evictedUserReports = Counter.builder("report.storage.evictions")
+                .description("Report files evicted to stay under the storage quota")
+                .tag("reason", "user_limit")
+                .register(meterRegistry);
+        this.orphanFilesDeleted = Counter.builder("report.storage.orphans")
+                .description("Files deleted because no report references them")
+                .register(meterRegistry);
+        this.missingFileRecords = Counter.builder("report.storage.missing")
+                .description("Completed reports removed because their file no longer exists")
+                .register(meterRegistry);
+    }
+
+    // ================================
+    // ELIMINACIÓN
+    // ================================
+
+    // Elimina el registro y, si ya nadie más lo usa, el archivo compartido
+    public void deleteRecord(ReportRecord report) {
+        boolean fileInUse = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            reportRecordRepository.lockContentKey(report.getContentKey());
+            reportRecordRepository.delete(report);
+            reportRecordRepository.flush();
+            return reportRecordRepository.existsByStorageKey(report.getStorageKey());
+        }));
+
+        if (!fileInUse) {
+            reportFileStore.delete(report.getStorageKey());
+        }
+    }
+
+    // Elimina el archivo junto con todas las solicitudes que lo comparten
+    private boolean deleteStoredFile(String storageKey) {
+        Boolean deleted = transactionTemplate.execute(status -> {
+            List<ReportRecord> records = reportRecordRepository.findByStorageKey(storageKey);
+            if (records.isEmpty()) {
+                return false;
+            }
+            // Todas comparten la clave de contenido; el lock evita que alguien se sume mientras tanto
+            reportRecordRepository.lockContentKey(records.get(0).getContentKey());
+            reportRecordRepository.deleteAll(reportRecordRepository.findByStorageKey(storageKey));
+            return true;
+        });
+
+        if (Boolean.TRUE.equals(deleted)) {
+            reportFileStore.delete(storageKey);
+            return true;
+        }
+        return false;
+    }
+
+    // ================================
+    // LÍMITES
+    // ================================
+
+    /**
+     * Libera un lugar para una nueva solicitud del usuario expulsando sus reportes terminados
+     * usados hace más tiempo. Los reportes en curso no se expulsan: si el usuario ya tiene el
+     * máximo generándose, la solicitud se rechaza.
+     * Debe llamarse en la misma transacción que da de alta la solicitud: el lock por usuario
+     * se mantiene hasta el commit, así dos solicitudes simultáneas no pasan ambas el conteo.
+     * Los registros se eliminan en esa transacción; sus archivos se eliminan después del commit
+     * con {@link #deleteUnusedFiles(List)}.
+     *
+     * @param username   Usuario que solicita el reporte
+     * @param contentKey Clave de contenido de la nueva solicitud, que se bloquea junto con las
+     *                   de los reportes expulsados en un orden fijo para evitar deadlocks
+     * @return Reportes expulsados
+     */
+    public List<ReportRecord> reserveUserSlot(String username, String contentKey) {
+        reportRecordRepository.lockUser(username);
+
+        int maxReports = Math.max(1, reportProperties.getMaxReportsPerUser());
+        List<ReportRecord> reports = reportRecordRepository.findActiveByUserMostRecentFirst(username,
+                LocalDateTime.now());
+        if (reports.size() < maxReports) {
+            return List.of();
+        }
+
+        int toEvict = reports.size() - maxReports + 1;
+        List<ReportRecord> finished = reports.reversed().stream()
+                .filter(report -> report.getStatus() == ReportStatus.COMPLETED
+                        || report.getStatus() == ReportStatus.FAILED
+                        || report.getStatus() == ReportStatus.CANCELLED)
+                .limit(toEvict)
+                .toList();
+        if (finished.size() < toEvict) {
+            throw new ReportCapacityException(String.format(
+                    "User %s already has %d reports in progress", username, reports.size() - finished.size()));
+        }
+
+        Set<String> contentKeys = new TreeSet<>();
+        contentKeys.add(contentKey);
+        finished.forEach(report -> contentKeys.add(report.getContentKey()));
+        contentKeys.forEach(reportRecordRepository::lockContentKey);
+        reportRecordRepository.deleteAll(finished);
+        reportRecordRepository.flush();
+
+        evictedUserReports.increment(finished.size());
+        log.info("Evicted {} least recently used reports of user {}", finished.size(), username);
+        return finished;
+    }
+
+    // Elimina los archivos de registros ya eliminados que ninguna otra solicitud comparte
+    public void deleteUnusedFiles(List<ReportRecord> deletedRecords) {
+        for (ReportRecord report : deletedRecords) {
+            boolean fileInUse = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                reportRecordRepository.lockContentKey(report.getContentKey());
+                return reportRecordRepository.existsByStorageKey(report.getStorageKey());
+            }));
+            if (!fileInUse) {
+                reportFileStore.delete(report.getStorageKey());
+            }
+        }
+    }
+
+    /**
+     * Expulsa los archivos usados hace más tiempo hasta quedar bajo app.reports.max-storage-bytes
+     *
+     * @param keepStorageKey Archivo que no se debe expulsar (p. ej. el recién generado), o null
+     * @return Archivos expulsados
+     */
+    public int enforceQuota(String keepStorageKey) {
+        long maxBytes = reportProperties.getMaxStorageBytes();
+        long used = refreshUsage();
+        int evicted = 0;
+
+        while (maxBytes > 0 && used > maxBytes) {
+            List<Object[]> candidates = reportRecordRepository.findLeastRecentlyUsedFiles(EVICTION_BATCH_SIZE);
+            boolean progress = false;
+            for (Object[] candidate : candidates) {
+                String storageKey = (String) candidate[0];
+                long fileSize = candidate[1] != null ? ((Number) candidate[1]).longValue() : 0L;
+                if (storageKey.equals(keepStorageKey) || !deleteStoredFile(storageKey)) {
+                    continue;
+                }
+                used -= fileSize;
+                evicted++;
+                progress = true;
+                if (used <= maxBytes) {
+                    break;
+                }
+            }
+            if (!progress) {
+                break; // Solo queda el archivo protegido o los candidatos ya no existen
+            }
+        }
+
+        if (evicted > 0) {
+            evictedFiles.increment(evicted);
+            log.info("Evicted {} report files to stay under the storage quota of {} bytes", evicted, maxBytes);
+            refreshUsage();
+        }
+        return evicted;
+    }
+
+    // ================================
+    // ARCHIVOS HUÉRFANOS
+    // ================================
+
+    /**
+     * Concilia el almacenamiento con el registro en un solo recorrido del directorio:
+     * elimina los archivos que ningún reporte referencia y los reportes completados
+     * cuyo archivo ya no existe.
+     *
+     * @return Archivos huérfanos eliminados
+     */
+    public int sweepOrphans() throws IOException {
+        // Se lista primero y se consulta después: todo reporte escribe su archivo después de
+        // registrarse, así que un archivo listado que no aparece en el registro es huérfano
+        List<StoredReportFile> files = reportFileStore.listFiles();
+        Set<String> referencedKeys = reportRecordRepository.findAllStorageKeys();
+
+        Set<String> existingKeys = new HashSet<>();
+        int orphans = 0;
+        for (StoredReportFile file : files) {
+            existingKeys.add(file.storageKey());
+            if (!referencedKeys.contains(file.storageKey()) && reportFileStore.delete(file.storageKey())) {
+                orphans++;
+            }
+        }
+
+        int missing = 0;
+        for (ReportRecord report : reportRecordRepository.findByStatusOrderByGeneratedAtDesc(ReportStatus.COMPLETED)) {
+            if (!existingKeys.contains(report.getStorageKey()) && !reportFileStore.exists(report.getStorageKey())) {
+                reportRecordRepository.delete(report);
+                missing++;
+            }
+        }
+
+        storedFiles.set(files.size() - orphans);
+        orphanFilesDeleted.increment(orphans);
+        missingFileRecords.increment(missing);
+        if (orphans > 0 || missing > 0) {
+            log.info("Storage sweep deleted {} orphan files and {} reports without file", orphans, missing);
+        }
+        refreshUsage();
+        return orphans;
+    }
+
+    // ================================
+    // USO
+    // ================================
+
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    private long refreshUsage() {
+        List<Object[]> rows = reportRecordRepository.summarizeCompletedStorage();
+        Object[] summary = rows.isEmpty() ? new Object[] { 0L, 0L, 0L } : rows.get(0);
+        usedBytes.set(((Number) summary[0]).longValue());
+        rawBytes.set(((Number) summary[1]).longValue());
+        return usedBytes.get();
+    }
+}
@@ -0,0 +1,249 @@
+package com.project.ayd.mechanic_workshop.features.reports.service;
+
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
+import com.project.ayd.mechanic_workshop.features.reports.dto.ReportRequest;
+import com.project.ayd.mechanic_workshop.features.reports.dto.ReportResponse;
+import com.project.ayd.mechanic_workshop.features.reports.dto.ReportSubscriptionRequest;
+import com.project.ayd.mechanic_workshop.features.reports.dto.ReportSubscriptionResponse;
+import com.project.ayd.mechanic_workshop.features.reports.entity.ReportRecord;
+import com.project.ayd.mechanic_workshop.features.reports.entity.ReportSubscription;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportPeriod;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportStatus;
+import com.project.ayd.mechanic_workshop.features.reports.exception.ReportCapacityException;
+import com.project.ayd.mechanic_workshop.features.reports.exception.ReportNotFoundException;
+import com.project.ayd.mechanic_workshop.features.reports.repository.ReportRecordRepository;
+import com.project.ayd.mechanic_workshop.features.reports.repository.ReportSubscriptionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Suscripciones a reportes recurrentes.
+ * En la ventana fuera de horario se generan los reportes que los suscriptores
+ * necesitan ese día, con una concurrencia menor a la de la cola de reportes. Como el
+ * periodo se resuelve a días completos, la solicitud de la mañana produce la misma
+ * clave de contenido y reutiliza el archivo ya generado.
+ * La pregeneración corre en reportSubscriptionExecutor, porque espera lugar en la cola
+ * y no debe bloquear el hilo compartido del scheduler. Los reportes pregenerados no
+ * consumen el límite de reportes por usuario del suscriptor.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReportSubscriptionService {
+
+    private static final Duration POLL_INTERVAL = Duration.ofSeconds(5);
+    // Para una expresión que ya no vuelve a ejecutarse
+    private static final LocalDateTime NEVER = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private final ReportSubscriptionRepository reportSubscriptionRepository;
+    private final ReportRecordRepository reportRecordRepository;
+    private final ReportService reportService;
+    private final ReportProperties reportProperties;
+    private final ThreadPoolTaskExecutor reportSubscriptionExecutor;
+
+    // ================================
+    // ADMINISTRACIÓN
+    // ================================
+
+    public ReportSubscriptionResponse createSubscription(ReportSubscriptionRequest request, String username) {
+        if (request.getPeriod() == ReportPeriod.CUSTOM) {
+            throw new IllegalArgumentException("Subscriptions require a predefined report period");
+        }
+        if (!CronExpression.isValidExpression(request.getCronExpression())) {
+            throw new IllegalArgumentException("Invalid cron expression: " + request.getCronExpression());
+        }
+        LocalDateTime nextRunAt = CronExpression.parse(request.getCronExpression()).next(LocalDateTime.now());
+        if (nextRunAt == null) {
+            throw new IllegalArgumentException("Cron expression never fires: " + request.getCronExpression());
+        }
+
+        long active = reportSubscriptionRepository.countByUsernameAndIsActiveTrue(username);
+        if (active >= reportProperties.getMaxSubscriptionsPerUser()) {
+            throw new ReportCapacityException(String.format(
+                    "User %s already has %d report subscriptions", username, active));
+        }
+
+        ReportSubscription subscription = reportSubscriptionRepository.save(ReportSubscription.builder()
+                .username(username)
+                .reportType(request.getReportType())
+                .format(request.getFormat())
+                .period(request.getPeriod())
+                .cronExpression(request.getCronExpression())
+                .nextRunAt(nextRunAt)
+                .build());
+
+        log.info("Created report subscription {} for user {}: {} {} {}", subscription.getId(), username,
+                subscription.getReportType(), subscription.getPeriod(), subscription.getCronExpression());
+        return toResponse(subscription);
+    }
+
+    public List<ReportSubscriptionResponse> getSubscriptions(String username) {
+        return reportSubscriptionRepository.findByUsernameOrderByCreatedAtDesc(username).stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    // Cada usuario solo puede eliminar sus propias suscripciones
+    public void deleteSubscription(Long id, String username) {
+        ReportSubscription subscription = reportSubscriptionRepository.findById(id)
+                .filter(s -> s.getUsername().equals(username))
+                .orElseThrow(() -> new ReportNotFoundException("Report subscription not found: " + id, null));
+
+        reportSubscriptionRepository.delete(subscription);
+        log.info("Deleted report subscription {} of user {}", id, subscription.getUsername());
+    }
+
+    // ================================
+    // PREGENERACIÓN
+    // ================================
+
+    /**
+     * Lanza {@link #runDueSubscriptions()} en reportSubscriptionExecutor y vuelve de inmediato
+     *
+     * @return false si la ejecución anterior todavía no terminó
+     */
+    public boolean startDueSubscriptions() {
+        try {
+            reportSubscriptionExecutor.execute(() -> {
+                try {
+                    int queued = runDueSubscriptions();
+                    log.info("Successfully queued {} subscribed reports", queued);
+                } catch (Exception e) {
+                    log.error("Error during pre-generation of subscribed reports", e);
+                }
+            });
+            return true;
+        } catch (TaskRejectedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Genera los reportes de las suscripciones que se necesitan hoy (o que quedaron
+     * pendientes), sin pasar de app.reports.subscription-max-concurrent-reports en curso
+     * ni de la duración de la ventana.
+     *
+     * @return Reportes encolados
+     */
+    public int runDueSubscriptions() {
+        LocalDateTime windowEnd = LocalDateTime.now()
+                .plusMinutes(reportProperties.getSubscriptionWindowMinutes());
+        int maxInFlight = Math.max(1, reportProperties.getSubscriptionMaxConcurrentReports());
+        List<ReportSubscription> due = reportSubscriptionRepository
+                .findByIsActiveTrueAndNextRunAtBeforeOrderByNextRunAt(LocalDate.now().plusDays(1).atStartOfDay());
+        List<String> inFlight = new ArrayList<>();
+        int queued = 0;
+
+        try {
+            for (ReportSubscription subscription : due) {
+                if (!awaitSlot(inFlight, maxInFlight, windowEnd)) {
+                    break;
+                }
+                String reportId = generate(subscription, windowEnd);
+                if (reportId == null) {
+                    continue;
+                }
+                queued++;
+                if (isUnfinished(reportId)) {
+                    inFlight.add(reportId);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Report subscription run interrupted after {} reports", queued);
+        }
+
+        if (queued < due.size()) {
+            log.info("Queued {} of {} due report subscriptions; the rest were taken by another node or failed",
+                    queued, due.size());
+        }
+        return queued;
+    }
+
+    // Encola el reporte de la suscripción; devuelve null si otro nodo ya la tomó o no se pudo encolar
+    private String generate(ReportSubscription subscription, LocalDateTime windowEnd) throws InterruptedException {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime after = subscription.getNextRunAt().isAfter(now) ? subscription.getNextRunAt() : now;
+        LocalDateTime nextRunAt = CronExpression.parse(subscription.getCronExpression()).next(after);
+        if (nextRunAt == null) {
+            nextRunAt = NEVER;
+        }
+
+        if (reportSubscriptionRepository.claimRun(subscription.getId(), subscription.getNextRunAt(),
+                nextRunAt, now) == 0) {
+            return null;
+        }
+
+        ReportRequest request = ReportRequest.builder()
+                .reportType(subscription.getReportType())
+                .format(subscription.getFormat())
+                .period(subscription.getPeriod())
+                .build();
+
+        while (true) {
+            try {
+                ReportResponse report = reportService.generateReport(request, subscription.getUsername(), false);
+                reportSubscriptionRepository.updateLastReport(subscription.getId(), report.getReportId());
+                log.info("Pre-generated report {} for subscription {}", report.getReportId(), subscription.getId());
+                return report.getReportId();
+            } catch (ReportCapacityException e) {
+                // Cola llena por solicitudes de usuarios: se espera dentro de la ventana
+                if (!LocalDateTime.now().plus(POLL_INTERVAL).isBefore(windowEnd)) {
+                    log.warn("Could not queue report for subscription {}: {}", subscription.getId(), e.getMessage());
+                    return null;
+                }
+                Thread.sleep(POLL_INTERVAL);
+            } catch (RuntimeException e) {
+                log.error("Error pre-generating report for subscription {}", subscription.getId(), e);
+                return null;
+            }
+        }
+    }
+
+    private boolean awaitSlot(List<String> inFlight, int maxInFlight, LocalDateTime windowEnd)
+            throws InterruptedException {
+        while (true) {
+            inFlight.removeIf(reportId -> !isUnfinished(reportId));
+            if (inFlight.size() < maxInFlight) {
+                return LocalDateTime.now().isBefore(windowEnd);
+            }
+            if (!LocalDateTime.now().isBefore(windowEnd)) {
+                return false;
+            }
+            Thread.sleep(POLL_INTERVAL);
+        }
+    }
+
+    private boolean isUnfinished(String reportId) {
+        return reportRecordRepository.findById(reportId)
+                .map(ReportRecord::getStatus)
+                .map(status -> status == ReportStatus.PENDING || status == ReportStatus.GENERATING)
+                .orElse(false);
+    }
+
+    private ReportSubscriptionResponse toResponse(ReportSubscription subscription) {
+        return ReportSubscriptionResponse.builder()
+                .id(subscription.getId())
+                .username(subscription.getUsername())
+                .reportType(subscription.getReportType())
+                .format(subscription.getFormat())
+                .period(subscription.getPeriod())
+                .cronExpression(subscription.getCronExpression())
+                .isActive(subscription.getIsActive())
+                .nextRunAt(subscription.getNextRunAt())
+                .lastRunAt(subscription.getLastRunAt())
+                .lastReportId(subscription.getLastReportId())
+                .createdAt(subscription.getCreatedAt())
+                .build();
+    }
+}
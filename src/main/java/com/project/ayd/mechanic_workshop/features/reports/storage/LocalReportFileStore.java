@@ -0,0 +1,125 @@
+package com.project.ayd.mechanic_workshop.features.reports.storage;
+
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Guarda los reportes bajo app.reports.temp-directory.
+ * Para varios nodos el directorio debe ser un volumen compartido montado en la misma ruta.
+ */
+@Component
+@Slf4j
+public class LocalReportFileStore implements ReportFileStore {
+
+    private final Path rootDirectory;
+
+    public LocalReportFileStore(ReportProperties reportProperties) {
+        this.rootDirectory = Paths.get(reportProperties.getTempDirectory()).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(rootDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error creating reports directory " + rootDirectory, e);
+        }
+        log.info("Report files stored in {}", rootDirectory);
+    }
+
+    @Override
+    public OutputStream openOutputStream(String storageKey) throws IOException {
+        return new BufferedOutputStream(Files.newOutputStream(resolve(storageKey)));
+    }
+
+    @Override
+    public Resource load(String storageKey) {
+        return new FileSystemResource(resolve(storageKey));
+    }
+
+    @Override
+    public FileChannel openReadChannel(String storageKey) throws IOException {
+        return FileChannel.open(resolve(storageKey), StandardOpenOption.READ);
+    }
+
+    @Override
+    public boolean exists(String storageKey) {
+        return Files.isRegularFile(resolve(storageKey));
+    }
+
+    @Override
+    public long size(String storageKey) {
+        try {
+            return Files.size(resolve(storageKey));
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    @Override
+    public Instant lastModified(String storageKey) {
+        try {
+            return Files.getLastModifiedTime(resolve(storageKey)).toInstant();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean delete(String storageKey) {
+        try {
+            return Files.deleteIfExists(resolve(storageKey));
+        } catch (IOException e) {
+            log.warn("Could not delete report file {}", storageKey, e);
+            return false;
+        }
+    }
+
+    @Override
+    public List<StoredReportFile> listFiles() throws IOException {
+        List<StoredReportFile> files = new ArrayList<>();
+        // walkFileTree entrega los atributos leídos al listar el directorio, sin un stat por archivo
+        Files.walkFileTree(rootDirectory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile()) {
+                    String storageKey = rootDirectory.relativize(file).toString().replace('\\', '/');
+                    files.add(new StoredReportFile(storageKey, attributes.size(),
+                            attributes.lastModifiedTime().toInstant()));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                // Un archivo eliminado durante el recorrido no es un error
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return files;
+    }
+
+    // Evita que una clave con ".." o rutas absolutas salga del directorio raíz
+    private Path resolve(String storageKey) {
+        Path path = rootDirectory.resolve(storageKey).normalize();
+        if (!path.startsWith(rootDirectory)) {
+            throw new IllegalArgumentException("Invalid report storage key: " + storageKey);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,60 @@
+package com.project.ayd.mechanic_workshop.features.reports.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresión gzip de los archivos de reporte. Un archivo está comprimido cuando su clave
+ * de almacenamiento termina en ".gz"; así la clave basta para saber cómo leerlo.
+ */
+public final class ReportCompression {
+
+    public static final String GZIP_EXTENSION = ".gz";
+    public static final String GZIP_ENCODING = "gzip";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int GZIP_MIN_LENGTH = 18; // Encabezado (10) + trailer (8)
+
+    private ReportCompression() {
+    }
+
+    public static boolean isGzip(String storageKey) {
+        return storageKey != null && storageKey.endsWith(GZIP_EXTENSION);
+    }
+
+    // Cerrar el stream devuelto escribe el trailer y cierra el destino
+    public static OutputStream gzip(OutputStream outputStream) throws IOException {
+        return new GZIPOutputStream(outputStream, BUFFER_SIZE);
+    }
+
+    public static InputStream gunzip(InputStream inputStream) throws IOException {
+        return new GZIPInputStream(inputStream, BUFFER_SIZE);
+    }
+
+    /**
+     * Tamaño sin comprimir según el campo ISIZE del trailer gzip (RFC 1952), sin descomprimir
+     * el archivo. ISIZE es el tamaño módulo 2^32, exacto para archivos de menos de 4 GB.
+     *
+     * @return Tamaño sin comprimir, o -1 si el archivo es demasiado corto para ser gzip
+     */
+    public static long uncompressedSize(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < GZIP_MIN_LENGTH) {
+            return -1;
+        }
+
+        ByteBuffer trailer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        while (trailer.hasRemaining()) {
+            if (channel.read(trailer, size - 4 + trailer.position()) < 0) {
+                return -1;
+            }
+        }
+        return Integer.toUnsignedLong(trailer.getInt(0));
+    }
+}
@@ -0,0 +1,46 @@
+package com.project.ayd.mechanic_workshop.features.reports.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Almacenamiento de los archivos de reporte generados.
+ * Las claves son nombres relativos; la implementación decide dónde viven los
+ * archivos (directorio local o volumen compartido entre nodos).
+ */
+public interface ReportFileStore {
+
+    /**
+     * Abre el archivo para escritura, reemplazando el contenido previo.
+     * Quien llama es responsable de cerrar el stream.
+     */
+    OutputStream openOutputStream(String storageKey) throws IOException;
+
+    Resource load(String storageKey);
+
+    /**
+     * Abre el archivo para lectura posicional, p. ej. para enviar un rango con transferTo.
+     * Quien llama es responsable de cerrar el canal.
+     */
+    FileChannel openReadChannel(String storageKey) throws IOException;
+
+    boolean exists(String storageKey);
+
+    long size(String storageKey);
+
+    // Fecha de la última escritura, o null si el archivo no existe
+    Instant lastModified(String storageKey);
+
+    // Devuelve false si el archivo no existía o no se pudo eliminar
+    boolean delete(String storageKey);
+
+    /**
+     * Lista todos los archivos del almacenamiento recorriéndolo una sola vez
+     */
+    List<StoredReportFile> listFiles() throws IOException;
+}
@@ -0,0 +1,9 @@
+package com.project.ayd.mechanic_workshop.features.reports.storage;
+
+import java.time.Instant;
+
+/**
+ * Archivo encontrado al recorrer el almacenamiento de reportes
+ */
+public record StoredReportFile(String storageKey, long size, Instant lastModified) {
+}
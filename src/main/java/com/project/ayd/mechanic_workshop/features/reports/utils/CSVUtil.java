@@ -3,18 +3,25 @@ package com.project.ayd.mechanic_workshop.features.reports.utils;
 import com.opencsv.CSVWriter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Slf4j
 public class CSVUtil {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final int STREAM_FLUSH_ROWS = 1000;
 
     /**
      * Escribe datos en formato CSV usando OpenCSV
@@ -50,6 +57,49 @@ public class CSVUtil {
         }
     }
 
+    /**
+     * Escribe en formato CSV las filas de un Stream directamente al OutputStream,
+     * sin materializar el resultado completo en memoria. El OutputStream no se cierra.
+     * 
+     * @param outputStream Destino de los datos (por ejemplo, la respuesta HTTP)
+     * @param headers      Encabezados de las columnas
+     * @param rows         Filas a escribir, normalmente leídas con un cursor
+     * @return Cantidad de filas escritas
+     */
+    public static long writeCSV(OutputStream outputStream, String[] headers, Stream<Object[]> rows)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        CSVWriter csvWriter = new CSVWriter(writer,
+                CSVWriter.DEFAULT_SEPARATOR,
+                CSVWriter.DEFAULT_QUOTE_CHARACTER,
+                CSVWriter.DEFAULT_ESCAPE_CHARACTER,
+                CSVWriter.DEFAULT_LINE_END);
+
+        // Escribir encabezados
+        csvWriter.writeNext(headers);
+
+        // Escribir datos a medida que llegan del cursor
+        long rowCount = 0;
+        Iterator<Object[]> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            ReportCancellation.checkpoint();
+            Object[] row = iterator.next();
+            String[] stringRow = new String[row.length];
+            for (int i = 0; i < row.length; i++) {
+                stringRow[i] = formatValue(row[i]);
+            }
+            csvWriter.writeNext(stringRow);
+
+            // Vaciar periódicamente para que el cliente reciba datos sin esperar al final
+            if (++rowCount % STREAM_FLUSH_ROWS == 0) {
+                csvWriter.flush();
+            }
+        }
+
+        csvWriter.flush();
+        return rowCount;
+    }
+
     /**
      * Escribe datos en formato CSV con metadatos del reporte
      * 
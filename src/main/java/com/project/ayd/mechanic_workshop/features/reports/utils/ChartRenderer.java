@@ -0,0 +1,262 @@
+package com.project.ayd.mechanic_workshop.features.reports.utils;
+
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
+import com.project.ayd.mechanic_workshop.features.reports.dto.ChartSpec;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ChartType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.ChartUtils;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.plot.CategoryPlot;
+import org.jfree.chart.plot.DatasetRenderingOrder;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.renderer.category.LineAndShapeRenderer;
+import org.jfree.data.category.DefaultCategoryDataset;
+import org.jfree.data.general.DefaultPieDataset;
+import org.springframework.stereotype.Component;
+
+import java.awt.Color;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Genera las imágenes PNG de los gráficos de reportes y dashboards con JFreeChart.
+ * Cada imagen se guarda en un cache LRU acotado por cantidad y bytes, con clave en el
+ * hash del tipo, los textos, los datos y el tamaño, para no volver a rasterizar el
+ * mismo gráfico en reportes o dashboards repetidos.
+ */
+@Component
+@Slf4j
+public class ChartRenderer {
+
+    private static final String OTHERS_LABEL = "Otros";
+
+    private final ReportProperties reportProperties;
+    private final Map<String, byte[]> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong cachedBytes = new AtomicLong();
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+
+    /**
+     * Imagen generada; key es el hash del gráfico y sirve como ETag
+     */
+    public record ChartImage(String key, byte[] png) {
+    }
+
+    public ChartRenderer(ReportProperties reportProperties, MeterRegistry meterRegistry) {
+        this.reportProperties = reportProperties;
+
+        this.cacheHits = Counter.builder("report.charts.cache")
+                .description("Chart images served from the render cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.cacheMisses = Counter.builder("report.charts.cache")
+                .description("Chart images rasterized because they were not cached")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("report.charts.cache.size", cachedBytes, AtomicLong::get)
+                .description("Bytes held by the chart render cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Devuelve el PNG del gráfico, desde el cache si ya se generó uno igual
+     */
+    public ChartImage render(ChartSpec spec) {
+        ChartSpec normalized = normalize(spec);
+        String key = hash(normalized);
+
+        synchronized (cache) {
+            byte[] cached = cache.get(key);
+            if (cached != null) {
+                cacheHits.increment();
+                return new ChartImage(key, cached);
+            }
+        }
+
+        // Se rasteriza fuera del lock; dos hilos con el mismo gráfico generan la misma imagen
+        cacheMisses.increment();
+        byte[] png = toPng(normalized);
+        store(key, png);
+        log.debug("Rendered {} chart '{}' ({} bytes)", normalized.getType(), normalized.getTitle(), png.length);
+        return new ChartImage(key, png);
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+            cachedBytes.set(0);
+        }
+    }
+
+    // ================================
+    // NORMALIZACIÓN Y CLAVE
+    // ================================
+
+    // Aplica el tamaño por defecto y el máximo de categorías antes de calcular la clave
+    private ChartSpec normalize(ChartSpec spec) {
+        ReportProperties.ChartConfig config = reportProperties.getChart();
+        List<String> labels = new ArrayList<>(spec.getLabels());
+        List<BigDecimal> values = new ArrayList<>(spec.getValues());
+        int maxCategories = Math.max(1, config.getMaxCategories());
+
+        // Las series de tiempo se dibujan completas
+        if (labels.size() > maxCategories && spec.getType() != ChartType.LINE && spec.getType() != ChartType.AREA) {
+            if (spec.getType() == ChartType.PIE || spec.getType() == ChartType.DONUT) {
+                BigDecimal others = values.subList(maxCategories - 1, values.size()).stream()
+                        .reduce(BigDecimal.ZERO, BigDecimal::add);
+                labels = new ArrayList<>(labels.subList(0, maxCategories - 1));
+                values = new ArrayList<>(values.subList(0, maxCategories - 1));
+                labels.add(OTHERS_LABEL);
+                values.add(others);
+            } else {
+                labels = labels.subList(0, maxCategories);
+                values = values.subList(0, maxCategories);
+            }
+        }
+
+        return ChartSpec.builder()
+                .type(spec.getType())
+                .title(spec.getTitle())
+                .categoryLabel(spec.getCategoryLabel())
+                .valueLabel(spec.getValueLabel())
+                .labels(labels)
+                .values(values)
+                .width(spec.getWidth() != null ? spec.getWidth() : config.getWidth())
+                .height(spec.getHeight() != null ? spec.getHeight() : config.getHeight())
+                .build();
+    }
+
+    private static String hash(ChartSpec spec) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, spec.getType().name());
+            update(digest, spec.getTitle());
+            update(digest, spec.getCategoryLabel());
+            update(digest, spec.getValueLabel());
+            update(digest, spec.getWidth() + "x" + spec.getHeight());
+            for (int i = 0; i < spec.getLabels().size(); i++) {
+                update(digest, spec.getLabels().get(i));
+                // 10 y 10.00 son el mismo dato
+                update(digest, spec.getValues().get(i).stripTrailingZeros().toPlainString());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Cada campo termina en un separador para que ("ab", "c") y ("a", "bc") no coincidan
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+    }
+
+    private void store(String key, byte[] png) {
+        ReportProperties.ChartConfig config = reportProperties.getChart();
+        if (config.getCacheMaxEntries() <= 0 || png.length > config.getCacheMaxBytes()) {
+            return;
+        }
+
+        synchronized (cache) {
+            if (cache.put(key, png) == null) {
+                cachedBytes.addAndGet(png.length);
+            }
+            Iterator<byte[]> eldest = cache.values().iterator();
+            while (eldest.hasNext()
+                    && (cache.size() > config.getCacheMaxEntries() || cachedBytes.get() > config.getCacheMaxBytes())) {
+                cachedBytes.addAndGet(-eldest.next().length);
+                eldest.remove();
+            }
+        }
+    }
+
+    // ================================
+    // RENDERIZADO
+    // ================================
+
+    private static byte[] toPng(ChartSpec spec) {
+        JFreeChart chart = switch (spec.getType()) {
+            case PIE -> ChartFactory.createPieChart(spec.getTitle(), pieDataset(spec), true, false, false);
+            case DONUT -> ChartFactory.createRingChart(spec.getTitle(), pieDataset(spec), true, false, false);
+            case LINE, SCATTER -> ChartFactory.createLineChart(spec.getTitle(), spec.getCategoryLabel(),
+                    spec.getValueLabel(), categoryDataset(spec), PlotOrientation.VERTICAL, false, false, false);
+            case AREA -> ChartFactory.createAreaChart(spec.getTitle(), spec.getCategoryLabel(),
+                    spec.getValueLabel(), categoryDataset(spec), PlotOrientation.VERTICAL, false, false, false);
+            case HORIZONTAL_BAR -> ChartFactory.createBarChart(spec.getTitle(), spec.getCategoryLabel(),
+                    spec.getValueLabel(), categoryDataset(spec), PlotOrientation.HORIZONTAL, false, false, false);
+            case BAR, COMBO -> ChartFactory.createBarChart(spec.getTitle(), spec.getCategoryLabel(),
+                    spec.getValueLabel(), categoryDataset(spec), PlotOrientation.VERTICAL, false, false, false);
+        };
+        chart.setBackgroundPaint(Color.WHITE);
+        chart.getPlot().setBackgroundPaint(Color.WHITE);
+
+        if (spec.getType() == ChartType.SCATTER) {
+            // Solo los puntos, sin unirlos
+            LineAndShapeRenderer renderer = (LineAndShapeRenderer) chart.getCategoryPlot().getRenderer();
+            renderer.setDefaultLinesVisible(false);
+            renderer.setDefaultShapesVisible(true);
+        } else if (spec.getType() == ChartType.COMBO) {
+            // Barras con la línea de tendencia de la misma serie encima
+            CategoryPlot plot = chart.getCategoryPlot();
+            plot.setDataset(1, categoryDataset(spec));
+            plot.setRenderer(1, new LineAndShapeRenderer(true, true));
+            plot.setDatasetRenderingOrder(DatasetRenderingOrder.FORWARD);
+        }
+
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            ChartUtils.writeChartAsPNG(out, chart, spec.getWidth(), spec.getHeight());
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to render chart " + spec.getTitle(), e);
+        }
+    }
+
+    private static DefaultCategoryDataset categoryDataset(ChartSpec spec) {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        List<String> labels = uniqueLabels(spec.getLabels());
+        for (int i = 0; i < labels.size(); i++) {
+            dataset.addValue(spec.getValues().get(i), spec.getValueLabel() != null ? spec.getValueLabel() : "",
+                    labels.get(i));
+        }
+        return dataset;
+    }
+
+    private static DefaultPieDataset<String> pieDataset(ChartSpec spec) {
+        DefaultPieDataset<String> dataset = new DefaultPieDataset<>();
+        List<String> labels = uniqueLabels(spec.getLabels());
+        for (int i = 0; i < labels.size(); i++) {
+            dataset.setValue(labels.get(i), spec.getValues().get(i));
+        }
+        return dataset;
+    }
+
+    // Los datasets usan la etiqueta como clave: las repetidas se numeran para no perder valores
+    private static List<String> uniqueLabels(List<String> labels) {
+        Map<String, Integer> seen = new LinkedHashMap<>();
+        List<String> unique = new ArrayList<>(labels.size());
+        for (String label : labels) {
+            int count = seen.merge(label, 1, Integer::sum);
+            unique.add(count == 1 ? label : label + " (" + count + ")");
+        }
+        return unique;
+    }
+}
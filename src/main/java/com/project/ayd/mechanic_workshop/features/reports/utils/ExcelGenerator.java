@@ -1,15 +1,18 @@
 package com.project.ayd.mechanic_workshop.features.reports.utils;
 
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
 import com.project.ayd.mechanic_workshop.features.reports.enums.ReportType;
+import com.project.ayd.mechanic_workshop.features.reports.utils.StreamingWorkbook.Style;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.ss.util.CellRangeAddress;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -17,225 +20,216 @@ import java.util.List;
 import java.math.RoundingMode;
 
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class ExcelGenerator {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    // Tamaño aproximado de una celda con el ancho y alto por defecto
+    private static final int CHART_COLUMN_PIXELS = 64;
+    private static final int CHART_ROW_PIXELS = 20;
+
+    private final ReportProperties reportProperties;
 
     public byte[] generateReport(ReportType reportType, LocalDateTime startDate, LocalDateTime endDate)
             throws IOException {
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Reporte");
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        generateReport(reportType, startDate, endDate, baos);
+        return baos.toByteArray();
+    }
 
-        // Crear estilos
-        CellStyle titleStyle = createTitleStyle(workbook);
-        CellStyle headerStyle = createHeaderStyle(workbook);
-        CellStyle dateStyle = createDateStyle(workbook);
+    public void generateReport(ReportType reportType, LocalDateTime startDate, LocalDateTime endDate,
+            OutputStream outputStream) throws IOException {
+        try (StreamingWorkbook workbook = createWorkbook()) {
+            Sheet sheet = workbook.createSheet("Reporte");
 
-        // Título del reporte
-        createTitle(sheet, reportType.getDisplayName(), titleStyle);
-        createDateRange(sheet, startDate, endDate, dateStyle);
+            // Título del reporte
+            workbook.writeMergedRow(sheet, 0, reportType.getDisplayName(), workbook.style(Style.TITLE), 2);
+            workbook.writeMergedRow(sheet, 2, "Período: " + formatDateRange(startDate, endDate),
+                    workbook.style(Style.DATE), 2);
 
-        // Contenido específico por tipo de reporte
-        addReportTypeContent(sheet, reportType, headerStyle);
+            // Contenido específico por tipo de reporte
+            addReportTypeContent(workbook, sheet, reportType);
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        workbook.write(baos);
-        workbook.close();
+            workbook.write(outputStream);
+        }
+    }
 
-        return baos.toByteArray();
+    /**
+     * Genera un reporte tabular genérico: título, período, encabezados y una fila por registro
+     *
+     * @param outputStream Destino del libro; no se cierra
+     * @param title        Título del reporte
+     * @param headers      Encabezados de las columnas
+     * @param data         Filas del reporte
+     * @param startDate    Fecha de inicio
+     * @param endDate      Fecha de fin
+     */
+    public void generateTableReport(OutputStream outputStream, String title, String[] headers,
+            List<Object[]> data, LocalDateTime startDate, LocalDateTime endDate) throws IOException {
+        generateTableReport(outputStream, title, headers, data, startDate, endDate, null);
     }
 
-    public void generateFinancialIncomeReport(String filePath, List<Object[]> data,
-            LocalDateTime startDate, LocalDateTime endDate) throws IOException {
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Ingresos Financieros");
-
-        // Crear estilos
-        CellStyle titleStyle = createTitleStyle(workbook);
-        CellStyle headerStyle = createHeaderStyle(workbook);
-        CellStyle dateStyle = createDateStyle(workbook);
-        CellStyle currencyStyle = createCurrencyStyle(workbook);
-        CellStyle alternateRowStyle = createAlternateRowStyle(workbook);
-        CellStyle totalStyle = createTotalStyle(workbook);
-
-        int rowIndex = 0;
-
-        // Título
-        Row titleRow = sheet.createRow(rowIndex++);
-        Cell titleCell = titleRow.createCell(0);
-        titleCell.setCellValue("REPORTE FINANCIERO - INGRESOS");
-        titleCell.setCellStyle(titleStyle);
-        sheet.addMergedRegion(new CellRangeAddress(0, 0, 0, 1));
-
-        // Fecha
-        rowIndex++; // Fila vacía
-        Row dateRow = sheet.createRow(rowIndex++);
-        Cell dateCell = dateRow.createCell(0);
-        dateCell.setCellValue("Período: " + formatDateRange(startDate, endDate));
-        dateCell.setCellStyle(dateStyle);
-        sheet.addMergedRegion(new CellRangeAddress(rowIndex - 1, rowIndex - 1, 0, 1));
-
-        rowIndex++; // Fila vacía
-
-        // Headers
-        Row headerRow = sheet.createRow(rowIndex++);
-        Cell monthHeader = headerRow.createCell(0);
-        monthHeader.setCellValue("Mes");
-        monthHeader.setCellStyle(headerStyle);
-
-        Cell incomeHeader = headerRow.createCell(1);
-        incomeHeader.setCellValue("Ingresos");
-        incomeHeader.setCellStyle(headerStyle);
-
-        // Data rows
-        BigDecimal total = BigDecimal.ZERO;
-        boolean alternateRow = false;
-        for (Object[] row : data) {
-            Row dataRow = sheet.createRow(rowIndex++);
-
-            String month = (String) row[0];
-            BigDecimal income = new BigDecimal(row[1].toString());
-            total = total.add(income);
-
-            Cell monthCell = dataRow.createCell(0);
-            monthCell.setCellValue(month);
-            if (alternateRow) {
-                monthCell.setCellStyle(alternateRowStyle);
+    /**
+     * Igual que generateTableReport, con el gráfico a la derecha de la tabla
+     *
+     * @param chartPng Imagen PNG del gráfico, o null para omitirlo
+     */
+    public void generateTableReport(OutputStream outputStream, String title, String[] headers,
+            List<Object[]> data, LocalDateTime startDate, LocalDateTime endDate, byte[] chartPng)
+            throws IOException {
+        try (StreamingWorkbook workbook = createWorkbook()) {
+            Sheet sheet = workbook.createSheet(reportProperties.getExcel().getDefaultSheetName());
+
+            if (chartPng != null) {
+                // Se deja una columna libre entre la tabla y el gráfico
+                ReportProperties.ChartConfig chart = reportProperties.getChart();
+                workbook.addPicture(sheet, chartPng, headers.length + 1, 0,
+                        Math.ceilDiv(chart.getWidth(), CHART_COLUMN_PIXELS),
+                        Math.ceilDiv(chart.getHeight(), CHART_ROW_PIXELS));
             }
 
-            Cell incomeCell = dataRow.createCell(1);
-            incomeCell.setCellValue(income.doubleValue());
-            CellStyle incomeStyle = alternateRow ? createAlternateCurrencyStyle(workbook) : currencyStyle;
-            incomeCell.setCellStyle(incomeStyle);
+            int rowIndex = 0;
+
+            // Título y fecha
+            workbook.writeMergedRow(sheet, rowIndex++, title, workbook.style(Style.TITLE), headers.length);
+            rowIndex++; // Fila vacía
+            workbook.writeMergedRow(sheet, rowIndex++, String.format("Período: %s - %s",
+                    startDate.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")),
+                    endDate.format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))), null, headers.length);
+            rowIndex++; // Fila vacía
+
+            // Headers
+            workbook.writeHeaders(sheet, rowIndex++, headers);
+
+            // Data rows
+            for (Object[] row : data) {
+                ReportCancellation.checkpoint();
+                Row dataRow = sheet.createRow(rowIndex++);
+                for (int i = 0; i < row.length && i < headers.length; i++) {
+                    if (row[i] != null) {
+                        workbook.writeCell(dataRow, i, row[i], null);
+                    }
+                }
+            }
 
-            alternateRow = !alternateRow;
+            workbook.write(outputStream);
         }
+    }
 
-        // Total row
-        Row totalRow = sheet.createRow(rowIndex++);
-        Cell totalLabelCell = totalRow.createCell(0);
-        totalLabelCell.setCellValue("TOTAL");
-        totalLabelCell.setCellStyle(totalStyle);
-
-        Cell totalValueCell = totalRow.createCell(1);
-        totalValueCell.setCellValue(total.doubleValue());
-        totalValueCell.setCellStyle(totalStyle);
-
-        // Resumen estadístico
-        rowIndex++; // Fila vacía
-        Row summaryTitleRow = sheet.createRow(rowIndex++);
-        Cell summaryTitleCell = summaryTitleRow.createCell(0);
-        summaryTitleCell.setCellValue("RESUMEN DEL PERÍODO");
-        summaryTitleCell.setCellStyle(headerStyle);
-
-        Row totalSummaryRow = sheet.createRow(rowIndex++);
-        totalSummaryRow.createCell(0).setCellValue("Total de Ingresos:");
-        Cell totalSummaryCell = totalSummaryRow.createCell(1);
-        totalSummaryCell.setCellValue(total.doubleValue());
-        totalSummaryCell.setCellStyle(currencyStyle);
-
-        Row periodCountRow = sheet.createRow(rowIndex++);
-        periodCountRow.createCell(0).setCellValue("Número de Períodos:");
-        periodCountRow.createCell(1).setCellValue(data.size());
-
-        if (!data.isEmpty()) {
-            BigDecimal average = total.divide(new BigDecimal(data.size()), 2, RoundingMode.HALF_UP);
-            Row averageRow = sheet.createRow(rowIndex++);
-            averageRow.createCell(0).setCellValue("Promedio por Período:");
-            Cell averageCell = averageRow.createCell(1);
-            averageCell.setCellValue(average.doubleValue());
-            averageCell.setCellStyle(currencyStyle);
-        }
+    public void generateFinancialIncomeReport(String filePath, List<Object[]> data,
+            LocalDateTime startDate, LocalDateTime endDate) throws IOException {
+        try (StreamingWorkbook workbook = createWorkbook()) {
+            Sheet sheet = workbook.createSheet("Ingresos Financieros");
 
-        // Auto-ajustar columnas
-        autoSizeColumns(sheet, 2);
+            CellStyle headerStyle = workbook.style(Style.HEADER);
+            CellStyle currencyStyle = workbook.style(Style.CURRENCY);
+            CellStyle totalStyle = workbook.style(Style.TOTAL);
 
-        // Guardar archivo
-        try (FileOutputStream fileOut = new FileOutputStream(filePath)) {
-            workbook.write(fileOut);
+            int rowIndex = 0;
+
+            // Título
+            workbook.writeMergedRow(sheet, rowIndex++, "REPORTE FINANCIERO - INGRESOS",
+                    workbook.style(Style.TITLE), 2);
+
+            // Fecha
+            rowIndex++; // Fila vacía
+            workbook.writeMergedRow(sheet, rowIndex++, "Período: " + formatDateRange(startDate, endDate),
+                    workbook.style(Style.DATE), 2);
+
+            rowIndex++; // Fila vacía
+
+            // Headers
+            workbook.writeHeaders(sheet, rowIndex++, new String[] { "Mes", "Ingresos" });
+
+            // Data rows
+            BigDecimal total = BigDecimal.ZERO;
+            boolean alternateRow = false;
+            for (Object[] row : data) {
+                ReportCancellation.checkpoint();
+                Row dataRow = sheet.createRow(rowIndex++);
+
+                String month = (String) row[0];
+                BigDecimal income = new BigDecimal(row[1].toString());
+                total = total.add(income);
+
+                workbook.writeCell(dataRow, 0, month, workbook.rowStyle(alternateRow));
+                workbook.writeCell(dataRow, 1, income.doubleValue(), workbook.currencyStyle(alternateRow));
+
+                alternateRow = !alternateRow;
+            }
+
+            // Total row
+            Row totalRow = sheet.createRow(rowIndex++);
+            workbook.writeCell(totalRow, 0, "TOTAL", totalStyle);
+            workbook.writeCell(totalRow, 1, total.doubleValue(), totalStyle);
+
+            // Resumen estadístico
+            rowIndex++; // Fila vacía
+            Row summaryTitleRow = sheet.createRow(rowIndex++);
+            workbook.writeCell(summaryTitleRow, 0, "RESUMEN DEL PERÍODO", headerStyle);
+
+            Row totalSummaryRow = sheet.createRow(rowIndex++);
+            workbook.writeCell(totalSummaryRow, 0, "Total de Ingresos:", null);
+            workbook.writeCell(totalSummaryRow, 1, total.doubleValue(), currencyStyle);
+
+            Row periodCountRow = sheet.createRow(rowIndex++);
+            workbook.writeCell(periodCountRow, 0, "Número de Períodos:", null);
+            workbook.writeCell(periodCountRow, 1, data.size(), null);
+
+            if (!data.isEmpty()) {
+                BigDecimal average = total.divide(new BigDecimal(data.size()), 2, RoundingMode.HALF_UP);
+                Row averageRow = sheet.createRow(rowIndex++);
+                workbook.writeCell(averageRow, 0, "Promedio por Período:", null);
+                workbook.writeCell(averageRow, 1, average.doubleValue(), currencyStyle);
+            }
+
+            // Guardar archivo
+            writeToFile(workbook, filePath);
         }
-        workbook.close();
         log.info("Excel financial income report generated: {}", filePath);
     }
 
     public void generateFinancialExpensesReport(String filePath, List<Object[]> data,
             LocalDateTime startDate, LocalDateTime endDate) throws IOException {
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Egresos Financieros");
-
-        CellStyle titleStyle = createTitleStyle(workbook);
-        CellStyle headerStyle = createHeaderStyle(workbook);
-        CellStyle dateStyle = createDateStyle(workbook);
-        CellStyle currencyStyle = createCurrencyStyle(workbook);
-        CellStyle alternateRowStyle = createAlternateRowStyle(workbook);
-
-        int rowIndex = 0;
-
-        // Título y fecha
-        createTitle(sheet, "REPORTE FINANCIERO - EGRESOS", titleStyle, rowIndex++, 3);
-        rowIndex++; // Fila vacía
-        createDateRange(sheet, startDate, endDate, dateStyle, rowIndex++, 3);
-        rowIndex++; // Fila vacía
-
-        // Headers
-        Row headerRow = sheet.createRow(rowIndex++);
-        String[] headers = { "Mes", "Gastos", "Descripción" };
-        for (int i = 0; i < headers.length; i++) {
-            Cell headerCell = headerRow.createCell(i);
-            headerCell.setCellValue(headers[i]);
-            headerCell.setCellStyle(headerStyle);
-        }
+        try (StreamingWorkbook workbook = createWorkbook()) {
+            Sheet sheet = workbook.createSheet("Egresos Financieros");
 
-        // Data
-        BigDecimal total = BigDecimal.ZERO;
-        boolean alternateRow = false;
-        for (Object[] row : data) {
-            Row dataRow = sheet.createRow(rowIndex++);
-
-            String month = (String) row[0];
-            BigDecimal expense = new BigDecimal(row[1].toString());
-            String description = (String) row[2];
-            total = total.add(expense);
-
-            // Mes
-            Cell monthCell = dataRow.createCell(0);
-            monthCell.setCellValue(month);
-            if (alternateRow) {
-                monthCell.setCellStyle(alternateRowStyle);
-            }
+            // Título y fecha
+            int rowIndex = writeTitleAndDate(workbook, sheet, "REPORTE FINANCIERO - EGRESOS", startDate, endDate, 3);
 
-            // Gastos
-            Cell expenseCell = dataRow.createCell(1);
-            expenseCell.setCellValue(expense.doubleValue());
-            CellStyle expenseStyle = alternateRow ? createAlternateCurrencyStyle(workbook) : currencyStyle;
-            expenseCell.setCellStyle(expenseStyle);
-
-            // Descripción
-            Cell descCell = dataRow.createCell(2);
-            descCell.setCellValue(description);
-            if (alternateRow) {
-                descCell.setCellStyle(alternateRowStyle);
-            }
+            // Headers
+            workbook.writeHeaders(sheet, rowIndex++, new String[] { "Mes", "Gastos", "Descripción" });
 
-            alternateRow = !alternateRow;
-        }
+            // Data
+            BigDecimal total = BigDecimal.ZERO;
+            boolean alternateRow = false;
+            for (Object[] row : data) {
+                ReportCancellation.checkpoint();
+                Row dataRow = sheet.createRow(rowIndex++);
 
-        // Total
-        CellStyle totalStyle = createTotalStyle(workbook);
-        Row totalRow = sheet.createRow(rowIndex++);
-        totalRow.createCell(0).setCellValue("TOTAL");
-        totalRow.getCell(0).setCellStyle(totalStyle);
-        Cell totalCell = totalRow.createCell(1);
-        totalCell.setCellValue(total.doubleValue());
-        totalCell.setCellStyle(totalStyle);
+                String month = (String) row[0];
+                BigDecimal expense = new BigDecimal(row[1].toString());
+                String description = (String) row[2];
+                total = total.add(expense);
 
-        autoSizeColumns(sheet, 3);
+                CellStyle rowStyle = workbook.rowStyle(alternateRow);
 
-        try (FileOutputStream fileOut = new FileOutputStream(filePath)) {
-            workbook.write(fileOut);
+                workbook.writeCell(dataRow, 0, month, rowStyle); // Mes
+                workbook.writeCell(dataRow, 1, expense.doubleValue(), workbook.currencyStyle(alternateRow)); // Gastos
+                workbook.writeCell(dataRow, 2, description, rowStyle); // Descripción
+
+                alternateRow = !alternateRow;
+            }
+
+            // Total
+            CellStyle totalStyle = workbook.style(Style.TOTAL);
+            Row totalRow = sheet.createRow(rowIndex++);
+            workbook.writeCell(totalRow, 0, "TOTAL", totalStyle);
+            workbook.writeCell(totalRow, 1, total.doubleValue(), totalStyle);
+
+            writeToFile(workbook, filePath);
         }
-        workbook.close();
         log.info("Excel financial expenses report generated: {}", filePath);
     }
 
@@ -253,324 +247,210 @@ public class ExcelGenerator {
 
     public void generateWorksByEmployeeReport(String filePath, List<Object[]> data,
             LocalDateTime startDate, LocalDateTime endDate) throws IOException {
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Desempeño Empleados");
-
-        CellStyle titleStyle = createTitleStyle(workbook);
-        CellStyle headerStyle = createHeaderStyle(workbook);
-        CellStyle dateStyle = createDateStyle(workbook);
-        CellStyle currencyStyle = createCurrencyStyle(workbook);
-        CellStyle alternateRowStyle = createAlternateRowStyle(workbook);
-
-        int rowIndex = 0;
-
-        // Título y fecha
-        createTitle(sheet, "REPORTE DE DESEMPEÑO POR EMPLEADO", titleStyle, rowIndex++, 6);
-        rowIndex++; // Fila vacía
-        createDateRange(sheet, startDate, endDate, dateStyle, rowIndex++, 6);
-        rowIndex++; // Fila vacía
-
-        // Headers
-        Row headerRow = sheet.createRow(rowIndex++);
-        String[] headers = { "Empleado", "ID", "Trabajos Asignados", "Completados", "Tiempo Promedio",
-                "Ingresos Totales" };
-        for (int i = 0; i < headers.length; i++) {
-            Cell headerCell = headerRow.createCell(i);
-            headerCell.setCellValue(headers[i]);
-            headerCell.setCellStyle(headerStyle);
-        }
-
-        // Data
-        boolean alternateRow = false;
-        for (Object[] row : data) {
-            Row dataRow = sheet.createRow(rowIndex++);
-
-            String employeeName = (String) row[0];
-            String employeeId = row[1].toString();
-            Number totalWorks = (Number) row[2];
-            Number completedWorks = (Number) row[3];
-            Number avgTime = (Number) row[4];
-            Number totalRevenue = (Number) row[5];
-
-            CellStyle rowStyle = alternateRow ? alternateRowStyle : null;
-
-            createDataCell(dataRow, 0, employeeName, rowStyle);
-            createDataCell(dataRow, 1, employeeId, rowStyle);
-            createDataCell(dataRow, 2, totalWorks.intValue(), rowStyle);
-            createDataCell(dataRow, 3, completedWorks.intValue(), rowStyle);
-            createDataCell(dataRow, 4, avgTime != null ? avgTime.doubleValue() : 0.0, rowStyle);
-
-            Cell revenueCell = dataRow.createCell(5);
-            revenueCell.setCellValue(totalRevenue != null ? totalRevenue.doubleValue() : 0.0);
-            revenueCell.setCellStyle(alternateRow ? createAlternateCurrencyStyle(workbook) : currencyStyle);
-
-            alternateRow = !alternateRow;
-        }
-
-        autoSizeColumns(sheet, 6);
+        try (StreamingWorkbook workbook = createWorkbook()) {
+            Sheet sheet = workbook.createSheet("Desempeño Empleados");
+
+            // Título y fecha
+            int rowIndex = writeTitleAndDate(workbook, sheet, "REPORTE DE DESEMPEÑO POR EMPLEADO",
+                    startDate, endDate, 6);
+
+            // Headers
+            workbook.writeHeaders(sheet, rowIndex++, new String[] { "Empleado", "ID", "Trabajos Asignados",
+                    "Completados", "Tiempo Promedio", "Ingresos Totales" });
+
+            // Data
+            boolean alternateRow = false;
+            for (Object[] row : data) {
+                ReportCancellation.checkpoint();
+                Row dataRow = sheet.createRow(rowIndex++);
+
+                String employeeName = (String) row[0];
+                String employeeId = row[1].toString();
+                Number totalWorks = (Number) row[2];
+                Number completedWorks = (Number) row[3];
+                Number avgTime = (Number) row[4];
+                Number totalRevenue = (Number) row[5];
+
+                CellStyle rowStyle = workbook.rowStyle(alternateRow);
+
+                workbook.writeCell(dataRow, 0, employeeName, rowStyle);
+                workbook.writeCell(dataRow, 1, employeeId, rowStyle);
+                workbook.writeCell(dataRow, 2, totalWorks.intValue(), rowStyle);
+                workbook.writeCell(dataRow, 3, completedWorks.intValue(), rowStyle);
+                workbook.writeCell(dataRow, 4, avgTime != null ? avgTime.doubleValue() : 0.0, rowStyle);
+                workbook.writeCell(dataRow, 5, totalRevenue != null ? totalRevenue.doubleValue() : 0.0,
+                        workbook.currencyStyle(alternateRow));
+
+                alternateRow = !alternateRow;
+            }
 
-        try (FileOutputStream fileOut = new FileOutputStream(filePath)) {
-            workbook.write(fileOut);
+            writeToFile(workbook, filePath);
         }
-        workbook.close();
         log.info("Excel works by employee report generated: {}", filePath);
     }
 
     public void generatePartsUsageReport(String filePath, List<Object[]> data,
             LocalDateTime startDate, LocalDateTime endDate) throws IOException {
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Uso de Repuestos");
-
-        CellStyle titleStyle = createTitleStyle(workbook);
-        CellStyle headerStyle = createHeaderStyle(workbook);
-        CellStyle dateStyle = createDateStyle(workbook);
-        CellStyle currencyStyle = createCurrencyStyle(workbook);
-        CellStyle alternateRowStyle = createAlternateRowStyle(workbook);
-
-        int rowIndex = 0;
-
-        // Título y fecha
-        createTitle(sheet, "REPORTE DE USO DE REPUESTOS", titleStyle, rowIndex++, 5);
-        rowIndex++; // Fila vacía
-        createDateRange(sheet, startDate, endDate, dateStyle, rowIndex++, 5);
-        rowIndex++; // Fila vacía
-
-        // Headers
-        Row headerRow = sheet.createRow(rowIndex++);
-        String[] headers = { "Repuesto", "Categoría", "Cantidad Usada", "Costo Total", "Trabajos" };
-        for (int i = 0; i < headers.length; i++) {
-            Cell headerCell = headerRow.createCell(i);
-            headerCell.setCellValue(headers[i]);
-            headerCell.setCellStyle(headerStyle);
-        }
+        try (StreamingWorkbook workbook = createWorkbook()) {
+            Sheet sheet = workbook.createSheet("Uso de Repuestos");
 
-        // Data
-        boolean alternateRow = false;
-        for (Object[] row : data) {
-            Row dataRow = sheet.createRow(rowIndex++);
+            // Título y fecha
+            int rowIndex = writeTitleAndDate(workbook, sheet, "REPORTE DE USO DE REPUESTOS", startDate, endDate, 5);
 
-            String partName = (String) row[0];
-            String category = (String) row[1];
-            Number quantity = (Number) row[2];
-            Number totalCost = (Number) row[3];
-            Number worksCount = (Number) row[4];
+            // Headers
+            workbook.writeHeaders(sheet, rowIndex++, new String[] { "Repuesto", "Categoría", "Cantidad Usada",
+                    "Costo Total", "Trabajos" });
 
-            CellStyle rowStyle = alternateRow ? alternateRowStyle : null;
+            // Data
+            boolean alternateRow = false;
+            for (Object[] row : data) {
+                ReportCancellation.checkpoint();
+                Row dataRow = sheet.createRow(rowIndex++);
 
-            createDataCell(dataRow, 0, partName, rowStyle);
-            createDataCell(dataRow, 1, category, rowStyle);
-            createDataCell(dataRow, 2, quantity.intValue(), rowStyle);
+                String partName = (String) row[0];
+                String category = (String) row[1];
+                Number quantity = (Number) row[2];
+                Number totalCost = (Number) row[3];
+                Number worksCount = (Number) row[4];
 
-            Cell costCell = dataRow.createCell(3);
-            costCell.setCellValue(totalCost.doubleValue());
-            costCell.setCellStyle(alternateRow ? createAlternateCurrencyStyle(workbook) : currencyStyle);
+                CellStyle rowStyle = workbook.rowStyle(alternateRow);
 
-            createDataCell(dataRow, 4, worksCount.intValue(), rowStyle);
+                workbook.writeCell(dataRow, 0, partName, rowStyle);
+                workbook.writeCell(dataRow, 1, category, rowStyle);
+                workbook.writeCell(dataRow, 2, quantity.intValue(), rowStyle);
+                workbook.writeCell(dataRow, 3, totalCost.doubleValue(), workbook.currencyStyle(alternateRow));
+                workbook.writeCell(dataRow, 4, worksCount.intValue(), rowStyle);
 
-            alternateRow = !alternateRow;
-        }
-
-        autoSizeColumns(sheet, 5);
+                alternateRow = !alternateRow;
+            }
 
-        try (FileOutputStream fileOut = new FileOutputStream(filePath)) {
-            workbook.write(fileOut);
+            writeToFile(workbook, filePath);
         }
-        workbook.close();
         log.info("Excel parts usage report generated: {}", filePath);
     }
 
     public void generatePartsByBrandReport(String filePath, List<Object[]> data,
             LocalDateTime startDate, LocalDateTime endDate) throws IOException {
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Repuestos por Marca");
-
-        CellStyle titleStyle = createTitleStyle(workbook);
-        CellStyle headerStyle = createHeaderStyle(workbook);
-        CellStyle dateStyle = createDateStyle(workbook);
-        CellStyle currencyStyle = createCurrencyStyle(workbook);
-        CellStyle alternateRowStyle = createAlternateRowStyle(workbook);
-
-        int rowIndex = 0;
-
-        // Título y fecha
-        createTitle(sheet, "REPORTE DE REPUESTOS POR MARCA DE VEHÍCULO", titleStyle, rowIndex++, 5);
-        rowIndex++; // Fila vacía
-        createDateRange(sheet, startDate, endDate, dateStyle, rowIndex++, 5);
-        rowIndex++; // Fila vacía
-
-        // Headers
-        Row headerRow = sheet.createRow(rowIndex++);
-        String[] headers = { "Marca", "Repuesto", "Categoría", "Cantidad", "Costo Total" };
-        for (int i = 0; i < headers.length; i++) {
-            Cell headerCell = headerRow.createCell(i);
-            headerCell.setCellValue(headers[i]);
-            headerCell.setCellStyle(headerStyle);
-        }
-
-        // Data
-        boolean alternateRow = false;
-        for (Object[] row : data) {
-            Row dataRow = sheet.createRow(rowIndex++);
-
-            String brand = (String) row[0];
-            String partName = (String) row[1];
-            String category = (String) row[2];
-            Number quantity = (Number) row[3];
-            Number totalCost = (Number) row[4];
-
-            CellStyle rowStyle = alternateRow ? alternateRowStyle : null;
-
-            createDataCell(dataRow, 0, brand, rowStyle);
-            createDataCell(dataRow, 1, partName, rowStyle);
-            createDataCell(dataRow, 2, category, rowStyle);
-            createDataCell(dataRow, 3, quantity.intValue(), rowStyle);
-
-            Cell costCell = dataRow.createCell(4);
-            costCell.setCellValue(totalCost.doubleValue());
-            costCell.setCellStyle(alternateRow ? createAlternateCurrencyStyle(workbook) : currencyStyle);
-
-            alternateRow = !alternateRow;
-        }
-
-        autoSizeColumns(sheet, 5);
+        try (StreamingWorkbook workbook = createWorkbook()) {
+            Sheet sheet = workbook.createSheet("Repuestos por Marca");
+
+            // Título y fecha
+            int rowIndex = writeTitleAndDate(workbook, sheet, "REPORTE DE REPUESTOS POR MARCA DE VEHÍCULO",
+                    startDate, endDate, 5);
+
+            // Headers
+            workbook.writeHeaders(sheet, rowIndex++, new String[] { "Marca", "Repuesto", "Categoría", "Cantidad",
+                    "Costo Total" });
+
+            // Data
+            boolean alternateRow = false;
+            for (Object[] row : data) {
+                ReportCancellation.checkpoint();
+                Row dataRow = sheet.createRow(rowIndex++);
+
+                String brand = (String) row[0];
+                String partName = (String) row[1];
+                String category = (String) row[2];
+                Number quantity = (Number) row[3];
+                Number totalCost = (Number) row[4];
+
+                CellStyle rowStyle = workbook.rowStyle(alternateRow);
+
+                workbook.writeCell(dataRow, 0, brand, rowStyle);
+                workbook.writeCell(dataRow, 1, partName, rowStyle);
+                workbook.writeCell(dataRow, 2, category, rowStyle);
+                workbook.writeCell(dataRow, 3, quantity.intValue(), rowStyle);
+                workbook.writeCell(dataRow, 4, totalCost.doubleValue(), workbook.currencyStyle(alternateRow));
+
+                alternateRow = !alternateRow;
+            }
 
-        try (FileOutputStream fileOut = new FileOutputStream(filePath)) {
-            workbook.write(fileOut);
+            writeToFile(workbook, filePath);
         }
-        workbook.close();
         log.info("Excel parts by brand report generated: {}", filePath);
     }
 
     public void generateClientHistoryReport(String filePath, List<Object[]> data,
             LocalDateTime startDate, LocalDateTime endDate) throws IOException {
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Historial Clientes");
-
-        CellStyle titleStyle = createTitleStyle(workbook);
-        CellStyle headerStyle = createHeaderStyle(workbook);
-        CellStyle dateStyle = createDateStyle(workbook);
-        CellStyle currencyStyle = createCurrencyStyle(workbook);
-        CellStyle alternateRowStyle = createAlternateRowStyle(workbook);
-
-        int rowIndex = 0;
-
-        // Título y fecha
-        createTitle(sheet, "REPORTE DE HISTORIAL DE CLIENTES", titleStyle, rowIndex++, 6);
-        rowIndex++; // Fila vacía
-        createDateRange(sheet, startDate, endDate, dateStyle, rowIndex++, 6);
-        rowIndex++; // Fila vacía
-
-        // Headers
-        Row headerRow = sheet.createRow(rowIndex++);
-        String[] headers = { "Cliente", "CUI", "Total Trabajos", "Total Gastado", "Última Visita",
-                "Tipos de Servicio" };
-        for (int i = 0; i < headers.length; i++) {
-            Cell headerCell = headerRow.createCell(i);
-            headerCell.setCellValue(headers[i]);
-            headerCell.setCellStyle(headerStyle);
-        }
-
-        // Data
-        boolean alternateRow = false;
-        for (Object[] row : data) {
-            Row dataRow = sheet.createRow(rowIndex++);
-
-            String clientName = (String) row[0];
-            String cui = (String) row[1];
-            Number totalWorks = (Number) row[2];
-            Number totalSpent = (Number) row[3];
-            String lastVisit = row[4] != null ? row[4].toString().substring(0, 10) : "N/A";
-            String serviceTypes = (String) row[5];
-
-            CellStyle rowStyle = alternateRow ? alternateRowStyle : null;
-
-            createDataCell(dataRow, 0, clientName, rowStyle);
-            createDataCell(dataRow, 1, cui, rowStyle);
-            createDataCell(dataRow, 2, totalWorks.intValue(), rowStyle);
-
-            Cell spentCell = dataRow.createCell(3);
-            spentCell.setCellValue(totalSpent.doubleValue());
-            spentCell.setCellStyle(alternateRow ? createAlternateCurrencyStyle(workbook) : currencyStyle);
-
-            createDataCell(dataRow, 4, lastVisit, rowStyle);
-            createDataCell(dataRow, 5, serviceTypes, rowStyle);
-
-            alternateRow = !alternateRow;
-        }
-
-        autoSizeColumns(sheet, 6);
+        try (StreamingWorkbook workbook = createWorkbook()) {
+            Sheet sheet = workbook.createSheet("Historial Clientes");
+
+            // Título y fecha
+            int rowIndex = writeTitleAndDate(workbook, sheet, "REPORTE DE HISTORIAL DE CLIENTES", startDate, endDate, 6);
+
+            // Headers
+            workbook.writeHeaders(sheet, rowIndex++, new String[] { "Cliente", "CUI", "Total Trabajos",
+                    "Total Gastado", "Última Visita", "Tipos de Servicio" });
+
+            // Data
+            boolean alternateRow = false;
+            for (Object[] row : data) {
+                ReportCancellation.checkpoint();
+                Row dataRow = sheet.createRow(rowIndex++);
+
+                String clientName = (String) row[0];
+                String cui = (String) row[1];
+                Number totalWorks = (Number) row[2];
+                Number totalSpent = (Number) row[3];
+                String lastVisit = row[4] != null ? row[4].toString().substring(0, 10) : "N/A";
+                String serviceTypes = (String) row[5];
+
+                CellStyle rowStyle = workbook.rowStyle(alternateRow);
+
+                workbook.writeCell(dataRow, 0, clientName, rowStyle);
+                workbook.writeCell(dataRow, 1, cui, rowStyle);
+                workbook.writeCell(dataRow, 2, totalWorks.intValue(), rowStyle);
+                workbook.writeCell(dataRow, 3, totalSpent.doubleValue(), workbook.currencyStyle(alternateRow));
+                workbook.writeCell(dataRow, 4, lastVisit, rowStyle);
+                workbook.writeCell(dataRow, 5, serviceTypes, rowStyle);
+
+                alternateRow = !alternateRow;
+            }
 
-        try (FileOutputStream fileOut = new FileOutputStream(filePath)) {
-            workbook.write(fileOut);
+            writeToFile(workbook, filePath);
         }
-        workbook.close();
         log.info("Excel client history report generated: {}", filePath);
     }
 
     public void generatePreventiveMaintenanceReport(String filePath, List<Object[]> data,
             LocalDateTime startDate, LocalDateTime endDate) throws IOException {
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Mantenimiento Preventivo");
-
-        CellStyle titleStyle = createTitleStyle(workbook);
-        CellStyle headerStyle = createHeaderStyle(workbook);
-        CellStyle dateStyle = createDateStyle(workbook);
-        CellStyle currencyStyle = createCurrencyStyle(workbook);
-        CellStyle alternateRowStyle = createAlternateRowStyle(workbook);
-
-        int rowIndex = 0;
-
-        // Título y fecha
-        createTitle(sheet, "REPORTE DE MANTENIMIENTOS PREVENTIVOS", titleStyle, rowIndex++, 5);
-        rowIndex++; // Fila vacía
-        createDateRange(sheet, startDate, endDate, dateStyle, rowIndex++, 5);
-        rowIndex++; // Fila vacía
-
-        // Headers
-        Row headerRow = sheet.createRow(rowIndex++);
-        String[] headers = { "Tipo de Servicio", "Total Trabajos", "Costo Promedio", "Duración Promedio",
-                "Ingresos Totales" };
-        for (int i = 0; i < headers.length; i++) {
-            Cell headerCell = headerRow.createCell(i);
-            headerCell.setCellValue(headers[i]);
-            headerCell.setCellStyle(headerStyle);
-        }
-
-        // Data
-        boolean alternateRow = false;
-        for (Object[] row : data) {
-            Row dataRow = sheet.createRow(rowIndex++);
-
-            String serviceName = (String) row[0];
-            Number totalWorks = (Number) row[1];
-            Number avgCost = (Number) row[2];
-            Number avgDuration = (Number) row[3];
-            Number totalRevenue = (Number) row[4];
-
-            CellStyle rowStyle = alternateRow ? alternateRowStyle : null;
-
-            createDataCell(dataRow, 0, serviceName, rowStyle);
-            createDataCell(dataRow, 1, totalWorks.intValue(), rowStyle);
-
-            Cell avgCostCell = dataRow.createCell(2);
-            avgCostCell.setCellValue(avgCost.doubleValue());
-            avgCostCell.setCellStyle(alternateRow ? createAlternateCurrencyStyle(workbook) : currencyStyle);
-
-            createDataCell(dataRow, 3, avgDuration != null ? avgDuration.doubleValue() : 0.0, rowStyle);
-
-            Cell revenueCell = dataRow.createCell(4);
-            revenueCell.setCellValue(totalRevenue.doubleValue());
-            revenueCell.setCellStyle(alternateRow ? createAlternateCurrencyStyle(workbook) : currencyStyle);
+        try (StreamingWorkbook workbook = createWorkbook()) {
+            Sheet sheet = workbook.createSheet("Mantenimiento Preventivo");
+
+            // Título y fecha
+            int rowIndex = writeTitleAndDate(workbook, sheet, "REPORTE DE MANTENIMIENTOS PREVENTIVOS",
+                    startDate, endDate, 5);
+
+            // Headers
+            workbook.writeHeaders(sheet, rowIndex++, new String[] { "Tipo de Servicio", "Total Trabajos",
+                    "Costo Promedio", "Duración Promedio", "Ingresos Totales" });
+
+            // Data
+            boolean alternateRow = false;
+            for (Object[] row : data) {
+                ReportCancellation.checkpoint();
+                Row dataRow = sheet.createRow(rowIndex++);
+
+                String serviceName = (String) row[0];
+                Number totalWorks = (Number) row[1];
+                Number avgCost = (Number) row[2];
+                Number avgDuration = (Number) row[3];
+                Number totalRevenue = (Number) row[4];
+
+                CellStyle rowStyle = workbook.rowStyle(alternateRow);
+                CellStyle currencyStyle = workbook.currencyStyle(alternateRow);
+
+                workbook.writeCell(dataRow, 0, serviceName, rowStyle);
+                workbook.writeCell(dataRow, 1, totalWorks.intValue(), rowStyle);
+                workbook.writeCell(dataRow, 2, avgCost.doubleValue(), currencyStyle);
+                workbook.writeCell(dataRow, 3, avgDuration != null ? avgDuration.doubleValue() : 0.0, rowStyle);
+                workbook.writeCell(dataRow, 4, totalRevenue.doubleValue(), currencyStyle);
+
+                alternateRow = !alternateRow;
+            }
 
-            alternateRow = !alternateRow;
+            writeToFile(workbook, filePath);
         }
-
-        autoSizeColumns(sheet, 5);
-
-        try (FileOutputStream fileOut = new FileOutputStream(filePath)) {
-            workbook.write(fileOut);
-        }
-        workbook.close();
         log.info("Excel preventive maintenance report generated: {}", filePath);
     }
 
@@ -578,189 +458,59 @@ public class ExcelGenerator {
     private void createSimpleReport(String filePath, String sheetName, String title,
             LocalDateTime startDate, LocalDateTime endDate,
             List<Object[]> data, String[] headers) throws IOException {
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet(sheetName);
-
-        CellStyle titleStyle = createTitleStyle(workbook);
-        CellStyle headerStyle = createHeaderStyle(workbook);
-        CellStyle dateStyle = createDateStyle(workbook);
-        CellStyle alternateRowStyle = createAlternateRowStyle(workbook);
-
-        int rowIndex = 0;
-
-        // Título y fecha
-        createTitle(sheet, title, titleStyle, rowIndex++, headers.length);
-        rowIndex++; // Fila vacía
-        createDateRange(sheet, startDate, endDate, dateStyle, rowIndex++, headers.length);
-        rowIndex++; // Fila vacía
-
-        // Headers
-        Row headerRow = sheet.createRow(rowIndex++);
-        for (int i = 0; i < headers.length; i++) {
-            Cell headerCell = headerRow.createCell(i);
-            headerCell.setCellValue(headers[i]);
-            headerCell.setCellStyle(headerStyle);
-        }
-
-        // Data
-        boolean alternateRow = false;
-        for (Object[] row : data) {
-            Row dataRow = sheet.createRow(rowIndex++);
-            for (int i = 0; i < row.length && i < headers.length; i++) {
-                createDataCell(dataRow, i, row[i].toString(), alternateRow ? alternateRowStyle : null);
+        try (StreamingWorkbook workbook = createWorkbook()) {
+            Sheet sheet = workbook.createSheet(sheetName);
+
+            // Título y fecha
+            int rowIndex = writeTitleAndDate(workbook, sheet, title, startDate, endDate, headers.length);
+
+            // Headers
+            workbook.writeHeaders(sheet, rowIndex++, headers);
+
+            // Data
+            boolean alternateRow = false;
+            for (Object[] row : data) {
+                ReportCancellation.checkpoint();
+                Row dataRow = sheet.createRow(rowIndex++);
+                for (int i = 0; i < row.length && i < headers.length; i++) {
+                    workbook.writeCell(dataRow, i, row[i].toString(), workbook.rowStyle(alternateRow));
+                }
+                alternateRow = !alternateRow;
             }
-            alternateRow = !alternateRow;
-        }
-
-        autoSizeColumns(sheet, headers.length);
 
-        try (FileOutputStream fileOut = new FileOutputStream(filePath)) {
-            workbook.write(fileOut);
+            writeToFile(workbook, filePath);
         }
-        workbook.close();
         log.info("Excel simple report generated: {}", filePath);
     }
 
-    private void createTitle(Sheet sheet, String title, CellStyle titleStyle, int rowIndex, int colSpan) {
-        Row titleRow = sheet.createRow(rowIndex);
-        Cell titleCell = titleRow.createCell(0);
-        titleCell.setCellValue(title);
-        titleCell.setCellStyle(titleStyle);
-        if (colSpan > 1) {
-            sheet.addMergedRegion(new CellRangeAddress(rowIndex, rowIndex, 0, colSpan - 1));
-        }
-    }
-
-    private void createTitle(Sheet sheet, String title, CellStyle titleStyle) {
-        createTitle(sheet, title, titleStyle, 0, 2);
+    private StreamingWorkbook createWorkbook() {
+        ReportProperties.ExcelConfig excel = reportProperties.getExcel();
+        return new StreamingWorkbook(excel.getRowAccessWindowSize(), excel.isAutoSizeColumns());
     }
 
-    private void createDateRange(Sheet sheet, LocalDateTime startDate, LocalDateTime endDate,
-            CellStyle dateStyle, int rowIndex, int colSpan) {
-        Row dateRow = sheet.createRow(rowIndex);
-        Cell dateCell = dateRow.createCell(0);
-        dateCell.setCellValue("Período: " + formatDateRange(startDate, endDate));
-        dateCell.setCellStyle(dateStyle);
-        if (colSpan > 1) {
-            sheet.addMergedRegion(new CellRangeAddress(rowIndex, rowIndex, 0, colSpan - 1));
-        }
-    }
-
-    private void createDateRange(Sheet sheet, LocalDateTime startDate, LocalDateTime endDate, CellStyle dateStyle) {
-        createDateRange(sheet, startDate, endDate, dateStyle, 2, 2);
-    }
-
-    private void createDataCell(Row row, int colIndex, Object value, CellStyle style) {
-        Cell cell = row.createCell(colIndex);
-
-        if (value instanceof Number) {
-            cell.setCellValue(((Number) value).doubleValue());
-        } else {
-            cell.setCellValue(value != null ? value.toString() : "");
-        }
-
-        if (style != null) {
-            cell.setCellStyle(style);
-        }
+    // Título, fila vacía, período y fila vacía; devuelve la siguiente fila libre
+    private int writeTitleAndDate(StreamingWorkbook workbook, Sheet sheet, String title,
+            LocalDateTime startDate, LocalDateTime endDate, int colSpan) {
+        workbook.writeMergedRow(sheet, 0, title, workbook.style(Style.TITLE), colSpan);
+        workbook.writeMergedRow(sheet, 2, "Período: " + formatDateRange(startDate, endDate),
+                workbook.style(Style.DATE), colSpan);
+        return 4;
     }
 
-    private void autoSizeColumns(Sheet sheet, int numColumns) {
-        for (int i = 0; i < numColumns; i++) {
-            sheet.autoSizeColumn(i);
-            // Agregar un poco de padding
-            int currentWidth = sheet.getColumnWidth(i);
-            sheet.setColumnWidth(i, currentWidth + 1000);
+    private void writeToFile(StreamingWorkbook workbook, String filePath) throws IOException {
+        try (OutputStream fileOut = new BufferedOutputStream(new FileOutputStream(filePath))) {
+            workbook.write(fileOut);
         }
     }
 
-    private void addReportTypeContent(Sheet sheet, ReportType reportType, CellStyle headerStyle) {
+    private void addReportTypeContent(StreamingWorkbook workbook, Sheet sheet, ReportType reportType) {
         // Agregar contenido específico según el tipo de reporte
         Row contentRow = sheet.createRow(5);
-        Cell contentCell = contentRow.createCell(0);
-        contentCell.setCellValue("Tipo de Reporte: " + reportType.getDisplayName());
-        contentCell.setCellStyle(headerStyle);
-    }
-
-    // Estilos
-    private CellStyle createTitleStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        Font font = workbook.createFont();
-        font.setBold(true);
-        font.setFontHeightInPoints((short) 16);
-        font.setColor(IndexedColors.BLACK.getIndex());
-        style.setFont(font);
-        style.setAlignment(HorizontalAlignment.CENTER);
-        style.setVerticalAlignment(VerticalAlignment.CENTER);
-        return style;
-    }
-
-    private CellStyle createHeaderStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        Font font = workbook.createFont();
-        font.setBold(true);
-        font.setFontHeightInPoints((short) 12);
-        font.setColor(IndexedColors.WHITE.getIndex());
-        style.setFont(font);
-        style.setFillForegroundColor(IndexedColors.DARK_BLUE.getIndex());
-        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        style.setAlignment(HorizontalAlignment.CENTER);
-        style.setBorderBottom(BorderStyle.THIN);
-        style.setBorderTop(BorderStyle.THIN);
-        style.setBorderRight(BorderStyle.THIN);
-        style.setBorderLeft(BorderStyle.THIN);
-        return style;
-    }
-
-    private CellStyle createDateStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        Font font = workbook.createFont();
-        font.setFontHeightInPoints((short) 11);
-        font.setItalic(true);
-        style.setFont(font);
-        style.setAlignment(HorizontalAlignment.CENTER);
-        return style;
-    }
-
-    private CellStyle createCurrencyStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        DataFormat format = workbook.createDataFormat();
-        style.setDataFormat(format.getFormat("$#,##0.00"));
-        style.setAlignment(HorizontalAlignment.RIGHT);
-        return style;
-    }
-
-    private CellStyle createAlternateRowStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        style.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        return style;
-    }
-
-    private CellStyle createAlternateCurrencyStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        DataFormat format = workbook.createDataFormat();
-        style.setDataFormat(format.getFormat("$#,##0.00"));
-        style.setAlignment(HorizontalAlignment.RIGHT);
-        style.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        return style;
-    }
-
-    private CellStyle createTotalStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        Font font = workbook.createFont();
-        font.setBold(true);
-        font.setColor(IndexedColors.WHITE.getIndex());
-        style.setFont(font);
-        style.setFillForegroundColor(IndexedColors.DARK_BLUE.getIndex());
-        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        DataFormat format = workbook.createDataFormat();
-        style.setDataFormat(format.getFormat("$#,##0.00"));
-        style.setAlignment(HorizontalAlignment.RIGHT);
-        return style;
+        workbook.writeCell(contentRow, 0, "Tipo de Reporte: " + reportType.getDisplayName(),
+                workbook.style(Style.HEADER));
     }
 
     private String formatDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         return startDate.format(DATE_FORMATTER) + " - " + endDate.format(DATE_FORMATTER);
     }
-}
\ No newline at end of file
+}
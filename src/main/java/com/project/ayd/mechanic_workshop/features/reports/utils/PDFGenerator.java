@@ -1,5 +1,10 @@
 package com.project.ayd.mechanic_workshop.features.reports.utils;
 
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.io.image.ImageDataFactory;
 import com.itextpdf.kernel.colors.ColorConstants;
 import com.itextpdf.kernel.colors.DeviceRgb;
 import com.itextpdf.kernel.font.PdfFont;
@@ -9,20 +14,26 @@ import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Image;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.HorizontalAlignment;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
 import com.project.ayd.mechanic_workshop.features.reports.enums.ReportType;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.List;
 import java.math.RoundingMode;
 
@@ -33,63 +44,157 @@ public class PDFGenerator {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
     private static final DeviceRgb HEADER_COLOR = new DeviceRgb(41, 128, 185);
     private static final DeviceRgb ALT_ROW_COLOR = new DeviceRgb(245, 245, 245);
+    private static final FontProgram FONT_PROGRAM = loadFontProgram();
+    private static final int FLUSH_ROWS = 50; // Filas por bloque en tablas grandes
 
     public byte[] generateReport(ReportType reportType, LocalDateTime startDate, LocalDateTime endDate)
             throws IOException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        PdfWriter writer = new PdfWriter(baos);
-        PdfDocument pdfDoc = new PdfDocument(writer);
-        Document document = new Document(pdfDoc, PageSize.A4);
+        generateReport(reportType, startDate, endDate, baos);
+        return baos.toByteArray();
+    }
 
-        // Configurar fuentes
-        PdfFont titleFont = PdfFontFactory.createFont();
-        PdfFont headerFont = PdfFontFactory.createFont();
-        PdfFont normalFont = PdfFontFactory.createFont();
+    public void generateReport(ReportType reportType, LocalDateTime startDate, LocalDateTime endDate,
+            OutputStream outputStream) throws IOException {
+        Document document = openDocument(outputStream, PageSize.A4);
+        PdfFont font = createDocumentFont();
 
         // Título del reporte
-        addTitle(document, reportType.getDisplayName(), titleFont);
-        addDateRange(document, startDate, endDate, normalFont);
+        addTitle(document, reportType.getDisplayName(), font);
+        addDateRange(document, startDate, endDate, font);
 
         // Contenido específico por tipo de reporte
-        addReportTypeContent(document, reportType, headerFont, normalFont);
+        addReportTypeContent(document, reportType, font);
+
+        document.close();
+    }
+
+    /**
+     * Genera un reporte tabular genérico escribiendo la tabla por bloques
+     *
+     * @param outputStream Destino del documento; no se cierra
+     * @param title        Título del reporte
+     * @param headers      Encabezados de las columnas
+     * @param data         Filas del reporte
+     * @param startDate    Fecha de inicio
+     * @param endDate      Fecha de fin
+     */
+    public void generateTableReport(OutputStream outputStream, String title, String[] headers,
+            List<Object[]> data, LocalDateTime startDate, LocalDateTime endDate) throws IOException {
+        generateTableReport(outputStream, title, headers, data, startDate, endDate, null);
+    }
+
+    /**
+     * Igual que generateTableReport, con un gráfico entre el período y la tabla
+     *
+     * @param chartPng Imagen PNG del gráfico, o null para omitirlo
+     */
+    public void generateTableReport(OutputStream outputStream, String title, String[] headers,
+            List<Object[]> data, LocalDateTime startDate, LocalDateTime endDate, byte[] chartPng)
+            throws IOException {
+        Document document = openDocument(outputStream, PageSize.A4);
+        PdfFont font = createDocumentFont();
+
+        // Título
+        document.add(new Paragraph(title)
+                .setFont(font)
+                .setFontSize(18)
+                .setBold()
+                .setTextAlignment(TextAlignment.CENTER)
+                .setMarginBottom(20));
+
+        // Rango de fechas
+        document.add(new Paragraph(String.format("Período: %s - %s",
+                startDate.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")),
+                endDate.format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))))
+                .setFont(font)
+                .setFontSize(12)
+                .setTextAlignment(TextAlignment.CENTER)
+                .setMarginBottom(20));
+
+        // Gráfico, ajustado al ancho de la página
+        if (chartPng != null) {
+            document.add(new Image(ImageDataFactory.create(chartPng))
+                    .setAutoScale(true)
+                    .setHorizontalAlignment(HorizontalAlignment.CENTER)
+                    .setMarginBottom(20));
+        }
+
+        // Tabla
+        if (!data.isEmpty()) {
+            float[] columnWidths = new float[headers.length];
+            Arrays.fill(columnWidths, 1);
+
+            Table table = createLargeTable(columnWidths);
+            for (String header : headers) {
+                table.addHeaderCell(new Cell()
+                        .add(new Paragraph(header).setFont(font).setFontColor(ColorConstants.WHITE))
+                        .setBackgroundColor(HEADER_COLOR));
+            }
+            document.add(table);
+
+            boolean alternateRow = false;
+            int rowCount = 0;
+            for (Object[] row : data) {
+                for (int i = 0; i < row.length && i < headers.length; i++) {
+                    Object cellData = row[i];
+                    Cell cell = new Cell().add(new Paragraph(cellData != null ? cellData.toString() : "")
+                            .setFont(font));
+                    if (alternateRow) {
+                        cell.setBackgroundColor(ALT_ROW_COLOR);
+                    }
+                    table.addCell(cell);
+                }
+                alternateRow = !alternateRow;
+                flushRows(table, ++rowCount);
+            }
+
+            table.complete();
+        } else {
+            document.add(new Paragraph("No hay datos disponibles para el período seleccionado.")
+                    .setFont(font)
+                    .setTextAlignment(TextAlignment.CENTER));
+        }
+
+        // Footer
+        document.add(new Paragraph(String.format("Generado el: %s", LocalDateTime.now().format(DATE_FORMATTER)))
+                .setFont(font)
+                .setFontSize(10)
+                .setTextAlignment(TextAlignment.RIGHT)
+                .setMarginTop(20));
 
         document.close();
-        return baos.toByteArray();
     }
 
     public void generateFinancialIncomeReport(String filePath, List<Object[]> data,
             LocalDateTime startDate, LocalDateTime endDate) throws IOException {
-        PdfWriter writer = new PdfWriter(new FileOutputStream(filePath));
-        PdfDocument pdfDoc = new PdfDocument(writer);
-        Document document = new Document(pdfDoc, PageSize.A4);
-
-        PdfFont titleFont = PdfFontFactory.createFont();
-        PdfFont headerFont = PdfFontFactory.createFont();
-        PdfFont normalFont = PdfFontFactory.createFont();
+        Document document = openDocument(filePath, PageSize.A4);
+        PdfFont font = createDocumentFont();
 
         // Título
-        addTitle(document, "REPORTE FINANCIERO - INGRESOS", titleFont);
-        addDateRange(document, startDate, endDate, normalFont);
+        addTitle(document, "REPORTE FINANCIERO - INGRESOS", font);
+        addDateRange(document, startDate, endDate, font);
 
         // Tabla de ingresos
         float[] columnWidths = { 3, 2 };
-        Table table = new Table(UnitValue.createPercentArray(columnWidths));
-        table.setWidth(UnitValue.createPercentValue(100));
+        Table table = createLargeTable(columnWidths);
 
         // Headers
-        addTableHeader(table, new String[] { "Mes", "Ingresos" }, headerFont);
+        addTableHeader(table, new String[] { "Mes", "Ingresos" }, font);
+        document.add(table);
 
         // Data
         BigDecimal total = BigDecimal.ZERO;
         boolean alternateRow = false;
+        int rowCount = 0;
         for (Object[] row : data) {
             String month = (String) row[0];
             BigDecimal income = new BigDecimal(row[1].toString());
             total = total.add(income);
 
-            Cell monthCell = new Cell().add(new Paragraph(month).setFont(normalFont));
+            Cell monthCell = new Cell().add(new Paragraph(month).setFont(font));
             Cell incomeCell = new Cell().add(
-                    new Paragraph("$" + income.toString()).setFont(normalFont).setTextAlignment(TextAlignment.RIGHT));
+                    new Paragraph("$" + income.toString()).setFont(font).setTextAlignment(TextAlignment.RIGHT));
 
             if (alternateRow) {
                 monthCell.setBackgroundColor(ALT_ROW_COLOR);
@@ -99,11 +204,12 @@ public class PDFGenerator {
             table.addCell(monthCell);
             table.addCell(incomeCell);
             alternateRow = !alternateRow;
+            flushRows(table, ++rowCount);
         }
 
         // Total row
-        Cell totalLabelCell = new Cell().add(new Paragraph("TOTAL").setFont(headerFont).setBold());
-        Cell totalValueCell = new Cell().add(new Paragraph("$" + total.toString()).setFont(headerFont).setBold()
+        Cell totalLabelCell = new Cell().add(new Paragraph("TOTAL").setFont(font).setBold());
+        Cell totalValueCell = new Cell().add(new Paragraph("$" + total.toString()).setFont(font).setBold()
                 .setTextAlignment(TextAlignment.RIGHT));
         totalLabelCell.setBackgroundColor(HEADER_COLOR).setFontColor(ColorConstants.WHITE);
         totalValueCell.setBackgroundColor(HEADER_COLOR).setFontColor(ColorConstants.WHITE);
@@ -111,16 +217,16 @@ public class PDFGenerator {
         table.addCell(totalLabelCell);
         table.addCell(totalValueCell);
 
-        document.add(table);
+        table.complete();
 
         // Resumen estadístico
         document.add(new Paragraph("\n"));
-        addSummarySection(document, "Resumen del Período", normalFont, headerFont);
-        document.add(new Paragraph("Total de Ingresos: $" + total.toString()).setFont(normalFont));
-        document.add(new Paragraph("Número de Períodos: " + data.size()).setFont(normalFont));
+        addSummarySection(document, "Resumen del Período", font);
+        document.add(new Paragraph("Total de Ingresos: $" + total.toString()).setFont(font));
+        document.add(new Paragraph("Número de Períodos: " + data.size()).setFont(font));
         if (!data.isEmpty()) {
             BigDecimal average = total.divide(new BigDecimal(data.size()), 2, RoundingMode.HALF_UP);
-            document.add(new Paragraph("Promedio por Período: $" + average.toString()).setFont(normalFont));
+            document.add(new Paragraph("Promedio por Período: $" + average.toString()).setFont(font));
         }
 
         document.close();
@@ -129,36 +235,32 @@ public class PDFGenerator {
 
     public void generateFinancialExpensesReport(String filePath, List<Object[]> data,
             LocalDateTime startDate, LocalDateTime endDate) throws IOException {
-        PdfWriter writer = new PdfWriter(new FileOutputStream(filePath));
-        PdfDocument pdfDoc = new PdfDocument(writer);
-        Document document = new Document(pdfDoc, PageSize.A4);
-
-        PdfFont titleFont = PdfFontFactory.createFont();
-        PdfFont headerFont = PdfFontFactory.createFont();
-        PdfFont normalFont = PdfFontFactory.createFont();
+        Document document = openDocument(filePath, PageSize.A4);
+        PdfFont font = createDocumentFont();
 
-        addTitle(document, "REPORTE FINANCIERO - EGRESOS", titleFont);
-        addDateRange(document, startDate, endDate, normalFont);
+        addTitle(document, "REPORTE FINANCIERO - EGRESOS", font);
+        addDateRange(document, startDate, endDate, font);
 
         // Tabla de egresos
         float[] columnWidths = { 2, 2, 4 };
-        Table table = new Table(UnitValue.createPercentArray(columnWidths));
-        table.setWidth(UnitValue.createPercentValue(100));
+        Table table = createLargeTable(columnWidths);
 
-        addTableHeader(table, new String[] { "Mes", "Gastos", "Descripción" }, headerFont);
+        addTableHeader(table, new String[] { "Mes", "Gastos", "Descripción" }, font);
+        document.add(table);
 
         BigDecimal total = BigDecimal.ZERO;
         boolean alternateRow = false;
+        int rowCount = 0;
         for (Object[] row : data) {
             String month = (String) row[0];
             BigDecimal expense = new BigDecimal(row[1].toString());
             String description = (String) row[2];
             total = total.add(expense);
 
-            Cell monthCell = new Cell().add(new Paragraph(month).setFont(normalFont));
+            Cell monthCell = new Cell().add(new Paragraph(month).setFont(font));
             Cell expenseCell = new Cell().add(
-                    new Paragraph("$" + expense.toString()).setFont(normalFont).setTextAlignment(TextAlignment.RIGHT));
-            Cell descCell = new Cell().add(new Paragraph(description).setFont(normalFont));
+                    new Paragraph("$" + expense.toString()).setFont(font).setTextAlignment(TextAlignment.RIGHT));
+            Cell descCell = new Cell().add(new Paragraph(description).setFont(font));
 
             if (alternateRow) {
                 monthCell.setBackgroundColor(ALT_ROW_COLOR);
@@ -170,13 +272,14 @@ public class PDFGenerator {
             table.addCell(expenseCell);
             table.addCell(descCell);
             alternateRow = !alternateRow;
+            flushRows(table, ++rowCount);
         }
 
         // Total row
-        Cell totalLabelCell = new Cell().add(new Paragraph("TOTAL").setFont(headerFont).setBold());
-        Cell totalValueCell = new Cell().add(new Paragraph("$" + total.toString()).setFont(headerFont).setBold()
+        Cell totalLabelCell = new Cell().add(new Paragraph("TOTAL").setFont(font).setBold());
+        Cell totalValueCell = new Cell().add(new Paragraph("$" + total.toString()).setFont(font).setBold()
                 .setTextAlignment(TextAlignment.RIGHT));
-        Cell emptyCell = new Cell().add(new Paragraph("").setFont(normalFont));
+        Cell emptyCell = new Cell().add(new Paragraph("").setFont(font));
 
         totalLabelCell.setBackgroundColor(HEADER_COLOR).setFontColor(ColorConstants.WHITE);
         totalValueCell.setBackgroundColor(HEADER_COLOR).setFontColor(ColorConstants.WHITE);
@@ -186,70 +289,56 @@ public class PDFGenerator {
         table.addCell(totalValueCell);
         table.addCell(emptyCell);
 
-        document.add(table);
+        table.complete();
         document.close();
         log.info("PDF financial expenses report generated: {}", filePath);
     }
 
     public void generateWorksByDateReport(String filePath, List<Object[]> data,
             LocalDateTime startDate, LocalDateTime endDate) throws IOException {
-        PdfWriter writer = new PdfWriter(new FileOutputStream(filePath));
-        PdfDocument pdfDoc = new PdfDocument(writer);
-        Document document = new Document(pdfDoc, PageSize.A4);
+        Document document = openDocument(filePath, PageSize.A4);
+        PdfFont font = createDocumentFont();
 
-        PdfFont titleFont = PdfFontFactory.createFont();
-        PdfFont headerFont = PdfFontFactory.createFont();
-        PdfFont normalFont = PdfFontFactory.createFont();
+        addTitle(document, "REPORTE DE TRABAJOS POR FECHA", font);
+        addDateRange(document, startDate, endDate, font);
 
-        addTitle(document, "REPORTE DE TRABAJOS POR FECHA", titleFont);
-        addDateRange(document, startDate, endDate, normalFont);
-
-        createSimpleTable(document, data, new String[] { "Estado", "Cantidad" }, headerFont, normalFont);
+        createSimpleTable(document, data, new String[] { "Estado", "Cantidad" }, font);
         document.close();
         log.info("PDF works by date report generated: {}", filePath);
     }
 
     public void generateWorksByTypeReport(String filePath, List<Object[]> data,
             LocalDateTime startDate, LocalDateTime endDate) throws IOException {
-        PdfWriter writer = new PdfWriter(new FileOutputStream(filePath));
-        PdfDocument pdfDoc = new PdfDocument(writer);
-        Document document = new Document(pdfDoc, PageSize.A4);
-
-        PdfFont titleFont = PdfFontFactory.createFont();
-        PdfFont headerFont = PdfFontFactory.createFont();
-        PdfFont normalFont = PdfFontFactory.createFont();
+        Document document = openDocument(filePath, PageSize.A4);
+        PdfFont font = createDocumentFont();
 
-        addTitle(document, "REPORTE DE TRABAJOS POR TIPO DE SERVICIO", titleFont);
-        addDateRange(document, startDate, endDate, normalFont);
+        addTitle(document, "REPORTE DE TRABAJOS POR TIPO DE SERVICIO", font);
+        addDateRange(document, startDate, endDate, font);
 
-        createSimpleTable(document, data, new String[] { "Tipo de Servicio", "Cantidad" }, headerFont, normalFont);
+        createSimpleTable(document, data, new String[] { "Tipo de Servicio", "Cantidad" }, font);
         document.close();
         log.info("PDF works by type report generated: {}", filePath);
     }
 
     public void generateWorksByEmployeeReport(String filePath, List<Object[]> data,
             LocalDateTime startDate, LocalDateTime endDate) throws IOException {
-        PdfWriter writer = new PdfWriter(new FileOutputStream(filePath));
-        PdfDocument pdfDoc = new PdfDocument(writer);
-        Document document = new Document(pdfDoc, PageSize.A4.rotate()); // Landscape for more columns
-
-        PdfFont titleFont = PdfFontFactory.createFont();
-        PdfFont headerFont = PdfFontFactory.createFont();
-        PdfFont normalFont = PdfFontFactory.createFont();
+        Document document = openDocument(filePath, PageSize.A4.rotate()); // Landscape for more columns
+        PdfFont font = createDocumentFont();
 
-        addTitle(document, "REPORTE DE DESEMPEÑO POR EMPLEADO", titleFont);
-        addDateRange(document, startDate, endDate, normalFont);
+        addTitle(document, "REPORTE DE DESEMPEÑO POR EMPLEADO", font);
+        addDateRange(document, startDate, endDate, font);
 
         // Tabla más compleja para empleados
         float[] columnWidths = { 3, 1, 1.5f, 1.5f, 1.5f, 2 };
-        Table table = new Table(UnitValue.createPercentArray(columnWidths));
-        table.setWidth(UnitValue.createPercentValue(100));
+        Table table = createLargeTable(columnWidths);
 
         String[] headers = { "Empleado", "ID", "Trabajos Asignados", "Completados", "Tiempo Promedio",
                 "Ingresos Totales" };
-        addTableHeader(table, headers, headerFont);
+        addTableHeader(table, headers, font);
+        document.add(table);
 
         boolean alternateRow = false;
+        int rowCount = 0;
         for (Object[] row : data) {
             String employeeName = (String) row[0];
             String employeeId = row[1].toString();
@@ -259,16 +348,16 @@ public class PDFGenerator {
             String totalRevenue = "$" + (row[5] != null ? row[5].toString() : "0");
 
             Cell[] cells = {
-                    new Cell().add(new Paragraph(employeeName).setFont(normalFont)),
+                    new Cell().add(new Paragraph(employeeName).setFont(font)),
                     new Cell()
-                            .add(new Paragraph(employeeId).setFont(normalFont).setTextAlignment(TextAlignment.CENTER)),
+                            .add(new Paragraph(employeeId).setFont(font).setTextAlignment(TextAlignment.CENTER)),
                     new Cell()
-                            .add(new Paragraph(totalWorks).setFont(normalFont).setTextAlignment(TextAlignment.CENTER)),
+                            .add(new Paragraph(totalWorks).setFont(font).setTextAlignment(TextAlignment.CENTER)),
                     new Cell().add(
-                            new Paragraph(completedWorks).setFont(normalFont).setTextAlignment(TextAlignment.CENTER)),
-                    new Cell().add(new Paragraph(avgTime).setFont(normalFont).setTextAlignment(TextAlignment.CENTER)),
+                            new Paragraph(completedWorks).setFont(font).setTextAlignment(TextAlignment.CENTER)),
+                    new Cell().add(new Paragraph(avgTime).setFont(font).setTextAlignment(TextAlignment.CENTER)),
                     new Cell()
-                            .add(new Paragraph(totalRevenue).setFont(normalFont).setTextAlignment(TextAlignment.RIGHT))
+                            .add(new Paragraph(totalRevenue).setFont(font).setTextAlignment(TextAlignment.RIGHT))
             };
 
             if (alternateRow) {
@@ -281,34 +370,31 @@ public class PDFGenerator {
                 table.addCell(cell);
             }
             alternateRow = !alternateRow;
+            flushRows(table, ++rowCount);
         }
 
-        document.add(table);
+        table.complete();
         document.close();
         log.info("PDF works by employee report generated: {}", filePath);
     }
 
     public void generatePartsUsageReport(String filePath, List<Object[]> data,
             LocalDateTime startDate, LocalDateTime endDate) throws IOException {
-        PdfWriter writer = new PdfWriter(new FileOutputStream(filePath));
-        PdfDocument pdfDoc = new PdfDocument(writer);
-        Document document = new Document(pdfDoc, PageSize.A4);
+        Document document = openDocument(filePath, PageSize.A4);
+        PdfFont font = createDocumentFont();
 
-        PdfFont titleFont = PdfFontFactory.createFont();
-        PdfFont headerFont = PdfFontFactory.createFont();
-        PdfFont normalFont = PdfFontFactory.createFont();
-
-        addTitle(document, "REPORTE DE USO DE REPUESTOS", titleFont);
-        addDateRange(document, startDate, endDate, normalFont);
+        addTitle(document, "REPORTE DE USO DE REPUESTOS", font);
+        addDateRange(document, startDate, endDate, font);
 
         float[] columnWidths = { 3, 2, 1.5f, 2, 1.5f };
-        Table table = new Table(UnitValue.createPercentArray(columnWidths));
-        table.setWidth(UnitValue.createPercentValue(100));
+        Table table = createLargeTable(columnWidths);
 
         String[] headers = { "Repuesto", "Categoría", "Cantidad", "Costo Total", "Trabajos" };
-        addTableHeader(table, headers, headerFont);
+        addTableHeader(table, headers, font);
+        document.add(table);
 
         boolean alternateRow = false;
+        int rowCount = 0;
         for (Object[] row : data) {
             String partName = (String) row[0];
             String category = (String) row[1];
@@ -317,11 +403,11 @@ public class PDFGenerator {
             String worksCount = row[4].toString();
 
             Cell[] cells = {
-                    new Cell().add(new Paragraph(partName).setFont(normalFont)),
-                    new Cell().add(new Paragraph(category).setFont(normalFont)),
-                    new Cell().add(new Paragraph(quantity).setFont(normalFont).setTextAlignment(TextAlignment.CENTER)),
-                    new Cell().add(new Paragraph(totalCost).setFont(normalFont).setTextAlignment(TextAlignment.RIGHT)),
-                    new Cell().add(new Paragraph(worksCount).setFont(normalFont).setTextAlignment(TextAlignment.CENTER))
+                    new Cell().add(new Paragraph(partName).setFont(font)),
+                    new Cell().add(new Paragraph(category).setFont(font)),
+                    new Cell().add(new Paragraph(quantity).setFont(font).setTextAlignment(TextAlignment.CENTER)),
+                    new Cell().add(new Paragraph(totalCost).setFont(font).setTextAlignment(TextAlignment.RIGHT)),
+                    new Cell().add(new Paragraph(worksCount).setFont(font).setTextAlignment(TextAlignment.CENTER))
             };
 
             if (alternateRow) {
@@ -334,34 +420,31 @@ public class PDFGenerator {
                 table.addCell(cell);
             }
             alternateRow = !alternateRow;
+            flushRows(table, ++rowCount);
         }
 
-        document.add(table);
+        table.complete();
         document.close();
         log.info("PDF parts usage report generated: {}", filePath);
     }
 
     public void generatePartsByBrandReport(String filePath, List<Object[]> data,
             LocalDateTime startDate, LocalDateTime endDate) throws IOException {
-        PdfWriter writer = new PdfWriter(new FileOutputStream(filePath));
-        PdfDocument pdfDoc = new PdfDocument(writer);
-        Document document = new Document(pdfDoc, PageSize.A4);
-
-        PdfFont titleFont = PdfFontFactory.createFont();
-        PdfFont headerFont = PdfFontFactory.createFont();
-        PdfFont normalFont = PdfFontFactory.createFont();
+        Document document = openDocument(filePath, PageSize.A4);
+        PdfFont font = createDocumentFont();
 
-        addTitle(document, "REPORTE DE REPUESTOS POR MARCA DE VEHÍCULO", titleFont);
-        addDateRange(document, startDate, endDate, normalFont);
+        addTitle(document, "REPORTE DE REPUESTOS POR MARCA DE VEHÍCULO", font);
+        addDateRange(document, startDate, endDate, font);
 
         float[] columnWidths = { 2, 3, 2, 1.5f, 2 };
-        Table table = new Table(UnitValue.createPercentArray(columnWidths));
-        table.setWidth(UnitValue.createPercentValue(100));
+        Table table = createLargeTable(columnWidths);
 
         String[] headers = { "Marca", "Repuesto", "Categoría", "Cantidad", "Costo Total" };
-        addTableHeader(table, headers, headerFont);
+        addTableHeader(table, headers, font);
+        document.add(table);
 
         boolean alternateRow = false;
+        int rowCount = 0;
         for (Object[] row : data) {
             String brand = (String) row[0];
             String partName = (String) row[1];
@@ -370,11 +453,11 @@ public class PDFGenerator {
             String totalCost = "$" + row[4].toString();
 
             Cell[] cells = {
-                    new Cell().add(new Paragraph(brand).setFont(normalFont)),
-                    new Cell().add(new Paragraph(partName).setFont(normalFont)),
-                    new Cell().add(new Paragraph(category).setFont(normalFont)),
-                    new Cell().add(new Paragraph(quantity).setFont(normalFont).setTextAlignment(TextAlignment.CENTER)),
-                    new Cell().add(new Paragraph(totalCost).setFont(normalFont).setTextAlignment(TextAlignment.RIGHT))
+                    new Cell().add(new Paragraph(brand).setFont(font)),
+                    new Cell().add(new Paragraph(partName).setFont(font)),
+                    new Cell().add(new Paragraph(category).setFont(font)),
+                    new Cell().add(new Paragraph(quantity).setFont(font).setTextAlignment(TextAlignment.CENTER)),
+                    new Cell().add(new Paragraph(totalCost).setFont(font).setTextAlignment(TextAlignment.RIGHT))
             };
 
             if (alternateRow) {
@@ -387,35 +470,32 @@ public class PDFGenerator {
                 table.addCell(cell);
             }
             alternateRow = !alternateRow;
+            flushRows(table, ++rowCount);
         }
 
-        document.add(table);
+        table.complete();
         document.close();
         log.info("PDF parts by brand report generated: {}", filePath);
     }
 
     public void generateClientHistoryReport(String filePath, List<Object[]> data,
             LocalDateTime startDate, LocalDateTime endDate) throws IOException {
-        PdfWriter writer = new PdfWriter(new FileOutputStream(filePath));
-        PdfDocument pdfDoc = new PdfDocument(writer);
-        Document document = new Document(pdfDoc, PageSize.A4.rotate()); // Landscape
+        Document document = openDocument(filePath, PageSize.A4.rotate()); // Landscape
+        PdfFont font = createDocumentFont();
 
-        PdfFont titleFont = PdfFontFactory.createFont();
-        PdfFont headerFont = PdfFontFactory.createFont();
-        PdfFont normalFont = PdfFontFactory.createFont();
-
-        addTitle(document, "REPORTE DE HISTORIAL DE CLIENTES", titleFont);
-        addDateRange(document, startDate, endDate, normalFont);
+        addTitle(document, "REPORTE DE HISTORIAL DE CLIENTES", font);
+        addDateRange(document, startDate, endDate, font);
 
         float[] columnWidths = { 3, 2, 1.5f, 2, 2, 3 };
-        Table table = new Table(UnitValue.createPercentArray(columnWidths));
-        table.setWidth(UnitValue.createPercentValue(100));
+        Table table = createLargeTable(columnWidths);
 
         String[] headers = { "Cliente", "CUI", "Total Trabajos", "Total Gastado", "Última Visita",
                 "Tipos de Servicio" };
-        addTableHeader(table, headers, headerFont);
+        addTableHeader(table, headers, font);
+        document.add(table);
 
         boolean alternateRow = false;
+        int rowCount = 0;
         for (Object[] row : data) {
             String clientName = (String) row[0];
             String cui = (String) row[1];
@@ -425,13 +505,13 @@ public class PDFGenerator {
             String serviceTypes = (String) row[5];
 
             Cell[] cells = {
-                    new Cell().add(new Paragraph(clientName).setFont(normalFont)),
-                    new Cell().add(new Paragraph(cui).setFont(normalFont)),
+                    new Cell().add(new Paragraph(clientName).setFont(font)),
+                    new Cell().add(new Paragraph(cui).setFont(font)),
                     new Cell()
-                            .add(new Paragraph(totalWorks).setFont(normalFont).setTextAlignment(TextAlignment.CENTER)),
-                    new Cell().add(new Paragraph(totalSpent).setFont(normalFont).setTextAlignment(TextAlignment.RIGHT)),
-                    new Cell().add(new Paragraph(lastVisit).setFont(normalFont).setTextAlignment(TextAlignment.CENTER)),
-                    new Cell().add(new Paragraph(serviceTypes).setFont(normalFont).setFontSize(8))
+                            .add(new Paragraph(totalWorks).setFont(font).setTextAlignment(TextAlignment.CENTER)),
+                    new Cell().add(new Paragraph(totalSpent).setFont(font).setTextAlignment(TextAlignment.RIGHT)),
+                    new Cell().add(new Paragraph(lastVisit).setFont(font).setTextAlignment(TextAlignment.CENTER)),
+                    new Cell().add(new Paragraph(serviceTypes).setFont(font).setFontSize(8))
             };
 
             if (alternateRow) {
@@ -444,35 +524,32 @@ public class PDFGenerator {
                 table.addCell(cell);
             }
             alternateRow = !alternateRow;
+            flushRows(table, ++rowCount);
         }
 
-        document.add(table);
+        table.complete();
         document.close();
         log.info("PDF client history report generated: {}", filePath);
     }
 
     public void generatePreventiveMaintenanceReport(String filePath, List<Object[]> data,
             LocalDateTime startDate, LocalDateTime endDate) throws IOException {
-        PdfWriter writer = new PdfWriter(new FileOutputStream(filePath));
-        PdfDocument pdfDoc = new PdfDocument(writer);
-        Document document = new Document(pdfDoc, PageSize.A4);
-
-        PdfFont titleFont = PdfFontFactory.createFont();
-        PdfFont headerFont = PdfFontFactory.createFont();
-        PdfFont normalFont = PdfFontFactory.createFont();
+        Document document = openDocument(filePath, PageSize.A4);
+        PdfFont font = createDocumentFont();
 
-        addTitle(document, "REPORTE DE MANTENIMIENTOS PREVENTIVOS", titleFont);
-        addDateRange(document, startDate, endDate, normalFont);
+        addTitle(document, "REPORTE DE MANTENIMIENTOS PREVENTIVOS", font);
+        addDateRange(document, startDate, endDate, font);
 
         float[] columnWidths = { 3, 1.5f, 2, 2, 2 };
-        Table table = new Table(UnitValue.createPercentArray(columnWidths));
-        table.setWidth(UnitValue.createPercentValue(100));
+        Table table = createLargeTable(columnWidths);
 
         String[] headers = { "Tipo de Servicio", "Total Trabajos", "Costo Promedio", "Duración Promedio",
                 "Ingresos Totales" };
-        addTableHeader(table, headers, headerFont);
+        addTableHeader(table, headers, font);
+        document.add(table);
 
         boolean alternateRow = false;
+        int rowCount = 0;
         for (Object[] row : data) {
             String serviceName = (String) row[0];
             String totalWorks = row[1].toString();
@@ -481,14 +558,14 @@ public class PDFGenerator {
             String totalRevenue = "$" + row[4].toString();
 
             Cell[] cells = {
-                    new Cell().add(new Paragraph(serviceName).setFont(normalFont)),
+                    new Cell().add(new Paragraph(serviceName).setFont(font)),
                     new Cell()
-                            .add(new Paragraph(totalWorks).setFont(normalFont).setTextAlignment(TextAlignment.CENTER)),
-                    new Cell().add(new Paragraph(avgCost).setFont(normalFont).setTextAlignment(TextAlignment.RIGHT)),
+                            .add(new Paragraph(totalWorks).setFont(font).setTextAlignment(TextAlignment.CENTER)),
+                    new Cell().add(new Paragraph(avgCost).setFont(font).setTextAlignment(TextAlignment.RIGHT)),
                     new Cell()
-                            .add(new Paragraph(avgDuration).setFont(normalFont).setTextAlignment(TextAlignment.CENTER)),
+                            .add(new Paragraph(avgDuration).setFont(font).setTextAlignment(TextAlignment.CENTER)),
                     new Cell()
-                            .add(new Paragraph(totalRevenue).setFont(normalFont).setTextAlignment(TextAlignment.RIGHT))
+                            .add(new Paragraph(totalRevenue).setFont(font).setTextAlignment(TextAlignment.RIGHT))
             };
 
             if (alternateRow) {
@@ -501,14 +578,59 @@ public class PDFGenerator {
                 table.addCell(cell);
             }
             alternateRow = !alternateRow;
+            flushRows(table, ++rowCount);
         }
 
-        document.add(table);
+        table.complete();
         document.close();
         log.info("PDF preventive maintenance report generated: {}", filePath);
     }
 
     // Helper methods
+    private Document openDocument(String filePath, PageSize pageSize) throws IOException {
+        return new Document(new PdfDocument(new PdfWriter(
+                new BufferedOutputStream(new FileOutputStream(filePath)))), pageSize);
+    }
+
+    // El OutputStream es del llamador (por ejemplo, la respuesta HTTP), así que no se cierra
+    private Document openDocument(OutputStream outputStream, PageSize pageSize) {
+        PdfWriter writer = new PdfWriter(outputStream);
+        writer.setCloseStream(false);
+        return new Document(new PdfDocument(writer), pageSize);
+    }
+
+    // Un PdfFont pertenece a un solo documento; lo que se reutiliza entre reportes es el FontProgram
+    private PdfFont createDocumentFont() {
+        return PdfFontFactory.createFont(FONT_PROGRAM, PdfEncodings.WINANSI);
+    }
+
+    /*
+     * Tabla en modo "large table": se agrega al documento antes de llenarla y las filas
+     * ya completas se escriben y liberan con flush(), así que la memoria no crece con el
+     * número de filas. Al terminar se debe llamar a complete().
+     */
+    private Table createLargeTable(float[] columnWidths) {
+        Table table = new Table(UnitValue.createPercentArray(columnWidths), true);
+        table.setWidth(UnitValue.createPercentValue(100));
+        return table;
+    }
+
+    // Se llama después de cada fila: también es el punto de cancelación de los trabajos de reporte
+    private void flushRows(Table table, int rowCount) {
+        ReportCancellation.checkpoint();
+        if (rowCount % FLUSH_ROWS == 0) {
+            table.flush();
+        }
+    }
+
+    private static FontProgram loadFontProgram() {
+        try {
+            return FontProgramFactory.createFont(StandardFonts.HELVETICA);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load report font", e);
+        }
+    }
+
     private void addTitle(Document document, String title, PdfFont font) {
         Paragraph titleParagraph = new Paragraph(title)
                 .setFont(font)
@@ -529,63 +651,63 @@ public class PDFGenerator {
         document.add(dateParagraph);
     }
 
-    private void addSummarySection(Document document, String sectionTitle, PdfFont normalFont, PdfFont headerFont) {
+    private void addSummarySection(Document document, String sectionTitle, PdfFont font) {
         Paragraph summaryTitle = new Paragraph(sectionTitle)
-                .setFont(headerFont)
+                .setFont(font)
                 .setBold()
                 .setFontSize(14)
                 .setMarginBottom(10);
         document.add(summaryTitle);
     }
 
-    private void addTableHeader(Table table, String[] headers, PdfFont headerFont) {
+    private void addTableHeader(Table table, String[] headers, PdfFont font) {
         for (String header : headers) {
             Cell headerCell = new Cell()
-                    .add(new Paragraph(header).setFont(headerFont).setBold().setFontColor(ColorConstants.WHITE))
+                    .add(new Paragraph(header).setFont(font).setBold().setFontColor(ColorConstants.WHITE))
                     .setBackgroundColor(HEADER_COLOR)
                     .setTextAlignment(TextAlignment.CENTER);
             table.addHeaderCell(headerCell);
         }
     }
 
-    private void createSimpleTable(Document document, List<Object[]> data, String[] headers, PdfFont headerFont,
-            PdfFont normalFont) {
+    private void createSimpleTable(Document document, List<Object[]> data, String[] headers, PdfFont font) {
         float[] columnWidths = new float[headers.length];
         for (int i = 0; i < headers.length; i++) {
             columnWidths[i] = 1;
         }
 
-        Table table = new Table(UnitValue.createPercentArray(columnWidths));
-        table.setWidth(UnitValue.createPercentValue(100));
+        Table table = createLargeTable(columnWidths);
 
-        addTableHeader(table, headers, headerFont);
+        addTableHeader(table, headers, font);
+        document.add(table);
 
         boolean alternateRow = false;
+        int rowCount = 0;
         for (Object[] row : data) {
             for (Object cellData : row) {
-                Cell cell = new Cell().add(new Paragraph(cellData.toString()).setFont(normalFont));
+                Cell cell = new Cell().add(new Paragraph(cellData.toString()).setFont(font));
                 if (alternateRow) {
                     cell.setBackgroundColor(ALT_ROW_COLOR);
                 }
                 table.addCell(cell);
             }
             alternateRow = !alternateRow;
+            flushRows(table, ++rowCount);
         }
 
-        document.add(table);
+        table.complete();
     }
 
-    private void addReportTypeContent(Document document, ReportType reportType, PdfFont headerFont,
-            PdfFont normalFont) {
+    private void addReportTypeContent(Document document, ReportType reportType, PdfFont font) {
         // Contenido genérico para tipos de reporte sin datos específicos
-        document.add(new Paragraph("Tipo de Reporte: " + reportType.getDisplayName()).setFont(normalFont)
+        document.add(new Paragraph("Tipo de Reporte: " + reportType.getDisplayName()).setFont(font)
                 .setMarginBottom(10));
-        document.add(new Paragraph("Generado el: " + LocalDateTime.now().format(DATE_FORMATTER)).setFont(normalFont)
+        document.add(new Paragraph("Generado el: " + LocalDateTime.now().format(DATE_FORMATTER)).setFont(font)
                 .setMarginBottom(20));
 
         // Agregar descripción según el tipo de reporte
         String description = getReportDescription(reportType);
-        document.add(new Paragraph(description).setFont(normalFont).setMarginBottom(20));
+        document.add(new Paragraph(description).setFont(font).setMarginBottom(20));
     }
 
     private String getReportDescription(ReportType reportType) {
@@ -0,0 +1,106 @@
+package com.project.ayd.mechanic_workshop.features.reports.utils;
+
+import com.project.ayd.mechanic_workshop.features.reports.exception.ReportCancelledException;
+
+/**
+ * Estado de cancelación de un trabajo de generación de reportes.
+ * ReportJobExecutor lo asocia al hilo que ejecuta el trabajo; los generadores llaman a
+ * checkpoint() entre filas y las consultas usan el tiempo restante como timeout.
+ * Fuera de un trabajo (exportaciones directas) no hay estado asociado y checkpoint() no hace nada.
+ */
+public final class ReportCancellation {
+
+    public enum Reason {
+        USER, TIMEOUT
+    }
+
+    private static final ThreadLocal<ReportCancellation> CURRENT = new ThreadLocal<>();
+
+    private final long timeoutMillis;
+    private volatile long deadlineMillis;
+    private volatile Reason reason;
+
+    // Cancela la consulta en curso de la conexión del trabajo, mientras su transacción está abierta
+    private Runnable statementCanceller;
+
+    public ReportCancellation(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Ejecuta el trabajo en el hilo actual con este estado asociado; el tiempo
+     * máximo empieza a contar al iniciar, no al encolar
+     */
+    public void run(Runnable task) {
+        deadlineMillis = System.currentTimeMillis() + timeoutMillis;
+        CURRENT.set(this);
+        try {
+            task.run();
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    // Estado del trabajo que corre en el hilo actual, o null fuera de un trabajo
+    public static ReportCancellation current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Punto de cancelación entre filas
+     *
+     * @throws ReportCancelledException si el trabajo actual se canceló o superó su tiempo máximo
+     */
+    public static void checkpoint() {
+        ReportCancellation cancellation = CURRENT.get();
+        if (cancellation == null) {
+            return;
+        }
+        if (cancellation.reason == null && cancellation.remainingMillis() <= 0) {
+            cancellation.cancel(Reason.TIMEOUT, false);
+        }
+        if (cancellation.reason != null) {
+            throw new ReportCancelledException(cancellation.reason == Reason.TIMEOUT);
+        }
+    }
+
+    /**
+     * Marca el trabajo como cancelado; solo cuenta el primer motivo
+     *
+     * @param cancelStatement Si también se cancela la consulta en curso; solo desde otro hilo
+     * @return true si esta llamada canceló el trabajo
+     */
+    public synchronized boolean cancel(Reason cancelReason, boolean cancelStatement) {
+        if (reason != null) {
+            return false;
+        }
+        reason = cancelReason;
+        // Bajo el lock: la conexión no puede volver al pool y pasar a otra consulta mientras se cancela
+        if (cancelStatement && statementCanceller != null) {
+            statementCanceller.run();
+        }
+        return true;
+    }
+
+    public synchronized void attachStatementCanceller(Runnable canceller) {
+        statementCanceller = canceller;
+    }
+
+    public synchronized void detachStatementCanceller() {
+        statementCanceller = null;
+    }
+
+    public boolean isCancelled() {
+        return reason != null;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    // Milisegundos hasta el tiempo máximo; Long.MAX_VALUE si el trabajo no empezó
+    public long remainingMillis() {
+        long deadline = deadlineMillis;
+        return deadline == 0 ? Long.MAX_VALUE : deadline - System.currentTimeMillis();
+    }
+}
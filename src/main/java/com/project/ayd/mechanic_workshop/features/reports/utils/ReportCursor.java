@@ -0,0 +1,86 @@
+package com.project.ayd.mechanic_workshop.features.reports.utils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Cursor opaco de la paginación por keyset: los valores de la clave de orden de la
+ * última fila entregada, codificados en Base64 URL-safe para usarlos en la query string.
+ */
+public final class ReportCursor {
+
+    private static final String SEPARATOR = "\u001F";
+
+    private final String[] values;
+
+    private ReportCursor(String[] values) {
+        this.values = values;
+    }
+
+    /**
+     * @param values Valores de la clave de orden, en el mismo orden del ORDER BY
+     * @return Cursor codificado
+     */
+    public static String encode(Object... values) {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                source.append(SEPARATOR);
+            }
+            Object value = Objects.requireNonNull(values[i], "Cursor values cannot be null");
+            source.append(value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString());
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(source.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor        Cursor recibido del cliente
+     * @param expectedParts Cantidad de valores de la clave de orden del endpoint
+     * @throws IllegalArgumentException si el cursor no es válido para el endpoint
+     */
+    public static ReportCursor decode(String cursor, int expectedParts) {
+        try {
+            String source = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] values = source.split(SEPARATOR, -1);
+            if (values.length != expectedParts) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+            return new ReportCursor(values);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+
+    public String getString(int index) {
+        return values[index];
+    }
+
+    public Long getLong(int index) {
+        try {
+            return Long.valueOf(values[index]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+
+    public BigDecimal getDecimal(int index) {
+        try {
+            return new BigDecimal(values[index]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+
+    public LocalDateTime getDateTime(int index) {
+        try {
+            return LocalDateTime.parse(values[index]);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+}
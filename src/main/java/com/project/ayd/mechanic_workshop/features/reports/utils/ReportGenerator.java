@@ -2,6 +2,7 @@ package com.project.ayd.mechanic_workshop.features.reports.utils;
 
 import com.project.ayd.mechanic_workshop.features.reports.enums.ReportFormat;
 import com.project.ayd.mechanic_workshop.features.reports.repository.ReportRepository;
+import com.project.ayd.mechanic_workshop.features.reports.service.ReportPeriodCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -16,6 +17,7 @@ import java.util.List;
 public class ReportGenerator {
 
     private final ReportRepository reportRepository;
+    private final ReportPeriodCache reportPeriodCache;
     private final PDFGenerator pdfGenerator;
     private final ExcelGenerator excelGenerator;
 
@@ -24,7 +26,7 @@ public class ReportGenerator {
         log.info("Generating financial income report: {} - {}", startDate, endDate);
 
         try {
-            List<Object[]> incomeData = reportRepository.getIncomeByMonth(startDate.toLocalDate(),
+            List<Object[]> incomeData = reportPeriodCache.getIncomeByMonth(startDate.toLocalDate(),
                     endDate.toLocalDate());
 
             switch (format) {
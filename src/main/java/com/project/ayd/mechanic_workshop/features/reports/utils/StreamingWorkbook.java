@@ -0,0 +1,273 @@
+package com.project.ayd.mechanic_workshop.features.reports.utils;
+
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Libro de Excel en modo streaming sobre SXSSF.
+ * Solo mantiene en memoria una ventana de filas; las anteriores se escriben a un
+ * archivo temporal. Los estilos se crean una sola vez por libro y el ancho de las
+ * columnas se estima mientras se escriben las celdas, sin recorrer la hoja al final.
+ */
+public class StreamingWorkbook implements AutoCloseable {
+
+    private static final String CURRENCY_FORMAT = "$#,##0.00";
+    private static final int MAX_COLUMN_CHARS = 100;
+    private static final int COLUMN_PADDING = 1000; // Mismo margen que usaba el autoajuste
+
+    private final SXSSFWorkbook workbook;
+    private final boolean estimateColumnWidths;
+    private final Map<Style, CellStyle> styles = new EnumMap<>(Style.class);
+    private final Map<Sheet, Map<Integer, Integer>> columnChars = new HashMap<>();
+
+    /**
+     * Estilos compartidos por todas las hojas del libro
+     */
+    public enum Style {
+        TITLE, HEADER, DATE, CURRENCY, ALTERNATE_ROW, ALTERNATE_CURRENCY, TOTAL
+    }
+
+    public StreamingWorkbook(int rowAccessWindowSize, boolean estimateColumnWidths) {
+        this.workbook = new SXSSFWorkbook(rowAccessWindowSize);
+        this.workbook.setCompressTempFiles(true);
+        this.estimateColumnWidths = estimateColumnWidths;
+    }
+
+    public Sheet createSheet(String name) {
+        SXSSFSheet sheet = workbook.createSheet(name);
+        columnChars.put(sheet, new HashMap<>());
+        return sheet;
+    }
+
+    /**
+     * Devuelve el estilo compartido, creándolo la primera vez que se usa
+     *
+     * @param style Estilo solicitado
+     * @return CellStyle registrado en el libro
+     */
+    public CellStyle style(Style style) {
+        return styles.computeIfAbsent(style, this::createStyle);
+    }
+
+    // Estilo de fila normal o alterna según corresponda
+    public CellStyle rowStyle(boolean alternateRow) {
+        return alternateRow ? style(Style.ALTERNATE_ROW) : null;
+    }
+
+    public CellStyle currencyStyle(boolean alternateRow) {
+        return style(alternateRow ? Style.ALTERNATE_CURRENCY : Style.CURRENCY);
+    }
+
+    /**
+     * Crea una celda con su valor y estilo, registrando el ancho del contenido
+     *
+     * @param row      Fila destino
+     * @param colIndex Índice de la columna
+     * @param value    Valor de la celda; los números se escriben como numéricos
+     * @param style    Estilo a aplicar, o null para el estilo por defecto
+     * @return La celda creada
+     */
+    public Cell writeCell(Row row, int colIndex, Object value, CellStyle style) {
+        Cell cell = row.createCell(colIndex);
+
+        String text;
+        if (value instanceof Number number) {
+            cell.setCellValue(number.doubleValue());
+            // Se estima con el formato moneda, el más ancho que usan los reportes
+            text = String.format("$%,.2f", number.doubleValue());
+        } else {
+            text = value != null ? value.toString() : "";
+            cell.setCellValue(text);
+        }
+
+        if (style != null) {
+            cell.setCellStyle(style);
+        }
+
+        trackWidth(row.getSheet(), colIndex, text);
+        return cell;
+    }
+
+    /**
+     * Escribe una fila de encabezados con el estilo HEADER
+     */
+    public Row writeHeaders(Sheet sheet, int rowIndex, String[] headers) {
+        Row headerRow = sheet.createRow(rowIndex);
+        CellStyle headerStyle = style(Style.HEADER);
+        for (int i = 0; i < headers.length; i++) {
+            writeCell(headerRow, i, headers[i], headerStyle);
+        }
+        return headerRow;
+    }
+
+    /**
+     * Escribe una celda que ocupa varias columnas; no cuenta para el ancho de columna
+     */
+    public void writeMergedRow(Sheet sheet, int rowIndex, String value, CellStyle style, int colSpan) {
+        Row row = sheet.createRow(rowIndex);
+        Cell cell = row.createCell(0);
+        cell.setCellValue(value);
+        if (style != null) {
+            cell.setCellStyle(style);
+        }
+        if (colSpan > 1) {
+            sheet.addMergedRegion(new CellRangeAddress(rowIndex, rowIndex, 0, colSpan - 1));
+        }
+    }
+
+    /**
+     * Inserta una imagen PNG anclada en la celda indicada. El dibujo se guarda aparte de
+     * las filas, así que puede anclarse en filas que todavía no se escribieron.
+     *
+     * @param colSpan Columnas que ocupa la imagen
+     * @param rowSpan Filas que ocupa la imagen
+     */
+    public void addPicture(Sheet sheet, byte[] png, int colIndex, int rowIndex, int colSpan, int rowSpan) {
+        int pictureIndex = workbook.addPicture(png, Workbook.PICTURE_TYPE_PNG);
+        ClientAnchor anchor = workbook.getCreationHelper().createClientAnchor();
+        anchor.setCol1(colIndex);
+        anchor.setRow1(rowIndex);
+        anchor.setCol2(colIndex + colSpan);
+        anchor.setRow2(rowIndex + rowSpan);
+        sheet.createDrawingPatriarch().createPicture(anchor, pictureIndex);
+    }
+
+    // Aplica a la hoja los anchos estimados durante la escritura
+    private void applyColumnWidths(Sheet sheet) {
+        if (!estimateColumnWidths) {
+            return;
+        }
+        columnChars.getOrDefault(sheet, Map.of()).forEach((column, chars) -> sheet.setColumnWidth(column,
+                Math.min(255 * 256, (Math.min(chars, MAX_COLUMN_CHARS) + 2) * 256 + COLUMN_PADDING)));
+    }
+
+    /**
+     * Escribe el libro completo al OutputStream sin pasar por un buffer en memoria.
+     * El OutputStream no se cierra.
+     */
+    public void write(OutputStream outputStream) throws IOException {
+        columnChars.keySet().forEach(this::applyColumnWidths);
+        workbook.write(outputStream);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            workbook.dispose(); // Elimina los archivos temporales de SXSSF
+        } finally {
+            workbook.close();
+        }
+    }
+
+    private void trackWidth(Sheet sheet, int colIndex, String text) {
+        if (!estimateColumnWidths) {
+            return;
+        }
+        int chars = longestLine(text);
+        columnChars.computeIfAbsent(sheet, s -> new HashMap<>()).merge(colIndex, chars, Math::max);
+    }
+
+    private static int longestLine(String text) {
+        int longest = 0;
+        for (String line : text.split("\n")) {
+            longest = Math.max(longest, line.length());
+        }
+        return longest;
+    }
+
+    // ================================
+    // ESTILOS
+    // ================================
+
+    private CellStyle createStyle(Style style) {
+        return switch (style) {
+            case TITLE -> createTitleStyle();
+            case HEADER -> createHeaderStyle();
+            case DATE -> createDateStyle();
+            case CURRENCY -> createCurrencyStyle(false);
+            case ALTERNATE_ROW -> createAlternateRowStyle();
+            case ALTERNATE_CURRENCY -> createCurrencyStyle(true);
+            case TOTAL -> createTotalStyle();
+        };
+    }
+
+    private CellStyle createTitleStyle() {
+        CellStyle style = workbook.createCellStyle();
+        Font font = workbook.createFont();
+        font.setBold(true);
+        font.setFontHeightInPoints((short) 16);
+        font.setColor(IndexedColors.BLACK.getIndex());
+        style.setFont(font);
+        style.setAlignment(HorizontalAlignment.CENTER);
+        style.setVerticalAlignment(VerticalAlignment.CENTER);
+        return style;
+    }
+
+    private CellStyle createHeaderStyle() {
+        CellStyle style = workbook.createCellStyle();
+        Font font = workbook.createFont();
+        font.setBold(true);
+        font.setFontHeightInPoints((short) 12);
+        font.setColor(IndexedColors.WHITE.getIndex());
+        style.setFont(font);
+        style.setFillForegroundColor(IndexedColors.DARK_BLUE.getIndex());
+        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        style.setAlignment(HorizontalAlignment.CENTER);
+        style.setBorderBottom(BorderStyle.THIN);
+        style.setBorderTop(BorderStyle.THIN);
+        style.setBorderRight(BorderStyle.THIN);
+        style.setBorderLeft(BorderStyle.THIN);
+        return style;
+    }
+
+    private CellStyle createDateStyle() {
+        CellStyle style = workbook.createCellStyle();
+        Font font = workbook.createFont();
+        font.setFontHeightInPoints((short) 11);
+        font.setItalic(true);
+        style.setFont(font);
+        style.setAlignment(HorizontalAlignment.CENTER);
+        return style;
+    }
+
+    private CellStyle createCurrencyStyle(boolean alternateRow) {
+        CellStyle style = workbook.createCellStyle();
+        DataFormat format = workbook.createDataFormat();
+        style.setDataFormat(format.getFormat(CURRENCY_FORMAT));
+        style.setAlignment(HorizontalAlignment.RIGHT);
+        if (alternateRow) {
+            style.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+            style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        }
+        return style;
+    }
+
+    private CellStyle createAlternateRowStyle() {
+        CellStyle style = workbook.createCellStyle();
+        style.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        return style;
+    }
+
+    private CellStyle createTotalStyle() {
+        CellStyle style = workbook.createCellStyle();
+        Font font = workbook.createFont();
+        font.setBold(true);
+        font.setColor(IndexedColors.WHITE.getIndex());
+        style.setFont(font);
+        style.setFillForegroundColor(IndexedColors.DARK_BLUE.getIndex());
+        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        DataFormat format = workbook.createDataFormat();
+        style.setDataFormat(format.getFormat(CURRENCY_FORMAT));
+        style.setAlignment(HorizontalAlignment.RIGHT);
+        return style;
+    }
+}
@@ -11,8 +11,11 @@ import com.project.ayd.mechanic_workshop.features.workorders.enums.Priority;
 import com.project.ayd.mechanic_workshop.features.workorders.enums.WorkOrderStatus;
 import com.project.ayd.mechanic_workshop.features.workorders.repository.WorkRepository;
 import com.project.ayd.mechanic_workshop.features.workorders.repository.WorkStatusRepository;
+import com.project.ayd.mechanic_workshop.features.reports.enums.DataChangeSource;
+import com.project.ayd.mechanic_workshop.features.reports.events.ReportDataChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
@@ -29,6 +32,7 @@ public class WorkOrderAssignmentServiceImpl implements WorkOrderAssignmentServic
     private final WorkRepository workRepository;
     private final WorkStatusRepository workStatusRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final int DEFAULT_MAX_WORKORDERS_PER_EMPLOYEE = 5;
 
@@ -64,6 +68,7 @@ public class WorkOrderAssignmentServiceImpl implements WorkOrderAssignmentServic
         work = workRepository.save(work);
         log.info("Work order assigned successfully");
 
+        eventPublisher.publishEvent(ReportDataChangedEvent.of(DataChangeSource.WORK, work.getId()));
         return mapToWorkOrderResponse(work);
     }
 
@@ -95,6 +100,7 @@ public class WorkOrderAssignmentServiceImpl implements WorkOrderAssignmentServic
         work = workRepository.save(work);
 
         log.info("Work order reassigned successfully");
+        eventPublisher.publishEvent(ReportDataChangedEvent.of(DataChangeSource.WORK, work.getId()));
         return mapToWorkOrderResponse(work);
     }
 
@@ -120,6 +126,7 @@ public class WorkOrderAssignmentServiceImpl implements WorkOrderAssignmentServic
         work = workRepository.save(work);
         log.info("Work order unassigned successfully");
 
+        eventPublisher.publishEvent(ReportDataChangedEvent.of(DataChangeSource.WORK, work.getId()));
         return mapToWorkOrderResponse(work);
     }
 
@@ -13,8 +13,11 @@ import com.project.ayd.mechanic_workshop.features.workorders.repository.*;
 import com.project.ayd.mechanic_workshop.features.auth.entity.Person;
 import com.project.ayd.mechanic_workshop.features.vehicles.dto.VehicleResponse;
 import com.project.ayd.mechanic_workshop.features.vehicles.entity.VehicleModel;
+import com.project.ayd.mechanic_workshop.features.reports.enums.DataChangeSource;
+import com.project.ayd.mechanic_workshop.features.reports.events.ReportDataChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -40,6 +43,7 @@ public class WorkOrderServiceImpl implements WorkOrderService {
         private final PartRepository partRepository;
         private final VehicleRepository vehicleRepository;
         private final UserRepository userRepository;
+        private final ApplicationEventPublisher eventPublisher;
 
         @Override
         @Transactional
@@ -73,6 +77,7 @@ public class WorkOrderServiceImpl implements WorkOrderService {
                 work = workRepository.save(work);
                 log.info("Work order created successfully with ID: {}", work.getId());
 
+                eventPublisher.publishEvent(ReportDataChangedEvent.of(DataChangeSource.WORK, work.getId()));
                 return mapToWorkOrderResponse(work);
         }
 
@@ -135,6 +140,7 @@ public class WorkOrderServiceImpl implements WorkOrderService {
                 work = workRepository.save(work);
                 log.info("Work order updated successfully with ID: {}", workOrderId);
 
+                eventPublisher.publishEvent(ReportDataChangedEvent.of(DataChangeSource.WORK, work.getId()));
                 return mapToWorkOrderResponse(work);
         }
 
@@ -153,6 +159,7 @@ public class WorkOrderServiceImpl implements WorkOrderService {
                 }
 
                 workRepository.delete(work);
+                eventPublisher.publishEvent(ReportDataChangedEvent.of(DataChangeSource.WORK, workOrderId));
                 log.info("Work order deleted successfully with ID: {}", workOrderId);
         }
 
@@ -178,6 +185,7 @@ public class WorkOrderServiceImpl implements WorkOrderService {
                 work = workRepository.save(work);
                 log.info("Work order assigned successfully");
 
+                eventPublisher.publishEvent(ReportDataChangedEvent.of(DataChangeSource.WORK, work.getId()));
                 return mapToWorkOrderResponse(work);
         }
 
@@ -203,6 +211,7 @@ public class WorkOrderServiceImpl implements WorkOrderService {
                 work = workRepository.save(work);
                 log.info("Work order started successfully");
 
+                eventPublisher.publishEvent(ReportDataChangedEvent.of(DataChangeSource.WORK, work.getId()));
                 return mapToWorkOrderResponse(work);
         }
 
@@ -236,6 +245,7 @@ public class WorkOrderServiceImpl implements WorkOrderService {
                 work = workRepository.save(work);
                 log.info("Work order completed successfully");
 
+                eventPublisher.publishEvent(ReportDataChangedEvent.of(DataChangeSource.WORK, work.getId()));
                 return mapToWorkOrderResponse(work);
         }
 
@@ -255,6 +265,7 @@ public class WorkOrderServiceImpl implements WorkOrderService {
                 work = workRepository.save(work);
 
                 log.info("Work order cancelled successfully");
+                eventPublisher.publishEvent(ReportDataChangedEvent.of(DataChangeSource.WORK, work.getId()));
                 return mapToWorkOrderResponse(work);
         }
 
@@ -301,6 +312,7 @@ public class WorkOrderServiceImpl implements WorkOrderService {
                 log.info("Work order finished without execution successfully. Employee {} is now available for reassignment",
                                 previouslyAssignedEmployee != null ? previouslyAssignedEmployee.getId() : "none");
 
+                eventPublisher.publishEvent(ReportDataChangedEvent.of(DataChangeSource.WORK, work.getId()));
                 return mapToWorkOrderResponse(work);
         }
 
@@ -0,0 +1,109 @@
+package com.project.ayd.mechanic_workshop.shared.config;
+
+import com.project.ayd.mechanic_workshop.shared.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Réplicas de lectura: las transacciones @Transactional(readOnly = true) usan una conexión
+ * de las réplicas y el resto, del primario. Se activa con app.datasource.read-replicas.enabled;
+ * para probar en local basta con apuntar una réplica a una segunda instancia de PostgreSQL.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.read-replicas", name = "enabled", havingValue = "true")
+@Slf4j
+public class ReadReplicaConfiguration {
+
+    private static final String PRIMARY_POOL_NAME = "primary";
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(Environment environment,
+            ReadReplicaProperties properties, MeterRegistry meterRegistry) {
+        if (properties.getNodes().isEmpty()) {
+            throw new IllegalStateException("app.datasource.read-replicas.enabled requires at least one node");
+        }
+
+        // El primario se arma con las mismas propiedades spring.datasource.* que usaría Spring Boot
+        HikariConfig primaryConfig = new HikariConfig();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primaryConfig));
+        primaryConfig.setJdbcUrl(environment.getRequiredProperty("spring.datasource.url"));
+        primaryConfig.setUsername(environment.getProperty("spring.datasource.username"));
+        primaryConfig.setPassword(environment.getProperty("spring.datasource.password"));
+        primaryConfig.setDriverClassName(environment.getProperty("spring.datasource.driver-class-name"));
+        primaryConfig.setPoolName(PRIMARY_POOL_NAME);
+        // Métricas hikaricp.* por pool, con la etiqueta pool
+        primaryConfig.setMetricRegistry(meterRegistry);
+
+        List<HikariDataSource> replicaPools = new ArrayList<>();
+        for (int i = 0; i < properties.getNodes().size(); i++) {
+            replicaPools.add(createReplicaPool(primaryConfig, properties, properties.getNodes().get(i), i));
+        }
+
+        log.info("Routing read-only transactions to {} read replicas", replicaPools.size());
+        return new ReplicaRoutingDataSource(createPool(primaryConfig), replicaPools,
+                properties.getMaxLagMillis(), meterRegistry);
+    }
+
+    /**
+     * La conexión se obtiene recién en la primera sentencia, cuando ya se sabe si la
+     * transacción es de solo lectura; las de solo lectura la piden a las réplicas
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        HikariDataSource primary = replicaRoutingDataSource.getPrimary();
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        // Evita pedir una conexión al arrancar solo para leer estos valores
+        dataSource.setDefaultAutoCommit(primary.isAutoCommit());
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return dataSource;
+    }
+
+    private static HikariDataSource createReplicaPool(HikariConfig primaryConfig, ReadReplicaProperties properties,
+            ReadReplicaProperties.Node node, int index) {
+        if (node.getUrl() == null) {
+            throw new IllegalStateException("Read replica " + index + " has no url");
+        }
+
+        HikariConfig config = new HikariConfig();
+        primaryConfig.copyStateTo(config);
+        config.setPoolName(node.getName() != null ? node.getName() : "replica-" + (index + 1));
+        config.setJdbcUrl(node.getUrl());
+        if (node.getUsername() != null) {
+            config.setUsername(node.getUsername());
+            config.setPassword(node.getPassword());
+        }
+        if (node.getMaximumPoolSize() != null) {
+            config.setMaximumPoolSize(node.getMaximumPoolSize());
+        }
+        config.setReadOnly(true);
+        config.setConnectionTimeout(properties.getConnectionTimeoutMillis());
+        // Una réplica caída al arrancar no impide iniciar; las lecturas van al primario
+        config.setInitializationFailTimeout(-1);
+        return createPool(config);
+    }
+
+    // Pool sin iniciar: se conecta con la primera conexión que se pide
+    private static HikariDataSource createPool(HikariConfig config) {
+        HikariDataSource pool = new HikariDataSource();
+        config.copyStateTo(pool);
+        return pool;
+    }
+}
@@ -0,0 +1,29 @@
+package com.project.ayd.mechanic_workshop.shared.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.datasource.read-replicas")
+public class ReadReplicaProperties {
+
+    private boolean enabled = false;
+    private List<Node> nodes = new ArrayList<>();
+    private long maxLagMillis = 5000; // Réplicas más atrasadas dejan de recibir lecturas hasta ponerse al día
+    private long checkIntervalMillis = 5000;
+    private long connectionTimeoutMillis = 3000; // Sin conexión en este tiempo, la lectura va al primario
+
+    @Data
+    public static class Node {
+        private String name;
+        private String url;
+        private String username; // Sin valor se usa el del primario
+        private String password;
+        private Integer maximumPoolSize; // Sin valor se usa el del primario
+    }
+}
@@ -0,0 +1,140 @@
+package com.project.ayd.mechanic_workshop.shared.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Origen de las conexiones de las transacciones de solo lectura. Reparte las conexiones
+ * entre las réplicas disponibles y usa el primario cuando ninguna lo está: una réplica
+ * deja de estar disponible si su atraso supera app.datasource.read-replicas.max-lag-millis
+ * o si no entrega una conexión, hasta la siguiente verificación que la encuentre al día.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    // Atraso de lo aplicado respecto de lo recibido; sin WAL pendiente la réplica está al día
+    // aunque el primario no haya escrito nada en un rato. En un servidor que no es réplica es 0
+    private static final String LAG_SQL = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+            END
+            """;
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryFallbacks;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicaPools,
+            long maxLagMillis, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicaPools.stream().map(Replica::new).toList();
+        this.maxLagMillis = maxLagMillis;
+
+        this.primaryFallbacks = Counter.builder("datasource.replica.fallback")
+                .description("Read-only connections served by the primary because no replica was available")
+                .register(meterRegistry);
+        for (Replica replica : replicas) {
+            Gauge.builder("datasource.replica.lag", replica, r -> r.lagMillis)
+                    .description("Replication lag measured on the read replica")
+                    .baseUnit("milliseconds")
+                    .tag("pool", replica.pool.getPoolName())
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.available", replica, r -> r.available ? 1 : 0)
+                    .description("Whether the read replica is receiving read-only transactions")
+                    .tag("pool", replica.pool.getPoolName())
+                    .register(meterRegistry);
+        }
+    }
+
+    public HikariDataSource getPrimary() {
+        return primary;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(1, replicas.size()));
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.available) {
+                continue;
+            }
+            try {
+                return replica.pool.getConnection();
+            } catch (SQLException e) {
+                replica.available = false;
+                log.warn("Read replica {} unavailable, routing reads elsewhere: {}", replica.pool.getPoolName(),
+                        e.getMessage());
+            }
+        }
+
+        primaryFallbacks.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Read replica connections use the configured credentials");
+    }
+
+    // Mide el atraso de cada réplica y decide cuáles reciben lecturas
+    @Scheduled(fixedDelayString = "${app.datasource.read-replicas.check-interval-millis:5000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean wasAvailable = replica.available;
+            try (Connection connection = replica.pool.getConnection();
+                    Statement statement = connection.createStatement();
+                    ResultSet resultSet = statement.executeQuery(LAG_SQL)) {
+                resultSet.next();
+                replica.lagMillis = resultSet.getDouble(1);
+                replica.available = replica.lagMillis <= maxLagMillis;
+            } catch (SQLException e) {
+                replica.available = false;
+                log.debug("Could not check read replica {}: {}", replica.pool.getPoolName(), e.getMessage());
+            }
+
+            if (wasAvailable != replica.available) {
+                if (replica.available) {
+                    log.info("Read replica {} is back in rotation (lag {} ms)", replica.pool.getPoolName(),
+                            (long) replica.lagMillis);
+                } else {
+                    log.warn("Read replica {} removed from rotation (lag {} ms, max {} ms)",
+                            replica.pool.getPoolName(), (long) replica.lagMillis, maxLagMillis);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+        primary.close();
+    }
+
+    private static final class Replica {
+        private final HikariDataSource pool;
+        // Sin disponibilidad hasta la primera verificación
+        private volatile boolean available;
+        private volatile double lagMillis;
+
+        private Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+    }
+}
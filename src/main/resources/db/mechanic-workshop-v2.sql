@@ -418,6 +418,108 @@ CREATE TABLE client_feedback (
     UNIQUE(work_id, client_cui)
 );
 
+-- Generated reports registry (files live in the report file store)
+CREATE TABLE report_registry (
+    report_id VARCHAR(100) PRIMARY KEY,
+    report_type VARCHAR(50) NOT NULL,
+    format VARCHAR(20) NOT NULL,
+    file_name VARCHAR(255) NOT NULL,
+    content_key VARCHAR(64) NOT NULL,
+    storage_key VARCHAR(255) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    error_message TEXT,
+    generated_by VARCHAR(50) NOT NULL,
+    file_size BIGINT,
+    raw_size BIGINT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    generated_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    last_accessed_at TIMESTAMP
+);
+
+-- Recurring reports pre-generated off-peak for their subscriber
+CREATE TABLE report_subscription (
+    id BIGSERIAL PRIMARY KEY,
+    username VARCHAR(50) NOT NULL,
+    report_type VARCHAR(50) NOT NULL,
+    format VARCHAR(20) NOT NULL,
+    period VARCHAR(30) NOT NULL,
+    cron_expression VARCHAR(100) NOT NULL,
+    is_active BOOLEAN DEFAULT TRUE,
+    next_run_at TIMESTAMP NOT NULL,
+    last_run_at TIMESTAMP,
+    last_report_id VARCHAR(100),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Finalized month/week buckets of the historical report series; kept until
+-- explicitly invalidated (back-dated corrections)
+CREATE TABLE report_period_bucket (
+    series VARCHAR(30) NOT NULL,
+    bucket_start DATE NOT NULL,
+    bucket_end DATE NOT NULL,
+    computed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (series, bucket_start)
+);
+
+CREATE TABLE report_period_bucket_row (
+    series VARCHAR(30) NOT NULL,
+    bucket_start DATE NOT NULL,
+    row_key VARCHAR(100) NOT NULL,
+    label VARCHAR(255) NOT NULL,
+    amount DECIMAL(16,2) NOT NULL DEFAULT 0,
+    item_count BIGINT NOT NULL DEFAULT 0,
+    last_date DATE,
+    PRIMARY KEY (series, bucket_start, row_key),
+    FOREIGN KEY (series, bucket_start) REFERENCES report_period_bucket(series, bucket_start) ON DELETE CASCADE
+);
+
+-- Change log used to key report artifacts by content. Writers only append rows,
+-- so there is no shared row to lock. A report's data version for a table is the
+-- sum of changes logged for the days in its range plus the undated ones (day NULL,
+-- tables without a date of their own); writes outside the range keep its key.
+-- The application periodically merges the rows of each (table_name, day)
+CREATE TABLE report_data_change (
+    id BIGSERIAL PRIMARY KEY,
+    table_name VARCHAR(63) NOT NULL,
+    day DATE,
+    changes BIGINT NOT NULL DEFAULT 1,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Daily rollups read by the reports; kept up to date by triggers and
+-- rebuilt periodically by the application (employee_id 0 = unassigned)
+CREATE TABLE rollup_daily_income (
+    day DATE PRIMARY KEY,
+    invoice_count INTEGER NOT NULL DEFAULT 0,
+    total_amount DECIMAL(14,2) NOT NULL DEFAULT 0
+);
+
+CREATE TABLE rollup_daily_work (
+    day DATE NOT NULL,
+    service_type_id INTEGER NOT NULL,
+    work_status_id INTEGER NOT NULL,
+    employee_id INTEGER NOT NULL DEFAULT 0,
+    vehicle_brand_id INTEGER NOT NULL,
+    work_count INTEGER NOT NULL DEFAULT 0,
+    hours_count INTEGER NOT NULL DEFAULT 0,
+    total_hours DECIMAL(12,2) NOT NULL DEFAULT 0,
+    cost_count INTEGER NOT NULL DEFAULT 0,
+    total_cost DECIMAL(14,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (day, service_type_id, work_status_id, employee_id, vehicle_brand_id)
+);
+
+CREATE TABLE rollup_daily_part_usage (
+    day DATE NOT NULL,
+    part_id INTEGER NOT NULL,
+    vehicle_brand_id INTEGER NOT NULL,
+    line_count INTEGER NOT NULL DEFAULT 0,
+    quantity_used INTEGER NOT NULL DEFAULT 0,
+    total_cost DECIMAL(14,2) NOT NULL DEFAULT 0,
+    unit_price_sum DECIMAL(14,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (day, part_id, vehicle_brand_id)
+);
+
 -- =============================================================================
 -- INDEXES FOR PERFORMANCE
 -- =============================================================================
@@ -443,6 +545,7 @@ CREATE INDEX idx_work_assigned_employee ON work(assigned_employee_id);
 CREATE INDEX idx_work_status ON work(work_status_id);
 CREATE INDEX idx_work_service_type ON work(service_type_id);
 CREATE INDEX idx_work_created_at ON work(created_at);
+CREATE INDEX idx_work_created_at_vehicle ON work(created_at, vehicle_id);
 
 -- Work parts indexes
 CREATE INDEX idx_work_part_work ON work_part(work_id);
@@ -462,6 +565,17 @@ CREATE INDEX idx_stock_movement_part ON stock_movement(part_id);
 CREATE INDEX idx_stock_movement_type ON stock_movement(movement_type_id);
 CREATE INDEX idx_stock_movement_created_at ON stock_movement(created_at);
 
+-- Report registry indexes
+CREATE INDEX idx_report_registry_generated_by ON report_registry(generated_by, generated_at DESC);
+CREATE INDEX idx_report_registry_expires ON report_registry(expires_at);
+CREATE INDEX idx_report_registry_status ON report_registry(status);
+CREATE INDEX idx_report_registry_content_key ON report_registry(content_key, created_at DESC);
+CREATE INDEX idx_report_registry_storage_key ON report_registry(storage_key);
+CREATE INDEX idx_report_registry_lru ON report_registry(status, (COALESCE(last_accessed_at, generated_at)));
+CREATE INDEX idx_report_subscription_due ON report_subscription(next_run_at) WHERE is_active = TRUE;
+CREATE INDEX idx_report_subscription_username ON report_subscription(username);
+CREATE INDEX idx_report_data_change_day ON report_data_change(table_name, day) INCLUDE (changes);
+
 -- =============================================================================
 -- Triggers
 -- =============================================================================
@@ -880,4 +994,351 @@ CREATE TRIGGER trg_vehicle_updated_at BEFORE UPDATE ON vehicle FOR EACH ROW EXEC
 CREATE TRIGGER trg_inventory_stock_updated_at BEFORE UPDATE ON inventory_stock FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
 CREATE TRIGGER trg_part_updated_at BEFORE UPDATE ON part FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
 CREATE TRIGGER trg_purchase_order_updated_at BEFORE UPDATE ON purchase_order FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
-CREATE TRIGGER trg_invoice_updated_at BEFORE UPDATE ON invoice FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
\ No newline at end of file
+CREATE TRIGGER trg_invoice_updated_at BEFORE UPDATE ON invoice FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
+
+-- Trigger to log the days changed by a statement on a table read by the reports.
+-- TG_ARGV[0] is the day of each changed row as an expression over r; without it the
+-- table has no date of its own and the change affects every range (day NULL).
+-- Transition tables allow a single event per trigger, hence one trigger per event
+CREATE OR REPLACE FUNCTION log_report_data_change()
+RETURNS TRIGGER AS $$
+DECLARE
+    changed_rows TEXT;
+BEGIN
+    IF TG_NARGS = 0 THEN
+        INSERT INTO report_data_change (table_name, day) VALUES (TG_TABLE_NAME, NULL);
+        RETURN NULL;
+    END IF;
+
+    changed_rows := CASE TG_OP
+        WHEN 'INSERT' THEN 'SELECT * FROM new_rows'
+        WHEN 'DELETE' THEN 'SELECT * FROM old_rows'
+        ELSE 'SELECT * FROM new_rows UNION ALL SELECT * FROM old_rows'
+    END;
+    -- A row whose day can no longer be resolved (parent already deleted) logs NULL
+    EXECUTE format(
+        'INSERT INTO report_data_change (table_name, day) SELECT DISTINCT %L, (%s)::date FROM (%s) r',
+        TG_TABLE_NAME, TG_ARGV[0], changed_rows);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Apply to tables read by the reports, keyed by the date the reports filter on
+CREATE TRIGGER trg_work_report_change_ins AFTER INSERT ON work REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION log_report_data_change('r.created_at');
+CREATE TRIGGER trg_work_report_change_upd AFTER UPDATE ON work REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION log_report_data_change('r.created_at');
+CREATE TRIGGER trg_work_report_change_del AFTER DELETE ON work REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION log_report_data_change('r.created_at');
+CREATE TRIGGER trg_work_part_report_change_ins AFTER INSERT ON work_part REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION log_report_data_change('(SELECT w.created_at FROM work w WHERE w.id = r.work_id)');
+CREATE TRIGGER trg_work_part_report_change_upd AFTER UPDATE ON work_part REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION log_report_data_change('(SELECT w.created_at FROM work w WHERE w.id = r.work_id)');
+CREATE TRIGGER trg_work_part_report_change_del AFTER DELETE ON work_part REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION log_report_data_change('(SELECT w.created_at FROM work w WHERE w.id = r.work_id)');
+CREATE TRIGGER trg_invoice_report_change_ins AFTER INSERT ON invoice REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION log_report_data_change('r.issued_date');
+CREATE TRIGGER trg_invoice_report_change_upd AFTER UPDATE ON invoice REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION log_report_data_change('r.issued_date');
+CREATE TRIGGER trg_invoice_report_change_del AFTER DELETE ON invoice REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION log_report_data_change('r.issued_date');
+CREATE TRIGGER trg_payment_report_change_ins AFTER INSERT ON payment REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION log_report_data_change('(SELECT i.issued_date FROM invoice i WHERE i.id = r.invoice_id)');
+CREATE TRIGGER trg_payment_report_change_upd AFTER UPDATE ON payment REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION log_report_data_change('(SELECT i.issued_date FROM invoice i WHERE i.id = r.invoice_id)');
+CREATE TRIGGER trg_payment_report_change_del AFTER DELETE ON payment REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION log_report_data_change('(SELECT i.issued_date FROM invoice i WHERE i.id = r.invoice_id)');
+CREATE TRIGGER trg_purchase_order_report_change_ins AFTER INSERT ON purchase_order REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION log_report_data_change('r.order_date');
+CREATE TRIGGER trg_purchase_order_report_change_upd AFTER UPDATE ON purchase_order REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION log_report_data_change('r.order_date');
+CREATE TRIGGER trg_purchase_order_report_change_del AFTER DELETE ON purchase_order REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION log_report_data_change('r.order_date');
+
+-- Catalog-like tables without a date: any change affects every range
+CREATE TRIGGER trg_part_report_change AFTER INSERT OR UPDATE OR DELETE ON part FOR EACH STATEMENT EXECUTE FUNCTION log_report_data_change();
+CREATE TRIGGER trg_inventory_stock_report_change AFTER INSERT OR UPDATE OR DELETE ON inventory_stock FOR EACH STATEMENT EXECUTE FUNCTION log_report_data_change();
+CREATE TRIGGER trg_vehicle_report_change AFTER INSERT OR UPDATE OR DELETE ON vehicle FOR EACH STATEMENT EXECUTE FUNCTION log_report_data_change();
+CREATE TRIGGER trg_person_report_change AFTER INSERT OR UPDATE OR DELETE ON person FOR EACH STATEMENT EXECUTE FUNCTION log_report_data_change();
+
+-- Trigger to keep rollup_daily_income in sync with invoices
+CREATE OR REPLACE FUNCTION rollup_income_on_invoice_change()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        UPDATE rollup_daily_income
+        SET invoice_count = invoice_count - 1,
+            total_amount = total_amount - OLD.total_amount
+        WHERE day = OLD.issued_date;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO rollup_daily_income (day, invoice_count, total_amount)
+        VALUES (NEW.issued_date, 1, NEW.total_amount)
+        ON CONFLICT (day) DO UPDATE
+            SET invoice_count = rollup_daily_income.invoice_count + 1,
+                total_amount = rollup_daily_income.total_amount + EXCLUDED.total_amount;
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_rollup_income_on_invoice_change
+    AFTER INSERT OR DELETE OR UPDATE OF issued_date, total_amount ON invoice
+    FOR EACH ROW
+    EXECUTE FUNCTION rollup_income_on_invoice_change();
+
+-- Trigger to keep rollup_daily_work in sync with works
+CREATE OR REPLACE FUNCTION rollup_work_on_change()
+RETURNS TRIGGER AS $$
+DECLARE
+    brand INTEGER;
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.created_at IS NOT NULL THEN
+        SELECT vm.brand_id INTO brand
+        FROM vehicle v
+        INNER JOIN vehicle_model vm ON v.model_id = vm.id
+        WHERE v.id = OLD.vehicle_id;
+
+        UPDATE rollup_daily_work
+        SET work_count = work_count - 1,
+            hours_count = hours_count - CASE WHEN OLD.actual_hours IS NULL THEN 0 ELSE 1 END,
+            total_hours = total_hours - COALESCE(OLD.actual_hours, 0),
+            cost_count = cost_count - CASE WHEN OLD.actual_cost IS NULL THEN 0 ELSE 1 END,
+            total_cost = total_cost - COALESCE(OLD.actual_cost, 0)
+        WHERE day = DATE(OLD.created_at)
+        AND service_type_id = OLD.service_type_id
+        AND work_status_id = OLD.work_status_id
+        AND employee_id = COALESCE(OLD.assigned_employee_id, 0)
+        AND vehicle_brand_id = brand;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.created_at IS NOT NULL THEN
+        SELECT vm.brand_id INTO brand
+        FROM vehicle v
+        INNER JOIN vehicle_model vm ON v.model_id = vm.id
+        WHERE v.id = NEW.vehicle_id;
+
+        INSERT INTO rollup_daily_work (day, service_type_id, work_status_id, employee_id, vehicle_brand_id,
+                                       work_count, hours_count, total_hours, cost_count, total_cost)
+        VALUES (DATE(NEW.created_at), NEW.service_type_id, NEW.work_status_id,
+                COALESCE(NEW.assigned_employee_id, 0), brand, 1,
+                CASE WHEN NEW.actual_hours IS NULL THEN 0 ELSE 1 END, COALESCE(NEW.actual_hours, 0),
+                CASE WHEN NEW.actual_cost IS NULL THEN 0 ELSE 1 END, COALESCE(NEW.actual_cost, 0))
+        ON CONFLICT (day, service_type_id, work_status_id, employee_id, vehicle_brand_id) DO UPDATE
+            SET work_count = rollup_daily_work.work_count + 1,
+                hours_count = rollup_daily_work.hours_count + EXCLUDED.hours_count,
+                total_hours = rollup_daily_work.total_hours + EXCLUDED.total_hours,
+                cost_count = rollup_daily_work.cost_count + EXCLUDED.cost_count,
+                total_cost = rollup_daily_work.total_cost + EXCLUDED.total_cost;
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_rollup_work_on_change
+    AFTER INSERT OR DELETE OR UPDATE OF created_at, vehicle_id, service_type_id, work_status_id,
+        assigned_employee_id, actual_hours, actual_cost ON work
+    FOR EACH ROW
+    EXECUTE FUNCTION rollup_work_on_change();
+
+-- Trigger to keep rollup_daily_part_usage in sync with work parts. The day and brand
+-- come from the work's current row; changes to them are moved by the work and vehicle
+-- triggers below, so the key found here is always the one the line was counted under.
+-- When the work itself is deleted its lines were already subtracted, and the cascaded
+-- delete no longer finds the work
+CREATE OR REPLACE FUNCTION rollup_part_usage_on_change()
+RETURNS TRIGGER AS $$
+DECLARE
+    work_day DATE;
+    brand INTEGER;
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        SELECT DATE(w.created_at), vm.brand_id INTO work_day, brand
+        FROM work w
+        INNER JOIN vehicle v ON w.vehicle_id = v.id
+        INNER JOIN vehicle_model vm ON v.model_id = vm.id
+        WHERE w.id = OLD.work_id;
+
+        IF FOUND THEN
+            UPDATE rollup_daily_part_usage
+            SET line_count = line_count - 1,
+                quantity_used = quantity_used - COALESCE(OLD.quantity_used, 0),
+                total_cost = total_cost - COALESCE(OLD.quantity_used, 0) * OLD.unit_price,
+                unit_price_sum = unit_price_sum - OLD.unit_price
+            WHERE day = work_day
+            AND part_id = OLD.part_id
+            AND vehicle_brand_id = brand;
+        END IF;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        SELECT DATE(w.created_at), vm.brand_id INTO work_day, brand
+        FROM work w
+        INNER JOIN vehicle v ON w.vehicle_id = v.id
+        INNER JOIN vehicle_model vm ON v.model_id = vm.id
+        WHERE w.id = NEW.work_id;
+
+        IF FOUND AND work_day IS NOT NULL THEN
+            INSERT INTO rollup_daily_part_usage (day, part_id, vehicle_brand_id, line_count, quantity_used,
+                                                 total_cost, unit_price_sum)
+            VALUES (work_day, NEW.part_id, brand, 1, COALESCE(NEW.quantity_used, 0),
+                    COALESCE(NEW.quantity_used, 0) * NEW.unit_price, NEW.unit_price)
+            ON CONFLICT (day, part_id, vehicle_brand_id) DO UPDATE
+                SET line_count = rollup_daily_part_usage.line_count + 1,
+                    quantity_used = rollup_daily_part_usage.quantity_used + EXCLUDED.quantity_used,
+                    total_cost = rollup_daily_part_usage.total_cost + EXCLUDED.total_cost,
+                    unit_price_sum = rollup_daily_part_usage.unit_price_sum + EXCLUDED.unit_price_sum;
+        END IF;
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_rollup_part_usage_on_change
+    AFTER INSERT OR DELETE OR UPDATE OF work_id, part_id, quantity_used, unit_price ON work_part
+    FOR EACH ROW
+    EXECUTE FUNCTION rollup_part_usage_on_change();
+
+-- Trigger to move the part usage of a work when its day or vehicle changes, and to
+-- subtract it before a delete cascades to its lines
+CREATE OR REPLACE FUNCTION rollup_part_usage_on_work_change()
+RETURNS TRIGGER AS $$
+DECLARE
+    brand INTEGER;
+BEGIN
+    IF OLD.created_at IS NOT NULL THEN
+        SELECT vm.brand_id INTO brand
+        FROM vehicle v
+        INNER JOIN vehicle_model vm ON v.model_id = vm.id
+        WHERE v.id = OLD.vehicle_id;
+
+        UPDATE rollup_daily_part_usage r
+        SET line_count = r.line_count - p.line_count,
+            quantity_used = r.quantity_used - p.quantity_used,
+            total_cost = r.total_cost - p.total_cost,
+            unit_price_sum = r.unit_price_sum - p.unit_price_sum
+        FROM (
+            SELECT part_id, COUNT(*) AS line_count, SUM(COALESCE(quantity_used, 0)) AS quantity_used,
+                   SUM(COALESCE(quantity_used, 0) * unit_price) AS total_cost, SUM(unit_price) AS unit_price_sum
+            FROM work_part
+            WHERE work_id = OLD.id
+            GROUP BY part_id
+        ) p
+        WHERE r.day = DATE(OLD.created_at)
+        AND r.part_id = p.part_id
+        AND r.vehicle_brand_id = brand;
+    END IF;
+
+    IF TG_OP = 'UPDATE' AND NEW.created_at IS NOT NULL THEN
+        SELECT vm.brand_id INTO brand
+        FROM vehicle v
+        INNER JOIN vehicle_model vm ON v.model_id = vm.id
+        WHERE v.id = NEW.vehicle_id;
+
+        INSERT INTO rollup_daily_part_usage (day, part_id, vehicle_brand_id, line_count, quantity_used,
+                                             total_cost, unit_price_sum)
+        SELECT DATE(NEW.created_at), part_id, brand, COUNT(*), SUM(COALESCE(quantity_used, 0)),
+               SUM(COALESCE(quantity_used, 0) * unit_price), SUM(unit_price)
+        FROM work_part
+        WHERE work_id = NEW.id
+        GROUP BY part_id
+        ON CONFLICT (day, part_id, vehicle_brand_id) DO UPDATE
+            SET line_count = rollup_daily_part_usage.line_count + EXCLUDED.line_count,
+                quantity_used = rollup_daily_part_usage.quantity_used + EXCLUDED.quantity_used,
+                total_cost = rollup_daily_part_usage.total_cost + EXCLUDED.total_cost,
+                unit_price_sum = rollup_daily_part_usage.unit_price_sum + EXCLUDED.unit_price_sum;
+        RETURN NULL;
+    END IF;
+
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+-- BEFORE DELETE: the ON DELETE CASCADE of work_part runs before any AFTER trigger of work
+CREATE TRIGGER trg_rollup_part_usage_on_work_delete
+    BEFORE DELETE ON work
+    FOR EACH ROW
+    EXECUTE FUNCTION rollup_part_usage_on_work_change();
+
+CREATE TRIGGER trg_rollup_part_usage_on_work_update
+    AFTER UPDATE OF created_at, vehicle_id ON work
+    FOR EACH ROW
+    WHEN (OLD.created_at IS DISTINCT FROM NEW.created_at OR OLD.vehicle_id IS DISTINCT FROM NEW.vehicle_id)
+    EXECUTE FUNCTION rollup_part_usage_on_work_change();
+
+-- Trigger to move the rollups of a vehicle's works when its model changes to another brand,
+-- so later decrements find the rows under the brand they were counted with
+CREATE OR REPLACE FUNCTION rollup_on_vehicle_model_change()
+RETURNS TRIGGER AS $$
+DECLARE
+    old_brand INTEGER;
+    new_brand INTEGER;
+BEGIN
+    SELECT brand_id INTO old_brand FROM vehicle_model WHERE id = OLD.model_id;
+    SELECT brand_id INTO new_brand FROM vehicle_model WHERE id = NEW.model_id;
+    IF old_brand IS NOT DISTINCT FROM new_brand THEN
+        RETURN NULL;
+    END IF;
+
+    WITH moved AS (
+        SELECT DATE(created_at) AS day, service_type_id, work_status_id,
+               COALESCE(assigned_employee_id, 0) AS employee_id, COUNT(*) AS work_count,
+               COUNT(actual_hours) AS hours_count, COALESCE(SUM(actual_hours), 0) AS total_hours,
+               COUNT(actual_cost) AS cost_count, COALESCE(SUM(actual_cost), 0) AS total_cost
+        FROM work
+        WHERE vehicle_id = NEW.id AND created_at IS NOT NULL
+        GROUP BY DATE(created_at), service_type_id, work_status_id, COALESCE(assigned_employee_id, 0)
+    ), removed AS (
+        UPDATE rollup_daily_work r
+        SET work_count = r.work_count - m.work_count,
+            hours_count = r.hours_count - m.hours_count,
+            total_hours = r.total_hours - m.total_hours,
+            cost_count = r.cost_count - m.cost_count,
+            total_cost = r.total_cost - m.total_cost
+        FROM moved m
+        WHERE r.day = m.day
+        AND r.service_type_id = m.service_type_id
+        AND r.work_status_id = m.work_status_id
+        AND r.employee_id = m.employee_id
+        AND r.vehicle_brand_id = old_brand
+    )
+    INSERT INTO rollup_daily_work (day, service_type_id, work_status_id, employee_id, vehicle_brand_id,
+                                   work_count, hours_count, total_hours, cost_count, total_cost)
+    SELECT day, service_type_id, work_status_id, employee_id, new_brand,
+           work_count, hours_count, total_hours, cost_count, total_cost
+    FROM moved
+    ON CONFLICT (day, service_type_id, work_status_id, employee_id, vehicle_brand_id) DO UPDATE
+        SET work_count = rollup_daily_work.work_count + EXCLUDED.work_count,
+            hours_count = rollup_daily_work.hours_count + EXCLUDED.hours_count,
+            total_hours = rollup_daily_work.total_hours + EXCLUDED.total_hours,
+            cost_count = rollup_daily_work.cost_count + EXCLUDED.cost_count,
+            total_cost = rollup_daily_work.total_cost + EXCLUDED.total_cost;
+
+    WITH moved AS (
+        SELECT DATE(w.created_at) AS day, wp.part_id, COUNT(*) AS line_count,
+               SUM(COALESCE(wp.quantity_used, 0)) AS quantity_used,
+               SUM(COALESCE(wp.quantity_used, 0) * wp.unit_price) AS total_cost,
+               SUM(wp.unit_price) AS unit_price_sum
+        FROM work_part wp
+        INNER JOIN work w ON wp.work_id = w.id
+        WHERE w.vehicle_id = NEW.id AND w.created_at IS NOT NULL
+        GROUP BY DATE(w.created_at), wp.part_id
+    ), removed AS (
+        UPDATE rollup_daily_part_usage r
+        SET line_count = r.line_count - m.line_count,
+            quantity_used = r.quantity_used - m.quantity_used,
+            total_cost = r.total_cost - m.total_cost,
+            unit_price_sum = r.unit_price_sum - m.unit_price_sum
+        FROM moved m
+        WHERE r.day = m.day
+        AND r.part_id = m.part_id
+        AND r.vehicle_brand_id = old_brand
+    )
+    INSERT INTO rollup_daily_part_usage (day, part_id, vehicle_brand_id, line_count, quantity_used,
+                                         total_cost, unit_price_sum)
+    SELECT day, part_id, new_brand, line_count, quantity_used, total_cost, unit_price_sum
+    FROM moved
+    ON CONFLICT (day, part_id, vehicle_brand_id) DO UPDATE
+        SET line_count = rollup_daily_part_usage.line_count + EXCLUDED.line_count,
+            quantity_used = rollup_daily_part_usage.quantity_used + EXCLUDED.quantity_used,
+            total_cost = rollup_daily_part_usage.total_cost + EXCLUDED.total_cost,
+            unit_price_sum = rollup_daily_part_usage.unit_price_sum + EXCLUDED.unit_price_sum;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_rollup_on_vehicle_model_change
+    AFTER UPDATE OF model_id ON vehicle
+    FOR EACH ROW
+    WHEN (OLD.model_id IS DISTINCT FROM NEW.model_id)
+    EXECUTE FUNCTION rollup_on_vehicle_model_change();
@@ -0,0 +1,308 @@
+package com.project.ayd.mechanic_workshop.features.reports.controller;
+
+import com.project.ayd.mechanic_workshop.features.reports.dto.ReportDownload;
+import com.project.ayd.mechanic_workshop.features.reports.dto.ReportResponse;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportStatus;
+import com.project.ayd.mechanic_workshop.features.reports.exception.ReportExceptionHandler;
+import com.project.ayd.mechanic_workshop.features.reports.exception.ReportNotFoundException;
+import com.project.ayd.mechanic_workshop.features.reports.service.DashboardPushService;
+import com.project.ayd.mechanic_workshop.features.reports.service.DashboardService;
+import com.project.ayd.mechanic_workshop.features.reports.service.ReportBundleService;
+import com.project.ayd.mechanic_workshop.features.reports.service.ReportLeaderboardService;
+import com.project.ayd.mechanic_workshop.features.reports.service.ReportPageService;
+import com.project.ayd.mechanic_workshop.features.reports.service.ReportPeriodCache;
+import com.project.ayd.mechanic_workshop.features.reports.service.ReportRollupService;
+import com.project.ayd.mechanic_workshop.features.reports.service.ReportService;
+import com.project.ayd.mechanic_workshop.features.reports.service.ReportSubscriptionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class ReportControllerDownloadTest {
+
+    private static final String REPORT_ID = "report-1";
+    private static final String URL = "/reports/download/" + REPORT_ID;
+    private static final Instant LAST_MODIFIED = Instant.parse("2026-01-10T10:00:00Z");
+    private static final String ETAG = "\"abc123\"";
+
+    @Mock
+    private ReportService reportService;
+    @Mock
+    private DashboardService dashboardService;
+    @Mock
+    private DashboardPushService dashboardPushService;
+    @Mock
+    private ReportRollupService reportRollupService;
+    @Mock
+    private ReportPageService reportPageService;
+    @Mock
+    private ReportSubscriptionService reportSubscriptionService;
+    @Mock
+    private ReportBundleService reportBundleService;
+    @Mock
+    private ReportPeriodCache reportPeriodCache;
+    @Mock
+    private ReportLeaderboardService reportLeaderboardService;
+
+    @InjectMocks
+    private ReportController reportController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(reportController)
+                .setControllerAdvice(new ReportExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void fullDownloadAdvertisesRanges() throws Exception {
+        ReportDownload download = completed(csv());
+
+        MvcResult result = mockMvc.perform(get(URL))
+                .andExpect(request().asyncStarted())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 100))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"report-1.csv\""))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result));
+
+        verify(reportService).transferReport(eq(download), eq(0L), eq(100L), any());
+    }
+
+    @Test
+    void rangeReturnsPartialContent() throws Exception {
+        ReportDownload download = completed(csv());
+
+        MvcResult result = mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=10-29"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 10-29/100"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 20))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result));
+
+        verify(reportService).transferReport(eq(download), eq(10L), eq(20L), any());
+    }
+
+    @Test
+    void suffixRangeReturnsLastBytes() throws Exception {
+        ReportDownload download = completed(csv());
+
+        MvcResult result = mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=-10"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 90-99/100"))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result));
+
+        verify(reportService).transferReport(eq(download), eq(90L), eq(10L), any());
+    }
+
+    @Test
+    void unsatisfiableRangeReturns416() throws Exception {
+        completed(csv());
+
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=200-300"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */100"));
+
+        verify(reportService, never()).transferReport(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void ifRangeWithCurrentETagReturnsPartialContent() throws Exception {
+        completed(csv());
+
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=0-9").header(HttpHeaders.IF_RANGE, ETAG))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-9/100"));
+    }
+
+    @Test
+    void ifRangeWithStaleETagReturnsWholeFile() throws Exception {
+        completed(csv());
+
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=0-9").header(HttpHeaders.IF_RANGE, "\"old\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 100));
+    }
+
+    @Test
+    void ifRangeWithWeakETagReturnsWholeFile() throws Exception {
+        completed(csv());
+
+        // If-Range exige comparación fuerte
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=0-9").header(HttpHeaders.IF_RANGE, "W/" + ETAG))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void ifRangeWithDateFollowsLastModified() throws Exception {
+        completed(csv());
+
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=0-9")
+                        .header(HttpHeaders.IF_RANGE, httpDate(LAST_MODIFIED)))
+                .andExpect(status().isPartialContent());
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=0-9")
+                        .header(HttpHeaders.IF_RANGE, httpDate(LAST_MODIFIED.minusSeconds(60))))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void matchingETagReturns304() throws Exception {
+        completed(csv());
+
+        mockMvc.perform(get(URL).header(HttpHeaders.IF_NONE_MATCH, "\"other\", " + ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG));
+        // If-None-Match usa comparación débil
+        mockMvc.perform(get(URL).header(HttpHeaders.IF_NONE_MATCH, "W/" + ETAG))
+                .andExpect(status().isNotModified());
+
+        verify(reportService, never()).transferReport(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void ifNoneMatchTakesPrecedenceOverIfModifiedSince() throws Exception {
+        completed(csv());
+
+        mockMvc.perform(get(URL).header(HttpHeaders.IF_NONE_MATCH, "\"other\"")
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, httpDate(LAST_MODIFIED)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void unmodifiedSinceReturns304() throws Exception {
+        completed(csv());
+
+        mockMvc.perform(get(URL).header(HttpHeaders.IF_MODIFIED_SINCE, httpDate(LAST_MODIFIED)))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get(URL).header(HttpHeaders.IF_MODIFIED_SINCE, httpDate(LAST_MODIFIED.minusSeconds(60))))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void compressedFileIsSentAsIsWhenClientAcceptsGzip() throws Exception {
+        ReportDownload download = completed(gzip());
+
+        MvcResult result = mockMvc.perform(get(URL).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 40))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result));
+
+        verify(reportService).transferReport(eq(download), eq(0L), eq(40L), any());
+    }
+
+    @Test
+    void compressedFileIsDecodedForOtherClients() throws Exception {
+        ReportDownload download = completed(gzip());
+
+        MvcResult result = mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=50-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc123-raw\""))
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 50-99/100"))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result));
+
+        verify(reportService).transferDecodedReport(eq(download), eq(50L), eq(50L), any());
+    }
+
+    @Test
+    void reportInProgressReturns202() throws Exception {
+        when(reportService.getReportStatus(REPORT_ID)).thenReturn(reportStatus(ReportStatus.GENERATING));
+
+        mockMvc.perform(get(URL))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "5"));
+
+        verify(reportService, never()).getReportDownload(any());
+    }
+
+    @Test
+    void unknownReportReturns404() throws Exception {
+        when(reportService.getReportStatus(REPORT_ID)).thenThrow(new ReportNotFoundException(REPORT_ID));
+
+        mockMvc.perform(get(URL))
+                .andExpect(status().isNotFound());
+    }
+
+    // ================================
+    // MÉTODOS HELPER
+    // ================================
+
+    private ReportDownload completed(ReportDownload download) {
+        when(reportService.getReportStatus(REPORT_ID)).thenReturn(reportStatus(ReportStatus.COMPLETED));
+        when(reportService.getReportDownload(REPORT_ID)).thenReturn(download);
+        return download;
+    }
+
+    private static ReportResponse reportStatus(ReportStatus status) {
+        return ReportResponse.builder().reportId(REPORT_ID).status(status.name()).build();
+    }
+
+    private static ReportDownload csv() {
+        return ReportDownload.builder()
+                .reportId(REPORT_ID)
+                .fileName("report-1.csv")
+                .contentType("text/csv")
+                .storageKey("report-1.csv")
+                .size(100)
+                .rawSize(100)
+                .lastModified(LAST_MODIFIED)
+                .eTag(ETAG)
+                .build();
+    }
+
+    // 40 bytes comprimidos que se descomprimen en 100
+    private static ReportDownload gzip() {
+        return ReportDownload.builder()
+                .reportId(REPORT_ID)
+                .fileName("report-1.csv")
+                .contentType("text/csv")
+                .storageKey("report-1.csv.gz")
+                .size(40)
+                .rawSize(100)
+                .lastModified(LAST_MODIFIED)
+                .eTag(ETAG)
+                .contentEncoding("gzip")
+                .decodedETag("\"abc123-raw\"")
+                .build();
+    }
+
+    private static String httpDate(Instant instant) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(instant.atZone(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,74 @@
+package com.project.ayd.mechanic_workshop.features.reports.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class DashboardDeltaTest {
+
+    @Test
+    void equalDashboardsHaveNoChanges() {
+        assertThat(DashboardDelta.changedFields(dashboard().build(), dashboard().build())).isEmpty();
+    }
+
+    @Test
+    void returnsOnlyChangedFieldsInDeclarationOrder() {
+        DashboardResponse previous = dashboard().build();
+        DashboardResponse current = dashboard()
+                .totalActiveWorks(4L)
+                .incomeByMonth(List.of(month("2026-01", "1500.00")))
+                .build();
+
+        Map<String, Object> changes = DashboardDelta.changedFields(previous, current);
+
+        assertThat(changes).containsExactly(
+                entry("totalActiveWorks", 4L),
+                entry("incomeByMonth", List.of(month("2026-01", "1500.00"))));
+    }
+
+    @Test
+    void clearedFieldIsSentAsNull() {
+        DashboardResponse previous = dashboard().unavailableSections(List.of("topUsedParts")).build();
+        DashboardResponse current = dashboard().build();
+
+        Map<String, Object> changes = DashboardDelta.changedFields(previous, current);
+
+        assertThat(changes).containsOnlyKeys("unavailableSections");
+        assertThat(changes.get("unavailableSections")).isNull();
+    }
+
+    @Test
+    void decimalsWithDifferentScaleAreReportedAsChanged() {
+        // BigDecimal.equals compara la escala; el cliente recibe el valor nuevo tal cual
+        DashboardResponse previous = dashboard().totalIncomeToday(new BigDecimal("10")).build();
+        DashboardResponse current = dashboard().totalIncomeToday(new BigDecimal("10.00")).build();
+
+        assertThat(DashboardDelta.changedFields(previous, current))
+                .containsExactly(entry("totalIncomeToday", new BigDecimal("10.00")));
+    }
+
+    // ================================
+    // MÉTODOS HELPER
+    // ================================
+
+    private static DashboardResponse.DashboardResponseBuilder dashboard() {
+        return DashboardResponse.builder()
+                .totalActiveWorks(3L)
+                .totalCompletedWorks(10L)
+                .totalPendingWorks(2L)
+                .totalIncomeToday(new BigDecimal("250.00"))
+                .busyEmployees(1L)
+                .availableEmployees(4L)
+                .incomeByMonth(List.of(month("2026-01", "1000.00")))
+                .topUsedParts(Map.of("Filtro", 5L));
+    }
+
+    private static DashboardResponse.ChartData month(String label, String value) {
+        return DashboardResponse.ChartData.builder().label(label).value(new BigDecimal(value)).build();
+    }
+}
@@ -0,0 +1,198 @@
+package com.project.ayd.mechanic_workshop.features.reports.metrics;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.Query;
+import jakarta.persistence.QueryTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReportQueryMetricsTest {
+
+    @Mock
+    private Query query;
+
+    private ReportProperties reportProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private ReportQueryMetrics reportQueryMetrics;
+    private ListAppender<ILoggingEvent> logAppender;
+
+    @BeforeEach
+    void setUp() {
+        reportProperties = new ReportProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        reportQueryMetrics = new ReportQueryMetrics(meterRegistry, reportProperties);
+
+        logAppender = new ListAppender<>();
+        logAppender.start();
+        ((Logger) LoggerFactory.getLogger(ReportQueryMetrics.class)).addAppender(logAppender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ((Logger) LoggerFactory.getLogger(ReportQueryMetrics.class)).detachAppender(logAppender);
+    }
+
+    @Test
+    void listRecordsTimerAndRowSummary() {
+        when(query.getResultList()).thenReturn(List.of(new Object[] { 1 }, new Object[] { 2 }, new Object[] { 3 }));
+
+        List<Object[]> rows = reportQueryMetrics.list("incomeByMonth", query);
+
+        assertThat(rows).hasSize(3);
+        assertThat(timer("incomeByMonth", "success").count()).isEqualTo(1);
+        assertThat(rowSummary("incomeByMonth").totalAmount()).isEqualTo(3.0);
+        assertThat(reportQueryMetrics.getSlowQueries()).isEmpty();
+    }
+
+    @Test
+    void failedQueryIsRecordedAsError() {
+        when(query.getSingleResult()).thenThrow(new QueryTimeoutException("canceling statement due to user request"));
+
+        assertThatThrownBy(() -> reportQueryMetrics.single("activeWorks", query))
+                .isInstanceOf(QueryTimeoutException.class);
+
+        assertThat(timer("activeWorks", "error").count()).isEqualTo(1);
+        assertThat(meterRegistry.find(ReportQueryMetrics.TIMER_NAME).tag(ReportQueryMetrics.OUTCOME_TAG, "success")
+                .timer()).isNull();
+    }
+
+    @Test
+    void slowQueryIsLoggedAndListed() {
+        reportProperties.setSlowQueryThresholdMillis(1);
+        when(query.getResultList()).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            return List.<Object[]>of(new Object[] { 1 });
+        });
+
+        reportQueryMetrics.list("partUsage", query);
+
+        assertThat(reportQueryMetrics.getSlowQueries()).singleElement().satisfies(slow -> {
+            assertThat(slow.queryName()).isEqualTo("partUsage");
+            assertThat(slow.durationMillis()).isGreaterThanOrEqualTo(1);
+            assertThat(slow.rows()).isEqualTo(1);
+        });
+        assertThat(logAppender.list).singleElement().satisfies(event -> {
+            assertThat(event.getLevel()).isEqualTo(Level.WARN);
+            assertThat(event.getFormattedMessage()).startsWith("Slow report query partUsage took");
+        });
+    }
+
+    @Test
+    void fastQueryIsNotLogged() {
+        reportProperties.setSlowQueryThresholdMillis(60000);
+        when(query.getResultList()).thenReturn(List.of());
+
+        reportQueryMetrics.list("partUsage", query);
+
+        assertThat(reportQueryMetrics.getSlowQueries()).isEmpty();
+        assertThat(logAppender.list).isEmpty();
+    }
+
+    @Test
+    void fullyReadStreamIsRecordedAsSuccessOnClose() {
+        when(query.getResultStream()).thenReturn(Stream.of(new Object[] { 1 }, new Object[] { 2 }));
+
+        try (Stream<Object[]> rows = reportQueryMetrics.stream("workDetails", query)) {
+            assertThat(rows.count()).isEqualTo(2);
+        }
+
+        assertThat(timer("workDetails", "success").count()).isEqualTo(1);
+        assertThat(rowSummary("workDetails").totalAmount()).isEqualTo(2.0);
+    }
+
+    @Test
+    void streamFailingMidIterationIsRecordedAsError() {
+        Iterator<Object[]> cursor = List.<Object[]>of(new Object[] { 1 }).iterator();
+        Stream<Object[]> failing = Stream.generate(() -> {
+            if (cursor.hasNext()) {
+                return cursor.next();
+            }
+            throw new QueryTimeoutException("ERROR: canceling statement due to statement timeout");
+        });
+        when(query.getResultStream()).thenReturn(failing);
+
+        try (Stream<Object[]> rows = reportQueryMetrics.stream("workDetails", query)) {
+            assertThatThrownBy(() -> rows.forEach(row -> { }))
+                    .isInstanceOf(QueryTimeoutException.class);
+        }
+
+        assertThat(timer("workDetails", "error").count()).isEqualTo(1);
+        assertThat(rowSummary("workDetails").totalAmount()).isEqualTo(1.0);
+        assertThat(meterRegistry.find(ReportQueryMetrics.TIMER_NAME).tag(ReportQueryMetrics.OUTCOME_TAG, "success")
+                .timer()).isNull();
+    }
+
+    @Test
+    void streamClosedBeforeEndIsRecordedAsError() {
+        when(query.getResultStream()).thenReturn(Stream.of(new Object[] { 1 }, new Object[] { 2 }));
+
+        try (Stream<Object[]> rows = reportQueryMetrics.stream("workDetails", query)) {
+            rows.iterator().next();
+        }
+
+        assertThat(timer("workDetails", "error").count()).isEqualTo(1);
+    }
+
+    @Test
+    void endpointSummarizesQueriesAndSlowQueries() {
+        reportProperties.setSlowQueryThresholdMillis(0);
+        when(query.getResultList()).thenReturn(List.of(new Object[] { 1 }, new Object[] { 2 }));
+        reportQueryMetrics.list("incomeByMonth", query);
+        reportQueryMetrics.list("incomeByMonth", query);
+        when(query.getSingleResult()).thenThrow(new QueryTimeoutException("timeout"));
+        assertThatThrownBy(() -> reportQueryMetrics.single("activeWorks", query))
+                .isInstanceOf(QueryTimeoutException.class);
+
+        Map<String, Object> result = new ReportQueryEndpoint(meterRegistry, reportQueryMetrics).reportQueries();
+
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> queries = (Map<String, Map<String, Object>>) result.get("queries");
+        assertThat(queries.keySet()).containsExactly("activeWorks", "incomeByMonth");
+        assertThat(queries.get("activeWorks")).containsEntry("errors", 1L).doesNotContainKey("count");
+        assertThat(queries.get("incomeByMonth"))
+                .containsEntry("count", 2L)
+                .containsEntry("totalRows", 4.0)
+                .containsEntry("maxRows", 2.0)
+                .containsKeys("meanMs", "maxMs", "p50Ms", "p95Ms", "p99Ms");
+        assertThat(result.get("slowQueries")).isEqualTo(List.of());
+    }
+
+    // ================================
+    // MÉTODOS HELPER
+    // ================================
+
+    private Timer timer(String queryName, String outcome) {
+        return meterRegistry.get(ReportQueryMetrics.TIMER_NAME)
+                .tag(ReportQueryMetrics.QUERY_TAG, queryName)
+                .tag(ReportQueryMetrics.OUTCOME_TAG, outcome)
+                .timer();
+    }
+
+    private DistributionSummary rowSummary(String queryName) {
+        return meterRegistry.get(ReportQueryMetrics.ROWS_NAME)
+                .tag(ReportQueryMetrics.QUERY_TAG, queryName)
+                .summary();
+    }
+}
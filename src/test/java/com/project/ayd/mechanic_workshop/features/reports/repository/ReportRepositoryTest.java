@@ -0,0 +1,99 @@
+package com.project.ayd.mechanic_workshop.features.reports.repository;
+
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
+import com.project.ayd.mechanic_workshop.features.reports.metrics.ReportQueryMetrics;
+import com.project.ayd.mechanic_workshop.features.workorders.enums.WorkOrderStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReportRepositoryTest {
+
+    private static final Pattern COUNT_FILTER = Pattern.compile("WHERE (w\\.work_status_id [^\\n]+)\\n");
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ReportQueryMetrics queryMetrics;
+
+    @Mock
+    private Query query;
+
+    private ReportRepository reportRepository;
+
+    @BeforeEach
+    void setUp() {
+        reportRepository = new ReportRepository(new ReportProperties(), queryMetrics);
+        ReflectionTestUtils.setField(reportRepository, "entityManager", entityManager);
+        when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+    }
+
+    @Test
+    void workCountsFilterByTheStatusIdsOfTheCounters() {
+        // Los mismos estados que KpiCounterService suma en cada contador
+        assertThat(countFilter(reportRepository::countActiveWorks))
+                .isEqualTo("w.work_status_id = " + WorkOrderStatus.IN_PROGRESS.getId());
+        assertThat(countFilter(reportRepository::countCompletedWorks))
+                .isEqualTo("w.work_status_id = " + WorkOrderStatus.COMPLETED.getId());
+        assertThat(countFilter(reportRepository::countPendingWorks))
+                .isEqualTo("w.work_status_id IN (" + WorkOrderStatus.PENDING.getId() + ", "
+                        + WorkOrderStatus.ASSIGNED.getId() + ")");
+    }
+
+    @Test
+    void snapshotUsesTheSameFiltersAsTheCountQueries() {
+        String active = countFilter(reportRepository::countActiveWorks);
+        String completed = countFilter(reportRepository::countCompletedWorks);
+        String pending = countFilter(reportRepository::countPendingWorks);
+
+        when(queryMetrics.single(anyString(), any())).thenReturn(new Object[13]);
+        reportRepository.getDashboardSnapshot();
+
+        assertThat(lastSql())
+                .contains("COUNT(*) FILTER (WHERE " + active + ") as active_works")
+                .contains("COUNT(*) FILTER (WHERE " + completed + ") as completed_works")
+                .contains("COUNT(*) FILTER (WHERE " + pending + ") as pending_works")
+                .doesNotContain("ws.name");
+    }
+
+    // ================================
+    // MÉTODOS HELPER
+    // ================================
+
+    // Filtro de estado de una consulta count*, tal como aparece tras el WHERE
+    private String countFilter(Supplier<Long> count) {
+        when(queryMetrics.single(anyString(), any())).thenReturn(0L);
+        count.get();
+
+        String sql = lastSql();
+        assertThat(sql).doesNotContain("ws.name");
+        Matcher matcher = COUNT_FILTER.matcher(sql);
+        assertThat(matcher.find()).as("status filter in %s", sql).isTrue();
+        return matcher.group(1).trim();
+    }
+
+    private String lastSql() {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(entityManager, atLeastOnce()).createNativeQuery(sql.capture());
+        return sql.getValue();
+    }
+}
@@ -0,0 +1,200 @@
+package com.project.ayd.mechanic_workshop.features.reports.service;
+
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
+import com.project.ayd.mechanic_workshop.features.reports.dto.DashboardResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DashboardCacheTest {
+
+    private ReportProperties reportProperties;
+    private DashboardCache dashboardCache;
+
+    @BeforeEach
+    void setUp() {
+        reportProperties = new ReportProperties();
+        // Las recargas en segundo plano corren en el mismo hilo para que el test sea determinista
+        dashboardCache = new DashboardCache(reportProperties, Runnable::run);
+    }
+
+    @Test
+    void servesCachedValueWithoutReloading() {
+        AtomicInteger loads = new AtomicInteger();
+
+        DashboardResponse first = dashboardCache.get(DashboardCache.CURRENT_KEY,
+                fromPrimary -> dashboard(loads.incrementAndGet()));
+        DashboardResponse second = dashboardCache.get(DashboardCache.CURRENT_KEY,
+                fromPrimary -> dashboard(loads.incrementAndGet()));
+
+        assertThat(loads).hasValue(1);
+        assertThat(second).isSameAs(first);
+        assertThat(dashboardCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidatedEntryIsReloadedSynchronouslyFromPrimary() {
+        List<Boolean> fromPrimaryCalls = new ArrayList<>();
+        AtomicInteger loads = new AtomicInteger();
+        DashboardCache.Loader loader = fromPrimary -> {
+            fromPrimaryCalls.add(fromPrimary);
+            return dashboard(loads.incrementAndGet());
+        };
+
+        dashboardCache.get(DashboardCache.CURRENT_KEY, loader);
+        dashboardCache.invalidateAll();
+
+        // Tras un cambio de datos no se sirve la entrada anterior
+        assertThat(dashboardCache.size()).isZero();
+        DashboardResponse reloaded = dashboardCache.get(DashboardCache.CURRENT_KEY, loader);
+        DashboardResponse cached = dashboardCache.get(DashboardCache.CURRENT_KEY, loader);
+
+        assertThat(reloaded.getTotalActiveWorks()).isEqualTo(2L);
+        assertThat(cached).isSameAs(reloaded);
+        // La carga en frío lee de una réplica; la recarga tras la invalidación, del primario
+        assertThat(fromPrimaryCalls).containsExactly(false, true);
+    }
+
+    @Test
+    void expiredEntryIsServedStaleAndRefreshedFromReplica() throws Exception {
+        reportProperties.setDashboardCacheTtlSeconds(0);
+        List<Boolean> fromPrimaryCalls = new ArrayList<>();
+        AtomicInteger loads = new AtomicInteger();
+        DashboardCache.Loader loader = fromPrimary -> {
+            fromPrimaryCalls.add(fromPrimary);
+            return dashboard(loads.incrementAndGet());
+        };
+
+        dashboardCache.get(DashboardCache.CURRENT_KEY, loader);
+        Thread.sleep(5);
+        DashboardResponse stale = dashboardCache.get(DashboardCache.CURRENT_KEY, loader);
+
+        // Vencida por tiempo se sirve la anterior y la recarga no necesita el primario
+        assertThat(stale.getTotalActiveWorks()).isEqualTo(1L);
+        assertThat(fromPrimaryCalls).containsExactly(false, false);
+    }
+
+    @Test
+    void loadStartedBeforeInvalidationIsNotStored() {
+        List<Boolean> fromPrimaryCalls = new ArrayList<>();
+        AtomicInteger loads = new AtomicInteger();
+        DashboardCache.Loader loader = fromPrimary -> {
+            fromPrimaryCalls.add(fromPrimary);
+            int load = loads.incrementAndGet();
+            if (load == 1) {
+                // El cambio de datos llega mientras la primera carga está en curso
+                dashboardCache.invalidateAll();
+            }
+            return dashboard(load);
+        };
+
+        dashboardCache.get(DashboardCache.CURRENT_KEY, loader);
+        DashboardResponse reloaded = dashboardCache.get(DashboardCache.CURRENT_KEY, loader);
+
+        assertThat(reloaded.getTotalActiveWorks()).isEqualTo(2L);
+        assertThat(fromPrimaryCalls).containsExactly(false, true);
+    }
+
+    @Test
+    void partialResponseIsRetriedOnNextRead() {
+        AtomicInteger loads = new AtomicInteger();
+        DashboardCache.Loader loader = fromPrimary -> loads.incrementAndGet() == 1
+                ? DashboardResponse.builder().unavailableSections(List.of("incomeByMonth")).build()
+                : dashboard(2);
+
+        DashboardResponse partial = dashboardCache.get(DashboardCache.CURRENT_KEY, loader);
+        DashboardResponse servedWhileRetrying = dashboardCache.get(DashboardCache.CURRENT_KEY, loader);
+        DashboardResponse complete = dashboardCache.get(DashboardCache.CURRENT_KEY, loader);
+
+        assertThat(servedWhileRetrying).isSameAs(partial);
+        assertThat(complete.getTotalActiveWorks()).isEqualTo(2L);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        DashboardCache.Loader loader = fromPrimary -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return dashboard(1);
+        };
+
+        AtomicReference<DashboardResponse> firstResult = new AtomicReference<>();
+        AtomicReference<DashboardResponse> secondResult = new AtomicReference<>();
+        Thread first = new Thread(fromPrimary -> firstResult.set(dashboardCache.get(DashboardCache.CURRENT_KEY, loader)));
+        Thread second = new Thread(fromPrimary -> secondResult.set(dashboardCache.get(DashboardCache.CURRENT_KEY, loader)));
+
+        first.start();
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        second.start();
+        waitUntilBlocked(second);
+        release.countDown();
+        first.join(5000);
+        second.join(5000);
+
+        assertThat(loads).hasValue(1);
+        assertThat(secondResult.get()).isSameAs(firstResult.get());
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        reportProperties.setEnableDashboardCache(false);
+        AtomicInteger loads = new AtomicInteger();
+
+        dashboardCache.get(DashboardCache.CURRENT_KEY, fromPrimary -> dashboard(loads.incrementAndGet()));
+        dashboardCache.get(DashboardCache.CURRENT_KEY, fromPrimary -> dashboard(loads.incrementAndGet()));
+
+        assertThat(loads).hasValue(2);
+        assertThat(dashboardCache.size()).isZero();
+    }
+
+    @Test
+    void evictsOldestEntryButKeepsCurrent() {
+        reportProperties.setDashboardCacheMaxEntries(2);
+
+        AtomicInteger currentLoads = new AtomicInteger();
+        DashboardCache.Loader currentLoader = fromPrimary -> dashboard(currentLoads.incrementAndGet());
+
+        dashboardCache.get(DashboardCache.CURRENT_KEY, currentLoader);
+        dashboardCache.get("2026-01", fromPrimary -> dashboard(2));
+        dashboardCache.get("2026-02", fromPrimary -> dashboard(3));
+        dashboardCache.get(DashboardCache.CURRENT_KEY, currentLoader);
+
+        // La variante actual es la más antigua, pero se desaloja una histórica
+        assertThat(dashboardCache.size()).isEqualTo(2);
+        assertThat(currentLoads).hasValue(1);
+    }
+
+    // ================================
+    // MÉTODOS HELPER
+    // ================================
+
+    private static DashboardResponse dashboard(long activeWorks) {
+        return DashboardResponse.builder().totalActiveWorks(activeWorks).build();
+    }
+
+    // Espera a que el hilo quede esperando la carga compartida
+    private static void waitUntilBlocked(Thread thread) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TIMED_WAITING
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.project.ayd.mechanic_workshop.features.reports.service;
+
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
+import com.project.ayd.mechanic_workshop.features.reports.dto.KpiCounts;
+import com.project.ayd.mechanic_workshop.features.reports.enums.DataChangeSource;
+import com.project.ayd.mechanic_workshop.features.reports.events.ReportDataChangedEvent;
+import com.project.ayd.mechanic_workshop.features.reports.repository.ReportRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class KpiCounterServiceTest {
+
+    @Mock
+    private ReportRepository reportRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ReportProperties reportProperties;
+    private ThreadPoolTaskExecutor kpiRefreshExecutor;
+    private SimpleMeterRegistry meterRegistry;
+    private KpiCounterService kpiCounterService;
+
+    @BeforeEach
+    void setUp() {
+        reportProperties = new ReportProperties();
+        kpiRefreshExecutor = new ThreadPoolTaskExecutor();
+        kpiRefreshExecutor.setCorePoolSize(1);
+        kpiRefreshExecutor.setMaxPoolSize(1);
+        kpiRefreshExecutor.initialize();
+        meterRegistry = new SimpleMeterRegistry();
+        kpiCounterService = new KpiCounterService(reportRepository, reportProperties, transactionManager,
+                kpiRefreshExecutor, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        kpiRefreshExecutor.shutdown();
+    }
+
+    @Test
+    void noCountsBeforeFirstReconciliation() {
+        assertThat(kpiCounterService.getCounts()).isEmpty();
+    }
+
+    @Test
+    void reconciliationSeedsCounts() {
+        seed(7L);
+
+        KpiCounts counts = kpiCounterService.getCounts().orElseThrow();
+
+        assertThat(counts.getPendingWorks()).isEqualTo(2L);
+        assertThat(counts.getActiveWorks()).isEqualTo(1L);
+        assertThat(counts.getCompletedWorks()).isEqualTo(7L);
+        assertThat(counts.getTotalEmployees()).isEqualTo(2L);
+        assertThat(counts.getBusyEmployees()).isZero();
+        assertThat(counts.getAvailableEmployees()).isEqualTo(2L);
+        // Un repuesto bajo el mínimo también cuenta como en existencia
+        assertThat(counts.getPartsInStock()).isEqualTo(2L);
+        assertThat(counts.getLowStockParts()).isEqualTo(1L);
+        assertThat(counts.getOutOfStockParts()).isEqualTo(1L);
+        assertThat(counts.getReconciledAt()).isNotNull();
+    }
+
+    @Test
+    void workChangesMoveCountersAndEmployeeLoad() {
+        seed(7L);
+
+        // Trabajo pendiente asignado al empleado 10: su carga pasa de 4 a 5 y queda ocupado
+        when(reportRepository.getWorkState(102L)).thenReturn(rows(new Object[] {2L, 10L}));
+        workChanged(102L);
+        KpiCounts assigned = kpiCounterService.getCounts().orElseThrow();
+        assertThat(assigned.getPendingWorks()).isEqualTo(2L);
+        assertThat(assigned.getBusyEmployees()).isEqualTo(1L);
+        assertThat(assigned.getAvailableEmployees()).isEqualTo(1L);
+
+        // Trabajo en progreso completado: la carga vuelve a 4
+        when(reportRepository.getWorkState(101L)).thenReturn(rows(new Object[] {4L, 10L}));
+        workChanged(101L);
+        KpiCounts completed = kpiCounterService.getCounts().orElseThrow();
+        assertThat(completed.getActiveWorks()).isZero();
+        assertThat(completed.getCompletedWorks()).isEqualTo(8L);
+        assertThat(completed.getBusyEmployees()).isZero();
+        assertThat(completed.getAvailableEmployees()).isEqualTo(2L);
+    }
+
+    @Test
+    void repeatedChangeIsAppliedOnce() {
+        seed(7L);
+        when(reportRepository.getWorkState(101L)).thenReturn(rows(new Object[] {4L, 10L}));
+
+        workChanged(101L);
+        workChanged(101L);
+
+        KpiCounts counts = kpiCounterService.getCounts().orElseThrow();
+        assertThat(counts.getActiveWorks()).isZero();
+        assertThat(counts.getCompletedWorks()).isEqualTo(8L);
+    }
+
+    @Test
+    void newAndDeletedWorksAreCounted() {
+        seed(7L);
+        when(reportRepository.getWorkState(103L)).thenReturn(rows(new Object[] {1L, null}));
+        when(reportRepository.getWorkState(102L)).thenReturn(List.of());
+
+        workChanged(103L);
+        workChanged(102L);
+
+        // Se creó un pendiente y se eliminó otro
+        assertThat(kpiCounterService.getCounts().orElseThrow().getPendingWorks()).isEqualTo(2L);
+    }
+
+    @Test
+    void stockChangesMoveStockLevels() {
+        seed(7L);
+        when(reportRepository.getStockState(500L)).thenReturn(rows(new Object[] {0L, 2L}));
+        when(reportRepository.getStockState(502L)).thenReturn(rows(new Object[] {1L, 1L}));
+
+        kpiCounterService.onDataChanged(ReportDataChangedEvent.of(DataChangeSource.STOCK, 500L)).join();
+        kpiCounterService.onDataChanged(ReportDataChangedEvent.of(DataChangeSource.STOCK, 502L)).join();
+
+        KpiCounts counts = kpiCounterService.getCounts().orElseThrow();
+        assertThat(counts.getOutOfStockParts()).isEqualTo(1L);
+        assertThat(counts.getLowStockParts()).isEqualTo(2L);
+        assertThat(counts.getPartsInStock()).isEqualTo(2L);
+    }
+
+    @Test
+    void ignoresChangesThatDoNotAffectCounts() {
+        seed(7L);
+
+        kpiCounterService.onDataChanged(ReportDataChangedEvent.of(DataChangeSource.INVOICE, 1L)).join();
+        kpiCounterService.onDataChanged(ReportDataChangedEvent.of(DataChangeSource.WORK, null)).join();
+
+        verify(reportRepository, never()).getWorkState(any());
+        verify(reportRepository, never()).getStockState(any());
+    }
+
+    @Test
+    void reconciliationCorrectsAndRecordsDrift() {
+        seed(7L);
+        // La base de datos tiene dos trabajos completados que ningún evento informó
+        when(reportRepository.countCompletedWorks()).thenReturn(9L);
+
+        kpiCounterService.reconcile();
+
+        assertThat(kpiCounterService.getCounts().orElseThrow().getCompletedWorks()).isEqualTo(9L);
+        assertThat(drift("completed_works")).isEqualTo(-2);
+        assertThat(drift("active_works")).isZero();
+        assertThat(reconciliations("drift")).isEqualTo(1);
+
+        kpiCounterService.reconcile();
+
+        assertThat(drift("completed_works")).isZero();
+        assertThat(reconciliations("in_sync")).isEqualTo(1);
+    }
+
+    @Test
+    void disabledCountersAreCleared() {
+        seed(7L);
+        reportProperties.setEnableKpiCounters(false);
+
+        assertThat(kpiCounterService.getCounts()).isEmpty();
+        kpiCounterService.reconcile();
+        reportProperties.setEnableKpiCounters(true);
+
+        assertThat(kpiCounterService.getCounts()).isEmpty();
+    }
+
+    // ================================
+    // MÉTODOS HELPER
+    // ================================
+
+    /**
+     * Empleados 10 (4 trabajos) y 20 (ninguno); trabajos abiertos 100 asignado, 101 en progreso
+     * y 102 pendiente; repuestos 500 con existencias, 501 bajo el mínimo y 502 agotado
+     */
+    private void seed(Long completedWorks) {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(reportRepository.getEmployeeLoads()).thenReturn(rows(
+                new Object[] {10L, 4L},
+                new Object[] {20L, 0L}));
+        when(reportRepository.getOpenWorkStates()).thenReturn(rows(
+                new Object[] {100L, 2L, 10L},
+                new Object[] {101L, 3L, 10L},
+                new Object[] {102L, 1L, null}));
+        when(reportRepository.countCompletedWorks()).thenReturn(completedWorks);
+        when(reportRepository.getStockStates()).thenReturn(rows(
+                new Object[] {500L, 10L, 2L},
+                new Object[] {501L, 2L, 5L},
+                new Object[] {502L, 0L, 1L}));
+        kpiCounterService.reconcile();
+    }
+
+    private void workChanged(Long workId) {
+        kpiCounterService.onDataChanged(ReportDataChangedEvent.of(DataChangeSource.WORK, workId)).join();
+    }
+
+    private double drift(String kpi) {
+        return meterRegistry.get("report.kpi.drift").tag("kpi", kpi).gauge().value();
+    }
+
+    private double reconciliations(String outcome) {
+        return meterRegistry.get("report.kpi.reconciliations").tag("outcome", outcome).counter().count();
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return Arrays.asList(rows);
+    }
+}
@@ -0,0 +1,104 @@
+package com.project.ayd.mechanic_workshop.features.reports.service;
+
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportFormat;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ReportType;
+import com.project.ayd.mechanic_workshop.features.reports.repository.ReportDataChangeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReportContentKeyGeneratorTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2026, 1, 31, 23, 59, 59);
+
+    @Mock
+    private ReportDataChangeRepository reportDataChangeRepository;
+
+    private ReportContentKeyGenerator contentKeyGenerator;
+
+    @BeforeEach
+    void setUp() {
+        contentKeyGenerator = new ReportContentKeyGenerator(reportDataChangeRepository);
+    }
+
+    @Test
+    void sameDataVersionGivesSameKey() {
+        when(reportDataChangeRepository.sumChanges(any(), any(), any()))
+                .thenReturn(rows(new Object[] {"work", 4L}));
+
+        String first = contentKeyGenerator.contentKey(ReportType.WORK_BY_DATE, ReportFormat.PDF, START, END);
+        String second = contentKeyGenerator.contentKey(ReportType.WORK_BY_DATE, ReportFormat.PDF, START, END);
+
+        assertThat(first).hasSize(64).matches("[0-9a-f]+").isEqualTo(second);
+        verify(reportDataChangeRepository, times(2))
+                .sumChanges(List.of("work"), LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31));
+    }
+
+    @Test
+    void changeInRangeGivesNewKey() {
+        when(reportDataChangeRepository.sumChanges(any(), any(), any()))
+                .thenReturn(rows(new Object[] {"work", 4L}))
+                .thenReturn(rows(new Object[] {"work", 5L}));
+
+        String before = contentKeyGenerator.contentKey(ReportType.WORK_BY_DATE, ReportFormat.PDF, START, END);
+        String after = contentKeyGenerator.contentKey(ReportType.WORK_BY_DATE, ReportFormat.PDF, START, END);
+
+        assertThat(after).isNotEqualTo(before);
+    }
+
+    @Test
+    void tableWithoutChangesCountsAsZero() {
+        when(reportDataChangeRepository.sumChanges(any(), any(), any()))
+                .thenReturn(rows())
+                .thenReturn(rows(new Object[] {"work", 0L}));
+
+        String withoutRows = contentKeyGenerator.contentKey(ReportType.WORK_BY_DATE, ReportFormat.CSV, START, END);
+        String withZero = contentKeyGenerator.contentKey(ReportType.WORK_BY_DATE, ReportFormat.CSV, START, END);
+
+        assertThat(withoutRows).isEqualTo(withZero);
+    }
+
+    @Test
+    void rowOrderDoesNotChangeKey() {
+        when(reportDataChangeRepository.sumChanges(any(), any(), any()))
+                .thenReturn(rows(new Object[] {"work", 1L}, new Object[] {"part", 2L}, new Object[] {"work_part", 3L}))
+                .thenReturn(rows(new Object[] {"work_part", 3L}, new Object[] {"work", 1L}, new Object[] {"part", 2L}));
+
+        String first = contentKeyGenerator.contentKey(ReportType.PARTS_USAGE, ReportFormat.EXCEL, START, END);
+        String second = contentKeyGenerator.contentKey(ReportType.PARTS_USAGE, ReportFormat.EXCEL, START, END);
+
+        assertThat(first).isEqualTo(second);
+    }
+
+    @Test
+    void formatAndRangeArePartOfKey() {
+        when(reportDataChangeRepository.sumChanges(any(), any(), any()))
+                .thenReturn(rows(new Object[] {"work", 4L}));
+
+        String pdf = contentKeyGenerator.contentKey(ReportType.WORK_BY_DATE, ReportFormat.PDF, START, END);
+        String csv = contentKeyGenerator.contentKey(ReportType.WORK_BY_DATE, ReportFormat.CSV, START, END);
+        String otherRange = contentKeyGenerator.contentKey(ReportType.WORK_BY_DATE, ReportFormat.PDF, START,
+                END.minusDays(1));
+
+        assertThat(pdf).isNotEqualTo(csv).isNotEqualTo(otherRange);
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return Arrays.asList(rows);
+    }
+}
@@ -0,0 +1,193 @@
+package com.project.ayd.mechanic_workshop.features.reports.service;
+
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
+import com.project.ayd.mechanic_workshop.features.reports.utils.ReportCancellation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportJobExecutorTest {
+
+    private ThreadPoolTaskExecutor reportTaskExecutor;
+    private ReportProperties reportProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private ReportJobExecutor reportJobExecutor;
+
+    @BeforeEach
+    void setUp() {
+        reportTaskExecutor = new ThreadPoolTaskExecutor();
+        reportTaskExecutor.setCorePoolSize(1);
+        reportTaskExecutor.setMaxPoolSize(1);
+        reportTaskExecutor.setQueueCapacity(10);
+        reportTaskExecutor.initialize();
+
+        reportProperties = new ReportProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        reportJobExecutor = new ReportJobExecutor(reportTaskExecutor, reportProperties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportTaskExecutor.shutdown();
+    }
+
+    @Test
+    void cancelUnknownJobReturnsFalse() {
+        assertThat(reportJobExecutor.cancel("missing")).isFalse();
+        assertThat(cancelled("user")).isZero();
+    }
+
+    @Test
+    void cancelQueuedJobCountsOnce() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean queuedJobRan = new AtomicBoolean();
+
+        reportJobExecutor.submit("running", () -> {
+            running.countDown();
+            await(release);
+        }, () -> { });
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        reportJobExecutor.submit("queued", () -> queuedJobRan.set(true), () -> { });
+
+        assertThat(reportJobExecutor.cancel("queued")).isTrue();
+        assertThat(reportJobExecutor.cancel("queued")).isFalse();
+
+        release.countDown();
+        waitFor(() -> reportJobExecutor.getActiveJobs() == 0 && reportJobExecutor.getQueuedJobs() == 0);
+        assertThat(queuedJobRan).isFalse();
+        assertThat(cancelled("user")).isEqualTo(1);
+    }
+
+    @Test
+    void cancelRunningJobStopsItAtCheckpointAndCountsOnce() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+
+        reportJobExecutor.submit("running", () -> {
+            running.countDown();
+            try {
+                while (true) {
+                    ReportCancellation.checkpoint();
+                    Thread.onSpinWait();
+                }
+            } finally {
+                stopped.countDown();
+            }
+        }, () -> { });
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(reportJobExecutor.cancel("running")).isTrue();
+        assertThat(stopped.await(5, TimeUnit.SECONDS)).isTrue();
+        waitFor(() -> reportJobExecutor.getActiveJobs() == 0);
+
+        // Lo cuentan tanto cancel() como el hilo del trabajo, pero solo suma una vez
+        assertThat(cancelled("user")).isEqualTo(1);
+        assertThat(cancelled("timeout")).isZero();
+    }
+
+    @Test
+    void jobReachingCheckpointAfterTimeoutStopsItself() throws Exception {
+        reportProperties.setGenerationTimeout(50);
+        AtomicInteger timeouts = new AtomicInteger();
+
+        reportJobExecutor.submit("slow", () -> {
+            while (true) {
+                ReportCancellation.checkpoint();
+                Thread.onSpinWait();
+            }
+        }, timeouts::incrementAndGet);
+
+        waitFor(() -> cancelled("timeout") == 1);
+        waitFor(() -> reportJobExecutor.getActiveJobs() == 0);
+        assertThat(reportJobExecutor.cancelTimedOutJobs()).isZero();
+        assertThat(cancelled("timeout")).isEqualTo(1);
+        // onTimeout es el respaldo de cancelTimedOutJobs; el trabajo que se detiene solo no lo necesita
+        assertThat(timeouts).hasValue(0);
+    }
+
+    @Test
+    void cancelTimedOutJobsStopsJobWithoutCheckpoints() throws Exception {
+        reportProperties.setGenerationTimeout(50);
+        AtomicInteger timeouts = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+
+        reportJobExecutor.submit("stuck", () -> {
+            running.countDown();
+            // Simula una consulta bloqueada: solo la interrupción del hilo la detiene
+            while (!Thread.currentThread().isInterrupted()) {
+                Thread.onSpinWait();
+            }
+            stopped.countDown();
+        }, timeouts::incrementAndGet);
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        AtomicInteger cancelledJobs = new AtomicInteger();
+        waitFor(() -> cancelledJobs.addAndGet(reportJobExecutor.cancelTimedOutJobs()) > 0);
+        assertThat(stopped.await(5, TimeUnit.SECONDS)).isTrue();
+        waitFor(() -> reportJobExecutor.getActiveJobs() == 0);
+
+        assertThat(cancelledJobs).hasValue(1);
+        assertThat(reportJobExecutor.cancelTimedOutJobs()).isZero();
+        assertThat(timeouts).hasValue(1);
+        assertThat(cancelled("timeout")).isEqualTo(1);
+    }
+
+    @Test
+    void queuedJobDoesNotTimeOutBeforeStarting() throws Exception {
+        reportProperties.setGenerationTimeout(20);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        reportJobExecutor.submit("running", () -> {
+            running.countDown();
+            await(release);
+        }, () -> { });
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        reportJobExecutor.submit("queued", () -> { }, () -> { });
+        Thread.sleep(60);
+
+        // Solo el trabajo en ejecución superó su tiempo; el encolado todavía no empezó a contar
+        assertThat(reportJobExecutor.cancelTimedOutJobs()).isEqualTo(1);
+        release.countDown();
+        waitFor(() -> reportJobExecutor.getActiveJobs() == 0 && reportJobExecutor.getQueuedJobs() == 0);
+        assertThat(cancelled("timeout")).isEqualTo(1);
+    }
+
+    // ================================
+    // MÉTODOS HELPER
+    // ================================
+
+    private double cancelled(String reason) {
+        Counter counter = meterRegistry.find(ReportJobExecutor.CANCELLED_METRIC).tag("reason", reason).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
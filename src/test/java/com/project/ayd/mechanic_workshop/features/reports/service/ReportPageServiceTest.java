@@ -0,0 +1,124 @@
+package com.project.ayd.mechanic_workshop.features.reports.service;
+
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
+import com.project.ayd.mechanic_workshop.features.reports.dto.PartUsageReportDTO;
+import com.project.ayd.mechanic_workshop.features.reports.dto.ReportPage;
+import com.project.ayd.mechanic_workshop.features.reports.repository.ReportRepository;
+import com.project.ayd.mechanic_workshop.features.reports.utils.ReportCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReportPageServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2026, 1, 31, 23, 59, 59);
+
+    @Mock
+    private ReportRepository reportRepository;
+
+    private ReportProperties reportProperties;
+    private ReportPageService reportPageService;
+
+    @BeforeEach
+    void setUp() {
+        reportProperties = new ReportProperties();
+        reportProperties.setDefaultPageSize(2);
+        reportProperties.setMaxPageSize(5);
+        reportPageService = new ReportPageService(reportRepository, reportProperties);
+    }
+
+    @Test
+    void firstPageReadsOneExtraRowAndReturnsCursorOfLastRow() {
+        when(reportRepository.getPartUsagePage(eq(START), eq(END), isNull(), isNull(), eq(3)))
+                .thenReturn(rows(
+                        partRow("Filtro", 30, 11L),
+                        partRow("Bujía", 20, 12L),
+                        partRow("Aceite", 20, 10L)));
+
+        ReportPage<PartUsageReportDTO.PartUsageDetail> page = reportPageService.getPartUsage(START, END, null,
+                null, false);
+
+        assertThat(page.getItems()).extracting(PartUsageReportDTO.PartUsageDetail::getPartName)
+                .containsExactly("Filtro", "Bujía");
+        assertThat(page.getSize()).isEqualTo(2);
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(page.getTotalCount()).isNull();
+
+        ReportCursor next = ReportCursor.decode(page.getNextCursor(), 2);
+        assertThat(next.getDecimal(0)).isEqualByComparingTo("20");
+        assertThat(next.getLong(1)).isEqualTo(12L);
+        verify(reportRepository, never()).countPartUsage(any(), any());
+    }
+
+    @Test
+    void nextPageSeeksAfterCursor() {
+        String cursor = ReportCursor.encode(new BigDecimal("20"), 12L);
+        when(reportRepository.getPartUsagePage(START, END, new BigDecimal("20"), 12L, 3))
+                .thenReturn(rows(partRow("Aceite", 20, 10L)));
+        when(reportRepository.countPartUsage(START, END)).thenReturn(3L);
+
+        ReportPage<PartUsageReportDTO.PartUsageDetail> page = reportPageService.getPartUsage(START, END, cursor,
+                null, true);
+
+        assertThat(page.getItems()).extracting(PartUsageReportDTO.PartUsageDetail::getPartName)
+                .containsExactly("Aceite");
+        assertThat(page.isHasNext()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+        assertThat(page.getTotalCount()).isEqualTo(3L);
+    }
+
+    @Test
+    void pageSizeIsCappedAtMaximum() {
+        when(reportRepository.getPartUsagePage(eq(START), eq(END), isNull(), isNull(), anyInt()))
+                .thenReturn(List.of());
+
+        ReportPage<PartUsageReportDTO.PartUsageDetail> page = reportPageService.getPartUsage(START, END, null,
+                500, false);
+
+        verify(reportRepository).getPartUsagePage(START, END, null, null, 6);
+        assertThat(page.getItems()).isEmpty();
+        assertThat(page.isHasNext()).isFalse();
+    }
+
+    @Test
+    void rejectsInvalidPageSizeAndCursor() {
+        assertThatThrownBy(() -> reportPageService.getPartUsage(START, END, null, 0, false))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> reportPageService.getPartUsage(START, END, "garbage", null, false))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(reportRepository, never()).getPartUsagePage(any(), any(), any(), any(), anyInt());
+    }
+
+    // ================================
+    // MÉTODOS HELPER
+    // ================================
+
+    // Columnas de getPartUsagePage: nombre, categoría, cantidad, costo, trabajos, precio promedio, id
+    private static Object[] partRow(String name, int quantity, Long partId) {
+        return new Object[] {name, "Motor", new BigDecimal(quantity), new BigDecimal("100.00"), 3L,
+                new BigDecimal("5.00"), partId};
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return Arrays.asList(rows);
+    }
+}
@@ -0,0 +1,137 @@
+package com.project.ayd.mechanic_workshop.features.reports.utils;
+
+import com.project.ayd.mechanic_workshop.features.reports.config.ReportProperties;
+import com.project.ayd.mechanic_workshop.features.reports.dto.ChartSpec;
+import com.project.ayd.mechanic_workshop.features.reports.enums.ChartType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChartRendererTest {
+
+    private ReportProperties reportProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private ChartRenderer chartRenderer;
+
+    @BeforeEach
+    void setUp() {
+        reportProperties = new ReportProperties();
+        reportProperties.getChart().setWidth(200);
+        reportProperties.getChart().setHeight(100);
+        meterRegistry = new SimpleMeterRegistry();
+        chartRenderer = new ChartRenderer(reportProperties, meterRegistry);
+    }
+
+    @Test
+    void sameChartIsServedFromCache() {
+        ChartRenderer.ChartImage first = chartRenderer.render(chart("Ingresos", "10"));
+        ChartRenderer.ChartImage second = chartRenderer.render(chart("Ingresos", "10.00"));
+
+        // 10 y 10.00 son el mismo gráfico
+        assertThat(second.key()).isEqualTo(first.key());
+        assertThat(second.png()).isSameAs(first.png());
+        assertThat(cacheResults("hit")).isEqualTo(1);
+        assertThat(cacheResults("miss")).isEqualTo(1);
+        assertThat(cachedBytes()).isEqualTo(first.png().length);
+    }
+
+    @Test
+    void differentDataGivesDifferentKey() {
+        ChartRenderer.ChartImage first = chartRenderer.render(chart("Ingresos", "10"));
+        ChartRenderer.ChartImage second = chartRenderer.render(chart("Ingresos", "11"));
+
+        assertThat(second.key()).isNotEqualTo(first.key());
+        assertThat(cacheResults("miss")).isEqualTo(2);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBeyondMaxEntries() {
+        reportProperties.getChart().setCacheMaxEntries(2);
+
+        ChartRenderer.ChartImage a = chartRenderer.render(chart("A", "1"));
+        chartRenderer.render(chart("B", "2"));
+        chartRenderer.render(chart("A", "1")); // A pasa a ser el más reciente
+        chartRenderer.render(chart("C", "3"));
+
+        chartRenderer.render(chart("A", "1"));
+        assertThat(cacheResults("hit")).isEqualTo(2);
+
+        ChartRenderer.ChartImage b = chartRenderer.render(chart("B", "2")); // B fue desalojado
+        assertThat(cacheResults("miss")).isEqualTo(4);
+        // En cache quedan A y B; C se desalojó al volver a guardar B
+        assertThat(cachedBytes()).isEqualTo(a.png().length + b.png().length);
+    }
+
+    @Test
+    void evictsBeyondMaxBytes() {
+        ChartRenderer.ChartImage a = chartRenderer.render(chart("A", "1"));
+        chartRenderer.clear();
+        reportProperties.getChart().setCacheMaxBytes(a.png().length + a.png().length / 2);
+
+        chartRenderer.render(chart("A", "1"));
+        ChartRenderer.ChartImage b = chartRenderer.render(chart("B", "2"));
+
+        assertThat(cachedBytes()).isEqualTo(b.png().length);
+        chartRenderer.render(chart("A", "1"));
+        assertThat(cacheResults("hit")).isZero();
+    }
+
+    @Test
+    void imageLargerThanCacheIsNotStored() {
+        reportProperties.getChart().setCacheMaxBytes(1);
+
+        chartRenderer.render(chart("Ingresos", "10"));
+        chartRenderer.render(chart("Ingresos", "10"));
+
+        assertThat(cacheResults("miss")).isEqualTo(2);
+        assertThat(cachedBytes()).isZero();
+    }
+
+    @Test
+    void zeroMaxEntriesDisablesCache() {
+        reportProperties.getChart().setCacheMaxEntries(0);
+
+        chartRenderer.render(chart("Ingresos", "10"));
+        chartRenderer.render(chart("Ingresos", "10"));
+
+        assertThat(cacheResults("hit")).isZero();
+        assertThat(cachedBytes()).isZero();
+    }
+
+    @Test
+    void clearEmptiesCache() {
+        chartRenderer.render(chart("Ingresos", "10"));
+        chartRenderer.clear();
+        chartRenderer.render(chart("Ingresos", "10"));
+
+        assertThat(cacheResults("miss")).isEqualTo(2);
+    }
+
+    // ================================
+    // MÉTODOS HELPER
+    // ================================
+
+    private static ChartSpec chart(String title, String value) {
+        return ChartSpec.builder()
+                .type(ChartType.BAR)
+                .title(title)
+                .categoryLabel("Mes")
+                .valueLabel("Monto")
+                .labels(List.of("Enero", "Febrero"))
+                .values(List.of(new BigDecimal(value), BigDecimal.ONE))
+                .build();
+    }
+
+    private double cacheResults(String result) {
+        return meterRegistry.get("report.charts.cache").tag("result", result).counter().count();
+    }
+
+    private double cachedBytes() {
+        return meterRegistry.get("report.charts.cache.size").gauge().value();
+    }
+}
@@ -0,0 +1,76 @@
+package com.project.ayd.mechanic_workshop.features.reports.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReportCursorTest {
+
+    @Test
+    void roundTripsSortKeyValues() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 3, 14, 9, 30, 15);
+
+        String cursor = ReportCursor.encode("Juan Pérez", new BigDecimal("1250.50"), createdAt, 42L);
+        ReportCursor decoded = ReportCursor.decode(cursor, 4);
+
+        assertThat(decoded.getString(0)).isEqualTo("Juan Pérez");
+        assertThat(decoded.getDecimal(1)).isEqualByComparingTo("1250.50");
+        assertThat(decoded.getDateTime(2)).isEqualTo(createdAt);
+        assertThat(decoded.getLong(3)).isEqualTo(42L);
+    }
+
+    @Test
+    void encodesDecimalsWithoutExponentAndIsUrlSafe() {
+        String cursor = ReportCursor.encode(new BigDecimal("1E+3"), 7L);
+
+        assertThat(cursor).doesNotContain("+", "/", "=");
+        assertThat(ReportCursor.decode(cursor, 2).getString(0)).isEqualTo("1000");
+    }
+
+    @Test
+    void keepsEmptyValues() {
+        ReportCursor decoded = ReportCursor.decode(ReportCursor.encode("", 1L), 2);
+
+        assertThat(decoded.getString(0)).isEmpty();
+        assertThat(decoded.getLong(1)).isEqualTo(1L);
+    }
+
+    @Test
+    void rejectsCursorOfAnotherEndpoint() {
+        String cursor = ReportCursor.encode(BigDecimal.TEN, 1L);
+
+        assertThatThrownBy(() -> ReportCursor.decode(cursor, 3))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid page cursor");
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        assertThatThrownBy(() -> ReportCursor.decode("not base64!", 2))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid page cursor");
+    }
+
+    @Test
+    void rejectsValuesOfTheWrongType() {
+        String tampered = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("abc\u001Fxyz".getBytes(StandardCharsets.UTF_8));
+        ReportCursor decoded = ReportCursor.decode(tampered, 2);
+
+        assertThatThrownBy(() -> decoded.getDecimal(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> decoded.getLong(1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> decoded.getDateTime(1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsNullValues() {
+        assertThatThrownBy(() -> ReportCursor.encode(BigDecimal.ONE, null))
+                .isInstanceOf(NullPointerException.class);
+    }
+}